@@ -0,0 +1,134 @@
+package com.mendeley.sdk.benchmark;
+
+import com.mendeley.sdk.model.Annotation;
+import com.mendeley.sdk.model.Document;
+import com.mendeley.sdk.model.Group;
+import com.mendeley.sdk.model.Profile;
+import com.mendeley.sdk.request.AndroidJsonTokenReader;
+import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.JsonTokenReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link JsonParser} over pages of items built from the API responses recorded for
+ * the tests. Run with the gc profiler to also get the allocation rate per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonParserBenchmark {
+
+    @Param({"100"})
+    public int pageSize;
+
+    private byte[] documentsPage;
+    private byte[] annotationsPage;
+    private byte[] profilesPage;
+    private byte[] groupsPage;
+
+    @Setup
+    public void setUp() throws IOException {
+        documentsPage = buildPage("test_document_not_null_collections.json");
+        annotationsPage = buildPage("test_annotation_not_null_values.json");
+        profilesPage = buildPage("test_profile.json");
+        groupsPage = buildPage("test_group.json");
+    }
+
+    @Benchmark
+    public List<Document> documents() throws Exception {
+        final JsonTokenReader reader = newReader(documentsPage);
+        try {
+            return JsonParser.documentsFromJson(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    public List<Annotation> annotations() throws Exception {
+        final JsonTokenReader reader = newReader(annotationsPage);
+        try {
+            return JsonParser.annotationsFromJson(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    public List<Profile> profiles() throws Exception {
+        final JsonTokenReader reader = newReader(profilesPage);
+        try {
+            final List<Profile> profiles = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                profiles.add(JsonParser.profileFromJson(reader));
+            }
+            reader.endArray();
+            return profiles;
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    public List<Group> groups() throws Exception {
+        final JsonTokenReader reader = newReader(groupsPage);
+        try {
+            return JsonParser.groupsFromJson(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    protected JsonTokenReader newReader(byte[] page) throws IOException {
+        return new AndroidJsonTokenReader(new ByteArrayInputStream(page));
+    }
+
+    private byte[] buildPage(String itemResource) throws IOException {
+        final byte[] item = readResource(itemResource);
+        final ByteArrayOutputStream page = new ByteArrayOutputStream((item.length + 1) * pageSize + 1);
+        page.write('[');
+        for (int i = 0; i < pageSize; i++) {
+            if (i > 0) {
+                page.write(',');
+            }
+            page.write(item);
+        }
+        page.write(']');
+        return page.toByteArray();
+    }
+
+    private byte[] readResource(String name) throws IOException {
+        final InputStream is = getClass().getClassLoader().getResourceAsStream(name);
+        if (is == null) {
+            throw new IOException("Missing fixture " + name);
+        }
+        try {
+            final ByteArrayOutputStream os = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                os.write(buffer, 0, read);
+            }
+            return os.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.mendeley.sdk.benchmark;
+
+import com.mendeley.sdk.request.JsonTokenReader;
+import com.mendeley.sdk.request.Utf8JsonTokenReader;
+
+import okio.Buffer;
+
+/**
+ * Same benchmarks as {@link JsonParserBenchmark}, reading the pages with
+ * {@link Utf8JsonTokenReader} so that the throughput of both readers can be compared.
+ */
+public class Utf8JsonParserBenchmark extends JsonParserBenchmark {
+
+    @Override
+    protected JsonTokenReader newReader(byte[] page) {
+        return new Utf8JsonTokenReader(new Buffer().write(page));
+    }
+}
@@ -0,0 +1,37 @@
+package com.mendeley.sdk;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import okhttp3.OkHttpClient;
+
+public class RequestHttpClientTest extends AndroidTestCase {
+
+    private OkHttpClient previousClient;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        previousClient = Request.getHttpClient();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Request.setHttpClient(previousClient);
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_initHttpClient_keepsTheInstalledClient() {
+        // GIVEN a client installed by the application
+        final OkHttpClient installed = new OkHttpClient();
+        Request.setHttpClient(installed);
+
+        // WHEN the SDK initialises the client with a configuration
+        final boolean created = Request.initHttpClient(HttpClientConfiguration.DEFAULT);
+
+        // THEN the installed client is kept
+        assertFalse("created", created);
+        assertSame("client", installed, Request.getHttpClient());
+    }
+}
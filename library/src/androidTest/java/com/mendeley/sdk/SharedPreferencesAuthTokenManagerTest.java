@@ -0,0 +1,104 @@
+package com.mendeley.sdk;
+
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SharedPreferencesAuthTokenManagerTest extends AndroidTestCase {
+
+    private SharedPreferences preferences;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        preferences = getContext().getSharedPreferences("test_auth", Context.MODE_PRIVATE);
+        preferences.edit().clear().commit();
+
+        // the tokens in memory are shared by the instances using the same preferences
+        final Mendeley.SharedPreferencesAuthTokenManager tokenManager = new Mendeley.SharedPreferencesAuthTokenManager(preferences);
+        tokenManager.clearTokens();
+        assertTrue("flushed", tokenManager.flush(3000));
+    }
+
+    @SmallTest
+    public void test_newInstance_readsTheTokensSavedByAnotherOne_beforeTheyArePersisted() {
+        // GIVEN a token manager saving tokens
+        final Mendeley.SharedPreferencesAuthTokenManager tokenManager = new Mendeley.SharedPreferencesAuthTokenManager(preferences);
+        tokenManager.saveTokens("access", "refresh", "bearer", 3600);
+
+        // WHEN creating another one on the same preferences, without waiting for the write
+        final Mendeley.SharedPreferencesAuthTokenManager otherTokenManager = new Mendeley.SharedPreferencesAuthTokenManager(preferences);
+
+        // THEN it reads the saved tokens
+        assertEquals("access token", "access", otherTokenManager.getAccessToken());
+        assertEquals("refresh token", "refresh", otherTokenManager.getRefreshToken());
+
+        // ...AND the changes of each one are seen by the other
+        otherTokenManager.clearTokens();
+        assertNull("access token", tokenManager.getAccessToken());
+    }
+
+    @SmallTest
+    public void test_saveTokens_updatesTheTokensImmediately() {
+        // GIVEN a token manager
+        final Mendeley.SharedPreferencesAuthTokenManager tokenManager = new Mendeley.SharedPreferencesAuthTokenManager(preferences);
+
+        // WHEN saving tokens
+        tokenManager.saveTokens("access", "refresh", "bearer", 3600);
+
+        // THEN they can be read straight away
+        assertEquals("access token", "access", tokenManager.getAccessToken());
+        assertEquals("refresh token", "refresh", tokenManager.getRefreshToken());
+        assertEquals("token type", "bearer", tokenManager.getTokenType());
+        assertTrue("expiration date", tokenManager.getAuthTokenExpirationDate().getTime() > System.currentTimeMillis());
+    }
+
+    @SmallTest
+    public void test_saveTokens_persistsTheTokensInTheBackground() throws InterruptedException {
+        // GIVEN a token manager with a persistence listener
+        final Mendeley.SharedPreferencesAuthTokenManager tokenManager = new Mendeley.SharedPreferencesAuthTokenManager(preferences);
+        final CountDownLatch persisted = new CountDownLatch(1);
+        final AtomicBoolean success = new AtomicBoolean();
+        tokenManager.setPersistenceListener(new Mendeley.SharedPreferencesAuthTokenManager.PersistenceListener() {
+            @Override
+            public void onTokensPersisted(boolean result) {
+                success.set(result);
+                persisted.countDown();
+            }
+        });
+
+        // WHEN saving tokens
+        tokenManager.saveTokens("access", "refresh", "bearer", 3600);
+
+        // THEN the listener is notified and a new manager reads them from disk
+        assertTrue("persisted", persisted.await(3, TimeUnit.SECONDS));
+        assertTrue("success", success.get());
+
+        final Mendeley.SharedPreferencesAuthTokenManager otherTokenManager = new Mendeley.SharedPreferencesAuthTokenManager(preferences);
+        assertEquals("access token", "access", otherTokenManager.getAccessToken());
+        assertEquals("refresh token", "refresh", otherTokenManager.getRefreshToken());
+        assertEquals("expiration date", tokenManager.getAuthTokenExpirationDate(), otherTokenManager.getAuthTokenExpirationDate());
+    }
+
+    @SmallTest
+    public void test_clearTokens_removesThePersistedTokens() throws InterruptedException {
+        // GIVEN a token manager with saved tokens
+        final Mendeley.SharedPreferencesAuthTokenManager tokenManager = new Mendeley.SharedPreferencesAuthTokenManager(preferences);
+        tokenManager.saveTokens("access", "refresh", "bearer", 3600);
+
+        // WHEN clearing them
+        tokenManager.clearTokens();
+
+        // THEN they are removed from memory and, once flushed, from disk
+        assertNull("access token", tokenManager.getAccessToken());
+        assertTrue("flushed", tokenManager.flush(3000));
+        assertNull("persisted access token", preferences.getString("accessToken", null));
+        assertNull("persisted refresh token", new Mendeley.SharedPreferencesAuthTokenManager(preferences).getRefreshToken());
+    }
+}
@@ -0,0 +1,131 @@
+package com.mendeley.sdk.files;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.exceptions.FileHashMismatchException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class FileCacheTest extends AndroidTestCase {
+
+    private File directory;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        directory = new File(System.getProperty("java.io.tmpdir"), "file-cache-test-" + System.nanoTime());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        deleteRecursively(directory);
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_put_storesTheFileByHash() throws Exception {
+        // GIVEN a cache
+        final FileCache cache = new FileCache(directory, 1000);
+
+        // WHEN putting a file
+        final String hash = putContent(cache, "content");
+
+        // THEN it is returned by its hash
+        final File cached = cache.get(hash);
+        assertNotNull(cached);
+        assertEquals(7, cached.length());
+        assertEquals(7, cache.getSize());
+        cache.close();
+    }
+
+    @SmallTest
+    public void test_put_withWrongHash_throwsException() throws Exception {
+        // GIVEN a cache
+        final FileCache cache = new FileCache(directory, 1000);
+        final File source = writeFile("content");
+
+        // WHEN putting a file with a hash that is not the one of its content
+        try {
+            cache.put("0000000000000000000000000000000000000000", source);
+            fail("file with wrong hash stored");
+        } catch (FileHashMismatchException e) {
+            // THEN the file is not stored
+            assertEquals(0, cache.getFileCount());
+            assertTrue("source kept", source.exists());
+            assertEquals("actual hash", FileCache.sha1(source), e.actualHash);
+        }
+        cache.close();
+    }
+
+    @SmallTest
+    public void test_put_overTheMaxSize_evictsTheLeastRecentlyUsedFile() throws Exception {
+        // GIVEN a full cache
+        final FileCache cache = new FileCache(directory, 25);
+        final String first = putContent(cache, "first file");
+        final String second = putContent(cache, "second file");
+
+        // ...AND a use of the first file
+        cache.get(first);
+
+        // WHEN putting another file
+        final String third = putContent(cache, "third");
+
+        // THEN the least recently used file is evicted
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertEquals(15, cache.getSize());
+        cache.close();
+    }
+
+    @SmallTest
+    public void test_open_restoresTheOrderOfUseFromTheJournal() throws Exception {
+        // GIVEN a cache with some files and uses
+        final FileCache cache = new FileCache(directory, 25);
+        final String first = putContent(cache, "first file");
+        final String second = putContent(cache, "second file");
+        cache.get(first);
+        cache.close();
+
+        // WHEN opening it again and putting another file
+        final FileCache reopened = new FileCache(directory, 25);
+        assertEquals(21, reopened.getSize());
+        putContent(reopened, "third");
+
+        // THEN the least recently used file before closing is evicted
+        assertNotNull(reopened.get(first));
+        assertNull(reopened.get(second));
+        reopened.close();
+    }
+
+    private String putContent(FileCache cache, String content) throws Exception {
+        final File source = writeFile(content);
+        final String hash = FileCache.sha1(source);
+        cache.put(hash, source);
+        return hash;
+    }
+
+    private File writeFile(String content) throws IOException {
+        final File file = new File(directory, "source-" + System.nanoTime());
+        final FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(content.getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+        return file;
+    }
+
+    private static void deleteRecursively(File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,339 @@
+package com.mendeley.sdk.files;
+
+import android.test.suitebuilder.annotation.LargeTest;
+
+import com.mendeley.sdk.model.Document;
+import com.mendeley.sdk.model.File;
+import com.mendeley.sdk.request.SignedInTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class FileDownloadManagerTest extends SignedInTest {
+
+    private java.io.File directory;
+    private FileCache cache;
+    private FileDownloadManager manager;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        directory = new java.io.File(getContext().getCacheDir(), "file-download-manager-test");
+        cache = new FileCache(directory, 10 * 1024 * 1024);
+        manager = new FileDownloadManager(cache, getRequestFactory(), 2);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        manager.shutdown();
+        cache.clear();
+        cache.close();
+        super.tearDown();
+    }
+
+    @LargeTest
+    public void test_enqueue_downloadsEveryFileIntoTheCache() throws Exception {
+        // GIVEN some files in the server
+        final Document document = getTestAccountSetupUtils().setupDocument(createDocument());
+        final List<File> files = new ArrayList<File>();
+        for (String fileName : new String[]{"android.pdf", "api.pdf", "contact.pdf"}) {
+            files.add(setupFile(document.id, fileName));
+        }
+
+        // WHEN downloading them
+        final CountDownLatch completed = newCompletionLatch(files.size());
+        manager.enqueue(files);
+        assertTrue("downloads completed", completed.await(60, TimeUnit.SECONDS));
+
+        // THEN every file is in the cache
+        for (File file : files) {
+            final FileDownloadManager.Download download = manager.getDownload(file.id);
+            assertEquals("state", FileDownloadManager.State.COMPLETED, download.state);
+            assertEquals("file in the cache", download.cachedFile, cache.get(file.fileHash));
+        }
+
+        // ...AND the downloaded bytes are accounted for
+        final FileDownloadManager.Stats stats = manager.getStats();
+        assertEquals("completed count", files.size(), (int) stats.counts.get(FileDownloadManager.State.COMPLETED));
+        assertTrue("downloaded bytes", stats.bytes > 0);
+    }
+
+    @LargeTest
+    public void test_enqueue_withTheSameBinaryTwice_downloadsItOnce() throws Exception {
+        // GIVEN the same binary attached to two documents
+        final File first = setupFile(getTestAccountSetupUtils().setupDocument(createDocument()).id, "android.pdf");
+        final File second = setupFile(getTestAccountSetupUtils().setupDocument(createDocument()).id, "android.pdf");
+        assertEquals("same hash", first.fileHash, second.fileHash);
+
+        // WHEN downloading both
+        final CountDownLatch completed = newCompletionLatch(2);
+        final List<File> files = new ArrayList<File>();
+        files.add(first);
+        files.add(second);
+        manager.enqueue(files);
+        assertTrue("downloads completed", completed.await(60, TimeUnit.SECONDS));
+
+        // THEN the binary is downloaded only once
+        assertEquals("downloaded bytes", 34355, manager.getStats().bytes);
+        assertEquals("cached files", 1, cache.getFileCount());
+    }
+
+    @LargeTest
+    public void test_resume_continuesThePausedDownload() throws Exception {
+        // GIVEN a file being downloaded
+        final File file = setupFile(getTestAccountSetupUtils().setupDocument(createDocument()).id, "android.pdf");
+
+        // ...AND paused as soon as the first bytes arrive
+        final AtomicLong bytesWhenPaused = new AtomicLong(-1);
+        final CountDownLatch paused = new CountDownLatch(1);
+        manager.addListener(new ListenerAdapter() {
+            @Override
+            public void onProgress(FileDownloadManager.Download download) {
+                if (bytesWhenPaused.compareAndSet(-1, download.bytes)) {
+                    manager.pause(download.file.id);
+                }
+            }
+
+            @Override
+            public void onStateChanged(FileDownloadManager.Download download) {
+                if (download.state == FileDownloadManager.State.PAUSED) {
+                    paused.countDown();
+                }
+            }
+        });
+        final CountDownLatch completed = newCompletionLatch(1);
+        manager.enqueue(Collections.singletonList(file));
+        assertTrue("download paused", paused.await(60, TimeUnit.SECONDS));
+        assertTrue("partially downloaded", bytesWhenPaused.get() < 34355);
+
+        // WHEN resuming it
+        manager.resume(file.id);
+        assertTrue("download completed", completed.await(60, TimeUnit.SECONDS));
+
+        // THEN the rest of the file is downloaded, without starting again from the beginning
+        final FileDownloadManager.Download download = manager.getDownload(file.id);
+        assertEquals("state", FileDownloadManager.State.COMPLETED, download.state);
+        assertEquals("downloaded bytes", 34355, download.bytes);
+        assertEquals("file hash", file.fileHash, FileCache.sha1(download.cachedFile));
+    }
+
+    @LargeTest
+    public void test_cancel_discardsThePartialDownload() throws Exception {
+        // GIVEN a file being downloaded
+        final File file = setupFile(getTestAccountSetupUtils().setupDocument(createDocument()).id, "android.pdf");
+
+        // WHEN cancelling it as soon as the first bytes arrive
+        final AtomicBoolean partialFileExisted = new AtomicBoolean();
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        manager.addListener(new ListenerAdapter() {
+            @Override
+            public void onProgress(FileDownloadManager.Download download) {
+                if (cancelled.getCount() > 0) {
+                    partialFileExisted.set(getDownloadedFiles(file.fileHash).length > 0);
+                    manager.cancel(download.file.id);
+                }
+            }
+
+            @Override
+            public void onStateChanged(FileDownloadManager.Download download) {
+                if (download.state == FileDownloadManager.State.CANCELLED) {
+                    cancelled.countDown();
+                }
+            }
+        });
+        manager.enqueue(Collections.singletonList(file));
+        assertTrue("download cancelled", cancelled.await(60, TimeUnit.SECONDS));
+
+        // THEN what had been downloaded is removed once the request stops
+        assertTrue("partial file while downloading", partialFileExisted.get());
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (getDownloadedFiles(file.fileHash).length > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals("partial files", 0, getDownloadedFiles(file.fileHash).length);
+        assertNull("file in the cache", cache.get(file.fileHash));
+    }
+
+    @LargeTest
+    public void test_enqueue_downloadsTheFilesWithHigherPriorityFirst() throws Exception {
+        // GIVEN a manager downloading one file at a time
+        manager.shutdown();
+        manager = new FileDownloadManager(cache, getRequestFactory(), 1);
+
+        // ...AND three files
+        final Document document = getTestAccountSetupUtils().setupDocument(createDocument());
+        final File busy = setupFile(document.id, "android.pdf");
+        final File low = setupFile(document.id, "api.pdf");
+        final File high = setupFile(document.id, "contact.pdf");
+
+        // WHEN enqueueing a file with low priority and then one with high priority while the
+        // only slot is busy
+        final List<String> started = Collections.synchronizedList(new ArrayList<String>());
+        manager.addListener(new ListenerAdapter() {
+            @Override
+            public void onProgress(FileDownloadManager.Download download) {
+                if (download.file.id.equals(busy.id) && manager.getDownload(low.id) == null) {
+                    manager.enqueue(Collections.singletonList(low), 0);
+                    manager.enqueue(Collections.singletonList(high), 5);
+                }
+            }
+
+            @Override
+            public void onStateChanged(FileDownloadManager.Download download) {
+                if (download.state == FileDownloadManager.State.DOWNLOADING) {
+                    started.add(download.file.id);
+                }
+            }
+        });
+        final CountDownLatch completed = newCompletionLatch(3);
+        manager.enqueue(Collections.singletonList(busy));
+        assertTrue("downloads completed", completed.await(60, TimeUnit.SECONDS));
+
+        // THEN the file with high priority starts before the one enqueued earlier
+        final List<String> expected = new ArrayList<String>();
+        expected.add(busy.id);
+        expected.add(high.id);
+        expected.add(low.id);
+        assertEquals("order of the downloads", expected, started);
+    }
+
+    @LargeTest
+    public void test_cancel_ofAFileWithTheSameBinaryAsARunningDownload_keepsTheDownload() throws Exception {
+        // GIVEN the same binary attached to two documents
+        final File first = setupFile(getTestAccountSetupUtils().setupDocument(createDocument()).id, "android.pdf");
+        final File second = setupFile(getTestAccountSetupUtils().setupDocument(createDocument()).id, "android.pdf");
+
+        // WHEN cancelling the second file, waiting in the queue, while the first one is downloaded
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        manager.addListener(new ListenerAdapter() {
+            @Override
+            public void onProgress(FileDownloadManager.Download download) {
+                if (download.file.id.equals(first.id) && cancelled.getCount() > 0) {
+                    manager.cancel(second.id);
+                    cancelled.countDown();
+                }
+            }
+        });
+        final CountDownLatch completed = newCompletionLatch(1);
+        final List<File> files = new ArrayList<File>();
+        files.add(first);
+        files.add(second);
+        manager.enqueue(files);
+        assertTrue("download completed", completed.await(60, TimeUnit.SECONDS));
+
+        // THEN the first file is downloaded whole, and the second one is cancelled
+        final FileDownloadManager.Download download = manager.getDownload(first.id);
+        assertEquals("state", FileDownloadManager.State.COMPLETED, download.state);
+        assertEquals("file hash", first.fileHash, FileCache.sha1(download.cachedFile));
+        assertEquals("cancelled file", FileDownloadManager.State.CANCELLED, manager.getDownload(second.id).state);
+    }
+
+    @LargeTest
+    public void test_enqueue_ofACancelledFileStillStopping_downloadsItOnce() throws Exception {
+        // GIVEN a file being downloaded
+        final File file = setupFile(getTestAccountSetupUtils().setupDocument(createDocument()).id, "android.pdf");
+
+        // WHEN cancelling it and enqueueing it again before its request stops
+        final AtomicBoolean reenqueued = new AtomicBoolean();
+        manager.addListener(new ListenerAdapter() {
+            @Override
+            public void onProgress(FileDownloadManager.Download download) {
+                if (reenqueued.compareAndSet(false, true)) {
+                    manager.cancel(file.id);
+                    manager.enqueue(Collections.singletonList(file));
+                }
+            }
+        });
+        final CountDownLatch completed = newCompletionLatch(1);
+        manager.enqueue(Collections.singletonList(file));
+        assertTrue("download completed", completed.await(60, TimeUnit.SECONDS));
+
+        // THEN the new download starts once the cancelled one has stopped, and gets the whole file
+        final FileDownloadManager.Download download = manager.getDownload(file.id);
+        assertEquals("state", FileDownloadManager.State.COMPLETED, download.state);
+        assertEquals("file hash", file.fileHash, FileCache.sha1(download.cachedFile));
+    }
+
+    @LargeTest
+    public void test_cancel_ofADownloadFinishingAtTheSameTime_keepsTheNotifiedState() throws Exception {
+        // GIVEN a file whose binary is already in the cache, so its download finishes straight away
+        final File file = setupFile(getTestAccountSetupUtils().setupDocument(createDocument()).id, "android.pdf");
+        final CountDownLatch downloaded = newCompletionLatch(1);
+        manager.enqueue(Collections.singletonList(file));
+        assertTrue("download completed", downloaded.await(60, TimeUnit.SECONDS));
+        manager.purge();
+
+        // WHEN enqueueing it again and cancelling it as soon as it starts
+        final AtomicReference<FileDownloadManager.State> lastNotifiedState = new AtomicReference<FileDownloadManager.State>();
+        manager.addListener(new ListenerAdapter() {
+            @Override
+            public void onStateChanged(FileDownloadManager.Download download) {
+                if (download.state == FileDownloadManager.State.DOWNLOADING) {
+                    manager.cancel(download.file.id);
+                } else if (download.state != FileDownloadManager.State.QUEUED) {
+                    lastNotifiedState.set(download.state);
+                }
+            }
+        });
+        manager.enqueue(Collections.singletonList(file));
+        Thread.sleep(1000);
+
+        // THEN whichever won, the state of the download is the last final state notified
+        final FileDownloadManager.State state = manager.getDownload(file.id).state;
+        assertTrue("finished", state == FileDownloadManager.State.CANCELLED || state == FileDownloadManager.State.COMPLETED);
+        assertEquals("notified state", lastNotifiedState.get(), state);
+    }
+
+    private java.io.File[] getDownloadedFiles(final String fileHash) {
+        final java.io.File[] files = cache.getDownloadFile(fileHash).getParentFile().listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(java.io.File dir, String name) {
+                return name.startsWith(fileHash);
+            }
+        });
+        return files != null ? files : new java.io.File[0];
+    }
+
+    private CountDownLatch newCompletionLatch(int count) {
+        final CountDownLatch latch = new CountDownLatch(count);
+        manager.addListener(new ListenerAdapter() {
+            @Override
+            public void onStateChanged(FileDownloadManager.Download download) {
+                if (download.state == FileDownloadManager.State.COMPLETED || download.state == FileDownloadManager.State.FAILED) {
+                    latch.countDown();
+                }
+            }
+        });
+        return latch;
+    }
+
+    private File setupFile(String documentId, String fileName) throws Exception {
+        final byte[] fileBytes = getTestAccountSetupUtils().readFully(getContext().getAssets(), fileName);
+        return getTestAccountSetupUtils().setupFile(documentId, fileName, new ByteArrayInputStream(fileBytes));
+    }
+
+    private Document createDocument() {
+        return new Document.Builder()
+                .setType("book")
+                .setTitle("title" + getRandom().nextInt())
+                .build();
+    }
+
+    private static class ListenerAdapter implements FileDownloadManager.Listener {
+        @Override
+        public void onStateChanged(FileDownloadManager.Download download) {
+        }
+
+        @Override
+        public void onProgress(FileDownloadManager.Download download) {
+        }
+    }
+}
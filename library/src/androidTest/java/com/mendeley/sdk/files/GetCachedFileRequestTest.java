@@ -0,0 +1,98 @@
+package com.mendeley.sdk.files;
+
+import com.mendeley.sdk.model.Document;
+import com.mendeley.sdk.model.File;
+import com.mendeley.sdk.request.SignedInTest;
+import com.mendeley.sdk.request.endpoint.FilesEndpoint;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class GetCachedFileRequestTest extends SignedInTest {
+
+    private FileCache cache;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        cache = new FileCache(new java.io.File(getContext().getCacheDir(), "get-cached-file-request-test"), 10 * 1024 * 1024);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        cache.clear();
+        cache.close();
+        super.tearDown();
+    }
+
+    public void test_run_downloadsTheBinaryOnlyIfItIsNotCached() throws Exception {
+        // GIVEN a file in the server
+        final File file = setupFile("android.pdf");
+
+        // WHEN getting it twice
+        final AtomicLong downloaded = new AtomicLong();
+        final java.io.File first = newRequest(file, downloaded).run().resource;
+        final java.io.File second = newRequest(file, downloaded).run().resource;
+
+        // THEN it is downloaded once and returned from the cache afterwards
+        assertEquals("cached file", first, second);
+        assertEquals("file length", 34355, second.length());
+        assertEquals("downloaded bytes", 34355, downloaded.get());
+    }
+
+    public void test_run_withConcurrentRequestsForTheSameBinary_downloadsItOnce() throws Exception {
+        // GIVEN a file in the server
+        final File file = setupFile("android.pdf");
+
+        // WHEN getting it from several threads at the same time
+        final AtomicLong downloaded = new AtomicLong();
+        final java.io.File[] results = new java.io.File[3];
+        final CountDownLatch finished = new CountDownLatch(results.length);
+        for (int i = 0; i < results.length; i++) {
+            final int index = i;
+            final FileCache.GetCachedFileRequest request = newRequest(file, downloaded);
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        results[index] = request.run().resource;
+                    } catch (Exception ignored) {
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            }.start();
+        }
+        assertTrue("requests finished", finished.await(60, TimeUnit.SECONDS));
+
+        // THEN the binary is downloaded once and every request gets the same, complete, file
+        assertEquals("downloaded bytes", 34355, downloaded.get());
+        for (java.io.File result : results) {
+            assertNotNull("file returned", result);
+            assertEquals("cached file", cache.get(file.fileHash), result);
+        }
+        assertEquals("file hash", file.fileHash, FileCache.sha1(results[0]));
+    }
+
+    private FileCache.GetCachedFileRequest newRequest(File file, final AtomicLong downloaded) {
+        final FileCache.GetCachedFileRequest request = cache.newGetFileRequest(file, getRequestFactory());
+        request.setBytesListener(new FilesEndpoint.GetFileBinaryRequest.BytesListener() {
+            @Override
+            public void onBytesWritten(long count) {
+                downloaded.addAndGet(count);
+            }
+        });
+        return request;
+    }
+
+    private File setupFile(String fileName) throws Exception {
+        final Document document = getTestAccountSetupUtils().setupDocument(new Document.Builder()
+                .setType("book")
+                .setTitle("title" + getRandom().nextInt())
+                .build());
+        final byte[] fileBytes = getTestAccountSetupUtils().readFully(getContext().getAssets(), fileName);
+        return getTestAccountSetupUtils().setupFile(document.id, fileName, new ByteArrayInputStream(fileBytes));
+    }
+}
@@ -0,0 +1,210 @@
+package com.mendeley.sdk.request;
+
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.RequestScheduler;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BulkRequestTest extends AndroidTestCase {
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    @SmallTest
+    public void test_run_runsEveryRequestWithBoundedConcurrency() throws MendeleyException {
+        // GIVEN a bulk request of many requests
+        final List<FakeRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(new FakeRequest(20, false));
+        }
+        final BulkRequest bulkRequest = new BulkRequest(requests);
+        bulkRequest.setMaxConcurrency(3);
+        final AtomicInteger lastProgress = new AtomicInteger();
+        bulkRequest.setProgressListener(new BulkRequest.ProgressListener() {
+            @Override
+            public void onProgress(int finished, int total) {
+                lastProgress.set(finished);
+            }
+        });
+
+        // WHEN running it
+        final BulkRequest.Report report = bulkRequest.run().resource;
+
+        // THEN every request succeeds, never more than 3 at a time
+        assertTrue("successful", report.isSuccessful());
+        assertEquals("succeeded", 20, report.succeeded);
+        assertEquals("results", 20, report.results.size());
+        assertSame("result order", requests.get(5), report.results.get(5).request);
+        assertTrue("concurrency", maxRunning.get() <= 3);
+        assertTrue("parallel", maxRunning.get() > 1);
+        assertEquals("progress", 20, lastProgress.get());
+    }
+
+    @SmallTest
+    public void test_run_skipsTheRemainingRequests_whenOneFailsAndStopOnFailure() throws MendeleyException {
+        // GIVEN a bulk request whose first request fails
+        final List<FakeRequest> requests = new ArrayList<>();
+        requests.add(new FakeRequest(0, true));
+        for (int i = 0; i < 10; i++) {
+            requests.add(new FakeRequest(10, false));
+        }
+        final BulkRequest bulkRequest = new BulkRequest(requests);
+        bulkRequest.setMaxConcurrency(1);
+
+        // WHEN running it
+        final BulkRequest.Report report = bulkRequest.run().resource;
+
+        // THEN the failure is reported and the rest of requests are skipped
+        assertFalse("successful", report.isSuccessful());
+        assertEquals("failed", 1, report.failed);
+        assertEquals("skipped", 10, report.skipped);
+        assertEquals("failure status", BulkRequest.Status.FAILED, report.results.get(0).status);
+        assertNotNull("failure error", report.getFailures().get(0).error);
+    }
+
+    @SmallTest
+    public void test_run_runsEveryRequest_whenOneFailsAndNotStopOnFailure() throws MendeleyException {
+        // GIVEN a bulk request set to continue after failures
+        final List<FakeRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(new FakeRequest(0, i % 2 == 0));
+        }
+        final BulkRequest bulkRequest = new BulkRequest(requests);
+        bulkRequest.setStopOnFailure(false);
+
+        // WHEN running it
+        final BulkRequest.Report report = bulkRequest.run().resource;
+
+        // THEN every request runs
+        assertEquals("failed", 5, report.failed);
+        assertEquals("succeeded", 5, report.succeeded);
+        assertEquals("skipped", 0, report.skipped);
+    }
+
+    @SmallTest
+    public void test_cancel_cancelsTheRunningRequestsAndReturnsAPartialReport() throws MendeleyException {
+        // GIVEN a bulk request of a quick request followed by slow ones
+        final List<FakeRequest> requests = new ArrayList<>();
+        requests.add(new FakeRequest(0, false));
+        for (int i = 0; i < 10; i++) {
+            requests.add(new FakeRequest(5000, false));
+        }
+        final BulkRequest bulkRequest = new BulkRequest(requests);
+        bulkRequest.setMaxConcurrency(2);
+        final AtomicInteger lastProgress = new AtomicInteger();
+        bulkRequest.setProgressListener(new BulkRequest.ProgressListener() {
+            @Override
+            public void onProgress(int finished, int total) {
+                lastProgress.set(finished);
+            }
+        });
+
+        // WHEN cancelling it while running
+        new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignored) {
+                }
+                bulkRequest.cancel();
+            }
+        }.start();
+
+        final long startMs = System.currentTimeMillis();
+        final BulkRequest.Report report = bulkRequest.run().resource;
+
+        // THEN the running requests are cancelled and the rest not started
+        assertTrue("finished early", System.currentTimeMillis() - startMs < 2000);
+        assertTrue("second request cancelled", requests.get(1).isCancelled());
+        assertFalse("last request started", requests.get(10).started);
+
+        // ...AND the report keeps what was done before the cancellation
+        assertTrue("cancelled", report.cancelled);
+        assertEquals("first request", BulkRequest.Status.SUCCEEDED, report.results.get(0).status);
+        assertTrue("cancelled request error", report.results.get(1).error instanceof UserCancelledException);
+        assertEquals("last request", BulkRequest.Status.SKIPPED, report.results.get(10).status);
+
+        // ...AND the progress counts the skipped requests too
+        assertEquals("progress", 11, lastProgress.get());
+    }
+
+    @SmallTest
+    public void test_run_inTheSchedulerLane_reachesTheMaxConcurrency() throws InterruptedException {
+        // GIVEN a bulk request allowing more requests in parallel than the cap of its lane
+        final List<FakeRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            requests.add(new FakeRequest(100, false));
+        }
+        final BulkRequest bulkRequest = new BulkRequest(requests);
+        bulkRequest.setMaxConcurrency(4);
+
+        // WHEN running it in a task of its lane, as runAsync does
+        final CountDownLatch finished = new CountDownLatch(1);
+        RequestScheduler.getDefault().getExecutor(bulkRequest.getLane()).execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    bulkRequest.run();
+                } catch (MendeleyException ignored) {
+                } finally {
+                    finished.countDown();
+                }
+            }
+        });
+
+        // THEN the requests run with the concurrency of the bulk request
+        assertTrue("bulk request finished", finished.await(5, TimeUnit.SECONDS));
+        assertEquals("concurrency", 4, maxRunning.get());
+    }
+
+    private class FakeRequest extends Request<String> {
+
+        private final long durationMs;
+        private final boolean fails;
+        private volatile boolean started;
+
+        FakeRequest(long durationMs, boolean fails) {
+            super(null);
+            this.durationMs = durationMs;
+            this.fails = fails;
+        }
+
+        @Override
+        protected Response doRun() throws MendeleyException {
+            started = true;
+            final int now = running.incrementAndGet();
+            synchronized (maxRunning) {
+                maxRunning.set(Math.max(maxRunning.get(), now));
+            }
+            try {
+                final long endMs = System.currentTimeMillis() + durationMs;
+                while (System.currentTimeMillis() < endMs) {
+                    if (isCancelled()) {
+                        throw new UserCancelledException();
+                    }
+                    Thread.sleep(5);
+                }
+            } catch (InterruptedException e) {
+                throw new UserCancelledException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+            if (fails) {
+                throw new MendeleyException("Request failed");
+            }
+            return new Response("done", new Date(), null);
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.mendeley.sdk.request;
 
 import android.net.Uri;
+import android.test.suitebuilder.annotation.LargeTest;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+import com.mendeley.sdk.testUtils.LocalHttpServer;
 
 import org.json.JSONObject;
 
@@ -21,6 +26,48 @@ public class GetAuthorizedRequestTest extends AuthorizedRequestTest {
         };
     }
 
+    @LargeTest
+    public void test_cancel_abortsTheCallWhileWaitingForTheServer() throws Exception {
+        // GIVEN a local server that takes 10 seconds to answer
+        final LocalHttpServer server = new LocalHttpServer(new LocalHttpServer.Handler() {
+            @Override
+            public LocalHttpServer.MockResponse handle(LocalHttpServer.RecordedRequest request) {
+                return new LocalHttpServer.MockResponse(200, "{}").setDelayMs(10000);
+            }
+        });
+
+        // ...AND a request to it
+        final Request<JSONObject> request = new GetAuthorizedRequest<JSONObject>(server.getUrl("/delay/10"), getAuthTokenManager(), getClientCredentials()) {
+            @Override
+            protected JSONObject manageResponse(InputStream is) throws Exception {
+                return new JSONObject(readInputStream(is));
+            }
+        };
+
+        // WHEN cancelling it before the server answers
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try { Thread.sleep(1000); } catch (InterruptedException ignored) {}
+                request.cancel();
+            }
+        }).start();
+
+        final long startMs = System.currentTimeMillis();
+        UserCancelledException userCancelledException = null;
+        try {
+            request.run();
+        } catch (UserCancelledException e) {
+            userCancelledException = e;
+        } finally {
+            server.shutdown();
+        }
+
+        // THEN the request finishes straight away with a cancellation exception
+        assertNotNull("cancellation exception should be received", userCancelledException);
+        assertTrue("request should not wait for the server", System.currentTimeMillis() - startMs < 5000);
+    }
+
 //    @FlakyTest
 //    public void test_cancel_interruptsReadingFromTheInputStream() throws InterruptedException, MendeleyException {
 //        // GIVEN a request
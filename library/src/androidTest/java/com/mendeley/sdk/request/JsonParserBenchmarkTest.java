@@ -0,0 +1,118 @@
+package com.mendeley.sdk.request;
+
+import android.test.InstrumentationTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.JsonReader;
+import android.util.Log;
+
+import com.mendeley.sdk.model.Annotation;
+import com.mendeley.sdk.model.Document;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * Measures the throughput of {@link JsonParser} over large pages built from the recorded
+ * responses in the assets, and logs it so that it can be compared between versions.
+ */
+public class JsonParserBenchmarkTest extends InstrumentationTestCase {
+
+    private static final String TAG = JsonParserBenchmarkTest.class.getSimpleName();
+
+    private static final int PAGE_SIZE = 500;
+    private static final int WARM_UP_ROUNDS = 3;
+    private static final int ROUNDS = 10;
+
+    @LargeTest
+    public void test_parseDocumentsPage_throughput() throws Exception {
+        // GIVEN a large page of documents
+        final String page = buildPage("test_document_not_null_collections.json");
+
+        // WHEN parsing it several times
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            parseDocuments(page);
+        }
+        final long startNs = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            // THEN every document is parsed
+            assertEquals("documents parsed", PAGE_SIZE, parseDocuments(page).size());
+        }
+        final long elapsedNs = System.nanoTime() - startNs;
+
+        Log.i(TAG, "Documents: " + itemsPerSecond(elapsedNs) + " per second");
+    }
+
+    @LargeTest
+    public void test_parseAnnotationsPage_throughput() throws Exception {
+        // GIVEN a large page of annotations
+        final String page = buildPage("test_annotation_not_null_values.json");
+
+        // WHEN parsing it several times
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            parseAnnotations(page);
+        }
+        final long startNs = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            // THEN every annotation is parsed
+            assertEquals("annotations parsed", PAGE_SIZE, parseAnnotations(page).size());
+        }
+        final long elapsedNs = System.nanoTime() - startNs;
+
+        Log.i(TAG, "Annotations: " + itemsPerSecond(elapsedNs) + " per second");
+    }
+
+    private List<Document> parseDocuments(String page) throws Exception {
+        final JsonTokenReader reader = new AndroidJsonTokenReader(new JsonReader(new StringReader(page)));
+        try {
+            return JsonParser.documentsFromJson(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private List<Annotation> parseAnnotations(String page) throws Exception {
+        final JsonTokenReader reader = new AndroidJsonTokenReader(new JsonReader(new StringReader(page)));
+        try {
+            return JsonParser.annotationsFromJson(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private long itemsPerSecond(long elapsedNs) {
+        return (long) PAGE_SIZE * ROUNDS * 1000000000L / Math.max(elapsedNs, 1);
+    }
+
+    private String buildPage(String itemFile) throws IOException {
+        final String item = readAsset(itemFile);
+        final StringBuilder page = new StringBuilder(item.length() * PAGE_SIZE + PAGE_SIZE + 2);
+        page.append('[');
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            if (i > 0) {
+                page.append(',');
+            }
+            page.append(item);
+        }
+        page.append(']');
+        return page.toString();
+    }
+
+    private String readAsset(String fileName) throws IOException {
+        final InputStream is = getInstrumentation().getContext().getAssets().open(fileName);
+        final BufferedReader in = new BufferedReader(new InputStreamReader(is, "UTF-8"));
+        try {
+            final StringBuilder buf = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null) {
+                buf.append(line);
+            }
+            return buf.toString();
+        } finally {
+            in.close();
+        }
+    }
+}
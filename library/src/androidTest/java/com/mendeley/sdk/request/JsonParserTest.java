@@ -12,6 +12,7 @@ import com.mendeley.sdk.model.Document;
 import com.mendeley.sdk.model.File;
 import com.mendeley.sdk.model.Folder;
 import com.mendeley.sdk.model.Group;
+import com.mendeley.sdk.model.PackedPositions;
 import com.mendeley.sdk.model.Person;
 import com.mendeley.sdk.model.Point;
 import com.mendeley.sdk.model.Profile;
@@ -218,9 +219,9 @@ public class JsonParserTest extends InstrumentationTestCase {
         return getAssetsFileAsString(getInstrumentation().getContext().getAssets(), fileNameName);
     }
 
-    private JsonReader getJsonReaderFromAssetsFile(String fileFile) throws IOException {
+    private JsonTokenReader getJsonReaderFromAssetsFile(String fileFile) throws IOException {
         final InputStream is = getInstrumentation().getContext().getAssets().open(fileFile);
-        return new JsonReader(new InputStreamReader(is));
+        return new AndroidJsonTokenReader(is);
     }
 
     @SmallTest
@@ -230,7 +231,7 @@ public class JsonParserTest extends InstrumentationTestCase {
         // GIVEN the JSON representation of a document where its collections (authors, editors...) are NOT null
         Document expectedDocument = getTestDocumentWithNonNotNullCollections();
 
-        JsonReader reader = getJsonReaderFromAssetsFile(documentWithNotNullCollectionsFile);
+        JsonTokenReader reader = getJsonReaderFromAssetsFile(documentWithNotNullCollectionsFile);
 
         // WHEN we parse the JSON
         Document actualDocument = JsonParser.documentFromJson(reader);
@@ -248,13 +249,28 @@ public class JsonParserTest extends InstrumentationTestCase {
     }
 
 
+    @SmallTest
+    public void test_parseDocument_withAndroidJsonReader() throws Exception {
+
+        // GIVEN the JSON representation of a document read with the JsonReader of the platform
+        final Document expectedDocument = getTestDocumentWithNonNotNullCollections();
+        final InputStream is = getInstrumentation().getContext().getAssets().open(documentWithNotNullCollectionsFile);
+        final JsonReader reader = new JsonReader(new InputStreamReader(is, "UTF-8"));
+
+        // WHEN we parse the JSON
+        final Document actualDocument = JsonParser.documentFromJson(reader);
+
+        // THEN the parsed document matches the expected one
+        assertDocumentsAreEqual(expectedDocument, actualDocument);
+    }
+
     @SmallTest
     public void test_parseDocument_withNullCollections()
             throws IOException, NoSuchMethodException, IllegalAccessException, IllegalArgumentException, InvocationTargetException, JSONException, ParseException {
 
         // GIVEN the JSON representation of a document where its collections (authors, editors...) ARE null
         Document expectedDocument = getTestDocument(null, null, null, null, null, null);
-        JsonReader reader = getJsonReaderFromAssetsFile(documentWithNullCollectionsFile);
+        JsonTokenReader reader = getJsonReaderFromAssetsFile(documentWithNullCollectionsFile);
         // WHEN we parse the JSON
         Document actualDocument = JsonParser.documentFromJson(reader);
 
@@ -282,11 +298,100 @@ public class JsonParserTest extends InstrumentationTestCase {
 
     }
 
+    @SmallTest
+    public void test_parseDocument_withFieldProjection_decodesOnlyTheProjectedFields() throws Exception {
+
+        // GIVEN the JSON representation of a document
+        final Document expectedDocument = getTestDocumentWithNonNotNullCollections();
+        final JsonTokenReader reader = getJsonReaderFromAssetsFile(documentWithNotNullCollectionsFile);
+
+        // WHEN we parse the JSON decoding only some fields
+        final Document actualDocument = JsonParser.documentFromJson(reader, new ParseOptions.Builder().setProjection(FieldProjection.of("id", "revision", "last_modified")).build());
+
+        // THEN the projected fields are set
+        assertEquals("id", expectedDocument.id, actualDocument.id);
+        assertEquals("revision", expectedDocument.revision, actualDocument.revision);
+        assertEquals("last modified", expectedDocument.lastModified, actualDocument.lastModified);
+
+        // ...AND the rest are not
+        assertNull("title", actualDocument.title);
+        assertNull("abstract", actualDocument.abstractString);
+        assertTrue("authors", actualDocument.authors.isNull());
+        assertTrue("identifiers", actualDocument.identifiers.isNull());
+    }
+
+    @SmallTest
+    public void test_parseDocument_withLazyText_decodesTheTextFieldsWhenRead() throws Exception {
+
+        // GIVEN the JSON representation of a document
+        final Document expectedDocument = getTestDocumentWithNonNotNullCollections();
+        final JsonTokenReader reader = getJsonReaderFromAssetsFile(documentWithNotNullCollectionsFile);
+
+        // WHEN we parse the JSON keeping the text fields lazily
+        final Document actualDocument = JsonParser.documentFromJson(reader, new ParseOptions.Builder().setLazyText(true).build());
+
+        // THEN the text fields are only available through the getters
+        assertNull("abstract", actualDocument.abstractString);
+        assertEquals("abstract", expectedDocument.abstractString, actualDocument.getAbstractString());
+        assertEquals("notes", expectedDocument.notes, actualDocument.getNotes());
+        assertEquals("client data", expectedDocument.clientData, actualDocument.getClientData());
+
+        // ...AND the rest of fields are parsed as usual
+        assertEquals("title", expectedDocument.title, actualDocument.title);
+    }
+
+    @SmallTest
+    public void test_parseAnnotation_withLazyText_equalsTheEagerlyParsedOne() throws Exception {
+
+        // GIVEN the JSON representation of an annotation
+        final Annotation expectedAnnotation = JsonParser.annotationFromJson(getJsonReaderFromAssetsFile(annotationWithNotNullValuesFile));
+
+        // WHEN we parse the JSON keeping the text lazily
+        final Annotation actualAnnotation = JsonParser.annotationFromJson(getJsonReaderFromAssetsFile(annotationWithNotNullValuesFile), new ParseOptions.Builder().setLazyText(true).build());
+
+        // THEN the annotation is equal to the eagerly parsed one
+        assertNull("text", actualAnnotation.text);
+        assertEquals("text", expectedAnnotation.text, actualAnnotation.getText());
+        assertEquals("annotation", expectedAnnotation, actualAnnotation);
+        assertEquals("hash code", expectedAnnotation.hashCode(), actualAnnotation.hashCode());
+    }
+
+    @SmallTest
+    public void test_parseDocument_withStringPool_sharesTheRepeatedValues() throws Exception {
+
+        // GIVEN a string pool
+        final StringPool pool = new StringPool();
+
+        // WHEN we parse the same document twice with it
+        final ParseOptions options = new ParseOptions.Builder().setStringPool(pool).build();
+        final Document document1 = JsonParser.documentFromJson(getJsonReaderFromAssetsFile(documentWithNotNullCollectionsFile), options);
+        final Document document2 = JsonParser.documentFromJson(getJsonReaderFromAssetsFile(documentWithNotNullCollectionsFile), options);
+
+        // THEN the repeated values are the same instances
+        assertSame("profile id", document1.profileId, document2.profileId);
+        assertSame("group id", document1.groupId, document2.groupId);
+        assertSame("tag", document1.tags.get(0), document2.tags.get(0));
+
+        // ...AND the values not pooled are not
+        assertNotSame("title", document1.title, document2.title);
+        assertTrue("hits", pool.getStats().hits > 0);
+    }
+
+    @SmallTest
+    public void test_fieldProjection_equalsAndToString_ignoreTheOrderOfFields() {
+        final FieldProjection projection1 = FieldProjection.of("id", "revision");
+        final FieldProjection projection2 = FieldProjection.of("revision", "id");
+
+        assertEquals("equals", projection1, projection2);
+        assertEquals("toString", "id,revision", projection1.toString());
+        assertEquals("toString", projection1.toString(), projection2.toString());
+    }
+
     @SmallTest
     public void test_parseFolder()
             throws IOException, NoSuchMethodException, IllegalAccessException, IllegalArgumentException, InvocationTargetException, JSONException, ParseException {
         Folder expectedFolder = getTestFolder();
-        JsonReader reader = getJsonReaderFromAssetsFile(folderFile);
+        JsonTokenReader reader = getJsonReaderFromAssetsFile(folderFile);
 
         Folder actualFolder = JsonParser.folderFromJson(reader);
 
@@ -305,7 +410,7 @@ public class JsonParserTest extends InstrumentationTestCase {
             throws IOException, NoSuchMethodException, IllegalAccessException, IllegalArgumentException, InvocationTargetException, JSONException {
 
         File expectedFile = getTestFile();
-        JsonReader reader = getJsonReaderFromAssetsFile(fileFile);
+        JsonTokenReader reader = getJsonReaderFromAssetsFile(fileFile);
 
         File actualFile = JsonParser.fileFromJson(reader);
 
@@ -368,7 +473,7 @@ public class JsonParserTest extends InstrumentationTestCase {
                 ))
                 .build();
 
-        final JsonReader reader = getJsonReaderFromAssetsFile(profileFile);
+        final JsonTokenReader reader = getJsonReaderFromAssetsFile(profileFile);
 
         final Profile actualProfile = JsonParser.profileFromJson(reader);
 
@@ -470,7 +575,7 @@ public class JsonParserTest extends InstrumentationTestCase {
     public void test_parseDocumentIds()
             throws NoSuchMethodException, IllegalAccessException, IllegalArgumentException, InvocationTargetException, IOException, JSONException {
 
-        final JsonReader reader = getJsonReaderFromAssetsFile(documentIdsFile);
+        final JsonTokenReader reader = getJsonReaderFromAssetsFile(documentIdsFile);
 
         List<String> expectedList = new ArrayList<String>();
         expectedList.add("test-document_id_1");
@@ -490,7 +595,7 @@ public class JsonParserTest extends InstrumentationTestCase {
             throws IOException, NoSuchMethodException, IllegalAccessException, IllegalArgumentException, InvocationTargetException, JSONException, ParseException {
 
         final Group expectedGroup = getTestGroup();
-        final JsonReader reader = getJsonReaderFromAssetsFile(groupFile);
+        final JsonTokenReader reader = getJsonReaderFromAssetsFile(groupFile);
         final Group actualGroup = JsonParser.groupFromJson(reader);
         reader.close();
 
@@ -511,7 +616,7 @@ public class JsonParserTest extends InstrumentationTestCase {
     public void test_parseUserRole()
             throws IOException, NoSuchMethodException, IllegalAccessException, IllegalArgumentException, InvocationTargetException, JSONException {
         final UserRole expectedUserRole = getTestUserRole();
-        final JsonReader reader = getJsonReaderFromAssetsFile(userRoleFile);
+        final JsonTokenReader reader = getJsonReaderFromAssetsFile(userRoleFile);
 
         UserRole actualUserRole = JsonParser.groupUserRoleFromJson(reader);
 
@@ -527,7 +632,7 @@ public class JsonParserTest extends InstrumentationTestCase {
 
         // GIVEN the JSON representation of an annotation where its values (boxes, color) are NOT null
         final Annotation expectedAnnotation = getTestAnnotationWithNonNotNullValues();
-        final JsonReader reader = getJsonReaderFromAssetsFile(annotationWithNotNullValuesFile);
+        final JsonTokenReader reader = getJsonReaderFromAssetsFile(annotationWithNotNullValuesFile);
 
         // WHEN we parse the JSON
         final Annotation actualAnnotation = JsonParser.annotationFromJson(reader);
@@ -542,13 +647,36 @@ public class JsonParserTest extends InstrumentationTestCase {
         assertNotNull(actualAnnotation.type);
     }
 
+    @SmallTest
+    public void test_parseAnnotation_packsThePositionsAndSharesTheColors() throws Exception {
+
+        // GIVEN the JSON representation of an annotation with positions and color
+        final Annotation expectedAnnotation = getTestAnnotationWithNonNotNullValues();
+
+        // WHEN we parse it twice
+        final Annotation annotation1 = JsonParser.annotationFromJson(getJsonReaderFromAssetsFile(annotationWithNotNullValuesFile));
+        final Annotation annotation2 = JsonParser.annotationFromJson(getJsonReaderFromAssetsFile(annotationWithNotNullValuesFile));
+
+        // THEN the positions are stored packed
+        final PackedPositions packed = annotation1.getPackedPositions();
+        assertSame("packed positions", packed, annotation1.getPackedPositions());
+        assertEquals("positions", expectedAnnotation.positions, annotation1.positions);
+        final Annotation.Position expectedPosition = expectedAnnotation.positions.get(0);
+        assertEquals("page", (int) expectedPosition.page, packed.getPage(0));
+        assertEquals("top left x", expectedPosition.topLeft.x, packed.getTopLeftX(0));
+        assertEquals("bottom right y", expectedPosition.bottomRight.y, packed.getBottomRightY(0));
+
+        // ...AND both annotations share the same boxed color
+        assertSame("color", annotation1.color, annotation2.color);
+    }
+
     @SmallTest
     public void test_parseAnotation_withNullValues()
             throws IOException, NoSuchMethodException, IllegalAccessException, IllegalArgumentException, InvocationTargetException, JSONException, ParseException {
 
         // GIVEN the JSON representation of an annotation where its values (boxes, color) are null
         final Annotation expectedAnnotation = getTestAnnotation(null, null, null, null);
-        final JsonReader reader = getJsonReaderFromAssetsFile(annotationWithNullValuesFile);
+        final JsonTokenReader reader = getJsonReaderFromAssetsFile(annotationWithNullValuesFile);
 
         // WHEN we parse the JSON
         Annotation actualAnnotation = JsonParser.annotationFromJson(reader);
@@ -566,7 +694,7 @@ public class JsonParserTest extends InstrumentationTestCase {
     @SmallTest
     public void test_parseReadPosition() throws Exception {
         final ReadPosition expected = getTestReadPosition();
-        final JsonReader reader = getJsonReaderFromAssetsFile(readPositionFile);
+        final JsonTokenReader reader = getJsonReaderFromAssetsFile(readPositionFile);
 
         ReadPosition actual = JsonParser.readPositionFromJson(reader);
 
@@ -589,6 +717,102 @@ public class JsonParserTest extends InstrumentationTestCase {
         JSONAssert.assertEquals(expectedJson, actualJson, false);
     }
 
+    @SmallTest
+    public void test_writeDocument_writesTheSameJsonAsDocumentToJson() throws Exception {
+        // GIVEN documents with and without collections
+        final Document[] documents = {getTestDocumentWithNonNotNullCollections(), getTestDocument(null, null, null, null, null, null)};
+
+        for (final Document document : documents) {
+            // WHEN we stream it
+            final String actualJson = writeJson(new JsonRequestBody.Content() {
+                @Override
+                public void writeTo(StreamingJsonWriter writer) throws IOException {
+                    JsonParser.writeDocument(writer, document);
+                }
+            });
+
+            // THEN the JSON matches the one of the JSONObject
+            JSONAssert.assertEquals(JsonParser.documentToJson(document).toString(), actualJson, true);
+        }
+    }
+
+    @SmallTest
+    public void test_writeFolder_writesTheSameJsonAsFolderToJson() throws Exception {
+        final Folder folder = getTestFolder();
+
+        final String actualJson = writeJson(new JsonRequestBody.Content() {
+            @Override
+            public void writeTo(StreamingJsonWriter writer) throws IOException {
+                JsonParser.writeFolder(writer, folder);
+            }
+        });
+
+        JSONAssert.assertEquals(JsonParser.folderToJson(folder).toString(), actualJson, true);
+    }
+
+    @SmallTest
+    public void test_writeAnnotation_writesTheSameJsonAsAnnotationToJson() throws Exception {
+        final Annotation annotation = getTestAnnotationWithNonNotNullValues();
+
+        final String actualJson = writeJson(new JsonRequestBody.Content() {
+            @Override
+            public void writeTo(StreamingJsonWriter writer) throws IOException {
+                JsonParser.writeAnnotation(writer, annotation);
+            }
+        });
+
+        JSONAssert.assertEquals(JsonParser.annotationToJson(annotation).toString(), actualJson, true);
+    }
+
+    @SmallTest
+    public void test_writeReadPosition_writesTheSameJsonAsReadPositionToJson() throws Exception {
+        final ReadPosition readPosition = getTestReadPosition();
+
+        final String actualJson = writeJson(new JsonRequestBody.Content() {
+            @Override
+            public void writeTo(StreamingJsonWriter writer) throws IOException {
+                JsonParser.writeReadPosition(writer, readPosition);
+            }
+        });
+
+        JSONAssert.assertEquals(JsonParser.readPositionToJson(readPosition).toString(), actualJson, true);
+    }
+
+    @SmallTest
+    public void test_jsonRequestBody_contentLengthMatchesTheBytesWritten() throws Exception {
+        // GIVEN a body with escaped and non ASCII characters
+        final JsonRequestBody body = new JsonRequestBody("application/json", new JsonRequestBody.Content() {
+            @Override
+            public void writeTo(StreamingJsonWriter writer) throws IOException {
+                writer.beginObject();
+                writer.name("title").value("Caf\u00e9 \"quoted\"\n\u2603 \ud83d\ude00");
+                writer.name("skipped").value((String) null);
+                writer.name("year").value(2016);
+                writer.name("ratio").value(0.25);
+                writer.endObject();
+            }
+        });
+
+        // WHEN writing it
+        final okio.Buffer buffer = new okio.Buffer();
+        body.writeTo(buffer);
+
+        // THEN the content length is the number of bytes written
+        assertEquals("content length", buffer.size(), body.contentLength());
+        final JSONObject actual = new JSONObject(buffer.readUtf8());
+        assertEquals("title", "Caf\u00e9 \"quoted\"\n\u2603 \ud83d\ude00", actual.getString("title"));
+        assertFalse("null member", actual.has("skipped"));
+        assertEquals("year", "2016", actual.get("year").toString());
+    }
+
+    private String writeJson(JsonRequestBody.Content content) throws IOException {
+        final okio.Buffer buffer = new okio.Buffer();
+        final JsonRequestBody body = new JsonRequestBody("application/json", content);
+        body.writeTo(buffer);
+        assertEquals("content length", buffer.size(), body.contentLength());
+        return buffer.readUtf8();
+    }
+
     private void assertDocumentsAreEqual(Document expected, Document actual)
             throws IOException, NoSuchMethodException, IllegalAccessException, IllegalArgumentException, InvocationTargetException, JSONException {
 
@@ -0,0 +1,58 @@
+package com.mendeley.sdk.request;
+
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+public class LruResponseCacheTest extends AndroidTestCase {
+
+    @SmallTest
+    public void test_get_returnsTheStoredEntry() {
+        // GIVEN a cache with one entry
+        final LruResponseCache cache = new LruResponseCache(10);
+        final ResponseCache.Entry entry = new ResponseCache.Entry("resource", "\"etag\"", null, null);
+        cache.put("key", entry);
+
+        // WHEN getting it
+        final ResponseCache.Entry actual = cache.get("key");
+
+        // THEN the stored entry is returned and the lookups are counted
+        assertSame("entry", entry, actual);
+        assertNull("missing entry", cache.get("other key"));
+        assertEquals("hits", 1, cache.getHitCount());
+        assertEquals("misses", 1, cache.getMissCount());
+    }
+
+    @SmallTest
+    public void test_put_evictsTheLeastRecentlyUsedEntry() {
+        // GIVEN a full cache whose first entry has been used recently
+        final LruResponseCache cache = new LruResponseCache(2);
+        cache.put("first", new ResponseCache.Entry("1", "a", null, null));
+        cache.put("second", new ResponseCache.Entry("2", "b", null, null));
+        cache.get("first");
+
+        // WHEN adding another entry
+        cache.put("third", new ResponseCache.Entry("3", "c", null, null));
+
+        // THEN the least recently used entry is evicted
+        assertEquals("size", 2, cache.size());
+        assertNotNull("first", cache.get("first"));
+        assertNull("second", cache.get("second"));
+        assertNotNull("third", cache.get("third"));
+    }
+
+    @SmallTest
+    public void test_clear_removesEveryEntry() {
+        // GIVEN a cache with entries
+        final LruResponseCache cache = new LruResponseCache(10);
+        cache.put("first", new ResponseCache.Entry("1", "a", null, null));
+        cache.put("second", new ResponseCache.Entry("2", null, "Mon, 01 Feb 2016 10:00:00 GMT", null));
+
+        // WHEN clearing it
+        cache.clear();
+
+        // THEN it is empty
+        assertEquals("size", 0, cache.size());
+        assertNull("first", cache.get("first"));
+    }
+}
@@ -0,0 +1,247 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.MediumTest;
+
+import com.mendeley.sdk.ClientCredentials;
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.exceptions.HttpResponseException;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+import com.mendeley.sdk.testUtils.InMemoryAuthTokenManager;
+import com.mendeley.sdk.testUtils.LocalHttpServer;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mendeley.sdk.util.IOUtils.readInputStream;
+
+public class OkHttpAuthorizedRequestTest extends AndroidTestCase {
+
+    private InMemoryAuthTokenManager authTokenManager;
+    private LocalHttpServer server;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        authTokenManager = new InMemoryAuthTokenManager();
+        authTokenManager.saveTokens("token", "refresh", "bearer", 3600);
+        server = new LocalHttpServer(new LocalHttpServer.Handler() {
+            @Override
+            public LocalHttpServer.MockResponse handle(LocalHttpServer.RecordedRequest request) {
+                return new LocalHttpServer.MockResponse(200, "body").setDelayMs(1000);
+            }
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        server.shutdown();
+        super.tearDown();
+    }
+
+    @MediumTest
+    public void test_run_withConcurrentIdenticalGets_makesOneNetworkCall() throws Exception {
+        // GIVEN two identical requests
+        final List<Request<String>> requests = createRequests(2);
+
+        // WHEN running them at the same time
+        final List<Object> outcomes = runConcurrently(requests);
+
+        // THEN the server is called once and both requests get its response
+        assertEquals("network calls", 1, server.getRequestCount());
+        for (Object outcome : outcomes) {
+            assertEquals("resource", "body", outcome);
+        }
+    }
+
+    @MediumTest
+    public void test_run_withConcurrentIdenticalGets_makesOneNetworkCallEach_unlessCoalescingIsEnabled() throws Exception {
+        // GIVEN two identical requests that have not enabled coalescing
+        final List<Request<String>> requests = createRequests(2);
+        for (Request<String> request : requests) {
+            ((GetAuthorizedRequest<String>) request).setCoalescingEnabled(false);
+        }
+
+        // WHEN running them at the same time
+        runConcurrently(requests);
+
+        // THEN each of them calls the server
+        assertEquals("network calls", 2, server.getRequestCount());
+    }
+
+    @MediumTest
+    public void test_run_withCoalescedRequests_retriesEveryRequest_whenTheSharedCallFails() throws Exception {
+        // GIVEN a server failing the first call with a retryable status
+        final AtomicInteger calls = new AtomicInteger();
+        server.setHandler(new LocalHttpServer.Handler() {
+            @Override
+            public LocalHttpServer.MockResponse handle(LocalHttpServer.RecordedRequest request) {
+                return calls.getAndIncrement() == 0
+                        ? new LocalHttpServer.MockResponse(503, "unavailable").setDelayMs(1000)
+                        : new LocalHttpServer.MockResponse(200, "body");
+            }
+        });
+
+        // ...AND two identical requests retrying straight away
+        final List<Request<String>> requests = createRequests(2);
+        final RetryPolicy retryPolicy = new RetryPolicy.Builder().setInitialBackoffMs(10).setJitterFactor(0).build();
+        for (Request<String> request : requests) {
+            ((GetAuthorizedRequest<String>) request).setRetryPolicy(retryPolicy);
+        }
+
+        // WHEN running them at the same time
+        final List<Object> outcomes = runConcurrently(requests);
+
+        // THEN the requests waiting for the failed call retry it too, as the GETs they are
+        for (Object outcome : outcomes) {
+            assertEquals("resource", "body", outcome);
+        }
+    }
+
+    @MediumTest
+    public void test_cancel_ofOneCoalescedRequest_doesNotCancelTheOthers() throws Exception {
+        // GIVEN two identical requests
+        final List<Request<String>> requests = createRequests(2);
+
+        // WHEN cancelling the first one while they wait for the server
+        new Thread() {
+            @Override
+            public void run() {
+                try { Thread.sleep(300); } catch (InterruptedException ignored) {}
+                requests.get(0).cancel();
+            }
+        }.start();
+        final List<Object> outcomes = runConcurrently(requests);
+
+        // THEN only the cancelled request fails
+        assertTrue("cancelled request", outcomes.get(0) instanceof UserCancelledException);
+        assertEquals("other request", "body", outcomes.get(1));
+        assertEquals("network calls", 1, server.getRequestCount());
+    }
+
+    @MediumTest
+    public void test_run_withCoalescedRequests_deliversTheErrorToEveryRequest() throws Exception {
+        // GIVEN a server failing the call
+        server.setHandler(new LocalHttpServer.Handler() {
+            @Override
+            public LocalHttpServer.MockResponse handle(LocalHttpServer.RecordedRequest request) {
+                return new LocalHttpServer.MockResponse(404, "not found").setDelayMs(1000);
+            }
+        });
+
+        // ...AND three identical requests
+        final List<Request<String>> requests = createRequests(3);
+
+        // WHEN running them at the same time
+        final List<Object> outcomes = runConcurrently(requests);
+
+        // THEN every request gets the error of the single network call
+        assertEquals("network calls", 1, server.getRequestCount());
+        for (Object outcome : outcomes) {
+            assertTrue("error", outcome instanceof HttpResponseException);
+            assertEquals("status code", 404, ((HttpResponseException) outcome).httpReturnCode);
+        }
+    }
+
+    @MediumTest
+    public void test_run_runsAgainWithoutRetryPolicy_whenTheRequestAsksToRestart() throws Exception {
+        // GIVEN a server rejecting the first call
+        server.setHandler(new LocalHttpServer.Handler() {
+            @Override
+            public LocalHttpServer.MockResponse handle(LocalHttpServer.RecordedRequest request) {
+                return request.getHeader("Range") != null
+                        ? new LocalHttpServer.MockResponse(416, "not satisfiable")
+                        : new LocalHttpServer.MockResponse(200, "body");
+            }
+        });
+
+        // ...AND a request that never retries, but fixes what made the first call fail
+        final GetAuthorizedRequest<String> request = new GetAuthorizedRequest<String>(server.getUrl("/resource"), authTokenManager, new ClientCredentials("id", "secret")) {
+            private boolean sendRange = true;
+
+            @Override
+            protected void appendHeaders(Map<String, String> headers) {
+                if (sendRange) {
+                    headers.put("Range", "bytes=10-");
+                }
+            }
+
+            @Override
+            protected boolean shouldRestart(MendeleyException error) {
+                final boolean restart = sendRange;
+                sendRange = false;
+                return restart;
+            }
+
+            @Override
+            protected String manageResponse(InputStream is) throws Exception {
+                return readInputStream(is);
+            }
+        };
+        request.setRetryPolicy(RetryPolicy.NO_RETRIES);
+
+        // WHEN running it
+        final Request<String>.Response response = request.run();
+
+        // THEN it runs again straight away, without counting it as a retry
+        assertEquals("resource", "body", response.resource);
+        assertEquals("network calls", 2, server.getRequestCount());
+        assertEquals("retries", 0, response.retryCount);
+    }
+
+    private List<Request<String>> createRequests(int count) {
+        final Uri url = server.getUrl("/resource");
+        final List<Request<String>> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final GetAuthorizedRequest<String> request = new GetAuthorizedRequest<String>(url, authTokenManager, new ClientCredentials("id", "secret")) {
+                @Override
+                protected String manageResponse(InputStream is) throws Exception {
+                    return readInputStream(is);
+                }
+            };
+            request.setCoalescingEnabled(true);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    /**
+     * Runs the requests in threads of their own, started at the same time.
+     *
+     * @return the resource returned by each request, or the exception it threw
+     */
+    private List<Object> runConcurrently(final List<Request<String>> requests) throws InterruptedException {
+        final Object[] outcomes = new Object[requests.size()];
+        final CountDownLatch finished = new CountDownLatch(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            final int index = i;
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        outcomes[index] = requests.get(index).run().resource;
+                    } catch (Exception e) {
+                        outcomes[index] = e;
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        assertTrue("requests finished", finished.await(10, TimeUnit.SECONDS));
+        final List<Object> list = new ArrayList<>();
+        for (Object outcome : outcomes) {
+            list.add(outcome);
+        }
+        return list;
+    }
+}
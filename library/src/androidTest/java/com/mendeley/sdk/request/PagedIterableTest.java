@@ -0,0 +1,234 @@
+package com.mendeley.sdk.request;
+
+
+import android.net.Uri;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.PagedIterable;
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.RequestScheduler;
+import com.mendeley.sdk.exceptions.MendeleyException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class PagedIterableTest extends AndroidTestCase {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @Override
+    protected void tearDown() throws Exception {
+        executor.shutdownNow();
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_iterator_returnsTheItemsOfEveryPageInOrder() {
+        // GIVEN a list of three pages
+        final PagedIterable<Integer> iterable = new PagedIterable<>(Uri.parse("page/0"), new FakePageRequestFactory(3, 2, -1), 1, executor);
+
+        // WHEN iterating over it
+        final List<Integer> actual = new ArrayList<>();
+        for (Integer item : iterable) {
+            actual.add(item);
+        }
+
+        // THEN every item of every page is returned
+        assertEquals("items", Arrays.asList(0, 1, 10, 11, 20, 21), actual);
+    }
+
+    @SmallTest
+    public void test_iterator_prefetchesTheNextPagesWhileTheCurrentOneIsConsumed() throws InterruptedException {
+        // GIVEN a list of five pages and a prefetch depth of two
+        final FakePageRequestFactory factory = new FakePageRequestFactory(5, 1, -1);
+        final PagedIterable<Integer> iterable = new PagedIterable<>(Uri.parse("page/0"), factory, 2, executor);
+
+        // WHEN the first page is consumed
+        final PagedIterable<Integer>.PagedIterator iterator = iterable.iterator();
+        iterator.next();
+        Thread.sleep(200);
+
+        // THEN the next two pages have been fetched, but no more
+        assertEquals("fetched pages", 3, factory.fetchedPages.get());
+
+        iterator.close();
+    }
+
+    @SmallTest
+    public void test_iterator_throwsPageFetchException_whenAPageFails() {
+        // GIVEN a list whose second page fails
+        final PagedIterable<Integer> iterable = new PagedIterable<>(Uri.parse("page/0"), new FakePageRequestFactory(3, 1, 1), 1, executor);
+
+        // WHEN iterating over it
+        final List<Integer> actual = new ArrayList<>();
+        PagedIterable.PageFetchException exception = null;
+        try {
+            for (Integer item : iterable) {
+                actual.add(item);
+            }
+        } catch (PagedIterable.PageFetchException e) {
+            exception = e;
+        }
+
+        // THEN the items of the first page are returned and then the error is thrown
+        assertEquals("items", Arrays.asList(0), actual);
+        assertNotNull("exception", exception);
+        assertEquals("failed page", Uri.parse("page/1"), exception.getPageUrl());
+    }
+
+    @SmallTest
+    public void test_iterator_throwsPageFetchException_whenAPageThrowsARuntimeException() {
+        // GIVEN a list whose first page throws an unexpected exception
+        final PagedIterable<Integer> iterable = new PagedIterable<>(Uri.parse("page/0"), new PagedIterable.PageRequestFactory<Integer>() {
+            @Override
+            public Request<List<Integer>> newRequest(Uri pageUrl) {
+                return new Request<List<Integer>>(pageUrl) {
+                    @Override
+                    protected Response doRun() throws MendeleyException {
+                        throw new IllegalStateException("Unexpected");
+                    }
+                };
+            }
+        }, 1, executor);
+
+        // WHEN iterating over it
+        PagedIterable.PageFetchException exception = null;
+        try {
+            iterable.iterator().hasNext();
+        } catch (PagedIterable.PageFetchException e) {
+            exception = e;
+        }
+
+        // THEN the error is thrown instead of waiting forever
+        assertNotNull("exception", exception);
+        assertTrue("cause", exception.getMendeleyException().getCause() instanceof IllegalStateException);
+    }
+
+    @SmallTest
+    public void test_close_stopsFetchingPages() throws InterruptedException {
+        // GIVEN an iterator over a long list
+        final FakePageRequestFactory factory = new FakePageRequestFactory(100, 1, -1);
+        final PagedIterable<Integer>.PagedIterator iterator = new PagedIterable<>(Uri.parse("page/0"), factory, 1, executor).iterator();
+        iterator.next();
+
+        // WHEN it is closed
+        iterator.close();
+        Thread.sleep(200);
+
+        // THEN no more pages are fetched and the iterator is exhausted
+        assertTrue("fetched pages", factory.fetchedPages.get() <= 2);
+        assertFalse("has next", iterator.hasNext());
+    }
+
+    @SmallTest
+    public void test_iterator_fetchesThePagesInTheConsumerThread_whenItRunsInTheirLane() throws InterruptedException {
+        // GIVEN a default scheduler running one task at a time in the lane of the page requests
+        final RequestScheduler previousScheduler = RequestScheduler.getDefault();
+        RequestScheduler.setDefault(new RequestScheduler.Builder().setLaneConcurrency(RequestScheduler.Lane.BACKGROUND_SYNC, 1).build());
+        try {
+            final FakePageRequestFactory factory = new FakePageRequestFactory(3, 2, -1);
+            factory.lane = RequestScheduler.Lane.BACKGROUND_SYNC;
+
+            // WHEN iterating over the list in a task of that lane
+            final List<Integer> actual = Collections.synchronizedList(new ArrayList<Integer>());
+            final CountDownLatch finished = new CountDownLatch(1);
+            RequestScheduler.getDefault().getExecutor(RequestScheduler.Lane.BACKGROUND_SYNC).execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (Integer item : new PagedIterable<>(Uri.parse("page/0"), factory)) {
+                            actual.add(item);
+                        }
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            });
+
+            // THEN every item is returned, instead of waiting for page requests that can't start
+            assertTrue("iteration finished", finished.await(5, TimeUnit.SECONDS));
+            assertEquals("items", Arrays.asList(0, 1, 10, 11, 20, 21), actual);
+        } finally {
+            RequestScheduler.setDefault(previousScheduler);
+        }
+    }
+
+    @SmallTest
+    public void test_iterator_throwsIllegalStateException_whenTheExecutorIsTheLaneOfTheConsumer() throws InterruptedException {
+        // GIVEN a list fetched in the BACKGROUND_SYNC lane of the default scheduler
+        final RequestScheduler scheduler = RequestScheduler.getDefault();
+        final PagedIterable<Integer> iterable = new PagedIterable<>(Uri.parse("page/0"), new FakePageRequestFactory(3, 1, -1), 1, scheduler.getExecutor(RequestScheduler.Lane.BACKGROUND_SYNC));
+
+        // WHEN iterating over it in a task of that same lane
+        final AtomicReference<Exception> exception = new AtomicReference<>();
+        final CountDownLatch finished = new CountDownLatch(1);
+        scheduler.getExecutor(RequestScheduler.Lane.BACKGROUND_SYNC).execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    iterable.iterator();
+                } catch (Exception e) {
+                    exception.set(e);
+                } finally {
+                    finished.countDown();
+                }
+            }
+        });
+
+        // THEN it fails straight away instead of waiting forever
+        assertTrue("iteration finished", finished.await(5, TimeUnit.SECONDS));
+        assertTrue("exception", exception.get() instanceof IllegalStateException);
+    }
+
+    /**
+     * Creates requests for pages "page/N" whose items are N * 10 + i, failing in the given page.
+     */
+    private static class FakePageRequestFactory implements PagedIterable.PageRequestFactory<Integer> {
+
+        private final int pageCount;
+        private final int pageSize;
+        private final int failingPage;
+        private final AtomicInteger fetchedPages = new AtomicInteger();
+        private RequestScheduler.Lane lane = RequestScheduler.Lane.INTERACTIVE;
+
+        FakePageRequestFactory(int pageCount, int pageSize, int failingPage) {
+            this.pageCount = pageCount;
+            this.pageSize = pageSize;
+            this.failingPage = failingPage;
+        }
+
+        @Override
+        public Request<List<Integer>> newRequest(final Uri pageUrl) {
+            final Request<List<Integer>> request = new Request<List<Integer>>(pageUrl) {
+                @Override
+                protected Response doRun() throws MendeleyException {
+                    fetchedPages.incrementAndGet();
+
+                    final int page = Integer.parseInt(pageUrl.toString().substring("page/".length()));
+                    if (page == failingPage) {
+                        throw new MendeleyException("Page failed");
+                    }
+
+                    final List<Integer> items = new ArrayList<>();
+                    for (int i = 0; i < pageSize; i++) {
+                        items.add(page * 10 + i);
+                    }
+                    final Uri next = page + 1 < pageCount ? Uri.parse("page/" + (page + 1)) : null;
+                    return new Response(items, new Date(), next);
+                }
+            };
+            request.setLane(lane);
+            return request;
+        }
+    }
+}
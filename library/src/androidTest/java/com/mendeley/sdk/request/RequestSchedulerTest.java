@@ -0,0 +1,176 @@
+package com.mendeley.sdk.request;
+
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.RequestScheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RequestSchedulerTest extends AndroidTestCase {
+
+    @SmallTest
+    public void test_execute_doesNotRunMoreTasksOfALaneThanItsConcurrency() throws InterruptedException {
+        // GIVEN a scheduler allowing two bulk transfers at a time
+        final RequestScheduler scheduler = new RequestScheduler.Builder()
+                .setMaxParallelism(4)
+                .setLaneConcurrency(RequestScheduler.Lane.BULK_TRANSFER, 2)
+                .build();
+
+        // WHEN five blocking bulk tasks are queued
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(5);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            scheduler.getExecutor(RequestScheduler.Lane.BULK_TRANSFER).execute(new Runnable() {
+                @Override
+                public void run() {
+                    final int now = running.incrementAndGet();
+                    synchronized (maxRunning) {
+                        maxRunning.set(Math.max(maxRunning.get(), now));
+                    }
+                    await(release);
+                    running.decrementAndGet();
+                    finished.countDown();
+                }
+            });
+        }
+
+        // THEN only two of them run, and the rest wait in the queue
+        Thread.sleep(200);
+        final RequestScheduler.Stats stats = scheduler.getStats(RequestScheduler.Lane.BULK_TRANSFER);
+        assertEquals("running bulk tasks", 2, stats.running);
+        assertEquals("queued bulk tasks", 3, stats.queueDepth);
+
+        release.countDown();
+        assertTrue("all tasks finished", finished.await(3, TimeUnit.SECONDS));
+        assertEquals("max running bulk tasks", 2, maxRunning.get());
+        assertEquals("started bulk tasks", 5, scheduler.getStats(RequestScheduler.Lane.BULK_TRANSFER).started);
+    }
+
+    @SmallTest
+    public void test_execute_runsInteractiveTasksWhileBulkTransfersAreBlocked() throws InterruptedException {
+        // GIVEN a scheduler whose bulk lane is full of blocked tasks
+        final RequestScheduler scheduler = new RequestScheduler.Builder()
+                .setMaxParallelism(3)
+                .setLaneConcurrency(RequestScheduler.Lane.BULK_TRANSFER, 2)
+                .build();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 4; i++) {
+            scheduler.getExecutor(RequestScheduler.Lane.BULK_TRANSFER).execute(new Runnable() {
+                @Override
+                public void run() {
+                    await(release);
+                }
+            });
+        }
+
+        // WHEN interactive tasks are queued
+        final CountDownLatch interactiveFinished = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            scheduler.getExecutor(RequestScheduler.Lane.INTERACTIVE).execute(new Runnable() {
+                @Override
+                public void run() {
+                    interactiveFinished.countDown();
+                }
+            });
+        }
+
+        // THEN they run without waiting for the bulk transfers
+        try {
+            assertTrue("interactive tasks finished", interactiveFinished.await(3, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @SmallTest
+    public void test_execute_sharesTheWorkersBetweenLanesByWeight() throws InterruptedException {
+        // GIVEN a scheduler running one task at a time, blocked by a first task
+        final RequestScheduler scheduler = new RequestScheduler.Builder()
+                .setMaxParallelism(1)
+                .build();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        scheduler.getExecutor(RequestScheduler.Lane.INTERACTIVE).execute(new Runnable() {
+            @Override
+            public void run() {
+                await(release);
+            }
+        });
+
+        // WHEN many interactive and bulk tasks are queued behind it
+        final List<RequestScheduler.Lane> order = Collections.synchronizedList(new ArrayList<RequestScheduler.Lane>());
+        final CountDownLatch finished = new CountDownLatch(20);
+        for (int i = 0; i < 10; i++) {
+            for (final RequestScheduler.Lane lane : new RequestScheduler.Lane[]{RequestScheduler.Lane.INTERACTIVE, RequestScheduler.Lane.BULK_TRANSFER}) {
+                scheduler.getExecutor(lane).execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        order.add(lane);
+                        finished.countDown();
+                    }
+                });
+            }
+        }
+        release.countDown();
+        assertTrue("all tasks finished", finished.await(3, TimeUnit.SECONDS));
+
+        // THEN bulk tasks are not starved by the interactive ones
+        final int firstBulk = order.indexOf(RequestScheduler.Lane.BULK_TRANSFER);
+        assertTrue("bulk task run before every interactive one finished", firstBulk >= 0 && firstBulk < 10);
+        assertTrue("wait time recorded", scheduler.getStats(RequestScheduler.Lane.BULK_TRANSFER).maxWaitMs >= 0);
+    }
+
+    @SmallTest
+    public void test_setLaneConcurrency_withNonPositiveValue_throwsException() {
+        final RequestScheduler.Builder builder = new RequestScheduler.Builder();
+        for (int concurrency : new int[]{0, -1}) {
+            try {
+                builder.setLaneConcurrency(RequestScheduler.Lane.BULK_TRANSFER, concurrency);
+                fail("concurrency " + concurrency + " accepted");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @SmallTest
+    public void test_isRunningIn_tellsTheLaneOfTheTaskOfTheCallingThread() throws InterruptedException {
+        // GIVEN a scheduler
+        final RequestScheduler scheduler = new RequestScheduler.Builder().build();
+
+        // WHEN asking from a task of the BACKGROUND_SYNC lane
+        final List<Boolean> answers = Collections.synchronizedList(new ArrayList<Boolean>());
+        final CountDownLatch finished = new CountDownLatch(1);
+        scheduler.getExecutor(RequestScheduler.Lane.BACKGROUND_SYNC).execute(new Runnable() {
+            @Override
+            public void run() {
+                answers.add(scheduler.isRunningIn(RequestScheduler.Lane.BACKGROUND_SYNC));
+                answers.add(scheduler.isRunningIn(RequestScheduler.Lane.INTERACTIVE));
+                finished.countDown();
+            }
+        });
+        assertTrue("task finished", finished.await(3, TimeUnit.SECONDS));
+
+        // THEN only that lane is reported, and nothing is reported outside the scheduler
+        assertTrue("own lane", answers.get(0));
+        assertFalse("other lane", answers.get(1));
+        assertFalse("outside the scheduler", scheduler.isRunningIn(RequestScheduler.Lane.BACKGROUND_SYNC));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ignored) {
+        }
+    }
+}
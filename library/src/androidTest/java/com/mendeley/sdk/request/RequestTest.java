@@ -246,4 +246,34 @@ public class RequestTest extends AndroidTestCase {
         assertTrue("Cancelled callback invoked", callbackCalled.value);
     }
 
+    @SmallTest
+    public void test_cancel_invokesOnCancelOnceInTheCancellingThread() {
+        final MutableReference<Integer> calls = new MutableReference<>();
+        calls.value = 0;
+        final MutableReference<Thread> cancellingThread = new MutableReference<>();
+
+        // GIVEN a request overriding onCancel
+        final Request<Void> request = new Request<Void>(null) {
+            @Override
+            public Response doRun() throws MendeleyException {
+                return null;
+            }
+
+            @Override
+            protected void onCancel() {
+                calls.value++;
+                cancellingThread.value = Thread.currentThread();
+            }
+        };
+
+        // WHEN cancelling it twice
+        request.cancel();
+        request.cancel();
+
+        // THEN onCancel is invoked only once, in the calling thread
+        assertTrue("cancelled", request.isCancelled());
+        assertEquals("onCancel calls", 1, calls.value.intValue());
+        assertSame("onCancel thread", Thread.currentThread(), cancellingThread.value);
+    }
+
 }
@@ -0,0 +1,105 @@
+package com.mendeley.sdk.request;
+
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.exceptions.HttpResponseException;
+import com.mendeley.sdk.exceptions.JsonParsingException;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+public class RetryPolicyTest extends AndroidTestCase {
+
+    private final RetryPolicy policy = new RetryPolicy.Builder()
+            .setMaxRetries(3)
+            .setInitialBackoffMs(1000)
+            .setBackoffMultiplier(2)
+            .setJitterFactor(0)
+            .setMaxRetryAfterMs(60000)
+            .setRetryBudgetMs(10000)
+            .build();
+
+    @SmallTest
+    public void test_getRetryDelayMs_growsExponentially_forIOErrors() {
+        final MendeleyException error = ioError();
+
+        assertEquals("first retry", 1000, policy.getRetryDelayMs("GET", 0, 0, error));
+        assertEquals("second retry", 2000, policy.getRetryDelayMs("GET", 1, 1000, error));
+        assertEquals("third retry", 4000, policy.getRetryDelayMs("GET", 2, 3000, error));
+        assertEquals("retries exhausted", -1, policy.getRetryDelayMs("GET", 3, 7000, error));
+    }
+
+    @SmallTest
+    public void test_getRetryDelayMs_appliesJitterWithinBounds() {
+        final RetryPolicy jittered = new RetryPolicy.Builder(policy).setJitterFactor(0.5).build();
+
+        for (int i = 0; i < 100; i++) {
+            final long delay = jittered.getRetryDelayMs("GET", 1, 0, ioError());
+            assertTrue("delay " + delay + " within bounds", delay >= 1000 && delay <= 2000);
+        }
+    }
+
+    @SmallTest
+    public void test_getRetryDelayMs_retriesNonIdempotentMethods_onlyWhenOptedIn() {
+        assertEquals("POST", -1, policy.getRetryDelayMs("POST", 0, 0, ioError()));
+        assertEquals("PATCH", -1, policy.getRetryDelayMs("PATCH", 0, 0, ioError()));
+        assertEquals("DELETE", 1000, policy.getRetryDelayMs("DELETE", 0, 0, ioError()));
+
+        final RetryPolicy optedIn = new RetryPolicy.Builder(policy).setRetryNonIdempotent(true).build();
+        assertEquals("POST opted in", 1000, optedIn.getRetryDelayMs("POST", 0, 0, ioError()));
+    }
+
+    @SmallTest
+    public void test_getRetryDelayMs_retriesOnlyRetryableStatusCodes() {
+        assertEquals("429", 1000, policy.getRetryDelayMs("GET", 0, 0, httpError(429, -1)));
+        assertEquals("503", 1000, policy.getRetryDelayMs("GET", 0, 0, httpError(503, -1)));
+        assertEquals("404", -1, policy.getRetryDelayMs("GET", 0, 0, httpError(404, -1)));
+        assertEquals("500", -1, policy.getRetryDelayMs("GET", 0, 0, httpError(500, -1)));
+    }
+
+    @SmallTest
+    public void test_getRetryDelayMs_honorsRetryAfter() {
+        assertEquals("longer Retry-After", 5000, policy.getRetryDelayMs("GET", 0, 0, httpError(503, 5000)));
+        assertEquals("shorter Retry-After", 1000, policy.getRetryDelayMs("GET", 0, 0, httpError(503, 10)));
+        assertEquals("Retry-After too long", -1, policy.getRetryDelayMs("GET", 0, 0, httpError(503, 120000)));
+    }
+
+    @SmallTest
+    public void test_getRetryDelayMs_stopsWhenTheBudgetIsSpent() {
+        assertEquals("within budget", 4000, policy.getRetryDelayMs("GET", 2, 6000, ioError()));
+        assertEquals("over budget", -1, policy.getRetryDelayMs("GET", 2, 7000, ioError()));
+    }
+
+    @SmallTest
+    public void test_getRetryDelayMs_doesNotRetryCancellationsOrParsingErrors() {
+        assertEquals("cancelled", -1, policy.getRetryDelayMs("GET", 0, 0, new UserCancelledException(new IOException())));
+        assertEquals("parsing error", -1, policy.getRetryDelayMs("GET", 0, 0, new JsonParsingException("Bad JSON", new IllegalStateException())));
+    }
+
+    @SmallTest
+    public void test_parseRetryAfterMs_parsesSecondsAndDates() {
+        final long now = 1000000000000L;
+        final SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+        assertEquals("seconds", 120000, RetryPolicy.parseRetryAfterMs("120", now));
+        assertEquals("date", 30000, RetryPolicy.parseRetryAfterMs(format.format(new Date(now + 30000)), now));
+        assertEquals("missing", -1, RetryPolicy.parseRetryAfterMs(null, now));
+        assertEquals("invalid", -1, RetryPolicy.parseRetryAfterMs("soon", now));
+    }
+
+    private static MendeleyException ioError() {
+        return new MendeleyException("IO error", new IOException());
+    }
+
+    private static HttpResponseException httpError(int code, long retryAfterMs) {
+        return new HttpResponseException(code, "error", "url", "", null, retryAfterMs);
+    }
+}
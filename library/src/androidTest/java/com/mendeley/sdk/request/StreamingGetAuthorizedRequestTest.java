@@ -0,0 +1,87 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.MediumTest;
+
+import com.mendeley.sdk.ClientCredentials;
+import com.mendeley.sdk.exceptions.HttpResponseException;
+import com.mendeley.sdk.testUtils.InMemoryAuthTokenManager;
+import com.mendeley.sdk.testUtils.LocalHttpServer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StreamingGetAuthorizedRequestTest extends AndroidTestCase {
+
+    private InMemoryAuthTokenManager authTokenManager;
+    private LocalHttpServer server;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        authTokenManager = new InMemoryAuthTokenManager();
+        authTokenManager.saveTokens("token", "refresh", "bearer", 3600);
+        server = new LocalHttpServer(new LocalHttpServer.Handler() {
+            @Override
+            public LocalHttpServer.MockResponse handle(LocalHttpServer.RecordedRequest request) {
+                return new LocalHttpServer.MockResponse(200, "[\"first\", \"second\"]");
+            }
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        server.shutdown();
+        super.tearDown();
+    }
+
+    @MediumTest
+    public void test_run_pushesEveryItemToTheConsumer() throws Exception {
+        // GIVEN a streaming request
+        final List<String> items = new ArrayList<>();
+        final StreamingGetAuthorizedRequest<String> request = createRequest(items);
+
+        // WHEN running it
+        final int count = request.run().resource;
+
+        // THEN every item is pushed once, in order
+        assertEquals("count", 2, count);
+        assertEquals("first item", "first", items.get(0));
+        assertEquals("second item", "second", items.get(1));
+    }
+
+    @MediumTest
+    public void test_run_isNotRetried_whenTheServerFails() throws Exception {
+        // GIVEN a server failing with an error that other requests retry
+        server.setHandler(new LocalHttpServer.Handler() {
+            @Override
+            public LocalHttpServer.MockResponse handle(LocalHttpServer.RecordedRequest request) {
+                return new LocalHttpServer.MockResponse(503, "unavailable");
+            }
+        });
+
+        // WHEN running a streaming request
+        try {
+            createRequest(new ArrayList<String>()).run();
+            fail("HttpResponseException expected");
+        } catch (HttpResponseException e) {
+            // THEN it fails straight away, so that no item can be pushed twice
+            assertEquals("status code", 503, e.httpReturnCode);
+        }
+        assertEquals("network calls", 1, server.getRequestCount());
+    }
+
+    private StreamingGetAuthorizedRequest<String> createRequest(final List<String> items) {
+        return new StreamingGetAuthorizedRequest<String>(server.getUrl("/items"), new StreamingGetAuthorizedRequest.ItemConsumer<String>() {
+            @Override
+            public void onItem(String item) {
+                items.add(item);
+            }
+        }, authTokenManager, new ClientCredentials("id", "secret")) {
+            @Override
+            protected String parseItem(JsonTokenReader reader) throws Exception {
+                return reader.nextString();
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+public class StringPoolTest extends AndroidTestCase {
+
+    @SmallTest
+    public void test_intern_returnsThePooledInstanceForEqualValues() {
+        // GIVEN a pool
+        final StringPool pool = new StringPool();
+
+        // WHEN interning equal values
+        final String first = pool.intern(new String("profile-id"));
+        final String second = pool.intern(new String("profile-id"));
+
+        // THEN the first instance is returned both times
+        assertSame(first, second);
+
+        // ...AND the hit is counted
+        final StringPool.Stats stats = pool.getStats();
+        assertEquals(2, stats.lookups);
+        assertEquals(1, stats.hits);
+        assertEquals(1, stats.size);
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @SmallTest
+    public void test_intern_doesNotGrowOverTheMaxSize() {
+        // GIVEN a full pool
+        final StringPool pool = new StringPool(1);
+        pool.intern("a");
+
+        // WHEN interning a new value
+        final String value = new String("b");
+        pool.intern(value);
+
+        // THEN the value is not pooled
+        assertNotSame(value, pool.intern(new String("b")));
+        assertEquals(1, pool.getStats().size);
+
+        // ...AND null values are returned as they are
+        assertNull(pool.intern(null));
+    }
+}
@@ -0,0 +1,156 @@
+package com.mendeley.sdk.request;
+
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.ClientCredentials;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.testUtils.InMemoryAuthTokenManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TokenRefreshCoordinatorTest extends AndroidTestCase {
+
+    private InMemoryAuthTokenManager authTokenManager;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        authTokenManager = new InMemoryAuthTokenManager();
+        authTokenManager.saveTokens("expiring", "refresh", "bearer", 10);
+    }
+
+    @SmallTest
+    public void test_refresh_runsOneRefreshForConcurrentCallers() throws InterruptedException {
+        // GIVEN a coordinator whose refresh takes a while
+        final FakeCoordinator coordinator = new FakeCoordinator(200, null);
+
+        // WHEN eight requests find the token expired at the same time
+        final List<Throwable> errors = runConcurrently(coordinator, 8);
+
+        // THEN only one refresh is performed and every caller gets the new token
+        assertEquals("errors", 0, errors.size());
+        assertEquals("refreshes", 1, coordinator.refreshes.get());
+        assertEquals("access token", "fresh1", authTokenManager.getAccessToken());
+    }
+
+    @SmallTest
+    public void test_refresh_doesNotRefreshAgain_whenTheTokenHasAlreadyBeenRefreshed() throws MendeleyException {
+        // GIVEN a token that has been refreshed after a request read it
+        final FakeCoordinator coordinator = new FakeCoordinator(0, null);
+        final String staleToken = authTokenManager.getAccessToken();
+        coordinator.refresh(staleToken);
+
+        // WHEN a request that read the old token tries to refresh it
+        coordinator.refresh(staleToken);
+
+        // THEN no second refresh is performed
+        assertEquals("refreshes", 1, coordinator.refreshes.get());
+    }
+
+    @SmallTest
+    public void test_refresh_sharesTheErrorWithEveryWaitingCaller() throws InterruptedException {
+        // GIVEN a coordinator whose refresh fails
+        final MendeleyException error = new MendeleyException("Refresh failed");
+        final FakeCoordinator coordinator = new FakeCoordinator(200, error);
+
+        // WHEN several requests wait for it
+        final List<Throwable> errors = runConcurrently(coordinator, 4);
+
+        // THEN all of them get the error of the single refresh
+        assertEquals("refreshes", 1, coordinator.refreshes.get());
+        assertEquals("errors", 4, errors.size());
+        for (Throwable actual : errors) {
+            assertSame("error", error, actual);
+        }
+    }
+
+    @SmallTest
+    public void test_refresh_sharesRuntimeExceptionsWithEveryWaitingCaller() throws InterruptedException {
+        // GIVEN a coordinator whose refresh throws a runtime exception
+        final RuntimeException error = new IllegalStateException("Refresh crashed");
+        final FakeCoordinator coordinator = new FakeCoordinator(200, error);
+
+        // WHEN several requests wait for it
+        final List<Throwable> errors = runConcurrently(coordinator, 4);
+
+        // THEN none of them takes it as a successful refresh
+        assertEquals("refreshes", 1, coordinator.refreshes.get());
+        assertEquals("errors", 4, errors.size());
+        for (Throwable actual : errors) {
+            assertTrue("error type", actual instanceof MendeleyException);
+            assertSame("cause", error, actual.getCause());
+        }
+    }
+
+    @SmallTest
+    public void test_willExpireSoon_detectsExpiringTokens() {
+        final FakeCoordinator coordinator = new FakeCoordinator(0, null);
+        assertTrue("expiring token", coordinator.willExpireSoon());
+
+        authTokenManager.saveTokens("valid", "refresh", "bearer", 3600);
+        assertFalse("valid token", coordinator.willExpireSoon());
+    }
+
+    private List<Throwable> runConcurrently(final TokenRefreshCoordinator coordinator, int callers) throws InterruptedException {
+        final String staleToken = authTokenManager.getAccessToken();
+        final List<Throwable> errors = new ArrayList<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(callers);
+
+        for (int i = 0; i < callers; i++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        coordinator.refresh(staleToken);
+                    } catch (Exception e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        start.countDown();
+        assertTrue("callers finished", finished.await(5, TimeUnit.SECONDS));
+        return errors;
+    }
+
+    private class FakeCoordinator extends TokenRefreshCoordinator {
+
+        private final long durationMs;
+        private final Exception error;
+        private final AtomicInteger refreshes = new AtomicInteger();
+
+        FakeCoordinator(long durationMs, Exception error) {
+            super(authTokenManager, new ClientCredentials("id", "secret"));
+            this.durationMs = durationMs;
+            this.error = error;
+        }
+
+        @Override
+        protected void performRefresh() throws MendeleyException {
+            final int count = refreshes.incrementAndGet();
+            try {
+                Thread.sleep(durationMs);
+            } catch (InterruptedException ignored) {
+            }
+            if (error instanceof MendeleyException) {
+                throw (MendeleyException) error;
+            } else if (error != null) {
+                throw (RuntimeException) error;
+            }
+            authTokenManager.saveTokens("fresh" + count, "refresh", "bearer", 3600);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import okio.Buffer;
+
+public class Utf8JsonTokenReaderTest extends AndroidTestCase {
+
+    @SmallTest
+    public void test_reader_readsEveryTypeOfToken() throws IOException {
+        // GIVEN a document with every type of token
+        final JsonTokenReader reader = newReader(" {\"s\": \"text\", \"i\": -42, \"d\": 1.5e2, \"t\": true, \"f\": false, \"n\": null, \"a\": [1, {}], \"o\": {\"x\": []}} ");
+
+        // WHEN reading it
+        // THEN the tokens are the expected ones
+        assertEquals(JsonTokenReader.Token.BEGIN_OBJECT, reader.peek());
+        reader.beginObject();
+        assertEquals("s", reader.nextName());
+        assertEquals(JsonTokenReader.Token.STRING, reader.peek());
+        assertEquals("text", reader.nextString());
+        assertEquals("i", reader.nextName());
+        assertEquals(JsonTokenReader.Token.NUMBER, reader.peek());
+        assertEquals(-42, reader.nextInt());
+        assertEquals("d", reader.nextName());
+        assertEquals(150.0, reader.nextDouble());
+        assertEquals("t", reader.nextName());
+        assertEquals(JsonTokenReader.Token.BOOLEAN, reader.peek());
+        assertTrue(reader.nextBoolean());
+        assertEquals("f", reader.nextName());
+        assertFalse(reader.nextBoolean());
+        assertEquals("n", reader.nextName());
+        assertEquals(JsonTokenReader.Token.NULL, reader.peek());
+        reader.nextNull();
+        assertEquals("a", reader.nextName());
+        reader.beginArray();
+        assertTrue(reader.hasNext());
+        assertEquals(1L, reader.nextLong());
+        reader.beginObject();
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        assertEquals("o", reader.nextName());
+        reader.beginObject();
+        assertEquals("x", reader.nextName());
+        reader.beginArray();
+        reader.endArray();
+        reader.endObject();
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        assertEquals(JsonTokenReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    @SmallTest
+    public void test_nextString_decodesEscapesAndMultiByteCharacters() throws IOException {
+        // GIVEN strings with escapes and non-ASCII characters
+        final JsonTokenReader reader = newReader("[\"a\\\"b\\\\c\\/d\\n\\t\\u00e9\", \"\u00e9\u4e2d\ud83d\ude00\", \"\"]");
+
+        // WHEN reading them
+        reader.beginArray();
+
+        // THEN they are decoded
+        assertEquals("a\"b\\c/d\n\t\u00e9", reader.nextString());
+        assertEquals("\u00e9\u4e2d\ud83d\ude00", reader.nextString());
+        assertEquals("", reader.nextString());
+        reader.endArray();
+    }
+
+    @SmallTest
+    public void test_nextUtf8String_returnsTheEncodedValue() throws IOException {
+        // GIVEN strings with and without escapes
+        final JsonTokenReader reader = newReader("[\"caf\u00e9\", \"a\\n\\u00e9\"]");
+
+        // WHEN reading them as bytes
+        reader.beginArray();
+
+        // THEN they are the UTF-8 encoding of the values
+        assertTrue(Arrays.equals("caf\u00e9".getBytes("UTF-8"), reader.nextUtf8String()));
+        assertTrue(Arrays.equals("a\n\u00e9".getBytes("UTF-8"), reader.nextUtf8String()));
+        reader.endArray();
+    }
+
+    @SmallTest
+    public void test_nextName_returnsTheSameInstanceForRepeatedNames() throws IOException {
+        // GIVEN a list of objects with the same member names
+        final JsonTokenReader reader = newReader("[{\"last_modified\": 1}, {\"last_modified\": 2}]");
+
+        // WHEN reading the names
+        reader.beginArray();
+        reader.beginObject();
+        final String name1 = reader.nextName();
+        reader.skipValue();
+        reader.endObject();
+        reader.beginObject();
+        final String name2 = reader.nextName();
+        reader.skipValue();
+        reader.endObject();
+        reader.endArray();
+
+        // THEN the second one is not decoded again
+        assertEquals("last_modified", name1);
+        assertSame(name1, name2);
+    }
+
+    @SmallTest
+    public void test_skipValue_skipsNestedValues() throws IOException {
+        // GIVEN an object with nested values
+        final JsonTokenReader reader = newReader("{\"skip\": {\"a\": [1, \"x\\\"]\", {\"b\": null}], \"c\": true}, \"keep\": \"value\"}");
+
+        // WHEN skipping the first one
+        reader.beginObject();
+        assertEquals("skip", reader.nextName());
+        reader.skipValue();
+
+        // THEN the reader is positioned at the next member
+        assertEquals("keep", reader.nextName());
+        assertEquals("value", reader.nextString());
+        reader.endObject();
+    }
+
+    @SmallTest
+    public void test_numbers_areReadAsStringsAndIntegralDoublesAsLongs() throws IOException {
+        final JsonTokenReader reader = newReader("[12345678901234567890, 1.0, \"7\", 3.25]");
+
+        reader.beginArray();
+        assertEquals("12345678901234567890", reader.nextString());
+        assertEquals(1, reader.nextInt());
+        assertEquals(7L, reader.nextLong());
+        try {
+            reader.nextLong();
+            fail("NumberFormatException expected");
+        } catch (NumberFormatException expected) {
+        }
+    }
+
+    @SmallTest
+    public void test_reader_throwsForMalformedJson() {
+        final String[] malformed = {"{\"a\" 1}", "[1 2]", "{\"a\": tru}", "[\"unterminated", "{a: 1}"};
+        for (String json : malformed) {
+            try {
+                final JsonTokenReader reader = newReader(json);
+                reader.skipValue();
+                fail("IOException expected for " + json);
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    private JsonTokenReader newReader(String json) {
+        return new Utf8JsonTokenReader(new Buffer().writeUtf8(json));
+    }
+}
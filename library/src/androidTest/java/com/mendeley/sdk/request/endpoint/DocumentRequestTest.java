@@ -6,6 +6,7 @@ import android.test.suitebuilder.annotation.SmallTest;
 import com.mendeley.sdk.model.Document;
 import com.mendeley.sdk.Request;
 import com.mendeley.sdk.request.SignedInTest;
+import com.mendeley.sdk.request.StreamingGetAuthorizedRequest;
 import com.mendeley.sdk.testUtils.AssertUtils;
 import com.mendeley.sdk.util.DateUtils;
 
@@ -70,6 +71,38 @@ public class DocumentRequestTest extends SignedInTest {
         AssertUtils.assertSameElementsInCollection(expected, actual, comparator);
     }
 
+    public void test_streamDocuments_pushesEveryDocumentToTheConsumer() throws Exception {
+        // GIVEN some documents
+        final List<Document> expected = new LinkedList<Document>();
+
+        for (int i = 0; i < 5; i++) {
+            final String title = "title" + getRandom().nextInt();
+            final Document doc = createDocument(title);
+            getTestAccountSetupUtils().setupDocument(doc);
+            expected.add(doc);
+        }
+
+        // WHEN streaming the documents
+        final List<Document> actual = new LinkedList<Document>();
+        final int count = getRequestFactory().newStreamDocumentsRequest((DocumentEndpoint.DocumentRequestParameters) null, new StreamingGetAuthorizedRequest.ItemConsumer<Document>() {
+            @Override
+            public void onItem(Document document) {
+                actual.add(document);
+            }
+        }).run().resource;
+
+        Comparator<Document> comparator = new Comparator<Document>() {
+            @Override
+            public int compare(Document d1, Document d2) {
+                return d1.title.compareTo(d2.title);
+            }
+        };
+
+        // THEN the consumer has received the expected documents
+        assertEquals("number of documents", expected.size(), count);
+        AssertUtils.assertSameElementsInCollection(expected, actual, comparator);
+    }
+
     public void test_getDocuments_sortedByTitle_receivesCorrectDocuments() throws Exception {
         // GIVEN some documents
         final List<Document> expected = new LinkedList<Document>();
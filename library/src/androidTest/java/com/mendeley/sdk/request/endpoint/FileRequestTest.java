@@ -7,18 +7,27 @@ import android.test.suitebuilder.annotation.SmallTest;
 import com.mendeley.sdk.Request;
 import com.mendeley.sdk.model.Document;
 import com.mendeley.sdk.model.File;
+import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.SignedInTest;
 import com.mendeley.sdk.testUtils.AssertUtils;
 import com.mendeley.sdk.util.DateUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okio.BufferedSource;
+import okio.Okio;
 
 public class FileRequestTest extends SignedInTest {
 
@@ -230,6 +239,119 @@ public class FileRequestTest extends SignedInTest {
         }
     }
 
+    public void test_getFileBinary_withStalePartialFile_downloadsTheWholeFile() throws Exception {
+        java.io.File downloadedBinaryFile = null;
+        try {
+            // GIVEN a file that has been posted
+            final Document document = getTestAccountSetupUtils().setupDocument(createDocument("doc title"));
+            String fileName = "android.pdf";
+            File postingFile = createFile(document.id);
+            final File returnedFile = getRequestFactory().newPostFileWithBinaryRequest(postingFile.mimeType, document.id, getContext().getAssets().open(fileName), fileName).run().resource;
+
+            // ...AND a partial download of it whose validator doesn't match the file in the server
+            downloadedBinaryFile = new java.io.File(Environment.getExternalStorageDirectory(), "downloadedFile.pdf");
+            final java.io.File partFile = new java.io.File(downloadedBinaryFile.getParent(), downloadedBinaryFile.getName() + FilesEndpoint.GetFileBinaryRequest.PARTIALLY_DOWNLOADED_EXTENSION);
+            final java.io.File validatorFile = new java.io.File(partFile.getParent(), partFile.getName() + FilesEndpoint.GetFileBinaryRequest.VALIDATOR_EXTENSION);
+            writeBytes(partFile, new byte[1000]);
+            writeBytes(validatorFile, "\"stale\"".getBytes("UTF-8"));
+
+            // WHEN we download it
+            long downloaded = getRequestFactory().newGetFileBinaryRequest(returnedFile.id, downloadedBinaryFile).run().resource;
+
+            // THEN the partial download is discarded and the whole file is received
+            assertEquals("file length matches", 34355, downloadedBinaryFile.length());
+            assertEquals("file length matches", 34355, downloaded);
+            assertFalse("partial file removed", partFile.exists());
+            assertFalse("validator removed", validatorFile.exists());
+        } finally {
+            if (downloadedBinaryFile != null && downloadedBinaryFile.exists()) {
+                downloadedBinaryFile.delete();
+            }
+        }
+    }
+
+    public void test_getFileBinary_withResumablePartialFile_appendsTheRestOfTheFile() throws Exception {
+        java.io.File downloadedBinaryFile = null;
+        try {
+            // GIVEN a file that has been posted
+            final Document document = getTestAccountSetupUtils().setupDocument(createDocument("doc title"));
+            String fileName = "android.pdf";
+            File postingFile = createFile(document.id);
+            final File returnedFile = getRequestFactory().newPostFileWithBinaryRequest(postingFile.mimeType, document.id, getContext().getAssets().open(fileName), fileName).run().resource;
+            final byte[] fileBytes = getTestAccountSetupUtils().readFully(getContext().getAssets(), fileName);
+
+            // ...AND an interrupted download of its first half, with the validator sent by the server
+            downloadedBinaryFile = new java.io.File(Environment.getExternalStorageDirectory(), "downloadedFile.pdf");
+            final java.io.File partFile = new java.io.File(downloadedBinaryFile.getParent(), downloadedBinaryFile.getName() + FilesEndpoint.GetFileBinaryRequest.PARTIALLY_DOWNLOADED_EXTENSION);
+            final java.io.File validatorFile = new java.io.File(partFile.getParent(), partFile.getName() + FilesEndpoint.GetFileBinaryRequest.VALIDATOR_EXTENSION);
+            final int partLength = fileBytes.length / 2;
+            writeBytes(partFile, Arrays.copyOf(fileBytes, partLength));
+            writeBytes(validatorFile, getValidator(returnedFile.id).getBytes("UTF-8"));
+
+            // WHEN we download it
+            final FilesEndpoint.GetFileBinaryRequest request = getRequestFactory().newGetFileBinaryRequest(returnedFile.id, downloadedBinaryFile);
+            final AtomicLong written = new AtomicLong();
+            request.setBytesListener(new FilesEndpoint.GetFileBinaryRequest.BytesListener() {
+                @Override
+                public void onBytesWritten(long count) {
+                    written.addAndGet(count);
+                }
+            });
+            request.run();
+
+            // THEN only the missing bytes are received
+            assertEquals("bytes received", fileBytes.length - partLength, written.get());
+
+            // ...AND the file matches the one in the server byte for byte
+            assertTrue("file content matches", Arrays.equals(fileBytes, readBytes(downloadedBinaryFile)));
+            assertFalse("partial file removed", partFile.exists());
+            assertFalse("validator removed", validatorFile.exists());
+        } finally {
+            if (downloadedBinaryFile != null && downloadedBinaryFile.exists()) {
+                downloadedBinaryFile.delete();
+            }
+        }
+    }
+
+    public void test_getFileBinary_withPartialFileRejectedByTheServer_downloadsTheWholeFile() throws Exception {
+        java.io.File downloadedBinaryFile = null;
+        try {
+            // GIVEN a file that has been posted
+            final Document document = getTestAccountSetupUtils().setupDocument(createDocument("doc title"));
+            String fileName = "android.pdf";
+            File postingFile = createFile(document.id);
+            final File returnedFile = getRequestFactory().newPostFileWithBinaryRequest(postingFile.mimeType, document.id, getContext().getAssets().open(fileName), fileName).run().resource;
+            final byte[] fileBytes = getTestAccountSetupUtils().readFully(getContext().getAssets(), fileName);
+
+            // ...AND a partial download longer than the file, so that the server can't send the rest
+            downloadedBinaryFile = new java.io.File(Environment.getExternalStorageDirectory(), "downloadedFile.pdf");
+            final java.io.File partFile = new java.io.File(downloadedBinaryFile.getParent(), downloadedBinaryFile.getName() + FilesEndpoint.GetFileBinaryRequest.PARTIALLY_DOWNLOADED_EXTENSION);
+            final java.io.File validatorFile = new java.io.File(partFile.getParent(), partFile.getName() + FilesEndpoint.GetFileBinaryRequest.VALIDATOR_EXTENSION);
+            writeBytes(partFile, new byte[fileBytes.length + 1000]);
+            writeBytes(validatorFile, getValidator(returnedFile.id).getBytes("UTF-8"));
+
+            // WHEN we download it
+            long downloaded = getRequestFactory().newGetFileBinaryRequest(returnedFile.id, downloadedBinaryFile).run().resource;
+
+            // THEN the whole file is received in the same run
+            assertEquals("file length matches", fileBytes.length, downloaded);
+            assertTrue("file content matches", Arrays.equals(fileBytes, readBytes(downloadedBinaryFile)));
+            assertFalse("partial file removed", partFile.exists());
+        } finally {
+            if (downloadedBinaryFile != null && downloadedBinaryFile.exists()) {
+                downloadedBinaryFile.delete();
+            }
+        }
+    }
+
+    @SmallTest
+    public void test_parseRangeStart_returnsTheFirstBytePosition() throws Exception {
+        assertEquals(100, FilesEndpoint.GetFileBinaryRequest.parseRangeStart("bytes 100-199/200"));
+        assertEquals(0, FilesEndpoint.GetFileBinaryRequest.parseRangeStart("bytes 0-199/*"));
+        assertEquals(-1, FilesEndpoint.GetFileBinaryRequest.parseRangeStart("bytes */200"));
+        assertEquals(-1, FilesEndpoint.GetFileBinaryRequest.parseRangeStart(null));
+    }
+
     public void test_deleteFile_removesTheFileFromServer() throws Exception {
         // GIVEN some files
         final Document document = getTestAccountSetupUtils().setupDocument(createDocument("doc title"));
@@ -276,5 +398,49 @@ public class FileRequestTest extends SignedInTest {
         return file;
     }
 
+    /**
+     * @return the validator the server sends with the binary of the file, as used by If-Range
+     */
+    private String getValidator(String fileId) throws Exception {
+        final Uri url = getRequestFactory().newGetFileBinaryRequest(fileId, new java.io.File("unused")).getUrl();
+        final Map<String, String> validators = new HashMap<String, String>();
+        new GetAuthorizedRequest<Void>(url, getAuthTokenManager(), getClientCredentials()) {
+            @Override
+            protected void manageResponseHeaders(int responseCode, Map<String, List<String>> headers) {
+                for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                    if (header.getKey() != null && !header.getValue().isEmpty()) {
+                        validators.put(header.getKey().toLowerCase(Locale.US), header.getValue().get(0));
+                    }
+                }
+            }
+
+            @Override
+            protected Void manageResponse(InputStream is) throws Exception {
+                return null;
+            }
+        }.run();
+
+        final String etag = validators.get("etag");
+        final String validator = etag != null && !etag.startsWith("W/") ? etag : validators.get("last-modified");
+        assertNotNull("the server sends a validator", validator);
+        return validator;
+    }
 
+    private static byte[] readBytes(java.io.File file) throws Exception {
+        final BufferedSource source = Okio.buffer(Okio.source(file));
+        try {
+            return source.readByteArray();
+        } finally {
+            source.close();
+        }
+    }
+
+    private static void writeBytes(java.io.File file, byte[] bytes) throws Exception {
+        final FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(bytes);
+        } finally {
+            outputStream.close();
+        }
+    }
 }
@@ -2,7 +2,6 @@ package com.mendeley.sdk.request.endpoint;
 
 import android.net.Uri;
 import android.test.suitebuilder.annotation.LargeTest;
-import android.util.JsonReader;
 
 import com.mendeley.sdk.Request;
 import com.mendeley.sdk.exceptions.MendeleyException;
@@ -12,13 +11,12 @@ import com.mendeley.sdk.model.Institution;
 import com.mendeley.sdk.model.Profile;
 import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.JsonTokenReader;
 import com.mendeley.sdk.request.SignedInTest;
 import com.mendeley.sdk.testUtils.AssertUtils;
 import com.mendeley.sdk.util.DateUtils;
 
-import java.io.BufferedInputStream;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.List;
@@ -162,7 +160,7 @@ public class ProfileRequestTest extends SignedInTest {
         return new GetAuthorizedRequest<List<Institution>>(url, getAuthTokenManager(), getClientCredentials()) {
             @Override
             protected List<Institution> manageResponse(InputStream is) throws Exception {
-                final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+                final JsonTokenReader reader = newJsonReader(is);
                 return JsonParser.institutionsFromJson(reader);
             }
 
@@ -0,0 +1,111 @@
+package com.mendeley.sdk.sync;
+
+import com.mendeley.sdk.model.Annotation;
+import com.mendeley.sdk.model.Document;
+import com.mendeley.sdk.request.SignedInTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class AnnotationSyncEngineTest extends SignedInTest {
+
+    private AnnotationStore store;
+    private AnnotationSyncEngine engine;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        store = new AnnotationStore(getContext(), null);
+        engine = new AnnotationSyncEngine(store, getRequestFactory());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        store.close();
+        super.tearDown();
+    }
+
+    public void test_sync_firstTime_storesEveryAnnotationOfTheDocument() throws Exception {
+        // GIVEN a document with annotations in the server
+        final Document document = getTestAccountSetupUtils().setupDocument(createDocument());
+        final Annotation first = getTestAccountSetupUtils().setupAnnotation(createAnnotation(document.id, "hash1"));
+        final Annotation second = getTestAccountSetupUtils().setupAnnotation(createAnnotation(document.id, "hash2"));
+
+        // WHEN synchronising the document for the first time
+        final AnnotationStore.Scope scope = AnnotationStore.Scope.forDocument(document.id);
+        final AnnotationSyncEngine.Result result = engine.newSyncRequest(scope).run().resource;
+
+        // THEN every annotation is fetched and stored
+        assertTrue("full sync", result.full);
+        assertEquals("changed", 2, result.changed);
+        assertNotNull("watermark", store.getWatermark(scope));
+        assertEquals("annotations of the document", 2, store.getDocumentAnnotations(document.id).size());
+
+        // ...AND they can be looked up by file hash
+        assertEquals("annotations of the file", Arrays.asList(first.id), ids(store.getFileAnnotations("hash1")));
+        assertEquals("annotations of the file", Arrays.asList(second.id), ids(store.getFileAnnotations("hash2")));
+    }
+
+    public void test_sync_afterChanges_notifiesOnlyTheChanges() throws Exception {
+        // GIVEN a synchronised document
+        final Document document = getTestAccountSetupUtils().setupDocument(createDocument());
+        final Annotation kept = getTestAccountSetupUtils().setupAnnotation(createAnnotation(document.id, "hash"));
+        final Annotation deleted = getTestAccountSetupUtils().setupAnnotation(createAnnotation(document.id, "hash"));
+        final AnnotationStore.Scope scope = AnnotationStore.Scope.forDocument(document.id);
+        engine.newSyncRequest(scope).run();
+
+        // ...AND changes in the server after the synchronisation
+        Thread.sleep(1000);
+        final Annotation added = getTestAccountSetupUtils().setupAnnotation(createAnnotation(document.id, "hash"));
+        getRequestFactory().newDeleteAnnotationRequest(deleted.id).run();
+
+        final List<String> notifiedChanged = new ArrayList<String>();
+        final List<String> notifiedDeleted = new ArrayList<String>();
+        engine.addListener(new AnnotationSyncEngine.Listener() {
+            @Override
+            public void onAnnotationsChanged(AnnotationStore.Scope changedScope, List<Annotation> changed, List<String> deletedIds) {
+                assertEquals("scope", scope, changedScope);
+                notifiedChanged.addAll(ids(changed));
+                notifiedDeleted.addAll(deletedIds);
+            }
+        });
+
+        // WHEN synchronising again
+        final AnnotationSyncEngine.Result result = engine.newSyncRequest(scope).run().resource;
+
+        // THEN only the changes are fetched and notified
+        assertFalse("full sync", result.full);
+        assertEquals("notified changes", Arrays.asList(added.id), notifiedChanged);
+        assertEquals("notified deletions", Arrays.asList(deleted.id), notifiedDeleted);
+
+        // ...AND the store matches the server
+        assertNotNull("kept annotation", store.getAnnotation(kept.id));
+        assertEquals("added annotation", added.text, store.getAnnotation(added.id).text);
+        assertNull("deleted annotation", store.getAnnotation(deleted.id));
+    }
+
+    private static List<String> ids(List<Annotation> annotations) {
+        final List<String> ids = new ArrayList<String>();
+        for (Annotation annotation : annotations) {
+            ids.add(annotation.id);
+        }
+        return ids;
+    }
+
+    private Document createDocument() {
+        return new Document.Builder()
+                .setType("book")
+                .setTitle("title" + getRandom().nextInt())
+                .build();
+    }
+
+    private Annotation createAnnotation(String documentId, String fileHash) {
+        return new Annotation.Builder()
+                .setDocumentId(documentId)
+                .setText("text " + getRandom().nextInt())
+                .setType(Annotation.Type.STICKY_NOTE)
+                .setFileHash(fileHash)
+                .build();
+    }
+}
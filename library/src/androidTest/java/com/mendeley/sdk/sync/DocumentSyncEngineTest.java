@@ -0,0 +1,141 @@
+package com.mendeley.sdk.sync;
+
+import android.net.Uri;
+import android.test.suitebuilder.annotation.LargeTest;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.model.Document;
+import com.mendeley.sdk.request.SignedInTest;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class DocumentSyncEngineTest extends SignedInTest {
+
+    private DocumentStore store;
+    private DocumentSyncEngine engine;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        store = new DocumentStore(getContext(), null);
+        engine = new DocumentSyncEngine(store, getRequestFactory());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        store.close();
+        super.tearDown();
+    }
+
+    public void test_sync_firstTime_storesEveryDocument() throws Exception {
+        // GIVEN some documents in the server
+        final Set<String> expectedTitles = new HashSet<String>();
+        for (int i = 0; i < 3; i++) {
+            final Document document = createDocument();
+            getTestAccountSetupUtils().setupDocument(document);
+            expectedTitles.add(document.title);
+        }
+
+        // WHEN synchronising for the first time
+        final DocumentSyncEngine.Result result = engine.newSyncRequest(null).run().resource;
+
+        // THEN every document is fetched and stored
+        assertTrue("full sync", result.full);
+        assertEquals("updated", 3, result.updated);
+        assertNotNull("watermark", store.getWatermark(null));
+        final Set<String> actualTitles = new HashSet<String>();
+        for (Document document : store.getDocuments(null)) {
+            actualTitles.add(document.title);
+        }
+        assertEquals("stored documents", expectedTitles, actualTitles);
+    }
+
+    public void test_sync_afterChanges_fetchesOnlyTheChanges() throws Exception {
+        // GIVEN a synchronised library
+        final Document kept = getTestAccountSetupUtils().setupDocument(createDocument());
+        final Document deleted = getTestAccountSetupUtils().setupDocument(createDocument());
+        engine.newSyncRequest(null).run();
+
+        // ...AND changes in the server after the synchronisation
+        Thread.sleep(1000);
+        final Document added = getTestAccountSetupUtils().setupDocument(createDocument());
+        getRequestFactory().newDeleteDocumentRequest(deleted.id).run();
+
+        // WHEN synchronising again
+        final DocumentSyncEngine.Result result = engine.newSyncRequest(null).run().resource;
+
+        // THEN only the changes are fetched
+        assertFalse("full sync", result.full);
+        assertEquals("updated", 1, result.updated);
+        assertEquals("deleted", 1, result.deleted);
+
+        // ...AND the store matches the server
+        assertNotNull("kept document", store.getDocument(null, kept.id));
+        assertEquals("added document", added.title, store.getDocument(null, added.id).title);
+        assertNull("deleted document", store.getDocument(null, deleted.id));
+        assertEquals("document count", 2, store.getDocumentCount(null));
+    }
+
+    @LargeTest
+    public void test_runAsync_withAnotherSyncRunning_finishesBoth() throws Exception {
+        // GIVEN a document in the server
+        final Document document = getTestAccountSetupUtils().setupDocument(createDocument());
+
+        // ...AND an annotation synchronisation of it
+        final AnnotationStore annotationStore = new AnnotationStore(getContext(), null);
+        try {
+            final AnnotationSyncEngine annotationEngine = new AnnotationSyncEngine(annotationStore, getRequestFactory());
+
+            // WHEN running both synchronisations at the same time, taking every slot of their lane
+            final SyncCallback<DocumentSyncEngine.Result> documentsCallback = new SyncCallback<DocumentSyncEngine.Result>();
+            final SyncCallback<AnnotationSyncEngine.Result> annotationsCallback = new SyncCallback<AnnotationSyncEngine.Result>();
+            engine.newSyncRequest(null).runAsync(documentsCallback);
+            annotationEngine.newSyncRequest(AnnotationStore.Scope.forDocument(document.id)).runAsync(annotationsCallback);
+
+            // THEN both finish, instead of waiting forever for their pages
+            assertTrue("document sync finished", documentsCallback.finished.await(60, TimeUnit.SECONDS));
+            assertTrue("annotation sync finished", annotationsCallback.finished.await(60, TimeUnit.SECONDS));
+            assertNotNull("document sync result", documentsCallback.result.get());
+            assertNotNull("annotation sync result", annotationsCallback.result.get());
+            assertNotNull("synchronised document", store.getDocument(null, document.id));
+        } finally {
+            annotationStore.close();
+        }
+    }
+
+    private Document createDocument() {
+        return new Document.Builder()
+                .setType("book")
+                .setTitle("title" + getRandom().nextInt())
+                .setAbstractString("abstract" + getRandom().nextInt())
+                .build();
+    }
+
+    private static class SyncCallback<T> implements Request.RequestCallback<T> {
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final AtomicReference<T> result = new AtomicReference<T>();
+
+        @Override
+        public void onSuccess(T resource, Uri next, Date serverDate) {
+            result.set(resource);
+            finished.countDown();
+        }
+
+        @Override
+        public void onFailure(MendeleyException mendeleyException) {
+            finished.countDown();
+        }
+
+        @Override
+        public void onCancelled() {
+            finished.countDown();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.mendeley.sdk.sync;
+
+import android.net.Uri;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.exceptions.MendeleyException;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PagedSyncRequestTest extends AndroidTestCase {
+
+    @SmallTest
+    public void test_cancelRunningSyncs_cancelsTheRunningSyncs() throws InterruptedException {
+        // GIVEN a running synchronisation
+        final BlockingSyncRequest request = new BlockingSyncRequest(0);
+        runInBackground(request);
+        assertTrue("sync started", request.started.await(5, TimeUnit.SECONDS));
+
+        // WHEN cancelling the running synchronisations
+        SyncDatabase.cancelRunningSyncs();
+
+        // THEN it's cancelled
+        assertTrue("cancelled", request.isCancelled());
+        assertTrue("sync finished", PagedSyncRequest.awaitNoneRunning(5000));
+    }
+
+    @SmallTest
+    public void test_awaitNoneRunning_waitsForTheCancelledSyncsToFinish() throws InterruptedException {
+        // GIVEN a running synchronisation that takes a while to stop once cancelled
+        final BlockingSyncRequest request = new BlockingSyncRequest(300);
+        runInBackground(request);
+        assertTrue("sync started", request.started.await(5, TimeUnit.SECONDS));
+
+        // WHEN cancelling it and waiting for it
+        SyncDatabase.cancelRunningSyncs();
+        final boolean noneRunning = PagedSyncRequest.awaitNoneRunning(5000);
+
+        // THEN it has finished by the time the wait returns
+        assertTrue("none running", noneRunning);
+        assertEquals("sync finished", 0, request.stopped.getCount());
+    }
+
+    @SmallTest
+    public void test_awaitNoneRunning_returnsFalse_whenTheSyncsDontStopInTime() throws InterruptedException {
+        // GIVEN a running synchronisation that is not cancelled
+        final BlockingSyncRequest request = new BlockingSyncRequest(0);
+        runInBackground(request);
+        assertTrue("sync started", request.started.await(5, TimeUnit.SECONDS));
+
+        // WHEN waiting for it
+        final boolean noneRunning = PagedSyncRequest.awaitNoneRunning(100);
+
+        // THEN the wait gives up
+        assertFalse("none running", noneRunning);
+
+        request.cancel();
+        assertTrue("sync finished", PagedSyncRequest.awaitNoneRunning(5000));
+    }
+
+    private static void runInBackground(final Request<?> request) {
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    request.run();
+                } catch (MendeleyException ignored) {
+                }
+            }
+        }).start();
+    }
+
+    /**
+     * Synchronisation that runs until it's cancelled, and then for the given time.
+     */
+    private static class BlockingSyncRequest extends PagedSyncRequest<Object, Void> {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch cancelled = new CountDownLatch(1);
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private final long stopDelayMs;
+
+        BlockingSyncRequest(long stopDelayMs) {
+            this.stopDelayMs = stopDelayMs;
+        }
+
+        @Override
+        protected Response doSync() throws MendeleyException {
+            started.countDown();
+            try {
+                cancelled.await();
+                Thread.sleep(stopDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stopped.countDown();
+            return new Response(null, new Date(), null);
+        }
+
+        @Override
+        protected void onCancel() {
+            super.onCancel();
+            cancelled.countDown();
+        }
+
+        @Override
+        protected Request<List<Object>> newPageRequest(Uri pageUrl) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
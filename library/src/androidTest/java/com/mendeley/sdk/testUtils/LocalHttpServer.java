@@ -0,0 +1,254 @@
+package com.mendeley.sdk.testUtils;
+
+import android.net.Uri;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Minimal HTTP/1.1 server running in the test process, so that requests can be tested against
+ * controlled responses without reaching the network nor sending the real access token anywhere.
+ *
+ * <p/>
+ *
+ * Every connection is answered by the {@link Handler} and closed afterwards.
+ */
+public class LocalHttpServer {
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private final ServerSocket serverSocket;
+    private final List<RecordedRequest> requests = Collections.synchronizedList(new ArrayList<RecordedRequest>());
+    private volatile Handler handler;
+
+    public LocalHttpServer(Handler handler) throws IOException {
+        this.handler = handler;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+
+        final Thread acceptThread = new Thread("LocalHttpServer") {
+            @Override
+            public void run() {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        serve(serverSocket.accept());
+                    } catch (IOException ignored) {
+                        // closed by shutdown()
+                    }
+                }
+            }
+        };
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    public void setHandler(Handler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * @param path the path of the resource, starting with a slash
+     * @return the URL of the resource in this server
+     */
+    public Uri getUrl(String path) {
+        return Uri.parse("http://127.0.0.1:" + serverSocket.getLocalPort() + path);
+    }
+
+    /**
+     * @return the requests received so far, in order of arrival
+     */
+    public List<RecordedRequest> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<RecordedRequest>(requests);
+        }
+    }
+
+    public int getRequestCount() {
+        return requests.size();
+    }
+
+    public void shutdown() {
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void serve(final Socket socket) {
+        final Thread thread = new Thread("LocalHttpServer connection") {
+            @Override
+            public void run() {
+                try {
+                    final RecordedRequest request = readRequest(socket.getInputStream());
+                    if (request == null) {
+                        return;
+                    }
+                    requests.add(request);
+
+                    MockResponse response;
+                    try {
+                        response = handler.handle(request);
+                    } catch (Exception e) {
+                        response = new MockResponse(500, e.toString());
+                    }
+                    writeResponse(socket.getOutputStream(), response);
+                } catch (IOException ignored) {
+                    // the client went away, as it happens when a request is cancelled
+                } finally {
+                    try {
+                        socket.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static RecordedRequest readRequest(InputStream is) throws IOException {
+        final String requestLine = readLine(is);
+        if (requestLine == null || requestLine.isEmpty()) {
+            return null;
+        }
+        final String[] parts = requestLine.split(" ");
+
+        final Map<String, String> headers = new TreeMap<String, String>();
+        String line;
+        while ((line = readLine(is)) != null && !line.isEmpty()) {
+            final int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.US), line.substring(colon + 1).trim());
+            }
+        }
+
+        final String contentLength = headers.get("content-length");
+        final byte[] body = new byte[contentLength != null ? Integer.parseInt(contentLength) : 0];
+        int read = 0;
+        while (read < body.length) {
+            final int count = is.read(body, read, body.length - read);
+            if (count < 0) {
+                break;
+            }
+            read += count;
+        }
+
+        return new RecordedRequest(parts[0], parts.length > 1 ? parts[1] : "/", headers, body);
+    }
+
+    private static String readLine(InputStream is) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = is.read()) != -1) {
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+        return new String(line.toByteArray(), ASCII);
+    }
+
+    private static void writeResponse(OutputStream os, MockResponse response) throws IOException {
+        if (response.delayMs > 0) {
+            try {
+                Thread.sleep(response.delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        final StringBuilder head = new StringBuilder();
+        head.append("HTTP/1.1 ").append(response.code).append(' ').append(response.code / 100 == 2 ? "OK" : "Error").append("\r\n");
+        for (Map.Entry<String, String> header : response.headers.entrySet()) {
+            head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+        }
+        head.append("Content-Length: ").append(response.body.length).append("\r\n");
+        head.append("Connection: close\r\n\r\n");
+
+        os.write(head.toString().getBytes(ASCII));
+        os.write(response.body);
+        os.flush();
+    }
+
+    /**
+     * Decides the response to each request received by the server. Called in a thread of its own
+     * for each request, so it may block to simulate a slow server.
+     */
+    public interface Handler {
+        MockResponse handle(RecordedRequest request) throws Exception;
+    }
+
+    /**
+     * Request received by the server.
+     */
+    public static class RecordedRequest {
+        public final String method;
+        public final String path;
+        public final byte[] body;
+        private final Map<String, String> headers;
+
+        RecordedRequest(String method, String path, Map<String, String> headers, byte[] body) {
+            this.method = method;
+            this.path = path;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        /**
+         * @param name name of the header, in any case
+         * @return its value, or null if the request didn't have it
+         */
+        public String getHeader(String name) {
+            return headers.get(name.toLowerCase(Locale.US));
+        }
+    }
+
+    /**
+     * Response to be sent by the server.
+     */
+    public static class MockResponse {
+        public final int code;
+        public final byte[] body;
+        private final Map<String, String> headers = new TreeMap<String, String>();
+        private long delayMs;
+
+        public MockResponse(int code, byte[] body) {
+            this.code = code;
+            this.body = body;
+        }
+
+        public MockResponse(int code, String body) {
+            this(code, body.getBytes(Charset.forName("UTF-8")));
+        }
+
+        public MockResponse setHeader(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        /**
+         * @param delayMs time to wait before sending the response
+         */
+        public MockResponse setDelayMs(long delayMs) {
+            this.delayMs = delayMs;
+            return this;
+        }
+    }
+}
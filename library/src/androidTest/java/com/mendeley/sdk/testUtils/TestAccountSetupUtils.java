@@ -2,7 +2,6 @@ package com.mendeley.sdk.testUtils;
 
 import android.content.res.AssetManager;
 import android.net.Uri;
-import android.util.JsonReader;
 
 import com.mendeley.sdk.AuthTokenManager;
 import com.mendeley.sdk.BuildConfig;
@@ -19,8 +18,10 @@ import com.mendeley.sdk.model.Folder;
 import com.mendeley.sdk.model.Group;
 import com.mendeley.sdk.model.Profile;
 import com.mendeley.sdk.model.ReadPosition;
+import com.mendeley.sdk.request.AndroidJsonTokenReader;
 import com.mendeley.sdk.request.DeleteAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.JsonTokenReader;
 import com.mendeley.sdk.request.PostAuthorizedRequest;
 import com.mendeley.sdk.request.endpoint.DocumentEndpoint;
 import com.mendeley.sdk.request.endpoint.FoldersEndpoint;
@@ -36,7 +37,6 @@ import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.URL;
@@ -263,7 +263,7 @@ public class TestAccountSetupUtils {
                 throw new Exception("Invalid response code posting recently read position: " + responseCode + " " + con.getResponseMessage());
             }
 
-            final JsonReader reader = new JsonReader(new InputStreamReader(con.getInputStream()));
+            final JsonTokenReader reader = new AndroidJsonTokenReader(con.getInputStream());
             return JsonParser.readPositionFromJson(reader);
         } finally {
             try {
@@ -302,7 +302,7 @@ public class TestAccountSetupUtils {
                 throw new Exception("Invalid response code getting recently read position: " + responseCode + " " + con.getResponseMessage());
             }
 
-            final JsonReader reader = new JsonReader(new InputStreamReader(con.getInputStream()));
+            final JsonTokenReader reader = new AndroidJsonTokenReader(con.getInputStream());
             return JsonParser.readPositionsFromJson(reader);
         } finally {
             try {
@@ -0,0 +1,110 @@
+package com.mendeley.sdk.util;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.Log;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Compares the throughput of {@link DateUtils} against the shared, synchronized
+ * {@link SimpleDateFormat} it replaced, and logs it so that it can be compared between devices.
+ */
+public class DateUtilsBenchmarkTest extends AndroidTestCase {
+
+    private static final String TAG = DateUtilsBenchmarkTest.class.getSimpleName();
+
+    private static final int DATES = 1000;
+    private static final int WARM_UP_ROUNDS = 3;
+    private static final int ROUNDS = 20;
+    private static final int THREADS = 4;
+
+    private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+    private final String[] timestamps = new String[DATES];
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        simpleDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+        final long startMs = System.currentTimeMillis();
+        for (int i = 0; i < DATES; i++) {
+            timestamps[i] = DateUtils.formatMendeleyApiTimestamp(new Date(startMs - i * 7919993L));
+        }
+    }
+
+    @LargeTest
+    public void test_parseMendeleyApiTimestamp_throughput() throws Exception {
+        final long simpleDateFormatNs = measure(new Parser() {
+            @Override
+            public long parse(String timestamp) throws ParseException {
+                synchronized (simpleDateFormat) {
+                    return simpleDateFormat.parse(timestamp).getTime();
+                }
+            }
+        });
+        final long dateUtilsNs = measure(new Parser() {
+            @Override
+            public long parse(String timestamp) throws ParseException {
+                return DateUtils.parseMendeleyApiTimestampMs(timestamp);
+            }
+        });
+
+        Log.i(TAG, "SimpleDateFormat: " + datesPerSecond(simpleDateFormatNs) + " per second in " + THREADS + " threads");
+        Log.i(TAG, "DateUtils: " + datesPerSecond(dateUtilsNs) + " per second in " + THREADS + " threads");
+    }
+
+    /**
+     * @return nanoseconds taken by {@link #THREADS} threads parsing every timestamp {@link #ROUNDS} times each
+     */
+    private long measure(final Parser parser) throws Exception {
+        final Exception[] error = new Exception[1];
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (String timestamp : timestamps) {
+                            parser.parse(timestamp);
+                        }
+                    }
+                } catch (Exception e) {
+                    error[0] = e;
+                }
+            }
+        };
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            for (String timestamp : timestamps) {
+                parser.parse(timestamp);
+            }
+        }
+
+        final Thread[] threads = new Thread[THREADS];
+        final long startNs = System.nanoTime();
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(task);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        final long elapsedNs = System.nanoTime() - startNs;
+
+        if (error[0] != null) {
+            throw error[0];
+        }
+        return elapsedNs;
+    }
+
+    private long datesPerSecond(long elapsedNs) {
+        return (long) DATES * ROUNDS * THREADS * 1000000000L / Math.max(elapsedNs, 1);
+    }
+
+    private interface Parser {
+        long parse(String timestamp) throws ParseException;
+    }
+}
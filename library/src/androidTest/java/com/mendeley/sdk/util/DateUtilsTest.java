@@ -0,0 +1,99 @@
+package com.mendeley.sdk.util;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+public class DateUtilsTest extends AndroidTestCase {
+
+    private final Random random = new Random(42);
+
+    @SmallTest
+    public void test_mendeleyApiTimestamp_matchesSimpleDateFormat() throws ParseException {
+        // GIVEN the format used before by the SDK
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+        for (int i = 0; i < 1000; i++) {
+            final Date date = randomDate();
+
+            // WHEN formatting and parsing dates
+            final String formatted = DateUtils.formatMendeleyApiTimestamp(date);
+
+            // THEN the results are the ones of SimpleDateFormat
+            assertEquals("formatted", format.format(date), formatted);
+            assertEquals("parsed", format.parse(formatted), DateUtils.parseMendeleyApiTimestamp(formatted));
+        }
+    }
+
+    @SmallTest
+    public void test_parseMendeleyApiTimestamp_acceptsOtherPrecisionsAndOffsets() throws ParseException {
+        final long expectedMs = DateUtils.parseMendeleyApiTimestampMs("2014-02-20T16:53:25.000Z");
+
+        assertEquals("no fraction", expectedMs, DateUtils.parseMendeleyApiTimestampMs("2014-02-20T16:53:25Z"));
+        assertEquals("micros", expectedMs + 120, DateUtils.parseMendeleyApiTimestampMs("2014-02-20T16:53:25.120999Z"));
+        assertEquals("offset", expectedMs, DateUtils.parseMendeleyApiTimestampMs("2014-02-20T17:53:25.000+01:00"));
+    }
+
+    @SmallTest
+    public void test_parseMendeleyApiTimestamp_throwsParseExceptionForInvalidTimestamps() {
+        final String[] invalid = {"", "2014-02-20", "2014-02-20T16:53:25.000", "2014-13-20T16:53:25.000Z",
+                "2014-02-20T16:53:25.000Zx", "2014-02-20 16:53:25.000Z", "20l4-02-20T16:53:25.000Z"};
+        for (String date : invalid) {
+            try {
+                DateUtils.parseMendeleyApiTimestamp(date);
+                fail("ParseException expected for " + date);
+            } catch (ParseException expected) {
+            }
+        }
+    }
+
+    @SmallTest
+    public void test_yearMonthDayDate_matchesSimpleDateFormat() throws ParseException {
+        // GIVEN the format used before by the SDK, in the default time zone
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+
+        for (int i = 0; i < 1000; i++) {
+            final Date date = randomDate();
+
+            // WHEN formatting and parsing dates
+            final String formatted = DateUtils.formatYearMonthDayDate(date);
+
+            // THEN the results are the ones of SimpleDateFormat
+            assertEquals("formatted", format.format(date), formatted);
+            assertEquals("parsed", format.parse(formatted), DateUtils.parseYearMonthDayDate(formatted));
+        }
+    }
+
+    @SmallTest
+    public void test_httpDate_matchesSimpleDateFormat() throws ParseException {
+        // GIVEN the RFC 7231 format
+        final SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+        for (int i = 0; i < 1000; i++) {
+            final Date date = new Date(randomDate().getTime() / 1000 * 1000);
+
+            // WHEN formatting and parsing dates
+            final String formatted = DateUtils.formatHttpDate(date.getTime());
+
+            // THEN the results are the ones of SimpleDateFormat
+            assertEquals("formatted", format.format(date), formatted);
+            assertEquals("parsed", date.getTime(), DateUtils.parseHttpDate(formatted));
+        }
+        assertEquals("RFC example", 784111777000L, DateUtils.parseHttpDate("Sun, 06 Nov 1994 08:49:37 GMT"));
+    }
+
+    private Date randomDate() {
+        // between 1900 and 2100
+        final long minMs = -2208988800000L;
+        final long maxMs = 4102444800000L;
+        return new Date(minMs + (long) (random.nextDouble() * (maxMs - minMs)));
+    }
+}
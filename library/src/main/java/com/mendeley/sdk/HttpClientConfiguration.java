@@ -0,0 +1,168 @@
+package com.mendeley.sdk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * Data structure with the settings of the HTTP client shared by every {@link Request} of the SDK.
+ *
+ * <p/>
+ *
+ * Use {@link Builder} to tune the connection pool, the timeouts and the dispatcher limits, and pass
+ * the result to {@link Mendeley#init(android.content.Context, String, String, HttpClientConfiguration)}
+ * or to {@link Request#setHttpClient(OkHttpClient)} via {@link #createOkHttpClient()}.
+ */
+public class HttpClientConfiguration {
+
+    /**
+     * Configuration used by the SDK unless the app provides a different one.
+     */
+    public static final HttpClientConfiguration DEFAULT = new Builder().build();
+
+    public final long connectTimeoutMs;
+    public final long readTimeoutMs;
+    public final long writeTimeoutMs;
+    public final int maxIdleConnections;
+    public final long keepAliveDurationMs;
+    public final int maxRequests;
+    public final int maxRequestsPerHost;
+    public final boolean http2Preferred;
+
+    private HttpClientConfiguration(long connectTimeoutMs, long readTimeoutMs, long writeTimeoutMs, int maxIdleConnections, long keepAliveDurationMs, int maxRequests, int maxRequestsPerHost, boolean http2Preferred) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.writeTimeoutMs = writeTimeoutMs;
+        this.maxIdleConnections = maxIdleConnections;
+        this.keepAliveDurationMs = keepAliveDurationMs;
+        this.maxRequests = maxRequests;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        this.http2Preferred = http2Preferred;
+    }
+
+    /**
+     * Creates a new {@link OkHttpClient} with this configuration.
+     * The client owns its connection pool, so it should be created once and shared.
+     *
+     * @return the client
+     */
+    public OkHttpClient createOkHttpClient() {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        final List<Protocol> protocols = new ArrayList<Protocol>();
+        if (http2Preferred) {
+            protocols.add(Protocol.HTTP_2);
+        }
+        protocols.add(Protocol.HTTP_1_1);
+
+        return new OkHttpClient.Builder()
+                .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .writeTimeout(writeTimeoutMs, TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveDurationMs, TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .protocols(protocols)
+                .followRedirects(true)
+                .build();
+    }
+
+    public static class Builder {
+        private long connectTimeoutMs = Request.CONNECTION_TIMEOUT;
+        private long readTimeoutMs = Request.READ_TIMEOUT;
+        private long writeTimeoutMs = Request.READ_TIMEOUT;
+        private int maxIdleConnections = 5;
+        private long keepAliveDurationMs = TimeUnit.MINUTES.toMillis(5);
+        private int maxRequests = 64;
+        private int maxRequestsPerHost = 5;
+        private boolean http2Preferred = true;
+
+        public Builder() {
+        }
+
+        public Builder(HttpClientConfiguration from) {
+            this.connectTimeoutMs = from.connectTimeoutMs;
+            this.readTimeoutMs = from.readTimeoutMs;
+            this.writeTimeoutMs = from.writeTimeoutMs;
+            this.maxIdleConnections = from.maxIdleConnections;
+            this.keepAliveDurationMs = from.keepAliveDurationMs;
+            this.maxRequests = from.maxRequests;
+            this.maxRequestsPerHost = from.maxRequestsPerHost;
+            this.http2Preferred = from.http2Preferred;
+        }
+
+        public Builder setConnectTimeoutMs(long connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+            return this;
+        }
+
+        public Builder setReadTimeoutMs(long readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+            return this;
+        }
+
+        public Builder setWriteTimeoutMs(long writeTimeoutMs) {
+            this.writeTimeoutMs = writeTimeoutMs;
+            return this;
+        }
+
+        /**
+         * @param maxIdleConnections number of idle connections kept alive in the pool
+         */
+        public Builder setMaxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * @param keepAliveDurationMs time an idle connection is kept in the pool before being closed
+         */
+        public Builder setKeepAliveDurationMs(long keepAliveDurationMs) {
+            this.keepAliveDurationMs = keepAliveDurationMs;
+            return this;
+        }
+
+        /**
+         * @param maxRequests maximum number of asynchronous calls running at the same time in the dispatcher
+         */
+        public Builder setMaxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * @param maxRequestsPerHost maximum number of asynchronous calls running at the same time against one host
+         */
+        public Builder setMaxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * @param http2Preferred whether HTTP/2 should be negotiated when the server supports it.
+         *                       HTTP/1.1 is always kept as a fallback.
+         */
+        public Builder setHttp2Preferred(boolean http2Preferred) {
+            this.http2Preferred = http2Preferred;
+            return this;
+        }
+
+        public HttpClientConfiguration build() {
+            return new HttpClientConfiguration(
+                    connectTimeoutMs,
+                    readTimeoutMs,
+                    writeTimeoutMs,
+                    maxIdleConnections,
+                    keepAliveDurationMs,
+                    maxRequests,
+                    maxRequestsPerHost,
+                    http2Preferred);
+        }
+    }
+}
@@ -7,7 +7,9 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.net.Uri;
 import android.text.TextUtils;
+import android.util.Log;
 
+import com.mendeley.sdk.exceptions.LocalStoreException;
 import com.mendeley.sdk.model.Annotation;
 import com.mendeley.sdk.model.Document;
 import com.mendeley.sdk.model.File;
@@ -16,6 +18,12 @@ import com.mendeley.sdk.model.Group;
 import com.mendeley.sdk.model.Profile;
 import com.mendeley.sdk.model.ReadPosition;
 import com.mendeley.sdk.model.UserRole;
+import com.mendeley.sdk.request.BulkRequest;
+import com.mendeley.sdk.request.FieldProjection;
+import com.mendeley.sdk.request.GetAuthorizedRequest;
+import com.mendeley.sdk.request.ResponseCache;
+import com.mendeley.sdk.request.StreamingGetAuthorizedRequest;
+import com.mendeley.sdk.request.TokenRefreshCoordinator;
 import com.mendeley.sdk.request.endpoint.AnnotationsEndpoint;
 import com.mendeley.sdk.request.endpoint.CatalogEndpoint;
 import com.mendeley.sdk.request.endpoint.DocumentEndpoint;
@@ -29,6 +37,9 @@ import com.mendeley.sdk.request.endpoint.RecentlyReadEndpoint;
 import com.mendeley.sdk.request.endpoint.SubjectAreasEndpoint;
 import com.mendeley.sdk.request.endpoint.TrashEndpoint;
 import com.mendeley.sdk.request.endpoint.UserRolesEndpoint;
+import com.mendeley.sdk.sync.AnnotationStore;
+import com.mendeley.sdk.sync.DocumentStore;
+import com.mendeley.sdk.sync.SyncDatabase;
 import com.mendeley.sdk.ui.sign_in.SignInActivity;
 
 import java.io.InputStream;
@@ -36,6 +47,19 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
 
 /**
  * Class exposing all the pubic functionality of the Mendeley SDK.
@@ -68,9 +92,14 @@ public class Mendeley {
 
     private static Mendeley instance;
 
+    // clears the synchronised data when signing out, away from the calling thread
+    private static final ExecutorService signOutExecutor = createSignOutExecutor();
+
     private ClientCredentials clientCredentials;
     private AuthTokenManager authTokenManager;
     private RequestsFactory requestsFactory;
+    private TokenRefreshCoordinator tokenRefreshCoordinator;
+    private Context applicationContext;
 
     /**
      * @return a reference to the @{Mendeley} SDK singleton.
@@ -94,9 +123,31 @@ public class Mendeley {
      * @param appSecret, valid client app secret
      */
     public final void init(Context context, String appId, String appSecret) {
+        init(context, appId, appSecret, HttpClientConfiguration.DEFAULT);
+    }
+
+    /**
+     * Initialises the SDK, providing a valid API key and credentials to obtain authorization tokens
+     * from the Mendeley API, and the configuration of the HTTP client shared by every {@link Request}.
+     *
+     * @param context a Context, only its application context will be kept as a reference.
+     * @param appId, valid client app id
+     * @param appSecret, valid client app secret
+     * @param httpClientConfiguration settings of the connection pool, timeouts and dispatcher.
+     *                                Ignored if a client has already been installed with
+     *                                {@link Request#setHttpClient(OkHttpClient)}, or created by a
+     *                                request run before, which is kept.
+     */
+    public final void init(Context context, String appId, String appSecret, HttpClientConfiguration httpClientConfiguration) {
+        this.applicationContext = context.getApplicationContext();
         this.clientCredentials = new ClientCredentials(appId, appSecret);
         this.authTokenManager = SharedPreferencesAuthTokenManager.obtain(context);
         this.requestsFactory = new RequestFactoryImpl(authTokenManager, clientCredentials);
+        Request.initHttpClient(httpClientConfiguration);
+
+        // refresh the access token in the background before it expires, so requests don't wait for it
+        this.tokenRefreshCoordinator = TokenRefreshCoordinator.obtain(authTokenManager, clientCredentials);
+        this.tokenRefreshCoordinator.setProactiveRefreshEnabled(true);
     }
 
     /**
@@ -129,11 +180,41 @@ public class Mendeley {
      *
      * <p/>
      *
-     * In practice, this simply means clearing the authorization tokens from the Mendeley SDK, if any.*
+     * In practice, this means clearing the authorization tokens from the Mendeley SDK, if any, and
+     * the data of the user kept by the SDK: the cached responses and the documents and annotations
+     * synchronised into the default database of {@link DocumentStore} and {@link AnnotationStore}.
+     *
+     * <p/>
+     *
+     * The running synchronisations are cancelled straight away, but the database is cleared in a
+     * background thread once they have stopped, so this method can be called in the UI thread.
+     * The database is not created if the application never synchronised any data.
      */
     public void signOut() {
         assertInitialised();
         authTokenManager.clearTokens();
+
+        // cached responses belong to the user signing out
+        if (requestsFactory instanceof RequestFactoryImpl) {
+            final ResponseCache responseCache = ((RequestFactoryImpl) requestsFactory).getResponseCache();
+            if (responseCache != null) {
+                responseCache.clear();
+            }
+        }
+
+        // so is the synchronised data, which the next user must not see
+        SyncDatabase.cancelRunningSyncs();
+        final Context context = applicationContext;
+        signOutExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    SyncDatabase.clear(context);
+                } catch (LocalStoreException e) {
+                    Log.e(Mendeley.class.getSimpleName(), "Error clearing the synchronised data", e);
+                }
+            }
+        });
     }
 
     /**
@@ -218,6 +299,17 @@ public class Mendeley {
         }
     }
 
+    private static ExecutorService createSignOutExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "MendeleySignOut");
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
      * Interface that should be implemented by the application for receiving callbacks for sign
      * in events.
@@ -240,15 +332,41 @@ public class Mendeley {
 
         private final ClientCredentials clientCredentials;
         private final AuthTokenManager authTokenManager;
+        private volatile ResponseCache responseCache;
 
         public RequestFactoryImpl(AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
             this.authTokenManager = authTokenManager;
             this.clientCredentials = clientCredentials;
         }
 
+        /**
+         * Sets a cache for the parsed responses of the GET requests created by this factory from
+         * now on. See {@link GetAuthorizedRequest#setResponseCache(ResponseCache)}
+         *
+         * @param responseCache the cache, or null to not use any
+         */
+        public void setResponseCache(ResponseCache responseCache) {
+            this.responseCache = responseCache;
+        }
+
+        /**
+         * @return the cache for the parsed responses of the GET requests. May be null.
+         */
+        public ResponseCache getResponseCache() {
+            return responseCache;
+        }
+
+        private <ResultType> GetAuthorizedRequest<ResultType> withResponseCache(GetAuthorizedRequest<ResultType> request) {
+            final ResponseCache cache = responseCache;
+            if (cache != null) {
+                request.setResponseCache(cache);
+            }
+            return request;
+        }
+
         @Override
         public Request<Profile> newGetMyProfileRequest() {
-            return new ProfilesEndpoint.GetProfileRequest("me", authTokenManager, clientCredentials);
+            return withResponseCache(new ProfilesEndpoint.GetProfileRequest("me", authTokenManager, clientCredentials));
         }
 
         @Override
@@ -258,7 +376,7 @@ public class Mendeley {
 
         @Override
         public Request<Profile> newGetProfileRequest(final String profileId) {
-            return new ProfilesEndpoint.GetProfileRequest(profileId, authTokenManager, clientCredentials);
+            return withResponseCache(new ProfilesEndpoint.GetProfileRequest(profileId, authTokenManager, clientCredentials));
         }
 
         @Override
@@ -273,27 +391,61 @@ public class Mendeley {
 
         @Override
         public Request<Map<String, String>> newGetDocumentTypesRequest()  {
-            return new DocumentTypesEndpoint.GetDocumentTypesRequest(authTokenManager, clientCredentials);
+            return withResponseCache(new DocumentTypesEndpoint.GetDocumentTypesRequest(authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<Map<String, String>> newGetDocumentIdentifierTypesRequest() {
-            return new DocumentIdentifiersEndpoint.GetDocumentIdentifiersRequest(authTokenManager, clientCredentials);
+            return withResponseCache(new DocumentIdentifiersEndpoint.GetDocumentIdentifiersRequest(authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<List<Document>> newGetDocumentsRequest(DocumentEndpoint.DocumentRequestParameters parameters) {
-            return new DocumentEndpoint.GetDocumentsRequest(parameters, authTokenManager, clientCredentials);
+            return withResponseCache(new DocumentEndpoint.GetDocumentsRequest(parameters, authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<List<Document>> newGetDocumentsRequest(Uri url) {
-            return new DocumentEndpoint.GetDocumentsRequest(url, authTokenManager, clientCredentials);
+            return withResponseCache(new DocumentEndpoint.GetDocumentsRequest(url, authTokenManager, clientCredentials));
+        }
+
+        @Override
+        public Request<List<Document>> newGetDocumentsRequest(DocumentEndpoint.DocumentRequestParameters parameters, FieldProjection fieldProjection) {
+            final DocumentEndpoint.GetDocumentsRequest request = new DocumentEndpoint.GetDocumentsRequest(parameters, authTokenManager, clientCredentials);
+            request.setFieldProjection(fieldProjection);
+            return withResponseCache(request);
+        }
+
+        @Override
+        public Request<List<Document>> newGetDocumentsRequest(Uri url, FieldProjection fieldProjection) {
+            final DocumentEndpoint.GetDocumentsRequest request = new DocumentEndpoint.GetDocumentsRequest(url, authTokenManager, clientCredentials);
+            request.setFieldProjection(fieldProjection);
+            return withResponseCache(request);
+        }
+
+        @Override
+        public PagedIterable<Document> newGetDocumentsIterable(DocumentEndpoint.DocumentRequestParameters parameters) {
+            return new PagedIterable<>(newGetDocumentsRequest(parameters).getUrl(), new PagedIterable.PageRequestFactory<Document>() {
+                @Override
+                public Request<List<Document>> newRequest(Uri pageUrl) {
+                    return newGetDocumentsRequest(pageUrl);
+                }
+            });
+        }
+
+        @Override
+        public Request<Integer> newStreamDocumentsRequest(DocumentEndpoint.DocumentRequestParameters parameters, StreamingGetAuthorizedRequest.ItemConsumer<Document> consumer) {
+            return new DocumentEndpoint.StreamDocumentsRequest(parameters, consumer, authTokenManager, clientCredentials);
+        }
+
+        @Override
+        public Request<Integer> newStreamDocumentsRequest(Uri uri, StreamingGetAuthorizedRequest.ItemConsumer<Document> consumer) {
+            return new DocumentEndpoint.StreamDocumentsRequest(uri, consumer, authTokenManager, clientCredentials);
         }
 
         @Override
         public Request<Document> newGetDocumentRequest(String documentId, DocumentEndpoint.DocumentRequestParameters.View view) {
-            return new DocumentEndpoint.GetDocumentRequest(documentId, view, authTokenManager, clientCredentials);
+            return withResponseCache(new DocumentEndpoint.GetDocumentRequest(documentId, view, authTokenManager, clientCredentials));
         }
 
         @Override
@@ -323,12 +475,22 @@ public class Mendeley {
 
         @Override
         public Request<List<Document>> newGetTrashedDocumentsRequest(DocumentEndpoint.DocumentRequestParameters parameters) {
-            return new TrashEndpoint.GetTrashedDocumentsRequest(parameters, authTokenManager, clientCredentials);
+            return withResponseCache(new TrashEndpoint.GetTrashedDocumentsRequest(parameters, authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<List<Document>> newGetTrashedDocumentsRequest(Uri uri) {
-            return new TrashEndpoint.GetTrashedDocumentsRequest(uri, authTokenManager, clientCredentials);
+            return withResponseCache(new TrashEndpoint.GetTrashedDocumentsRequest(uri, authTokenManager, clientCredentials));
+        }
+
+        @Override
+        public PagedIterable<Document> newGetTrashedDocumentsIterable(DocumentEndpoint.DocumentRequestParameters parameters) {
+            return new PagedIterable<>(newGetTrashedDocumentsRequest(parameters).getUrl(), new PagedIterable.PageRequestFactory<Document>() {
+                @Override
+                public Request<List<Document>> newRequest(Uri pageUrl) {
+                    return newGetTrashedDocumentsRequest(pageUrl);
+                }
+            });
         }
 
         @Override
@@ -338,17 +500,51 @@ public class Mendeley {
 
         @Override
         public Request<List<Annotation>> newGetAnnotationsRequest(AnnotationsEndpoint.AnnotationRequestParameters parameters) {
-            return new AnnotationsEndpoint.GetAnnotationsRequest(parameters, authTokenManager, clientCredentials);
+            return withResponseCache(new AnnotationsEndpoint.GetAnnotationsRequest(parameters, authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<List<Annotation>> newGetAnnotationsRequest(Uri url) {
-            return new AnnotationsEndpoint.GetAnnotationsRequest(url, authTokenManager, clientCredentials);
+            return withResponseCache(new AnnotationsEndpoint.GetAnnotationsRequest(url, authTokenManager, clientCredentials));
+        }
+
+        @Override
+        public Request<List<Annotation>> newGetAnnotationsRequest(AnnotationsEndpoint.AnnotationRequestParameters parameters, FieldProjection fieldProjection) {
+            final AnnotationsEndpoint.GetAnnotationsRequest request = new AnnotationsEndpoint.GetAnnotationsRequest(parameters, authTokenManager, clientCredentials);
+            request.setFieldProjection(fieldProjection);
+            return withResponseCache(request);
+        }
+
+        @Override
+        public Request<List<Annotation>> newGetAnnotationsRequest(Uri url, FieldProjection fieldProjection) {
+            final AnnotationsEndpoint.GetAnnotationsRequest request = new AnnotationsEndpoint.GetAnnotationsRequest(url, authTokenManager, clientCredentials);
+            request.setFieldProjection(fieldProjection);
+            return withResponseCache(request);
+        }
+
+        @Override
+        public PagedIterable<Annotation> newGetAnnotationsIterable(AnnotationsEndpoint.AnnotationRequestParameters parameters) {
+            return new PagedIterable<>(newGetAnnotationsRequest(parameters).getUrl(), new PagedIterable.PageRequestFactory<Annotation>() {
+                @Override
+                public Request<List<Annotation>> newRequest(Uri pageUrl) {
+                    return newGetAnnotationsRequest(pageUrl);
+                }
+            });
+        }
+
+        @Override
+        public Request<Integer> newStreamAnnotationsRequest(AnnotationsEndpoint.AnnotationRequestParameters parameters, StreamingGetAuthorizedRequest.ItemConsumer<Annotation> consumer) {
+            return new AnnotationsEndpoint.StreamAnnotationsRequest(parameters, consumer, authTokenManager, clientCredentials);
+        }
+
+        @Override
+        public Request<Integer> newStreamAnnotationsRequest(Uri uri, StreamingGetAuthorizedRequest.ItemConsumer<Annotation> consumer) {
+            return new AnnotationsEndpoint.StreamAnnotationsRequest(uri, consumer, authTokenManager, clientCredentials);
         }
 
         @Override
         public Request<Annotation> newGetAnnotationRequest(String annotationId) {
-            return new AnnotationsEndpoint.GetAnnotationRequest(annotationId, authTokenManager, clientCredentials);
+            return withResponseCache(new AnnotationsEndpoint.GetAnnotationRequest(annotationId, authTokenManager, clientCredentials));
         }
 
         @Override
@@ -368,12 +564,46 @@ public class Mendeley {
 
         @Override
         public Request<List<File>> newGetFilesRequest(FilesEndpoint.FileRequestParameters parameters) {
-            return new FilesEndpoint.GetFilesRequest(parameters, authTokenManager, clientCredentials);
+            return withResponseCache(new FilesEndpoint.GetFilesRequest(parameters, authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<List<File>> newGetFilesRequest(Uri uri) {
-            return new FilesEndpoint.GetFilesRequest(uri, authTokenManager, clientCredentials);
+            return withResponseCache(new FilesEndpoint.GetFilesRequest(uri, authTokenManager, clientCredentials));
+        }
+
+        @Override
+        public Request<List<File>> newGetFilesRequest(FilesEndpoint.FileRequestParameters parameters, FieldProjection fieldProjection) {
+            final FilesEndpoint.GetFilesRequest request = new FilesEndpoint.GetFilesRequest(parameters, authTokenManager, clientCredentials);
+            request.setFieldProjection(fieldProjection);
+            return withResponseCache(request);
+        }
+
+        @Override
+        public Request<List<File>> newGetFilesRequest(Uri url, FieldProjection fieldProjection) {
+            final FilesEndpoint.GetFilesRequest request = new FilesEndpoint.GetFilesRequest(url, authTokenManager, clientCredentials);
+            request.setFieldProjection(fieldProjection);
+            return withResponseCache(request);
+        }
+
+        @Override
+        public PagedIterable<File> newGetFilesIterable(FilesEndpoint.FileRequestParameters parameters) {
+            return new PagedIterable<>(newGetFilesRequest(parameters).getUrl(), new PagedIterable.PageRequestFactory<File>() {
+                @Override
+                public Request<List<File>> newRequest(Uri pageUrl) {
+                    return newGetFilesRequest(pageUrl);
+                }
+            });
+        }
+
+        @Override
+        public Request<Integer> newStreamFilesRequest(FilesEndpoint.FileRequestParameters parameters, StreamingGetAuthorizedRequest.ItemConsumer<File> consumer) {
+            return new FilesEndpoint.StreamFilesRequest(parameters, consumer, authTokenManager, clientCredentials);
+        }
+
+        @Override
+        public Request<Integer> newStreamFilesRequest(Uri uri, StreamingGetAuthorizedRequest.ItemConsumer<File> consumer) {
+            return new FilesEndpoint.StreamFilesRequest(uri, consumer, authTokenManager, clientCredentials);
         }
 
         @Override
@@ -393,17 +623,37 @@ public class Mendeley {
 
         @Override
         public Request<List<Folder>> newGetFoldersRequest(FoldersEndpoint.FolderRequestParameters parameters) {
-            return new FoldersEndpoint.GetFoldersRequest(parameters, authTokenManager, clientCredentials);
+            return withResponseCache(new FoldersEndpoint.GetFoldersRequest(parameters, authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<List<Folder>> newGetFoldersRequest(Uri uri) {
-            return new FoldersEndpoint.GetFoldersRequest(uri, authTokenManager, clientCredentials);
+            return withResponseCache(new FoldersEndpoint.GetFoldersRequest(uri, authTokenManager, clientCredentials));
+        }
+
+        @Override
+        public PagedIterable<Folder> newGetFoldersIterable(FoldersEndpoint.FolderRequestParameters parameters) {
+            return new PagedIterable<>(newGetFoldersRequest(parameters).getUrl(), new PagedIterable.PageRequestFactory<Folder>() {
+                @Override
+                public Request<List<Folder>> newRequest(Uri pageUrl) {
+                    return newGetFoldersRequest(pageUrl);
+                }
+            });
+        }
+
+        @Override
+        public Request<Integer> newStreamFoldersRequest(FoldersEndpoint.FolderRequestParameters parameters, StreamingGetAuthorizedRequest.ItemConsumer<Folder> consumer) {
+            return new FoldersEndpoint.StreamFoldersRequest(parameters, consumer, authTokenManager, clientCredentials);
+        }
+
+        @Override
+        public Request<Integer> newStreamFoldersRequest(Uri uri, StreamingGetAuthorizedRequest.ItemConsumer<Folder> consumer) {
+            return new FoldersEndpoint.StreamFoldersRequest(uri, consumer, authTokenManager, clientCredentials);
         }
 
         @Override
         public Request<Folder> newGetFolderRequest(String folderId) {
-            return new FoldersEndpoint.GetFolderRequest(folderId, authTokenManager, clientCredentials);
+            return withResponseCache(new FoldersEndpoint.GetFolderRequest(folderId, authTokenManager, clientCredentials));
         }
 
         @Override
@@ -424,12 +674,12 @@ public class Mendeley {
 
         @Override
         public Request<List<String>> newGetFolderDocumentsRequest(FoldersEndpoint.FolderRequestParameters parameters, String folderId) {
-            return new FoldersEndpoint.GetFolderDocumentIdsRequest(parameters, folderId, authTokenManager, clientCredentials);
+            return withResponseCache(new FoldersEndpoint.GetFolderDocumentIdsRequest(parameters, folderId, authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<List<String>> newGetFolderDocumentsRequest(Uri uri) {
-            return new FoldersEndpoint.GetFolderDocumentIdsRequest(uri, authTokenManager, clientCredentials);
+            return withResponseCache(new FoldersEndpoint.GetFolderDocumentIdsRequest(uri, authTokenManager, clientCredentials));
         }
 
         @Override
@@ -444,33 +694,43 @@ public class Mendeley {
 
         @Override
         public Request<List<Group>> newGetGroupsRequest(GroupsEndpoint.GroupRequestParameters parameters) {
-            return new GroupsEndpoint.GetGroupsRequest(parameters, authTokenManager, clientCredentials);
+            return withResponseCache(new GroupsEndpoint.GetGroupsRequest(parameters, authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<List<Group>> newGetGroupsRequest(Uri uri) {
-            return new GroupsEndpoint.GetGroupsRequest(uri, authTokenManager, clientCredentials);
+            return withResponseCache(new GroupsEndpoint.GetGroupsRequest(uri, authTokenManager, clientCredentials));
+        }
+
+        @Override
+        public PagedIterable<Group> newGetGroupsIterable(GroupsEndpoint.GroupRequestParameters parameters) {
+            return new PagedIterable<>(newGetGroupsRequest(parameters).getUrl(), new PagedIterable.PageRequestFactory<Group>() {
+                @Override
+                public Request<List<Group>> newRequest(Uri pageUrl) {
+                    return newGetGroupsRequest(pageUrl);
+                }
+            });
         }
 
         @Override
         public Request<Group> newGetGroupRequest(String groupId) {
-            return new GroupsEndpoint.GetGroupRequest(groupId, authTokenManager, clientCredentials);
+            return withResponseCache(new GroupsEndpoint.GetGroupRequest(groupId, authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<List<UserRole>> newGetGroupMembersRequest(GroupsEndpoint.GroupRequestParameters parameters, String groupId) {
-            return new GroupsEndpoint.GetGroupMembersRequest(parameters, groupId, authTokenManager, clientCredentials);
+            return withResponseCache(new GroupsEndpoint.GetGroupMembersRequest(parameters, groupId, authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<List<UserRole>> newGetGroupMembersRequest(Uri url){
-            return new GroupsEndpoint.GetGroupMembersRequest(url, authTokenManager, clientCredentials);
+            return withResponseCache(new GroupsEndpoint.GetGroupMembersRequest(url, authTokenManager, clientCredentials));
 
         }
 
         @Override
         public Request<List<ReadPosition>> newGetRecentlyReadRequest(String groupId, String fileId, int limit) {
-            return new RecentlyReadEndpoint.GetRecentlyReadRequest(groupId, fileId, limit, authTokenManager, clientCredentials);
+            return withResponseCache(new RecentlyReadEndpoint.GetRecentlyReadRequest(groupId, fileId, limit, authTokenManager, clientCredentials));
         }
 
         @Override
@@ -480,17 +740,22 @@ public class Mendeley {
 
         @Override
         public Request<List<String>> newGetSubjectAreasRequest() {
-            return new SubjectAreasEndpoint.GetSubjectAreasRequest(authTokenManager, clientCredentials);
+            return withResponseCache(new SubjectAreasEndpoint.GetSubjectAreasRequest(authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<List<String>> newGetUserRolesRequest() {
-            return new UserRolesEndpoint.GetUserRolesRequest(authTokenManager, clientCredentials);
+            return withResponseCache(new UserRolesEndpoint.GetUserRolesRequest(authTokenManager, clientCredentials));
         }
 
         @Override
         public Request<List<Document>> newGetCatalogDocument(String identifier, String value) {
-            return new CatalogEndpoint.GetCatalogDocumentRequest(identifier, value, authTokenManager, clientCredentials);
+            return withResponseCache(new CatalogEndpoint.GetCatalogDocumentRequest(identifier, value, authTokenManager, clientCredentials));
+        }
+
+        @Override
+        public BulkRequest newBulkRequest(List<? extends Request<?>> requests) {
+            return new BulkRequest(requests);
         }
     }
 
@@ -504,6 +769,14 @@ public class Mendeley {
      * Typical Android applications using the Mendeley SDK won't directly need to deal with this,
      * but this class is left public in case you don't want to use the {@link Mendeley} singleton
      * in your app and you prefer to instantiate the {@link AuthTokenManager} by yourself.
+     *
+     * <p/>
+     *
+     * The tokens are kept in memory and read without locks nor disk access. Changes are written
+     * to disk in the background, see {@link #setPersistenceListener(PersistenceListener)} and
+     * {@link #flush(long)} to know when they are durable. Every instance using the same
+     * {@link SharedPreferences} shares the tokens in memory, so a new instance sees the changes
+     * of the others even before they are written.
      */
     public static class SharedPreferencesAuthTokenManager implements AuthTokenManager {
 
@@ -519,55 +792,90 @@ public class Mendeley {
             return new SharedPreferencesAuthTokenManager(context.getSharedPreferences(SharedPreferencesAuthTokenManager.SHARED_PREFERENCES_NAME, Context.MODE_PRIVATE));
         }
 
+        // Single thread shared by every instance, so that writes are persisted in the order they were made
+        private static final ExecutorService persistenceExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, "MendeleyTokenPersistence");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        // Tokens in memory of each preferences file, loaded by the first instance using it
+        private static final Map<SharedPreferences, AtomicReference<Tokens>> tokensByPreferences = new WeakHashMap<SharedPreferences, AtomicReference<Tokens>>();
 
         private final SharedPreferences preferences;
 
+        // Immutable copy of the persisted tokens, replaced as a whole so that readers need no locks
+        private final AtomicReference<Tokens> tokens;
+        private volatile PersistenceListener persistenceListener;
+
         public SharedPreferencesAuthTokenManager(SharedPreferences preferences) {
             this.preferences = preferences;
+            this.tokens = sharedTokens(preferences);
+        }
+
+        /**
+         * Sets a listener to be notified when the tokens have been written to disk.
+         *
+         * @param persistenceListener the listener, or null to remove it
+         */
+        public final void setPersistenceListener(PersistenceListener persistenceListener) {
+            this.persistenceListener = persistenceListener;
+        }
+
+        /**
+         * Blocks until every change made so far has been written to disk.
+         *
+         * @param timeoutMs maximum time to wait
+         * @return true if the changes have been written, false if the time elapsed before
+         */
+        public final boolean flush(long timeoutMs) throws InterruptedException {
+            final Future<?> future = persistenceExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            try {
+                future.get(timeoutMs, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (ExecutionException e) {
+                return false;
+            } catch (TimeoutException e) {
+                return false;
+            }
         }
 
-        @SuppressLint("CommitPrefEdits")
         @Override
         public final void saveTokens(String accessToken, String refreshToken, String tokenType, int expiresIn)  {
-            Date expiresAt = generateExpiresAtFromExpiresIn(expiresIn);
-
-            SharedPreferences.Editor editor = preferences.edit();
-            editor.putString(ACCESS_TOKEN_KEY, accessToken);
-            editor.putString(REFRESH_TOKEN_KEY, refreshToken);
-            editor.putString(TOKEN_TYPE_KEY, tokenType);
-            editor.putLong(EXPIRES_AT_KEY, expiresAt.getTime());
-            editor.commit();
+            final Date expiresAt = generateExpiresAtFromExpiresIn(expiresIn);
+            setTokens(new Tokens(accessToken, refreshToken, tokenType, expiresAt.getTime()));
         }
 
-        @SuppressLint("CommitPrefEdits")
         @Override
         public final void clearTokens() {
-            SharedPreferences.Editor editor = preferences.edit();
-            editor.remove(ACCESS_TOKEN_KEY);
-            editor.remove(REFRESH_TOKEN_KEY);
-            editor.remove(EXPIRES_AT_KEY);
-            editor.remove(TOKEN_TYPE_KEY);
-            editor.commit();
+            setTokens(new Tokens(null, null, null, 0));
         }
 
         @Override
         public final Date getAuthTokenExpirationDate() {
-            return new Date(preferences.getLong(EXPIRES_AT_KEY, 0));
+            return new Date(tokens.get().expiresAtMs);
         }
 
         @Override
         public final String getRefreshToken() {
-            return preferences.getString(REFRESH_TOKEN_KEY, null);
+            return tokens.get().refreshToken;
         }
 
         @Override
         public final  String getAccessToken() {
-            return preferences.getString(ACCESS_TOKEN_KEY, null);
+            return tokens.get().accessToken;
         }
 
         @Override
         public final String getTokenType() {
-            return preferences.getString(TOKEN_TYPE_KEY, null);
+            return tokens.get().tokenType;
         }
 
         private Date generateExpiresAtFromExpiresIn(int expiresIn) {
@@ -575,5 +883,84 @@ public class Mendeley {
             c.add(Calendar.SECOND, expiresIn);
             return c.getTime();
         }
+
+        private static AtomicReference<Tokens> sharedTokens(SharedPreferences preferences) {
+            synchronized (tokensByPreferences) {
+                AtomicReference<Tokens> tokens = tokensByPreferences.get(preferences);
+                if (tokens == null) {
+                    tokens = new AtomicReference<Tokens>(new Tokens(
+                            preferences.getString(ACCESS_TOKEN_KEY, null),
+                            preferences.getString(REFRESH_TOKEN_KEY, null),
+                            preferences.getString(TOKEN_TYPE_KEY, null),
+                            preferences.getLong(EXPIRES_AT_KEY, 0)));
+                    tokensByPreferences.put(preferences, tokens);
+                }
+                return tokens;
+            }
+        }
+
+        private void setTokens(Tokens newTokens) {
+            // queued under the same lock, so that the last tokens in memory are the last ones written
+            synchronized (tokens) {
+                tokens.set(newTokens);
+                persist(newTokens);
+            }
+        }
+
+        /**
+         * Writes the tokens to disk in the background. The tokens in memory are already updated,
+         * so requests don't wait for the disk.
+         */
+        private void persist(final Tokens toPersist) {
+            persistenceExecutor.execute(new Runnable() {
+                @SuppressLint("CommitPrefEdits")
+                @Override
+                public void run() {
+                    final SharedPreferences.Editor editor = preferences.edit();
+                    if (toPersist.accessToken == null && toPersist.refreshToken == null) {
+                        editor.remove(ACCESS_TOKEN_KEY);
+                        editor.remove(REFRESH_TOKEN_KEY);
+                        editor.remove(EXPIRES_AT_KEY);
+                        editor.remove(TOKEN_TYPE_KEY);
+                    } else {
+                        editor.putString(ACCESS_TOKEN_KEY, toPersist.accessToken);
+                        editor.putString(REFRESH_TOKEN_KEY, toPersist.refreshToken);
+                        editor.putString(TOKEN_TYPE_KEY, toPersist.tokenType);
+                        editor.putLong(EXPIRES_AT_KEY, toPersist.expiresAtMs);
+                    }
+                    final boolean success = editor.commit();
+
+                    final PersistenceListener listener = persistenceListener;
+                    if (listener != null) {
+                        listener.onTokensPersisted(success);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Listener notified when the tokens have been written to disk, in a background thread.
+         */
+        public interface PersistenceListener {
+
+            /**
+             * @param success whether the tokens could be written
+             */
+            void onTokensPersisted(boolean success);
+        }
+
+        private static class Tokens {
+            private final String accessToken;
+            private final String refreshToken;
+            private final String tokenType;
+            private final long expiresAtMs;
+
+            Tokens(String accessToken, String refreshToken, String tokenType, long expiresAtMs) {
+                this.accessToken = accessToken;
+                this.refreshToken = refreshToken;
+                this.tokenType = tokenType;
+                this.expiresAtMs = expiresAtMs;
+            }
+        }
     }
 }
@@ -0,0 +1,412 @@
+package com.mendeley.sdk;
+
+import android.net.Uri;
+
+import com.mendeley.sdk.exceptions.MendeleyException;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link Iterable} over all the items of a paginated list request, such as
+ * {@link RequestsFactory#newGetDocumentsRequest(Uri)}.
+ *
+ * <p/>
+ *
+ * Each call to {@link #iterator()} walks the pages from the first one, following the
+ * {@link Request.Response#next} links. Pages are fetched in the background: while the consumer
+ * works through one page, up to {@code prefetchDepth} of the following pages are requested and
+ * parsed, so network waiting time overlaps with the work of the consumer.
+ *
+ * <p/>
+ *
+ * The iterators block the calling thread when the next page has not arrived yet, so they should
+ * not be used in the UI thread. Errors fetching a page are thrown as {@link PageFetchException}s.
+ *
+ * <p/>
+ *
+ * Page requests queued in the lane of a {@link RequestScheduler} the consumer is itself running in
+ * could wait forever for the slot held by the consumer. So when no executor is passed and the
+ * iterator is created in a thread of the default scheduler running a task of the lane of the page
+ * requests, such as a sync request run with {@link Request#runAsync(Request.RequestCallback)},
+ * the pages are fetched one by one in the consumer thread, without prefetching. Passing the
+ * executor of the lane the consumer is running in throws an {@link IllegalStateException}.
+ *
+ * @param <T> type of the items of the list
+ */
+public class PagedIterable<T> implements Iterable<T> {
+
+    /**
+     * Number of pages fetched ahead of the page being consumed when nothing else is specified.
+     */
+    public static final int DEFAULT_PREFETCH_DEPTH = 1;
+
+    private final Uri firstPageUrl;
+    private final PageRequestFactory<T> requestFactory;
+    private final int prefetchDepth;
+    private final Executor executor;
+
+    /**
+     * Constructor, fetching one page ahead in the {@link RequestScheduler} lane of the page requests.
+     *
+     * @param firstPageUrl URL of the first page
+     * @param requestFactory factory of the requests obtaining each page
+     */
+    public PagedIterable(Uri firstPageUrl, PageRequestFactory<T> requestFactory) {
+        this(firstPageUrl, requestFactory, DEFAULT_PREFETCH_DEPTH, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param firstPageUrl URL of the first page
+     * @param requestFactory factory of the requests obtaining each page
+     * @param prefetchDepth maximum number of pages fetched ahead of the page being consumed
+     * @param executor where the page requests will be run. If null, they are run by the default
+     *                 {@link RequestScheduler} in the lane of each request, or in the consumer
+     *                 thread if it's running in that lane itself.
+     */
+    public PagedIterable(Uri firstPageUrl, PageRequestFactory<T> requestFactory, int prefetchDepth, Executor executor) {
+        if (prefetchDepth < 1) {
+            throw new IllegalArgumentException("The prefetch depth must be at least one page");
+        }
+        this.firstPageUrl = firstPageUrl;
+        this.requestFactory = requestFactory;
+        this.prefetchDepth = prefetchDepth;
+        this.executor = executor;
+    }
+
+    /**
+     * @return a new iterator over the items of every page, starting to fetch the first page
+     * @throws IllegalStateException if the executor of the iterable is the lane of the default
+     *          {@link RequestScheduler} the calling thread is running in
+     */
+    @Override
+    public PagedIterator iterator() {
+        return new PagedIterator(new PageFetcher());
+    }
+
+    /**
+     * @return a new iterator over the pages, starting to fetch the first page
+     * @throws IllegalStateException if the executor of the iterable is the lane of the default
+     *          {@link RequestScheduler} the calling thread is running in
+     */
+    public PageIterator pageIterator() {
+        return new PageIterator(new PageFetcher());
+    }
+
+    /**
+     * Factory of the {@link Request}s obtaining each page of the list.
+     *
+     * @param <T> type of the items of the list
+     */
+    public interface PageRequestFactory<T> {
+
+        /**
+         * @param pageUrl URL of the page, either the first one or the
+         *                {@link Request.Response#next} of the previous page
+         * @return the request
+         */
+        Request<List<T>> newRequest(Uri pageUrl);
+    }
+
+    /**
+     * One page of the list.
+     *
+     * @param <T> type of the items of the list
+     */
+    public static class Page<T> {
+
+        /**
+         * Items of the page
+         */
+        public final List<T> items;
+
+        /**
+         * URL the page was obtained from
+         */
+        public final Uri url;
+
+        /**
+         * Date of the request of the page in the Mendeley server clock.
+         */
+        public final Date serverDate;
+
+        public Page(List<T> items, Uri url, Date serverDate) {
+            this.items = items;
+            this.url = url;
+            this.serverDate = serverDate;
+        }
+    }
+
+    /**
+     * Unchecked exception thrown by the iterators when a page can't be obtained.
+     */
+    public static class PageFetchException extends RuntimeException {
+
+        private final Uri pageUrl;
+
+        public PageFetchException(Uri pageUrl, MendeleyException cause) {
+            super("Could not fetch page " + pageUrl, cause);
+            this.pageUrl = pageUrl;
+        }
+
+        /**
+         * @return URL of the page that could not be obtained
+         */
+        public Uri getPageUrl() {
+            return pageUrl;
+        }
+
+        /**
+         * @return the exception thrown by the request of the page
+         */
+        public MendeleyException getMendeleyException() {
+            return (MendeleyException) getCause();
+        }
+    }
+
+    /**
+     * Iterator over the pages of the list.
+     * {@link #close()} it to stop fetching pages if the walk is abandoned before the last page.
+     */
+    public class PageIterator implements Iterator<Page<T>>, Closeable {
+
+        private final PageFetcher fetcher;
+        private Page<T> nextPage;
+
+        private PageIterator(PageFetcher fetcher) {
+            this.fetcher = fetcher;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextPage == null) {
+                nextPage = fetcher.takePage();
+            }
+            return nextPage != null;
+        }
+
+        @Override
+        public Page<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Page<T> page = nextPage;
+            nextPage = null;
+            return page;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Stops fetching pages, cancelling the request of the page in progress.
+         */
+        @Override
+        public void close() {
+            fetcher.close();
+        }
+    }
+
+    /**
+     * Iterator over the items of every page of the list.
+     * {@link #close()} it to stop fetching pages if the walk is abandoned before the last item.
+     */
+    public class PagedIterator implements Iterator<T>, Closeable {
+
+        private final PageFetcher fetcher;
+        private Iterator<T> currentPageItems;
+        private Date serverDate;
+
+        private PagedIterator(PageFetcher fetcher) {
+            this.fetcher = fetcher;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (currentPageItems == null || !currentPageItems.hasNext()) {
+                final Page<T> page = fetcher.takePage();
+                if (page == null) {
+                    return false;
+                }
+                currentPageItems = page.items.iterator();
+                serverDate = page.serverDate;
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return currentPageItems.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @return date in the Mendeley server clock of the request of the page the last returned
+         *          item belongs to
+         */
+        public Date getServerDate() {
+            return serverDate;
+        }
+
+        /**
+         * Stops fetching pages, cancelling the request of the page in progress.
+         */
+        @Override
+        public void close() {
+            fetcher.close();
+        }
+    }
+
+    /**
+     * Fetches the pages one after another, as the URL of each page is only known once the previous
+     * one has been obtained, keeping up to {@link #prefetchDepth} pages buffered for the consumer.
+     */
+    private class PageFetcher {
+
+        private final ArrayDeque<Page<T>> buffer = new ArrayDeque<Page<T>>();
+
+        // whether the pages are fetched by the consumer, as it is running in their lane
+        private final boolean fetchInConsumerThread;
+
+        private Uri nextUrl = firstPageUrl;
+        private Request<List<T>> currentRequest;
+        private PageFetchException error;
+        private boolean closed;
+
+        PageFetcher() {
+            final RequestScheduler scheduler = RequestScheduler.getDefault();
+            if (executor == null) {
+                fetchInConsumerThread = scheduler.isRunningIn(requestFactory.newRequest(firstPageUrl).getLane());
+            } else {
+                for (RequestScheduler.Lane lane : RequestScheduler.Lane.values()) {
+                    if (executor == scheduler.getExecutor(lane) && scheduler.isRunningIn(lane)) {
+                        throw new IllegalStateException("The pages can't be fetched in the " + lane + " lane, as the consumer is running in it");
+                    }
+                }
+                fetchInConsumerThread = false;
+            }
+
+            synchronized (this) {
+                maybeFetchNext();
+            }
+        }
+
+        Page<T> takePage() {
+            if (fetchInConsumerThread) {
+                fetchInConsumerThread();
+            }
+            return awaitPage();
+        }
+
+        private synchronized Page<T> awaitPage() {
+            while (buffer.isEmpty() && currentRequest != null && !closed) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    throw new IllegalStateException("Interrupted while waiting for the next page", e);
+                }
+            }
+
+            final Page<T> page = buffer.poll();
+            if (page != null) {
+                maybeFetchNext();
+                return page;
+            }
+            if (error != null) {
+                throw error;
+            }
+            return null;
+        }
+
+        synchronized void close() {
+            closed = true;
+            buffer.clear();
+            if (currentRequest != null) {
+                currentRequest.cancel();
+            }
+            notifyAll();
+        }
+
+        /**
+         * Fetches the next page in the calling thread if there are no pages buffered, without
+         * holding the lock so that the fetcher can be closed meanwhile.
+         */
+        private void fetchInConsumerThread() {
+            final Uri url;
+            final Request<List<T>> request;
+            synchronized (this) {
+                if (closed || currentRequest != null || nextUrl == null || !buffer.isEmpty()) {
+                    return;
+                }
+                url = nextUrl;
+                request = requestFactory.newRequest(url);
+                currentRequest = request;
+            }
+            fetch(url, request);
+        }
+
+        private void maybeFetchNext() {
+            if (fetchInConsumerThread || closed || currentRequest != null || nextUrl == null || buffer.size() >= prefetchDepth) {
+                return;
+            }
+
+            final Uri url = nextUrl;
+            final Request<List<T>> request = requestFactory.newRequest(url);
+            currentRequest = request;
+
+            final Executor pageExecutor = executor != null ? executor : RequestScheduler.getDefault().getExecutor(request.getLane());
+            pageExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    fetch(url, request);
+                }
+            });
+        }
+
+        private void fetch(Uri url, Request<List<T>> request) {
+            Request<List<T>>.Response response = null;
+            MendeleyException exception = null;
+            try {
+                response = request.run();
+            } catch (MendeleyException e) {
+                exception = e;
+            } catch (RuntimeException e) {
+                exception = new MendeleyException("Error fetching the page " + url, e);
+            } finally {
+                // the consumer waits until the request is cleared, whatever the outcome
+                synchronized (this) {
+                    currentRequest = null;
+                    if (!closed) {
+                        if (response != null) {
+                            buffer.add(new Page<T>(response.resource, url, response.serverDate));
+                            nextUrl = response.next;
+                            maybeFetchNext();
+                        } else {
+                            error = new PageFetchException(url, exception != null ? exception : new MendeleyException("Error fetching the page " + url));
+                            nextUrl = null;
+                        }
+                    }
+                    notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -5,13 +5,13 @@ import android.os.AsyncTask;
 
 import com.mendeley.sdk.exceptions.MendeleyException;
 import com.mendeley.sdk.exceptions.UserCancelledException;
+import com.mendeley.sdk.util.DateUtils;
 
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Locale;
-import java.util.TimeZone;
 import java.util.concurrent.Executor;
 
+import okhttp3.OkHttpClient;
+
 /**
  * Class modeling an HTTP request against the Mendeley API.
  *
@@ -19,24 +19,74 @@ import java.util.concurrent.Executor;
  */
 public abstract class Request<ResultType> {
 
-    // RFC 7231 format, used for Dates in HTTP headers.
-    private final static SimpleDateFormat httpHeaderDateFormat;
-
     public static final String MENDELEY_API_BASE_URL = BuildConfig.WEB_API_BASE_URL;
     protected static final int CONNECTION_TIMEOUT = 1500;
     protected static final int READ_TIMEOUT = 15000 ;
 
-    // Number of times to retry failed HTTP requests due to IOExceptions.
+    /**
+     * Number of times to retry failed HTTP requests due to IOExceptions.
+     *
+     * @deprecated not used by the SDK, retries are configured with a
+     *          {@link com.mendeley.sdk.request.RetryPolicy}
+     */
+    @Deprecated
     protected static final int MAX_HTTP_RETRIES = 0;
 
-    static {
-        httpHeaderDateFormat = new SimpleDateFormat("EEE, dd MMM yyyy kk:mm:ss 'GMT'", Locale.US);
-        httpHeaderDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+    // HTTP client shared by every request, so that connections and TLS sessions are reused.
+    private static volatile OkHttpClient httpClient;
+
+    /**
+     * Sets the {@link OkHttpClient} used by every {@link Request} of the SDK, including the ones
+     * obtaining and refreshing the OAuth tokens. This is the only way to use a client of your own:
+     * the client is process-wide, not per {@link RequestsFactory}, and
+     * {@link Mendeley#init(android.content.Context, String, String, HttpClientConfiguration)}
+     * keeps the client installed here.
+     *
+     * @param client the client, typically created with {@link HttpClientConfiguration#createOkHttpClient()}
+     */
+    public static void setHttpClient(OkHttpClient client) {
+        if (client == null) {
+            throw new IllegalArgumentException("The HTTP client can't be null");
+        }
+        httpClient = client;
+    }
+
+    /**
+     * Creates the shared {@link OkHttpClient} with the passed configuration, unless there is one
+     * already.
+     *
+     * @return whether the client was created
+     */
+    static boolean initHttpClient(HttpClientConfiguration configuration) {
+        synchronized (Request.class) {
+            if (httpClient != null) {
+                return false;
+            }
+            httpClient = configuration.createOkHttpClient();
+            return true;
+        }
+    }
+
+    /**
+     * @return the {@link OkHttpClient} shared by every {@link Request} of the SDK
+     */
+    public static OkHttpClient getHttpClient() {
+        OkHttpClient client = httpClient;
+        if (client == null) {
+            synchronized (Request.class) {
+                client = httpClient;
+                if (client == null) {
+                    client = HttpClientConfiguration.DEFAULT.createOkHttpClient();
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
     }
 
     private static Date parseHeaderDate(String serverDateStr) {
         try {
-            return httpHeaderDateFormat.parse(serverDateStr);
+            return new Date(DateUtils.parseHttpDate(serverDateStr));
         } catch (Exception e) {
             throw new IllegalArgumentException("Could not parse server date header", e);
         }
@@ -44,8 +94,10 @@ public abstract class Request<ResultType> {
 
 
     private final Uri uri;
-    private boolean cancelled;
-    private boolean finishedRun;
+    private volatile RequestScheduler.Lane lane = RequestScheduler.Lane.INTERACTIVE;
+    private volatile boolean cancelled;
+    private volatile boolean finishedRun;
+    private volatile RequestAsyncTask asyncTask;
 
     /**
      * Constructor
@@ -63,6 +115,28 @@ public abstract class Request<ResultType> {
         return uri;
     }
 
+    /**
+     * @return the lane of the {@link RequestScheduler} the request is queued in when run with
+     *          {@link Request#runAsync(RequestCallback)}
+     */
+    public final RequestScheduler.Lane getLane() {
+        return lane;
+    }
+
+    /**
+     * Sets the lane of the {@link RequestScheduler} the request will be queued in when run with
+     * {@link Request#runAsync(RequestCallback)}. Requests are {@link RequestScheduler.Lane#INTERACTIVE}
+     * unless they set a different lane.
+     *
+     * @param lane the lane
+     */
+    public final void setLane(RequestScheduler.Lane lane) {
+        if (lane == null) {
+            throw new IllegalArgumentException("The lane can't be null");
+        }
+        this.lane = lane;
+    }
+
     /**
      * Launches the request.
      * <p/>
@@ -101,15 +175,13 @@ public abstract class Request<ResultType> {
     /**
      * Runs the request asynchronously.
      * This method will not block the caller thread, and the network operation will be performed
-     * in the same thread Asynctasks use.
-     *
-     * {@link AsyncTask#SERIAL_EXECUTOR}
+     * by the default {@link RequestScheduler}, in the lane returned by {@link #getLane()}.
      *
      * @param callback used the get the result asynchronously. The SDK will call methods over this
      *                 callback upon its completion.
      */
     public final void runAsync(final RequestCallback<ResultType> callback) {
-        runAsync(callback, AsyncTask.SERIAL_EXECUTOR);
+        runAsync(callback, RequestScheduler.getDefault().getExecutor(lane));
     }
 
     /**
@@ -123,14 +195,42 @@ public abstract class Request<ResultType> {
      */
     public final void runAsync(final RequestCallback<ResultType> callback, Executor executor) {
         final RequestAsyncTask task = new RequestAsyncTask(callback);
+        asyncTask = task;
         task.executeOnExecutor(executor);
+        if (cancelled) {
+            task.cancel(false);
+        }
     }
 
     /**
      * Tells this request to cancel its work and to return as soon as possible.
+     * <p/>
+     * The network call in progress, if any, is aborted straight away, whatever its phase
+     * (connecting, waiting for the server, uploading or downloading). If the request was run with
+     * {@link #runAsync(RequestCallback)} and has not started yet, it does nothing when its executor
+     * gets to run it, but it keeps its place in the queue until then.
      */
     public final void cancel() {
-        cancelled = true;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+        }
+
+        final RequestAsyncTask task = asyncTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+        onCancel();
+    }
+
+    /**
+     * Invoked once, in the thread calling {@link #cancel()}, when the request is cancelled.
+     * Subclasses may override it to abort their work immediately instead of waiting for it to
+     * check {@link #isCancelled()}.
+     */
+    protected void onCancel() {
     }
 
     /**
@@ -170,14 +270,28 @@ public abstract class Request<ResultType> {
          */
         public final Date serverDate;
 
-        public Response(ResultType resource, Date serverDate, Uri next) {
+        /**
+         * Number of times the request was retried before obtaining this response.
+         */
+        public final int retryCount;
+
+        public Response(ResultType resource, Date serverDate, Uri next, int retryCount) {
             this.resource = resource;
             this.next = next;
             this.serverDate = serverDate;
+            this.retryCount = retryCount;
+        }
+
+        public Response(ResultType resource, Date serverDate, Uri next) {
+            this(resource, serverDate, next, 0);
+        }
+
+        public Response(ResultType resource, String serverDateStr, Uri next, int retryCount) {
+            this(resource, parseHeaderDate(serverDateStr), next, retryCount);
         }
 
         public Response(ResultType resource, String serverDateStr, Uri next) {
-            this(resource, parseHeaderDate(serverDateStr), next);
+            this(resource, serverDateStr, next, 0);
         }
 
         public Response(ResultType resource, String serverDateStr) {
@@ -240,6 +354,11 @@ public abstract class Request<ResultType> {
             }
         }
 
+        @Override
+        protected void onCancelled(RequestResponseMaybe maybe) {
+            callback.onCancelled();
+        }
+
         @Override
         protected final void onPostExecute(RequestResponseMaybe maybe) {
             super.onPostExecute(maybe);
@@ -0,0 +1,354 @@
+package com.mendeley.sdk;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor of {@link Request}s run with {@link Request#runAsync(Request.RequestCallback)}.
+ *
+ * <p/>
+ *
+ * Requests are queued in one of several {@link Lane}s. The scheduler runs up to a bounded number of
+ * them in parallel, caps how many of each lane may run at the same time and picks the next one using
+ * a weighted round robin between lanes, so that one slow file transfer can't block the interactive
+ * requests queued behind it.
+ *
+ * <p/>
+ *
+ * It also keeps queue depth and waiting time statistics per lane, see {@link #getStats(Lane)}.
+ */
+public class RequestScheduler {
+
+    /**
+     * Priority lanes for requests. Lanes declared first get more turns when several lanes are waiting.
+     */
+    public enum Lane {
+        /**
+         * Requests the user is waiting for.
+         */
+        INTERACTIVE(4),
+        /**
+         * Requests synchronising data in the background.
+         */
+        BACKGROUND_SYNC(2),
+        /**
+         * Long uploads and downloads of file binaries.
+         */
+        BULK_TRANSFER(1);
+
+        private final int weight;
+
+        Lane(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static volatile RequestScheduler defaultScheduler;
+
+    /**
+     * @return the scheduler used by {@link Request#runAsync(Request.RequestCallback)}
+     */
+    public static RequestScheduler getDefault() {
+        RequestScheduler scheduler = defaultScheduler;
+        if (scheduler == null) {
+            synchronized (RequestScheduler.class) {
+                scheduler = defaultScheduler;
+                if (scheduler == null) {
+                    scheduler = new Builder().build();
+                    defaultScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * Sets the scheduler used by {@link Request#runAsync(Request.RequestCallback)}
+     *
+     * @param scheduler the scheduler
+     */
+    public static void setDefault(RequestScheduler scheduler) {
+        if (scheduler == null) {
+            throw new IllegalArgumentException("The scheduler can't be null");
+        }
+        defaultScheduler = scheduler;
+    }
+
+    private final int maxParallelism;
+    private final Map<Lane, LaneState> lanes = new EnumMap<Lane, LaneState>(Lane.class);
+    private final Map<Lane, Executor> laneExecutors = new EnumMap<Lane, Executor>(Lane.class);
+    private final ExecutorService workers;
+
+    // lane of the task run by each worker thread
+    private final ThreadLocal<Lane> currentLane = new ThreadLocal<Lane>();
+
+    private int running;
+
+    private RequestScheduler(int maxParallelism, Map<Lane, Integer> laneConcurrency) {
+        this.maxParallelism = maxParallelism;
+
+        for (final Lane lane : Lane.values()) {
+            final Integer concurrency = laneConcurrency.get(lane);
+            lanes.put(lane, new LaneState(concurrency != null ? concurrency : maxParallelism, lane.weight));
+            laneExecutors.put(lane, new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    enqueue(lane, command);
+                }
+            });
+        }
+
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(maxParallelism, maxParallelism, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new WorkerThreadFactory());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        this.workers = threadPoolExecutor;
+    }
+
+    /**
+     * @param lane the lane
+     * @return an {@link Executor} that queues its commands in the passed lane
+     */
+    public Executor getExecutor(Lane lane) {
+        return laneExecutors.get(lane);
+    }
+
+    /**
+     * @param lane the lane
+     * @return whether the calling thread is a worker of this scheduler running a task queued in
+     *          the passed lane. Such a thread must not block waiting for other tasks of the same
+     *          lane, as they may never start while it holds its slot.
+     */
+    public boolean isRunningIn(Lane lane) {
+        return currentLane.get() == lane;
+    }
+
+    /**
+     * @param lane the lane
+     * @return a snapshot of the statistics of the passed lane
+     */
+    public synchronized Stats getStats(Lane lane) {
+        final LaneState state = lanes.get(lane);
+        return new Stats(
+                state.queue.size(),
+                state.running,
+                state.started,
+                state.started > 0 ? state.totalWaitMs / state.started : 0,
+                state.maxWaitMs,
+                oldestWaitMs(state, System.nanoTime()));
+    }
+
+    private synchronized void enqueue(Lane lane, Runnable command) {
+        lanes.get(lane).queue.add(new Task(command, lane, System.nanoTime()));
+        dispatch();
+    }
+
+    private synchronized void onFinished(Lane lane) {
+        lanes.get(lane).running--;
+        running--;
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (running < maxParallelism) {
+            final Task task = pollNext();
+            if (task == null) {
+                return;
+            }
+
+            final LaneState state = lanes.get(task.lane);
+            final long waitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.enqueuedAtNanos);
+            state.running++;
+            state.started++;
+            state.totalWaitMs += waitMs;
+            state.maxWaitMs = Math.max(state.maxWaitMs, waitMs);
+            running++;
+
+            workers.execute(task);
+        }
+    }
+
+    /**
+     * Weighted round robin: every lane may start as many tasks as its weight before the turns are
+     * refilled, and lanes are visited in priority order.
+     */
+    private Task pollNext() {
+        for (int pass = 0; pass < 2; pass++) {
+            boolean anyRunnable = false;
+            for (Lane lane : Lane.values()) {
+                final LaneState state = lanes.get(lane);
+                if (state.queue.isEmpty() || state.running >= state.concurrency) {
+                    continue;
+                }
+                anyRunnable = true;
+                if (state.turns > 0) {
+                    state.turns--;
+                    return state.queue.poll();
+                }
+            }
+            if (!anyRunnable) {
+                return null;
+            }
+            for (LaneState state : lanes.values()) {
+                state.turns = state.weight;
+            }
+        }
+        return null;
+    }
+
+    private static long oldestWaitMs(LaneState state, long nowNanos) {
+        final Task oldest = state.queue.peek();
+        return oldest != null ? TimeUnit.NANOSECONDS.toMillis(nowNanos - oldest.enqueuedAtNanos) : 0;
+    }
+
+    /**
+     * Statistics of one {@link Lane} of the scheduler.
+     */
+    public static class Stats {
+
+        /**
+         * Number of tasks waiting to be started.
+         */
+        public final int queueDepth;
+
+        /**
+         * Number of tasks running now.
+         */
+        public final int running;
+
+        /**
+         * Number of tasks started since the scheduler was created.
+         */
+        public final long started;
+
+        /**
+         * Average time the started tasks have waited in the queue.
+         */
+        public final long averageWaitMs;
+
+        /**
+         * Longest time one started task has waited in the queue.
+         */
+        public final long maxWaitMs;
+
+        /**
+         * Time the task at the head of the queue has been waiting so far.
+         */
+        public final long oldestQueuedWaitMs;
+
+        public Stats(int queueDepth, int running, long started, long averageWaitMs, long maxWaitMs, long oldestQueuedWaitMs) {
+            this.queueDepth = queueDepth;
+            this.running = running;
+            this.started = started;
+            this.averageWaitMs = averageWaitMs;
+            this.maxWaitMs = maxWaitMs;
+            this.oldestQueuedWaitMs = oldestQueuedWaitMs;
+        }
+
+        @Override
+        public String toString() {
+            return "queueDepth: " + queueDepth +
+                    ", running: " + running +
+                    ", started: " + started +
+                    ", averageWaitMs: " + averageWaitMs +
+                    ", maxWaitMs: " + maxWaitMs +
+                    ", oldestQueuedWaitMs: " + oldestQueuedWaitMs;
+        }
+    }
+
+    public static class Builder {
+        private int maxParallelism = 5;
+        private final Map<Lane, Integer> laneConcurrency = new EnumMap<Lane, Integer>(Lane.class);
+
+        public Builder() {
+            laneConcurrency.put(Lane.BACKGROUND_SYNC, 2);
+            laneConcurrency.put(Lane.BULK_TRANSFER, 2);
+        }
+
+        /**
+         * @param maxParallelism maximum number of tasks running at the same time, in any lane
+         */
+        public Builder setMaxParallelism(int maxParallelism) {
+            this.maxParallelism = maxParallelism;
+            return this;
+        }
+
+        /**
+         * @param lane the lane
+         * @param concurrency maximum number of tasks of the lane running at the same time
+         */
+        public Builder setLaneConcurrency(Lane lane, int concurrency) {
+            if (lane == null) {
+                throw new IllegalArgumentException("The lane can't be null");
+            }
+            if (concurrency <= 0) {
+                throw new IllegalArgumentException("The concurrency of the lane must be positive");
+            }
+            laneConcurrency.put(lane, concurrency);
+            return this;
+        }
+
+        public RequestScheduler build() {
+            if (maxParallelism < 1) {
+                throw new IllegalArgumentException("The scheduler needs to run at least one task at a time");
+            }
+            return new RequestScheduler(maxParallelism, laneConcurrency);
+        }
+    }
+
+    private class Task implements Runnable {
+        private final Runnable command;
+        private final Lane lane;
+        private final long enqueuedAtNanos;
+
+        Task(Runnable command, Lane lane, long enqueuedAtNanos) {
+            this.command = command;
+            this.lane = lane;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+
+        @Override
+        public void run() {
+            currentLane.set(lane);
+            try {
+                command.run();
+            } finally {
+                currentLane.remove();
+                onFinished(lane);
+            }
+        }
+    }
+
+    private static class LaneState {
+        private final ArrayDeque<Task> queue = new ArrayDeque<Task>();
+        private final int concurrency;
+        private final int weight;
+
+        private int turns;
+        private int running;
+        private long started;
+        private long totalWaitMs;
+        private long maxWaitMs;
+
+        LaneState(int concurrency, int weight) {
+            this.concurrency = concurrency;
+            this.weight = weight;
+            this.turns = weight;
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, "MendeleyRequest #" + count.getAndIncrement());
+        }
+    }
+}
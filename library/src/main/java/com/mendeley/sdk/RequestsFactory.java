@@ -11,6 +11,9 @@ import com.mendeley.sdk.model.Group;
 import com.mendeley.sdk.model.Profile;
 import com.mendeley.sdk.model.ReadPosition;
 import com.mendeley.sdk.model.UserRole;
+import com.mendeley.sdk.request.BulkRequest;
+import com.mendeley.sdk.request.FieldProjection;
+import com.mendeley.sdk.request.StreamingGetAuthorizedRequest;
 import com.mendeley.sdk.request.endpoint.AnnotationsEndpoint;
 import com.mendeley.sdk.request.endpoint.DocumentEndpoint;
 import com.mendeley.sdk.request.endpoint.FilesEndpoint;
@@ -106,6 +109,57 @@ public interface RequestsFactory {
      */
     Request<List<Document>> newGetDocumentsRequest(Uri url);
 
+    /**
+     * Obtains a {@link Request} to retrieve the list of {@link Document}s, decoding only the
+     * passed fields of each of them.
+     *
+     * @param parameters used to configure the query. Can be null.
+     * @param fieldProjection the fields to decode, see {@link FieldProjection}
+     * @return the request
+     */
+    Request<List<Document>> newGetDocumentsRequest(DocumentEndpoint.DocumentRequestParameters parameters, FieldProjection fieldProjection);
+
+    /**
+     * Obtains a {@link Request} to retrieve the list of {@link Document}s, decoding only the
+     * passed fields of each of them.
+     *
+     * @param url the URL of the request.
+     *            May be the {@link Request.Response#next} field of a previous request.
+     * @param fieldProjection the fields to decode, see {@link FieldProjection}
+     * @return the request
+     */
+    Request<List<Document>> newGetDocumentsRequest(Uri url, FieldProjection fieldProjection);
+
+    /**
+     * Obtains a {@link PagedIterable} over all the {@link Document}s of the user's library, fetching
+     * the following pages in the background while the current one is consumed.
+     *
+     * @param parameters used to configure the query. Can be null.
+     * @return the iterable
+     */
+    PagedIterable<Document> newGetDocumentsIterable(DocumentEndpoint.DocumentRequestParameters parameters);
+
+    /**
+     * Obtains a {@link Request} for one page of {@link Document}s that pushes each of them to the
+     * passed consumer as soon as it is parsed, instead of returning the whole list.
+     * See {@link StreamingGetAuthorizedRequest}.
+     *
+     * @param parameters the parameters of the request. May be null.
+     * @param consumer receives the documents one at a time
+     * @return the request, whose resource is the number of documents received by the consumer
+     */
+    Request<Integer> newStreamDocumentsRequest(DocumentEndpoint.DocumentRequestParameters parameters, StreamingGetAuthorizedRequest.ItemConsumer<Document> consumer);
+
+    /**
+     * Obtains a {@link Request} for the page of {@link Document}s at the passed URL, typically
+     * {@link Request.Response#next}, that pushes each of them to the passed consumer.
+     *
+     * @param uri the URL of the page
+     * @param consumer receives the documents one at a time
+     * @return the request, whose resource is the number of documents received by the consumer
+     */
+    Request<Integer> newStreamDocumentsRequest(Uri uri, StreamingGetAuthorizedRequest.ItemConsumer<Document> consumer);
+
     /**
      * Obtains a {@link Request} to retrieve one single {@link Document} by its id.
      *
@@ -176,6 +230,15 @@ public interface RequestsFactory {
      */
     Request<List<Document>> newGetTrashedDocumentsRequest(Uri uri);
 
+    /**
+     * Obtains a {@link PagedIterable} over all the {@link Document}s in the trash of the user's library, fetching
+     * the following pages in the background while the current one is consumed.
+     *
+     * @param parameters used to configure the query. Can be null.
+     * @return the iterable
+     */
+    PagedIterable<Document> newGetTrashedDocumentsIterable(DocumentEndpoint.DocumentRequestParameters parameters);
+
     /**
      * Obtains a {@link Request} to restore one specific {@link Document} from the trash.
      *
@@ -201,6 +264,57 @@ public interface RequestsFactory {
      */
     Request<List<File>> newGetFilesRequest(Uri uri);
 
+    /**
+     * Obtains a {@link Request} to retrieve the list of {@link File}s, decoding only the
+     * passed fields of each of them.
+     *
+     * @param parameters used to configure the query. Can be null.
+     * @param fieldProjection the fields to decode, see {@link FieldProjection}
+     * @return the request
+     */
+    Request<List<File>> newGetFilesRequest(FilesEndpoint.FileRequestParameters parameters, FieldProjection fieldProjection);
+
+    /**
+     * Obtains a {@link Request} to retrieve the list of {@link File}s, decoding only the
+     * passed fields of each of them.
+     *
+     * @param url the URL of the request.
+     *            May be the {@link Request.Response#next} field of a previous request.
+     * @param fieldProjection the fields to decode, see {@link FieldProjection}
+     * @return the request
+     */
+    Request<List<File>> newGetFilesRequest(Uri url, FieldProjection fieldProjection);
+
+    /**
+     * Obtains a {@link PagedIterable} over all the {@link File}s in the user's library, fetching
+     * the following pages in the background while the current one is consumed.
+     *
+     * @param parameters used to configure the query. Can be null.
+     * @return the iterable
+     */
+    PagedIterable<File> newGetFilesIterable(FilesEndpoint.FileRequestParameters parameters);
+
+    /**
+     * Obtains a {@link Request} for one page of {@link File}s that pushes each of them to the
+     * passed consumer as soon as it is parsed, instead of returning the whole list.
+     * See {@link StreamingGetAuthorizedRequest}.
+     *
+     * @param parameters the parameters of the request. May be null.
+     * @param consumer receives the files one at a time
+     * @return the request, whose resource is the number of files received by the consumer
+     */
+    Request<Integer> newStreamFilesRequest(FilesEndpoint.FileRequestParameters parameters, StreamingGetAuthorizedRequest.ItemConsumer<File> consumer);
+
+    /**
+     * Obtains a {@link Request} for the page of {@link File}s at the passed URL, typically
+     * {@link Request.Response#next}, that pushes each of them to the passed consumer.
+     *
+     * @param uri the URL of the page
+     * @param consumer receives the files one at a time
+     * @return the request, whose resource is the number of files received by the consumer
+     */
+    Request<Integer> newStreamFilesRequest(Uri uri, StreamingGetAuthorizedRequest.ItemConsumer<File> consumer);
+
     /**
      * Obtains a {@link Request} to download the data related to a {@link File}. Normally,
      * this is the pdf file that belongs to the {@link File}.
@@ -249,6 +363,36 @@ public interface RequestsFactory {
      */
     Request<List<Folder>> newGetFoldersRequest(Uri uri);
 
+    /**
+     * Obtains a {@link PagedIterable} over all the {@link Folder}s in the user's library, fetching
+     * the following pages in the background while the current one is consumed.
+     *
+     * @param parameters used to configure the query. Can be null.
+     * @return the iterable
+     */
+    PagedIterable<Folder> newGetFoldersIterable(FoldersEndpoint.FolderRequestParameters parameters);
+
+    /**
+     * Obtains a {@link Request} for one page of {@link Folder}s that pushes each of them to the
+     * passed consumer as soon as it is parsed, instead of returning the whole list.
+     * See {@link StreamingGetAuthorizedRequest}.
+     *
+     * @param parameters the parameters of the request. May be null.
+     * @param consumer receives the folders one at a time
+     * @return the request, whose resource is the number of folders received by the consumer
+     */
+    Request<Integer> newStreamFoldersRequest(FoldersEndpoint.FolderRequestParameters parameters, StreamingGetAuthorizedRequest.ItemConsumer<Folder> consumer);
+
+    /**
+     * Obtains a {@link Request} for the page of {@link Folder}s at the passed URL, typically
+     * {@link Request.Response#next}, that pushes each of them to the passed consumer.
+     *
+     * @param uri the URL of the page
+     * @param consumer receives the folders one at a time
+     * @return the request, whose resource is the number of folders received by the consumer
+     */
+    Request<Integer> newStreamFoldersRequest(Uri uri, StreamingGetAuthorizedRequest.ItemConsumer<Folder> consumer);
+
     /**
      * Obtains a {@link Request} to get one existing {@link Folder} with the passed id.
      *
@@ -340,6 +484,15 @@ public interface RequestsFactory {
      */
     Request<List<Group>> newGetGroupsRequest(Uri uri);
 
+    /**
+     * Obtains a {@link PagedIterable} over all the {@link Group}s in the user library, fetching
+     * the following pages in the background while the current one is consumed.
+     *
+     * @param parameters used to configure the query. Can be null.
+     * @return the iterable
+     */
+    PagedIterable<Group> newGetGroupsIterable(GroupsEndpoint.GroupRequestParameters parameters);
+
     /**
      * Obtains a {@link Request} to retrieve one single {@link Group} by its id.
      *
@@ -382,6 +535,57 @@ public interface RequestsFactory {
      */
     Request<List<Annotation>> newGetAnnotationsRequest(Uri url);
 
+    /**
+     * Obtains a {@link Request} to retrieve the list of {@link Annotation}s, decoding only the
+     * passed fields of each of them.
+     *
+     * @param parameters used to configure the query. Can be null.
+     * @param fieldProjection the fields to decode, see {@link FieldProjection}
+     * @return the request
+     */
+    Request<List<Annotation>> newGetAnnotationsRequest(AnnotationsEndpoint.AnnotationRequestParameters parameters, FieldProjection fieldProjection);
+
+    /**
+     * Obtains a {@link Request} to retrieve the list of {@link Annotation}s, decoding only the
+     * passed fields of each of them.
+     *
+     * @param url the URL of the request.
+     *            May be the {@link Request.Response#next} field of a previous request.
+     * @param fieldProjection the fields to decode, see {@link FieldProjection}
+     * @return the request
+     */
+    Request<List<Annotation>> newGetAnnotationsRequest(Uri url, FieldProjection fieldProjection);
+
+    /**
+     * Obtains a {@link PagedIterable} over all the {@link Annotation}s, fetching
+     * the following pages in the background while the current one is consumed.
+     *
+     * @param parameters used to configure the query. Can be null.
+     * @return the iterable
+     */
+    PagedIterable<Annotation> newGetAnnotationsIterable(AnnotationsEndpoint.AnnotationRequestParameters parameters);
+
+    /**
+     * Obtains a {@link Request} for one page of {@link Annotation}s that pushes each of them to the
+     * passed consumer as soon as it is parsed, instead of returning the whole list.
+     * See {@link StreamingGetAuthorizedRequest}.
+     *
+     * @param parameters the parameters of the request. May be null.
+     * @param consumer receives the annotations one at a time
+     * @return the request, whose resource is the number of annotations received by the consumer
+     */
+    Request<Integer> newStreamAnnotationsRequest(AnnotationsEndpoint.AnnotationRequestParameters parameters, StreamingGetAuthorizedRequest.ItemConsumer<Annotation> consumer);
+
+    /**
+     * Obtains a {@link Request} for the page of {@link Annotation}s at the passed URL, typically
+     * {@link Request.Response#next}, that pushes each of them to the passed consumer.
+     *
+     * @param uri the URL of the page
+     * @param consumer receives the annotations one at a time
+     * @return the request, whose resource is the number of annotations received by the consumer
+     */
+    Request<Integer> newStreamAnnotationsRequest(Uri uri, StreamingGetAuthorizedRequest.ItemConsumer<Annotation> consumer);
+
     /**
      * Obtains a {@link Request} to retrieve one single {@link Annotation} by its id.
      *
@@ -457,5 +661,13 @@ public interface RequestsFactory {
      */
     Request<List<Document>> newGetCatalogDocument(String identifier, String value);
 
+    /**
+     * Obtains a {@link BulkRequest} running the passed requests, typically the same operation
+     * (trash, delete, add to folder...) over many items, with a bounded number of them in parallel.
+     *
+     * @param requests the requests to run
+     * @return the bulk request, reporting the outcome of each of the requests
+     */
+    BulkRequest newBulkRequest(List<? extends Request<?>> requests);
 
 }
@@ -0,0 +1,17 @@
+package com.mendeley.sdk.exceptions;
+
+/**
+ * Exception that is thrown when the content of a file doesn't have the SHA-1 hash it was expected
+ * to have, like a binary corrupted while being downloaded.
+ */
+public class FileHashMismatchException extends LocalStoreException {
+
+    public final String expectedHash;
+    public final String actualHash;
+
+    public FileHashMismatchException(String detailMessage, String expectedHash, String actualHash) {
+        super(detailMessage, null);
+        this.expectedHash = expectedHash;
+        this.actualHash = actualHash;
+    }
+}
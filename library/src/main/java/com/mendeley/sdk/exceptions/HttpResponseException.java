@@ -13,17 +13,26 @@ public class HttpResponseException extends MendeleyException {
     public final String httpMessage;
     public final String httpResponse;
 
+    /**
+     * Time the server asked to wait before retrying, from the Retry-After header. -1 if not present.
+     */
+    public final long retryAfterMs;
 
     public HttpResponseException(int httpReturnCode, String message, String url) {
         this(httpReturnCode, message, url, "", null);
     }
 
     public HttpResponseException(int httpReturnCode, String httpMessage, String url, String httpResponse, String mendeleyTraceId) {
+        this(httpReturnCode, httpMessage, url, httpResponse, mendeleyTraceId, -1);
+    }
+
+    public HttpResponseException(int httpReturnCode, String httpMessage, String url, String httpResponse, String mendeleyTraceId, long retryAfterMs) {
         super(httpReturnCode + ": " + httpMessage + " ("+ url + ")" + " " + httpResponse + " X-Mendeley-Trace-Id: " + mendeleyTraceId);
         this.url = url;
         this.httpReturnCode = httpReturnCode;
         this.httpMessage = httpMessage;
         this.httpResponse = httpResponse;
+        this.retryAfterMs = retryAfterMs;
     }
 
 }
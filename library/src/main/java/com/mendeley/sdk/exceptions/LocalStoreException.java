@@ -0,0 +1,12 @@
+package com.mendeley.sdk.exceptions;
+
+/**
+ * Exception that is thrown when the local copy of the user's data kept by the SDK can't be read
+ * or written.
+ */
+public class LocalStoreException extends MendeleyException {
+
+    public LocalStoreException(String detailMessage, Throwable throwable) {
+        super(detailMessage, throwable);
+    }
+}
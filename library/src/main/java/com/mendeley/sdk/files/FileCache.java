@@ -0,0 +1,617 @@
+package com.mendeley.sdk.files;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.RequestScheduler;
+import com.mendeley.sdk.RequestsFactory;
+import com.mendeley.sdk.exceptions.FileDownloadException;
+import com.mendeley.sdk.exceptions.FileHashMismatchException;
+import com.mendeley.sdk.exceptions.LocalStoreException;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+import com.mendeley.sdk.model.File;
+import com.mendeley.sdk.request.OkHttpAuthorizedRequest;
+import com.mendeley.sdk.request.endpoint.FilesEndpoint;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of file binaries on disk, addressed by the SHA-1 {@link File#fileHash} of their content.
+ *
+ * <p/>
+ *
+ * The same binary attached to several documents, or to documents of several groups, is stored
+ * once, and {@link #newGetFileRequest(File, RequestsFactory)} only downloads the binaries that are
+ * not in the cache yet. The cache is bounded by the total size of its files: when it grows over
+ * its budget, the least recently used files are removed.
+ *
+ * <p/>
+ *
+ * The order of use of the files is kept in a journal in the directory of the cache, to which
+ * every insertion, use and removal is appended, so opening the cache only reads the journal
+ * instead of inspecting every file. The journal is compacted when it grows much larger than the
+ * number of files. It is safe to use the cache from several threads, but a directory must only be
+ * used by one instance at a time.
+ *
+ * <p/>
+ *
+ * The files returned by the cache may be removed by a later insertion: copy them elsewhere if they
+ * must be kept. Reads and writes do disk IO and should not be done in the UI thread.
+ */
+public class FileCache {
+
+    private static final String JOURNAL_FILE = "journal";
+    private static final String JOURNAL_TEMP_FILE = "journal.tmp";
+    private static final String DOWNLOADS_DIRECTORY = "downloads";
+
+    private static final String MAGIC = "mendeley-file-cache";
+    private static final String VERSION = "1";
+
+    private static final String PUT = "PUT";
+    private static final String READ = "READ";
+    private static final String REMOVE = "REMOVE";
+
+    // journal records beyond which it is compacted, if they are more than twice the entries
+    private static final int COMPACT_THRESHOLD = 2000;
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{40}");
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final java.io.File directory;
+    private final long maxSize;
+
+    // size of each file by hash, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+    private long size;
+
+    private Writer journalWriter;
+    private int journalRecords;
+
+    // hashes being downloaded by a GetCachedFileRequest, which own their files in the downloads directory
+    private final Set<String> downloadsInProgress = new HashSet<String>();
+
+    /**
+     * Opens the cache in the passed directory, creating it if needed.
+     *
+     * @param directory directory of the cache, used for nothing else
+     * @param maxSize maximum total size of the cached files, in bytes
+     */
+    public FileCache(java.io.File directory, long maxSize) throws LocalStoreException {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The max size must be positive");
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create the directory " + directory);
+            }
+            final java.io.File journal = new java.io.File(directory, JOURNAL_FILE);
+            if (!journal.exists() || !readJournal(journal)) {
+                rebuildFromDirectory();
+                compactJournal();
+            } else {
+                journalWriter = newJournalWriter(true);
+            }
+            trimToSize();
+        } catch (IOException e) {
+            throw new LocalStoreException("Could not open the file cache in " + directory, e);
+        }
+    }
+
+    /**
+     * @param fileHash SHA-1 hash of the content of a file, as in {@link File#fileHash}
+     * @return the cached binary with the passed hash, or null if it is not in the cache
+     */
+    public synchronized java.io.File get(String fileHash) {
+        final Long fileSize = entries.get(fileHash);
+        if (fileSize == null) {
+            return null;
+        }
+        final java.io.File file = getEntryFile(fileHash);
+        if (!file.exists()) {
+            // removed from outside the cache
+            entries.remove(fileHash);
+            size -= fileSize;
+            appendRecordQuietly(REMOVE, fileHash);
+            return null;
+        }
+        // losing a use only changes the eviction order, so the cache is still usable if it fails
+        appendRecordQuietly(READ, fileHash);
+        return file;
+    }
+
+    public synchronized boolean contains(String fileHash) {
+        return entries.containsKey(fileHash);
+    }
+
+    /**
+     * Moves a binary into the cache, removing the least recently used files if the cache grows
+     * over its maximum size.
+     *
+     * @param fileHash SHA-1 hash of the content of the file, as in {@link File#fileHash}
+     * @param source file to move into the cache; it must be in the same file system as the cache
+     * @return the file in the cache
+     * @throws FileHashMismatchException if the hash of the content doesn't match the passed one.
+     *         The source file is left where it is.
+     */
+    public java.io.File put(String fileHash, java.io.File source) throws FileHashMismatchException, LocalStoreException {
+        checkHash(fileHash);
+        // the content is hashed outside the lock, as it's the slowest part
+        final String actualHash;
+        try {
+            actualHash = sha1(source);
+        } catch (IOException e) {
+            throw new LocalStoreException("Could not read " + source, e);
+        }
+        if (!fileHash.equals(actualHash)) {
+            throw new FileHashMismatchException("The content of " + source + " has hash " + actualHash + " instead of " + fileHash, fileHash, actualHash);
+        }
+
+        synchronized (this) {
+            try {
+                final java.io.File file = getEntryFile(fileHash);
+                final Long previousSize = entries.remove(fileHash);
+                if (previousSize != null) {
+                    size -= previousSize;
+                }
+                if (file.exists() && !file.delete()) {
+                    throw new IOException("Cannot replace " + file);
+                }
+                if (!source.renameTo(file)) {
+                    throw new IOException("Cannot move " + source + " to " + file);
+                }
+                final long fileSize = file.length();
+                entries.put(fileHash, fileSize);
+                size += fileSize;
+                appendRecord(PUT + " " + fileHash + " " + fileSize);
+                trimToSize();
+                return file;
+            } catch (IOException e) {
+                throw new LocalStoreException("Could not store file " + fileHash, e);
+            }
+        }
+    }
+
+    /**
+     * Removes the binary with the passed hash, if it is in the cache.
+     */
+    public synchronized void remove(String fileHash) throws LocalStoreException {
+        try {
+            removeEntry(fileHash);
+        } catch (IOException e) {
+            throw new LocalStoreException("Could not remove file " + fileHash, e);
+        }
+    }
+
+    /**
+     * Removes every cached binary.
+     */
+    public synchronized void clear() throws LocalStoreException {
+        try {
+            for (String fileHash : new ArrayList<String>(entries.keySet())) {
+                getEntryFile(fileHash).delete();
+            }
+            entries.clear();
+            size = 0;
+            compactJournal();
+        } catch (IOException e) {
+            throw new LocalStoreException("Could not clear the file cache", e);
+        }
+    }
+
+    /**
+     * @return total size of the cached files, in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return number of cached files
+     */
+    public synchronized int getFileCount() {
+        return entries.size();
+    }
+
+    public java.io.File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Closes the journal. The cache can't be used after this.
+     */
+    public synchronized void close() {
+        if (journalWriter != null) {
+            try {
+                journalWriter.close();
+            } catch (IOException ignored) {
+            }
+            journalWriter = null;
+        }
+    }
+
+    /**
+     * Obtains a {@link Request} returning the binary of a file from the cache, downloading it and
+     * adding it to the cache first if it's not there. Downloads are run in the
+     * {@link RequestScheduler.Lane#BULK_TRANSFER} lane and resumed if interrupted.
+     *
+     * @param file the file, with its id and hash
+     * @param requestsFactory factory of the request downloading the binary
+     * @return the request
+     */
+    public GetCachedFileRequest newGetFileRequest(File file, RequestsFactory requestsFactory) {
+        if (file == null || file.id == null || file.fileHash == null) {
+            throw new IllegalArgumentException("The file must have an id and a hash");
+        }
+        checkHash(file.fileHash);
+        return new GetCachedFileRequest(file, requestsFactory);
+    }
+
+    /**
+     * @return file the binary with the passed hash is downloaded to before being moved into the cache
+     */
+    java.io.File getDownloadFile(String fileHash) {
+        return new java.io.File(new java.io.File(directory, DOWNLOADS_DIRECTORY), fileHash);
+    }
+
+    /**
+     * Removes what has been downloaded of the binary with the passed hash, so that its next
+     * download starts from the beginning. Does nothing if a request is downloading it.
+     */
+    void discardDownload(String fileHash) {
+        synchronized (downloadsInProgress) {
+            if (downloadsInProgress.contains(fileHash)) {
+                return;
+            }
+            final java.io.File[] files = new java.io.File(directory, DOWNLOADS_DIRECTORY).listFiles();
+            if (files != null) {
+                for (java.io.File file : files) {
+                    // the binary and the partial download files named after it
+                    if (file.getName().startsWith(fileHash)) {
+                        file.delete();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until no other request is downloading the binary with the passed hash, and marks it
+     * as being downloaded by the calling one, so that they don't write the same files.
+     */
+    private void acquireDownload(String fileHash, Request<?> request) throws UserCancelledException {
+        synchronized (downloadsInProgress) {
+            while (!downloadsInProgress.add(fileHash)) {
+                if (request.isCancelled()) {
+                    throw new UserCancelledException();
+                }
+                try {
+                    downloadsInProgress.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UserCancelledException(e);
+                }
+            }
+        }
+    }
+
+    private void releaseDownload(String fileHash) {
+        synchronized (downloadsInProgress) {
+            downloadsInProgress.remove(fileHash);
+            downloadsInProgress.notifyAll();
+        }
+    }
+
+    private java.io.File getEntryFile(String fileHash) {
+        return new java.io.File(directory, fileHash);
+    }
+
+    private void trimToSize() throws IOException {
+        final Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        // the most recently used file is kept even if it's larger than the cache
+        while (size > maxSize && entries.size() > 1) {
+            final Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.getValue();
+            getEntryFile(eldest.getKey()).delete();
+            appendRecord(REMOVE + " " + eldest.getKey());
+        }
+    }
+
+    private void removeEntry(String fileHash) throws IOException {
+        final Long fileSize = entries.remove(fileHash);
+        if (fileSize != null) {
+            size -= fileSize;
+            getEntryFile(fileHash).delete();
+            appendRecord(REMOVE + " " + fileHash);
+        }
+    }
+
+    /**
+     * @return whether the journal could be read
+     */
+    private boolean readJournal(java.io.File journal) {
+        try {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journal), UTF_8));
+            try {
+                if (!MAGIC.equals(reader.readLine()) || !VERSION.equals(reader.readLine())) {
+                    return false;
+                }
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    readRecord(line);
+                    journalRecords++;
+                }
+                for (Long fileSize : entries.values()) {
+                    size += fileSize;
+                }
+                return true;
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            return false;
+        } catch (RuntimeException e) {
+            // corrupted record
+            return false;
+        }
+    }
+
+    private void readRecord(String line) {
+        final String[] parts = line.split(" ");
+        final String fileHash = parts[1];
+        if (PUT.equals(parts[0])) {
+            entries.put(fileHash, Long.parseLong(parts[2]));
+        } else if (READ.equals(parts[0])) {
+            entries.get(fileHash);
+        } else if (REMOVE.equals(parts[0])) {
+            entries.remove(fileHash);
+        } else {
+            throw new IllegalStateException("Unknown record " + line);
+        }
+    }
+
+    /**
+     * Recovers the entries from the files in the directory, ordered by modification date, when the
+     * journal is missing or corrupted.
+     */
+    private void rebuildFromDirectory() {
+        entries.clear();
+        size = 0;
+        final java.io.File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<java.io.File>() {
+            @Override
+            public int compare(java.io.File f1, java.io.File f2) {
+                final long m1 = f1.lastModified();
+                final long m2 = f2.lastModified();
+                return m1 < m2 ? -1 : (m1 == m2 ? 0 : 1);
+            }
+        });
+        for (java.io.File file : files) {
+            if (file.isFile() && HASH_PATTERN.matcher(file.getName()).matches()) {
+                entries.put(file.getName(), file.length());
+                size += file.length();
+            }
+        }
+    }
+
+    /**
+     * Rewrites the journal with one record per entry, in their order of use.
+     */
+    private void compactJournal() throws IOException {
+        close();
+        final java.io.File temp = new java.io.File(directory, JOURNAL_TEMP_FILE);
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(temp), UTF_8);
+        try {
+            writer.write(MAGIC + "\n" + VERSION + "\n");
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                writer.write(PUT + " " + entry.getKey() + " " + entry.getValue() + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+        if (!temp.renameTo(new java.io.File(directory, JOURNAL_FILE))) {
+            throw new IOException("Cannot replace the journal");
+        }
+        journalRecords = entries.size();
+        journalWriter = newJournalWriter(true);
+    }
+
+    private Writer newJournalWriter(boolean append) throws IOException {
+        return new OutputStreamWriter(new FileOutputStream(new java.io.File(directory, JOURNAL_FILE), append), UTF_8);
+    }
+
+    private void appendRecord(String record) throws IOException {
+        if (journalWriter == null) {
+            throw new IOException("The file cache is closed");
+        }
+        journalWriter.write(record + "\n");
+        journalWriter.flush();
+        journalRecords++;
+        if (journalRecords > COMPACT_THRESHOLD && journalRecords > 2 * entries.size()) {
+            compactJournal();
+        }
+    }
+
+    private void appendRecordQuietly(String type, String fileHash) {
+        try {
+            appendRecord(type + " " + fileHash);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void checkHash(String fileHash) {
+        if (fileHash == null || !HASH_PATTERN.matcher(fileHash).matches()) {
+            throw new IllegalArgumentException("Invalid SHA-1 hash " + fileHash);
+        }
+    }
+
+    static String sha1(java.io.File file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        final InputStream is = new FileInputStream(file);
+        try {
+            final byte[] buffer = new byte[1024 * 16];
+            int count;
+            while ((count = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, count);
+            }
+        } finally {
+            is.close();
+        }
+
+        final StringBuilder hex = new StringBuilder(40);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * {@link Request} returning the binary of a file from a {@link FileCache}, downloading it first
+     * if it's not there.
+     *
+     * <p/>
+     *
+     * Only one request downloads a binary at a time: requests for a binary that is already being
+     * downloaded wait for that download and return its result from the cache.
+     */
+    public class GetCachedFileRequest extends Request<java.io.File> {
+
+        private final File file;
+        private final RequestsFactory requestsFactory;
+
+        private OkHttpAuthorizedRequest.RequestProgressListener progressListener;
+        private FilesEndpoint.GetFileBinaryRequest.BytesListener bytesListener;
+
+        // download in progress, cancelled with this request
+        private volatile Request<Long> download;
+
+        GetCachedFileRequest(File file, RequestsFactory requestsFactory) {
+            super(null);
+            this.file = file;
+            this.requestsFactory = requestsFactory;
+            setLane(RequestScheduler.Lane.BULK_TRANSFER);
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Sets a listener notified of the progress of the download, if the binary is not cached.
+         */
+        public void setProgressListener(OkHttpAuthorizedRequest.RequestProgressListener progressListener) {
+            this.progressListener = progressListener;
+        }
+
+        /**
+         * Sets a listener notified of the bytes downloaded, if the binary is not cached.
+         */
+        public void setBytesListener(FilesEndpoint.GetFileBinaryRequest.BytesListener bytesListener) {
+            this.bytesListener = bytesListener;
+        }
+
+        /**
+         * @return whether the binary is in the cache, so that running this request won't download it
+         */
+        public boolean isCached() {
+            return contains(file.fileHash);
+        }
+
+        @Override
+        protected Response doRun() throws MendeleyException {
+            java.io.File cached = get(file.fileHash);
+            if (cached != null) {
+                return new Response(cached, (Date) null, null);
+            }
+
+            acquireDownload(file.fileHash, this);
+            try {
+                // it may have been downloaded by the request this one waited for
+                cached = get(file.fileHash);
+                if (cached != null) {
+                    return new Response(cached, (Date) null, null);
+                }
+                return downloadIntoCache();
+            } finally {
+                releaseDownload(file.fileHash);
+            }
+        }
+
+        private Response downloadIntoCache() throws MendeleyException {
+            final java.io.File target = getDownloadFile(file.fileHash);
+            final java.io.File downloads = target.getParentFile();
+            if (!downloads.isDirectory() && !downloads.mkdirs()) {
+                throw new FileDownloadException("Cannot create the directory " + downloads, file.id);
+            }
+
+            final FilesEndpoint.GetFileBinaryRequest request = requestsFactory.newGetFileBinaryRequest(file.id, target);
+            request.setLane(RequestScheduler.Lane.BULK_TRANSFER);
+            request.setProgressListener(progressListener);
+            request.setBytesListener(bytesListener);
+            download = request;
+            if (isCancelled()) {
+                throw new UserCancelledException();
+            }
+            final Request<Long>.Response response;
+            try {
+                response = request.run();
+            } finally {
+                download = null;
+            }
+
+            try {
+                return new Response(put(file.fileHash, target), response.serverDate, null);
+            } catch (FileHashMismatchException e) {
+                target.delete();
+                throw new FileDownloadException("The downloaded binary doesn't match the hash of the file", e, file.id);
+            }
+        }
+
+        @Override
+        protected void onCancel() {
+            // stop waiting for the download of another request, if it is
+            synchronized (downloadsInProgress) {
+                downloadsInProgress.notifyAll();
+            }
+
+            final Request<Long> request = download;
+            if (request != null) {
+                request.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,564 @@
+package com.mendeley.sdk.files;
+
+import android.os.SystemClock;
+
+import com.mendeley.sdk.RequestsFactory;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.model.File;
+import com.mendeley.sdk.request.endpoint.FilesEndpoint;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads the binaries of many {@link File}s into a {@link FileCache}, several of them at the
+ * same time, like when preparing a folder or a group library for offline use.
+ *
+ * <p/>
+ *
+ * Files are downloaded by a bounded number of threads owned by the manager, the queued ones with the
+ * highest priority first, and in order of enqueueing among those with the same priority. Files
+ * whose binary is already in the cache complete without network access. Each file can be paused,
+ * resumed, reprioritised or cancelled; a paused download keeps what it has downloaded and resumes
+ * from there.
+ *
+ * <p/>
+ *
+ * The manager accounts for the bytes downloaded and the throughput of each file and of all of them
+ * together, reported to the registered {@link Listener}s and by {@link #getStats()}.
+ */
+public class FileDownloadManager {
+
+    public static final int DEFAULT_PARALLEL_DOWNLOADS = 4;
+
+    /**
+     * Priority of the files enqueued without one.
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    // minimum time between two progress notifications of the same file
+    private static final long PROGRESS_INTERVAL_MS = 250;
+
+    private final FileCache cache;
+    private final RequestsFactory requestsFactory;
+    private final int parallelDownloads;
+    private final ExecutorService executor;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+    // every download by file id, in order of enqueueing
+    private final Map<String, Task> tasks = new LinkedHashMap<String, Task>();
+    private int running;
+
+    // hashes of the binaries being downloaded, including the ones of tasks replaced by enqueue()
+    // whose request hasn't stopped yet, as they own the partial download of the binary
+    private final Set<String> runningHashes = new HashSet<String>();
+
+    // bytes downloaded by every download, and time during which some download was running
+    private long totalBytes;
+    private long busyMs;
+    private long busySinceMs;
+
+    public FileDownloadManager(FileCache cache, RequestsFactory requestsFactory) {
+        this(cache, requestsFactory, DEFAULT_PARALLEL_DOWNLOADS);
+    }
+
+    /**
+     * @param parallelDownloads maximum number of files downloaded at the same time
+     */
+    public FileDownloadManager(FileCache cache, RequestsFactory requestsFactory, int parallelDownloads) {
+        if (cache == null || requestsFactory == null) {
+            throw new IllegalArgumentException("The cache and the requests factory can't be null");
+        }
+        if (parallelDownloads <= 0) {
+            throw new IllegalArgumentException("The number of parallel downloads must be positive");
+        }
+        this.cache = cache;
+        this.requestsFactory = requestsFactory;
+        this.parallelDownloads = parallelDownloads;
+        // the threads stop when there is nothing to download, instead of living until shutdown()
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(parallelDownloads, parallelDownloads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new DownloadThreadFactory());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        this.executor = threadPoolExecutor;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getParallelDownloads() {
+        return parallelDownloads;
+    }
+
+    /**
+     * Enqueues the files with the {@link #DEFAULT_PRIORITY}. Files already enqueued are ignored.
+     */
+    public void enqueue(Collection<File> files) {
+        enqueue(files, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Enqueues the files with the passed priority. Files already enqueued are ignored, unless
+     * they failed or were cancelled, in which case they are enqueued again.
+     *
+     * @param priority priority of the files, the higher the sooner they are downloaded
+     */
+    public void enqueue(Collection<File> files, int priority) {
+        final List<Download> changed = new ArrayList<Download>();
+        synchronized (this) {
+            for (File file : files) {
+                if (file.id == null || file.fileHash == null) {
+                    throw new IllegalArgumentException("The files must have an id and a hash");
+                }
+                final Task existing = tasks.get(file.id);
+                if (existing != null && existing.state != State.FAILED && existing.state != State.CANCELLED) {
+                    continue;
+                }
+                // re-enqueued files go to the end of the queue
+                tasks.remove(file.id);
+                final Task task = new Task(file, priority);
+                tasks.put(file.id, task);
+                changed.add(task.snapshot());
+            }
+            dispatch(changed);
+        }
+        notifyStateChanged(changed);
+    }
+
+    /**
+     * Pauses the download of a file, keeping what has been downloaded so far.
+     */
+    public void pause(String fileId) {
+        final List<Download> changed = new ArrayList<Download>();
+        synchronized (this) {
+            final Task task = tasks.get(fileId);
+            if (task != null && (task.state == State.QUEUED || task.state == State.DOWNLOADING)) {
+                task.state = State.PAUSED;
+                // the partial download is kept by the request, and resumed by the next one
+                task.cancelRequest();
+                changed.add(task.snapshot());
+            }
+        }
+        notifyStateChanged(changed);
+    }
+
+    /**
+     * Resumes the download of a paused file, putting it back in the queue.
+     */
+    public void resume(String fileId) {
+        final List<Download> changed = new ArrayList<Download>();
+        synchronized (this) {
+            final Task task = tasks.get(fileId);
+            if (task != null && task.state == State.PAUSED) {
+                // if the paused request hasn't stopped yet, it's restarted once it does
+                task.state = State.QUEUED;
+                changed.add(task.snapshot());
+                dispatch(changed);
+            }
+        }
+        notifyStateChanged(changed);
+    }
+
+    /**
+     * Cancels the download of a file.
+     */
+    public void cancel(String fileId) {
+        final List<Download> changed = new ArrayList<Download>();
+        synchronized (this) {
+            final Task task = tasks.get(fileId);
+            if (task != null && task.state != State.COMPLETED && task.state != State.FAILED && task.state != State.CANCELLED) {
+                task.state = State.CANCELLED;
+                task.discardPartialDownload = true;
+                if (task.request == null) {
+                    // unless it belongs to the running download of another file with the same binary
+                    discardDownloadIfUnused(task.file.fileHash);
+                }
+                task.cancelRequest();
+                changed.add(task.snapshot());
+            }
+        }
+        notifyStateChanged(changed);
+    }
+
+    /**
+     * Changes the priority of a file. It takes effect the next time a download slot frees up, so it
+     * doesn't interrupt the files being downloaded.
+     *
+     * @param priority new priority of the file, the higher the sooner it is downloaded
+     */
+    public synchronized void setPriority(String fileId, int priority) {
+        final Task task = tasks.get(fileId);
+        if (task != null) {
+            task.priority = priority;
+        }
+    }
+
+    /**
+     * @return state of the download of the file, or null if it has never been enqueued
+     */
+    public synchronized Download getDownload(String fileId) {
+        final Task task = tasks.get(fileId);
+        return task != null ? task.snapshot() : null;
+    }
+
+    /**
+     * @return state of every download, in order of enqueueing
+     */
+    public synchronized List<Download> getDownloads() {
+        final List<Download> downloads = new ArrayList<Download>(tasks.size());
+        for (Task task : tasks.values()) {
+            downloads.add(task.snapshot());
+        }
+        return downloads;
+    }
+
+    /**
+     * @return snapshot of the aggregate statistics of the downloads
+     */
+    public synchronized Stats getStats() {
+        final Map<State, Integer> counts = new LinkedHashMap<State, Integer>();
+        for (State state : State.values()) {
+            counts.put(state, 0);
+        }
+        for (Task task : tasks.values()) {
+            counts.put(task.state, counts.get(task.state) + 1);
+        }
+        final long elapsedMs = busyMs + (running > 0 ? SystemClock.elapsedRealtime() - busySinceMs : 0);
+        return new Stats(counts, totalBytes, bytesPerSecond(totalBytes, elapsedMs));
+    }
+
+    /**
+     * Removes the completed, failed and cancelled downloads, and resets the aggregate statistics
+     * if no file is being downloaded.
+     */
+    public synchronized void purge() {
+        final Iterator<Task> iterator = tasks.values().iterator();
+        while (iterator.hasNext()) {
+            final State state = iterator.next().state;
+            if (state == State.COMPLETED || state == State.FAILED || state == State.CANCELLED) {
+                iterator.remove();
+            }
+        }
+        if (running == 0) {
+            totalBytes = 0;
+            busyMs = 0;
+        }
+    }
+
+    /**
+     * Cancels every download and stops the threads of the manager. It can't be used after this.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            for (Task task : tasks.values()) {
+                if (task.state == State.QUEUED || task.state == State.DOWNLOADING || task.state == State.PAUSED) {
+                    task.state = State.CANCELLED;
+                    task.cancelRequest();
+                }
+            }
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Starts the queued downloads with the highest priority while there are free slots.
+     */
+    private void dispatch(List<Download> changed) {
+        while (running < parallelDownloads) {
+            // files with the same binary are not downloaded at the same time, the later ones are
+            // served by the cache once the first one completes
+            Task next = null;
+            for (Task task : tasks.values()) {
+                if (task.state == State.QUEUED && task.request == null && !runningHashes.contains(task.file.fileHash)
+                        && (next == null || task.priority > next.priority)) {
+                    next = task;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            start(next);
+            changed.add(next.snapshot());
+        }
+    }
+
+    private void start(final Task task) {
+        if (running == 0) {
+            busySinceMs = SystemClock.elapsedRealtime();
+        }
+        running++;
+        runningHashes.add(task.file.fileHash);
+        task.state = State.DOWNLOADING;
+        task.runStartMs = SystemClock.elapsedRealtime();
+
+        final FileCache.GetCachedFileRequest request = cache.newGetFileRequest(task.file, requestsFactory);
+        request.setBytesListener(new FilesEndpoint.GetFileBinaryRequest.BytesListener() {
+            @Override
+            public void onBytesWritten(long count) {
+                onBytes(task, count);
+            }
+        });
+        task.request = request;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                runTask(task, request);
+            }
+        });
+    }
+
+    private void runTask(Task task, FileCache.GetCachedFileRequest request) {
+        java.io.File result = null;
+        MendeleyException error = null;
+        try {
+            result = request.run().resource;
+        } catch (MendeleyException e) {
+            error = e;
+        } catch (RuntimeException e) {
+            error = new MendeleyException("Error downloading file " + task.file.id, e);
+        }
+
+        final List<Download> changed = new ArrayList<Download>();
+        synchronized (this) {
+            running--;
+            if (running == 0) {
+                busyMs += SystemClock.elapsedRealtime() - busySinceMs;
+            }
+            task.request = null;
+            runningHashes.remove(task.file.fileHash);
+            task.activeMs += SystemClock.elapsedRealtime() - task.runStartMs;
+
+            if (task.state == State.DOWNLOADING) {
+                if (result != null) {
+                    task.state = State.COMPLETED;
+                    task.cachedFile = result;
+                } else {
+                    task.state = State.FAILED;
+                    task.error = error;
+                }
+                changed.add(task.snapshot());
+            }
+            // paused and cancelled tasks were notified when their request was cancelled, and keep
+            // their state even if the request got to finish the download
+            if (task.state == State.CANCELLED && task.discardPartialDownload) {
+                discardDownloadIfUnused(task.file.fileHash);
+            }
+            dispatch(changed);
+        }
+        notifyStateChanged(changed);
+    }
+
+    /**
+     * Removes the partial download of a binary, unless a download of the manager is using it.
+     * The cache also keeps it if a request outside the manager is downloading it.
+     */
+    private void discardDownloadIfUnused(String fileHash) {
+        if (!runningHashes.contains(fileHash)) {
+            cache.discardDownload(fileHash);
+        }
+    }
+
+    private void onBytes(Task task, long count) {
+        Download progress = null;
+        synchronized (this) {
+            task.bytes += count;
+            totalBytes += count;
+            final long now = SystemClock.elapsedRealtime();
+            if (now - task.lastProgressMs >= PROGRESS_INTERVAL_MS) {
+                task.lastProgressMs = now;
+                progress = task.snapshot();
+            }
+        }
+        if (progress != null) {
+            for (Listener listener : listeners) {
+                listener.onProgress(progress);
+            }
+        }
+    }
+
+    private void notifyStateChanged(List<Download> downloads) {
+        for (Download download : downloads) {
+            for (Listener listener : listeners) {
+                listener.onStateChanged(download);
+            }
+        }
+    }
+
+    private static long bytesPerSecond(long bytes, long elapsedMs) {
+        return elapsedMs > 0 ? bytes * 1000 / elapsedMs : 0;
+    }
+
+    /**
+     * State of the download of a file.
+     */
+    public enum State {
+        QUEUED,
+        DOWNLOADING,
+        PAUSED,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    /**
+     * Receives the changes of the downloads, in the threads of the manager or in the ones calling
+     * its methods. The callbacks should return quickly, as they delay the downloads.
+     */
+    public interface Listener {
+
+        void onStateChanged(Download download);
+
+        /**
+         * Called periodically while a file is being downloaded.
+         */
+        void onProgress(Download download);
+    }
+
+    /**
+     * Snapshot of the download of one file.
+     */
+    public static class Download {
+
+        public final File file;
+        public final State state;
+        public final int priority;
+
+        /**
+         * Bytes downloaded by the manager for this file, in every run. Bytes downloaded before
+         * the file was enqueued and resumed from a partial download are not counted.
+         */
+        public final long bytes;
+
+        /**
+         * Average throughput of the download, over the time it has been running, in bytes per second.
+         */
+        public final long bytesPerSecond;
+
+        /**
+         * The binary in the cache, once completed.
+         */
+        public final java.io.File cachedFile;
+
+        /**
+         * The error of the download, once failed.
+         */
+        public final MendeleyException error;
+
+        public Download(File file, State state, int priority, long bytes, long bytesPerSecond, java.io.File cachedFile, MendeleyException error) {
+            this.file = file;
+            this.state = state;
+            this.priority = priority;
+            this.bytes = bytes;
+            this.bytesPerSecond = bytesPerSecond;
+            this.cachedFile = cachedFile;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            return "file: " + file.id +
+                    ", state: " + state +
+                    ", priority: " + priority +
+                    ", bytes: " + bytes +
+                    ", bytesPerSecond: " + bytesPerSecond;
+        }
+    }
+
+    /**
+     * Aggregate statistics of the downloads of a {@link FileDownloadManager}.
+     */
+    public static class Stats {
+
+        /**
+         * Number of downloads in each state.
+         */
+        public final Map<State, Integer> counts;
+
+        /**
+         * Bytes downloaded by every download.
+         */
+        public final long bytes;
+
+        /**
+         * Aggregate throughput of the downloads, over the time some of them have been running, in
+         * bytes per second.
+         */
+        public final long bytesPerSecond;
+
+        public Stats(Map<State, Integer> counts, long bytes, long bytesPerSecond) {
+            this.counts = counts;
+            this.bytes = bytes;
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            return "counts: " + counts +
+                    ", bytes: " + bytes +
+                    ", bytesPerSecond: " + bytesPerSecond;
+        }
+    }
+
+    private static class Task {
+        private final File file;
+        private int priority;
+        private State state = State.QUEUED;
+        // whether the partial download is removed once cancelled, unlike when shutting down
+        private boolean discardPartialDownload;
+
+        // request running the download, null when not running
+        private FileCache.GetCachedFileRequest request;
+
+        private long bytes;
+        private long activeMs;
+        private long runStartMs;
+        private long lastProgressMs;
+
+        private java.io.File cachedFile;
+        private MendeleyException error;
+
+        Task(File file, int priority) {
+            this.file = file;
+            this.priority = priority;
+        }
+
+        void cancelRequest() {
+            if (request != null) {
+                request.cancel();
+            }
+        }
+
+        Download snapshot() {
+            final long elapsedMs = activeMs + (request != null ? SystemClock.elapsedRealtime() - runStartMs : 0);
+            return new Download(file, state, priority, bytes, bytesPerSecond(bytes, elapsedMs), cachedFile, error);
+        }
+    }
+
+    private static class DownloadThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "FileDownloadManager #" + count.incrementAndGet());
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.mendeley.sdk.model;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import com.mendeley.sdk.util.LazyUtf8String;
 import com.mendeley.sdk.util.NullableList;
 
 import java.util.Date;
@@ -44,12 +45,27 @@ public class Annotation {
         }
     }
 
+    // boxed colors, shared by the annotations as most of them use a handful of colors
+    private static final int COLOR_CACHE_SIZE = 64;
+    private static final Integer[] colorCache = new Integer[COLOR_CACHE_SIZE];
+
     public final String id;
     public final Type type;
     public final String previousId;
     public final Integer color;
+    /**
+     * Null if the annotation was parsed with lazy text fields.
+     *
+     * @deprecated use {@link #getText()}, which works whether or not the text fields were parsed lazily
+     */
+    @Deprecated
     public final String text;
     public final String profileId;
+    /**
+     * Immutable if the annotation was parsed by {@link com.mendeley.sdk.request.JsonParser} or copied
+     * from one that was, as the positions are then kept in a {@link PackedPositions} whose
+     * {@link PackedPositions#get(int)} builds a new {@link Position} on each call.
+     */
     public final NullableList<Position> positions;
     public final Date created;
     public final Date lastModified;
@@ -57,6 +73,9 @@ public class Annotation {
     public final String fileHash;
     public final String documentId;
 
+    private final LazyUtf8String lazyText;
+    private final PackedPositions packedPositions;
+
     private Annotation(
             String id,
             Type type,
@@ -69,7 +88,8 @@ public class Annotation {
             Date lastModified,
             PrivacyLevel privacyLevel,
             String fileHash,
-            String documentId) {
+            String documentId,
+            LazyUtf8String lazyText) {
         this.id = id;
         this.type = type;
         this.previousId = previousId;
@@ -77,11 +97,45 @@ public class Annotation {
         this.text = text;
         this.profileId = profileId;
         this.positions = new NullableList<Position>(positions);
+        this.packedPositions = positions instanceof PackedPositions ? (PackedPositions) positions : null;
         this.created = created;
         this.lastModified = lastModified;
         this.privacyLevel = privacyLevel;
         this.fileHash = fileHash;
         this.documentId = documentId;
+        this.lazyText = lazyText;
+    }
+
+    /**
+     * @return the text, decoded on the first call if the annotation was parsed with lazy text fields
+     */
+    public String getText() {
+        return LazyUtf8String.valueOf(text, lazyText);
+    }
+
+    /**
+     * @return the positions stored in flat arrays, readable without allocating one object per
+     *          position, or null if the annotation has no positions. Annotations parsed by
+     *          {@link com.mendeley.sdk.request.JsonParser} already keep them like that; otherwise
+     *          they are packed on each call.
+     */
+    public PackedPositions getPackedPositions() {
+        if (packedPositions != null) {
+            return packedPositions;
+        }
+        return positions.isNull() ? null : PackedPositions.of(positions);
+    }
+
+    private static Integer boxColor(int color) {
+        // a racy read is fine, Integers are immutable
+        final int slot = (color ^ (color >>> 16)) & (COLOR_CACHE_SIZE - 1);
+        final Integer cached = colorCache[slot];
+        if (cached != null && cached == color) {
+            return cached;
+        }
+        final Integer boxed = color;
+        colorCache[slot] = boxed;
+        return boxed;
     }
 
     @Override
@@ -102,7 +156,9 @@ public class Annotation {
         if (privacyLevel != that.privacyLevel) return false;
         if (profileId != null ? !profileId.equals(that.profileId) : that.profileId != null)
             return false;
-        if (text != null ? !text.equals(that.text) : that.text != null) return false;
+        final String text = getText();
+        final String thatText = that.getText();
+        if (text != null ? !text.equals(thatText) : thatText != null) return false;
         if (type != that.type) return false;
 
         return true;
@@ -113,6 +169,7 @@ public class Annotation {
         int result = id != null ? id.hashCode() : 0;
         result = 31 * result + (type != null ? type.hashCode() : 0);
         result = 31 * result + (color != null ? color.hashCode() : 0);
+        final String text = getText();
         result = 31 * result + (text != null ? text.hashCode() : 0);
         result = 31 * result + (profileId != null ? profileId.hashCode() : 0);
         result = 31 * result + (positions != null ? positions.hashCode() : 0);
@@ -135,6 +192,7 @@ public class Annotation {
         private PrivacyLevel privacyLevel;
         private String fileHash;
         private String documentId;
+        private LazyUtf8String lazyText;
 
         public Builder() {
         }
@@ -146,12 +204,13 @@ public class Annotation {
             this.color = from.color;
             this.text = from.text;
             this.profileId = from.profileId;
-            this.positions = from.positions;
+            this.positions = from.packedPositions != null ? from.packedPositions : from.positions;
             this.created = from.created;
             this.lastModified = from.lastModified;
             this.privacyLevel = from.privacyLevel;
             this.fileHash = from.fileHash;
             this.documentId = from.documentId;
+            this.lazyText = from.lazyText;
         }
 
         public Builder setId(String id) {
@@ -170,12 +229,22 @@ public class Annotation {
         }
 
         public Builder setColor(int color) {
-            this.color = color;
+            this.color = boxColor(color);
             return this;
         }
 
         public Builder setText(String text) {
             this.text = text;
+            this.lazyText = null;
+            return this;
+        }
+
+        /**
+         * Sets the text as UTF-8 bytes to be decoded when first read, see {@link Annotation#getText()}
+         */
+        public Builder setLazyText(LazyUtf8String text) {
+            this.text = null;
+            this.lazyText = text;
             return this;
         }
 
@@ -227,7 +296,8 @@ public class Annotation {
                     lastModified,
                     privacyLevel,
                     fileHash,
-                    documentId);
+                    documentId,
+                    lazyText);
         }
     }
 
@@ -1,5 +1,6 @@
 package com.mendeley.sdk.model;
 
+import com.mendeley.sdk.util.LazyUtf8String;
 import com.mendeley.sdk.util.NullableList;
 import com.mendeley.sdk.util.NullableMap;
 
@@ -33,6 +34,12 @@ public class Document {
 	public final String revision;
 	public final Date created;
 	public final NullableMap<String, String> identifiers;
+	/**
+	 * Null if the document was parsed with lazy text fields.
+	 *
+	 * @deprecated use {@link #getAbstractString()}, which works whether or not the text fields were parsed lazily
+	 */
+	@Deprecated
 	public final String abstractString;
 	public final NullableList<Person> authors;
 	public final String pages;
@@ -49,10 +56,26 @@ public class Document {
     public final Boolean fileAttached;
     public final NullableList<String> keywords;
     public final NullableList<String> websites;
+    /**
+     * Null if the document was parsed with lazy text fields.
+     *
+     * @deprecated use {@link #getClientData()}, which works whether or not the text fields were parsed lazily
+     */
+    @Deprecated
     public final String clientData;
     public final String uniqueId;
+	/**
+	 * Null if the document was parsed with lazy text fields.
+	 *
+	 * @deprecated use {@link #getNotes()}, which works whether or not the text fields were parsed lazily
+	 */
+	@Deprecated
 	public final String notes;
 
+	private final LazyUtf8String lazyAbstractString;
+	private final LazyUtf8String lazyClientData;
+	private final LazyUtf8String lazyNotes;
+
 	private Document(
 			Date lastModified,
 			String groupId,
@@ -89,7 +112,10 @@ public class Document {
 			List<String> keywords,
 			List<String> websites,
 			String clientData,
-			String notes, String uniqueId) {
+			String notes, String uniqueId,
+			LazyUtf8String lazyAbstractString,
+			LazyUtf8String lazyClientData,
+			LazyUtf8String lazyNotes) {
 		this.lastModified = lastModified;
 		this.groupId = groupId;
 		this.profileId = profileId;
@@ -127,6 +153,30 @@ public class Document {
         this.clientData = clientData;
 		this.notes = notes;
 		this.uniqueId = uniqueId;
+		this.lazyAbstractString = lazyAbstractString;
+		this.lazyClientData = lazyClientData;
+		this.lazyNotes = lazyNotes;
+	}
+
+	/**
+	 * @return the abstract, decoded on the first call if the document was parsed with lazy text fields
+	 */
+	public String getAbstractString() {
+		return LazyUtf8String.valueOf(abstractString, lazyAbstractString);
+	}
+
+	/**
+	 * @return the client data, decoded on the first call if the document was parsed with lazy text fields
+	 */
+	public String getClientData() {
+		return LazyUtf8String.valueOf(clientData, lazyClientData);
+	}
+
+	/**
+	 * @return the notes, decoded on the first call if the document was parsed with lazy text fields
+	 */
+	public String getNotes() {
+		return LazyUtf8String.valueOf(notes, lazyNotes);
 	}
 
 	public static class Builder {
@@ -168,6 +218,9 @@ public class Document {
         private String clientData;
         private String uniqueId;
 		private String notes;
+		private LazyUtf8String lazyAbstractString;
+		private LazyUtf8String lazyClientData;
+		private LazyUtf8String lazyNotes;
 
 		public Builder() {
         }
@@ -210,6 +263,9 @@ public class Document {
             this.notes = from.notes;
             this.clientData = from.clientData;
             this.uniqueId = from.uniqueId;
+            this.lazyAbstractString = from.lazyAbstractString;
+            this.lazyClientData = from.lazyClientData;
+            this.lazyNotes = from.lazyNotes;
 		}
 
         public Builder setTitle(String title) {
@@ -299,6 +355,16 @@ public class Document {
 		
 		public Builder setAbstractString(String abstractString) {
 			this.abstractString = abstractString;
+			this.lazyAbstractString = null;
+			return this;
+		}
+
+		/**
+		 * Sets the abstract as UTF-8 bytes to be decoded when first read, see {@link Document#getAbstractString()}
+		 */
+		public Builder setLazyAbstractString(LazyUtf8String abstractString) {
+			this.abstractString = null;
+			this.lazyAbstractString = abstractString;
 			return this;
 		}
 
@@ -385,6 +451,16 @@ public class Document {
 
         public Builder setClientData(String clientData) {
             this.clientData = clientData;
+            this.lazyClientData = null;
+            return this;
+        }
+
+        /**
+         * Sets the client data as UTF-8 bytes to be decoded when first read, see {@link Document#getClientData()}
+         */
+        public Builder setLazyClientData(LazyUtf8String clientData) {
+            this.clientData = null;
+            this.lazyClientData = clientData;
             return this;
         }
 
@@ -395,6 +471,16 @@ public class Document {
 
 		public Builder setNotes(String notes) {
 			this.notes = notes;
+			this.lazyNotes = null;
+			return this;
+		}
+
+		/**
+		 * Sets the notes as UTF-8 bytes to be decoded when first read, see {@link Document#getNotes()}
+		 */
+		public Builder setLazyNotes(LazyUtf8String notes) {
+			this.notes = null;
+			this.lazyNotes = notes;
 			return this;
 		}
 
@@ -436,7 +522,10 @@ public class Document {
                     websites,
                     clientData,
 					notes,
-					uniqueId);
+					uniqueId,
+					lazyAbstractString,
+					lazyClientData,
+					lazyNotes);
 		}
 	}
 
@@ -0,0 +1,182 @@
+package com.mendeley.sdk.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable list of {@link Annotation.Position}s stored in flat arrays: the four coordinates of
+ * every bounding box in one array of doubles and the pages in one array of ints. Heavily
+ * highlighted files have thousands of annotations with many rectangles each, and this avoids
+ * keeping two {@link Point}s and a boxed page per rectangle alive.
+ *
+ * <p/>
+ *
+ * {@link #get(int)} builds the {@link Annotation.Position} on each call. Code going through many
+ * positions, like a renderer, can read the coordinates with the indexed getters instead, which
+ * don't allocate.
+ */
+public class PackedPositions extends AbstractList<Annotation.Position> {
+
+    /**
+     * Page of the positions without page
+     */
+    public static final int NO_PAGE = Integer.MIN_VALUE;
+
+    private static final int TOP_LEFT_X = 0;
+    private static final int TOP_LEFT_Y = 1;
+    private static final int BOTTOM_RIGHT_X = 2;
+    private static final int BOTTOM_RIGHT_Y = 3;
+    private static final int COORDINATES_PER_BOX = 4;
+
+    // coordinates of the missing points, which can't come as NaN from the JSON
+    private final double[] boxes;
+    private final int[] pages;
+    private final int size;
+
+    private PackedPositions(double[] boxes, int[] pages, int size) {
+        this.boxes = boxes;
+        this.pages = pages;
+        this.size = size;
+    }
+
+    /**
+     * @param positions the positions to pack
+     * @return the packed positions, or the same list if it's already packed
+     */
+    public static PackedPositions of(List<Annotation.Position> positions) {
+        if (positions instanceof PackedPositions) {
+            return (PackedPositions) positions;
+        }
+        final Builder builder = new Builder(positions.size());
+        for (Annotation.Position position : positions) {
+            builder.add(position);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public Annotation.Position get(int index) {
+        checkIndex(index);
+        final int page = pages[index];
+        return new Annotation.Position(
+                point(index, TOP_LEFT_X, TOP_LEFT_Y),
+                point(index, BOTTOM_RIGHT_X, BOTTOM_RIGHT_Y),
+                page != NO_PAGE ? page : null);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the page of the position, or {@link #NO_PAGE} if it has none
+     */
+    public int getPage(int index) {
+        checkIndex(index);
+        return pages[index];
+    }
+
+    public boolean hasTopLeft(int index) {
+        checkIndex(index);
+        return !Double.isNaN(boxes[index * COORDINATES_PER_BOX + TOP_LEFT_X]);
+    }
+
+    public double getTopLeftX(int index) {
+        checkIndex(index);
+        return boxes[index * COORDINATES_PER_BOX + TOP_LEFT_X];
+    }
+
+    public double getTopLeftY(int index) {
+        checkIndex(index);
+        return boxes[index * COORDINATES_PER_BOX + TOP_LEFT_Y];
+    }
+
+    public boolean hasBottomRight(int index) {
+        checkIndex(index);
+        return !Double.isNaN(boxes[index * COORDINATES_PER_BOX + BOTTOM_RIGHT_X]);
+    }
+
+    public double getBottomRightX(int index) {
+        checkIndex(index);
+        return boxes[index * COORDINATES_PER_BOX + BOTTOM_RIGHT_X];
+    }
+
+    public double getBottomRightY(int index) {
+        checkIndex(index);
+        return boxes[index * COORDINATES_PER_BOX + BOTTOM_RIGHT_Y];
+    }
+
+    private Point point(int index, int xOffset, int yOffset) {
+        final double x = boxes[index * COORDINATES_PER_BOX + xOffset];
+        if (Double.isNaN(x)) {
+            return null;
+        }
+        return new Point(x, boxes[index * COORDINATES_PER_BOX + yOffset]);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+
+    /**
+     * Builder of {@link PackedPositions}, appending the coordinates of each position straight to
+     * the arrays.
+     */
+    public static class Builder {
+        private double[] boxes;
+        private int[] pages;
+        private int size;
+
+        public Builder() {
+            this(4);
+        }
+
+        public Builder(int expectedSize) {
+            final int capacity = Math.max(expectedSize, 1);
+            boxes = new double[capacity * COORDINATES_PER_BOX];
+            pages = new int[capacity];
+        }
+
+        /**
+         * Adds one position. Pass NaN coordinates for a missing point, and {@link #NO_PAGE} for a
+         * missing page.
+         */
+        public Builder add(double topLeftX, double topLeftY, double bottomRightX, double bottomRightY, int page) {
+            if (size == pages.length) {
+                pages = Arrays.copyOf(pages, size * 2);
+                boxes = Arrays.copyOf(boxes, size * 2 * COORDINATES_PER_BOX);
+            }
+            final int offset = size * COORDINATES_PER_BOX;
+            boxes[offset + TOP_LEFT_X] = topLeftX;
+            boxes[offset + TOP_LEFT_Y] = topLeftY;
+            boxes[offset + BOTTOM_RIGHT_X] = bottomRightX;
+            boxes[offset + BOTTOM_RIGHT_Y] = bottomRightY;
+            pages[size] = page;
+            size++;
+            return this;
+        }
+
+        public Builder add(Annotation.Position position) {
+            final Point topLeft = position.topLeft;
+            final Point bottomRight = position.bottomRight;
+            return add(
+                    topLeft != null ? topLeft.x : Double.NaN,
+                    topLeft != null ? topLeft.y : Double.NaN,
+                    bottomRight != null ? bottomRight.x : Double.NaN,
+                    bottomRight != null ? bottomRight.y : Double.NaN,
+                    position.page != null ? position.page : NO_PAGE);
+        }
+
+        public PackedPositions build() {
+            // trimmed, as the packed positions are kept as long as their annotation
+            return new PackedPositions(
+                    Arrays.copyOf(boxes, size * COORDINATES_PER_BOX),
+                    Arrays.copyOf(pages, size),
+                    size);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.mendeley.sdk.request;
+
+import android.util.JsonReader;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * {@link JsonTokenReader} backed by the {@link JsonReader} of the Android platform.
+ */
+public class AndroidJsonTokenReader implements JsonTokenReader {
+
+    private final JsonReader reader;
+
+    /**
+     * @param is stream with the JSON document, encoded as UTF-8
+     */
+    public AndroidJsonTokenReader(InputStream is) throws IOException {
+        this(new JsonReader(new InputStreamReader(new BufferedInputStream(is), "UTF-8")));
+    }
+
+    public AndroidJsonTokenReader(JsonReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        reader.beginArray();
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        reader.endArray();
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        reader.beginObject();
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        reader.endObject();
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        return reader.hasNext();
+    }
+
+    @Override
+    public Token peek() throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_ARRAY:
+                return Token.BEGIN_ARRAY;
+            case END_ARRAY:
+                return Token.END_ARRAY;
+            case BEGIN_OBJECT:
+                return Token.BEGIN_OBJECT;
+            case END_OBJECT:
+                return Token.END_OBJECT;
+            case NAME:
+                return Token.NAME;
+            case STRING:
+                return Token.STRING;
+            case NUMBER:
+                return Token.NUMBER;
+            case BOOLEAN:
+                return Token.BOOLEAN;
+            case NULL:
+                return Token.NULL;
+            default:
+                return Token.END_DOCUMENT;
+        }
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        return reader.nextName();
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        return reader.nextString();
+    }
+
+    @Override
+    public byte[] nextUtf8String() throws IOException {
+        return reader.nextString().getBytes("UTF-8");
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        return reader.nextBoolean();
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        reader.nextNull();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        return reader.nextDouble();
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        return reader.nextLong();
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        return reader.nextInt();
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        reader.skipValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -8,25 +8,21 @@ import com.mendeley.sdk.ClientCredentials;
 import com.mendeley.sdk.Request;
 import com.mendeley.sdk.exceptions.HttpResponseException;
 import com.mendeley.sdk.exceptions.MendeleyException;
-import com.mendeley.sdk.request.endpoint.OAuthTokenEndpoint;
 
-import java.util.Date;
-import java.util.concurrent.TimeUnit;
 
 /**
  * {@link Request} against the Mendeley Web API that is performed using a valid OAuth access token.
  *
- * This class is responsible to refresh the access token if it has expired.
+ * This class is responsible to refresh the access token if it has expired, through the
+ * {@link TokenRefreshCoordinator} shared by every request using the same {@link AuthTokenManager}.
  *
  * @param <ResultType>
  */
 public abstract class AuthorizedRequest<ResultType> extends Request<ResultType> {
 
-    // Only use tokens which don't expire in the next 5 mins:
-    private final static int MIN_TOKEN_VALIDITY_SEC = 300;
-
     protected final AuthTokenManager authTokenManager;
     protected final ClientCredentials clientCredentials;
+    private final TokenRefreshCoordinator tokenRefreshCoordinator;
 
     /**
      * Constructor
@@ -39,24 +35,31 @@ public abstract class AuthorizedRequest<ResultType> extends Request<ResultType>
         super(url);
         this.authTokenManager = authTokenManager;
         this.clientCredentials = clientCredentials;
+        this.tokenRefreshCoordinator = TokenRefreshCoordinator.obtain(authTokenManager, clientCredentials);
     }
 
     @Override
     public final Response doRun() throws MendeleyException {
-        if (TextUtils.isEmpty(authTokenManager.getAccessToken())) {
+        String accessToken = authTokenManager.getAccessToken();
+        if (TextUtils.isEmpty(accessToken)) {
             // Must call startSignInProcess first - caller error!
             throw new MendeleyException("No access token found");
         }
 
-        if (willExpireSoon()) {
-            refreshExpiredToken();
+        if (tokenRefreshCoordinator.willExpireSoon()) {
+            // shared with any other request finding the token expired at the same time
+            tokenRefreshCoordinator.refresh(accessToken);
+            accessToken = authTokenManager.getAccessToken();
+        } else {
+            tokenRefreshCoordinator.ensureProactiveRefreshScheduled();
         }
         try {
             return doRunAuthorized();
         } catch (HttpResponseException e) {
             if (e.httpReturnCode == 401 && e.getMessage().contains("Token has expired")) {
-                // The refresh-token-in-advance logic did not work for some reason: force a refresh now
-                refreshExpiredToken();
+                // The refresh-token-in-advance logic did not work for some reason: force a refresh now,
+                // unless another request has already done it
+                tokenRefreshCoordinator.refresh(accessToken);
                 return doRunAuthorized();
             } else {
                 throw e;
@@ -64,10 +67,6 @@ public abstract class AuthorizedRequest<ResultType> extends Request<ResultType>
         }
     }
 
-    private void refreshExpiredToken() throws MendeleyException {
-        new OAuthTokenEndpoint.RefreshTokenRequest(authTokenManager, clientCredentials).run();
-    }
-
     /**
      * Template method to be implemented by extending classes.
      * This method is guaranteed to be run with a valid access token.
@@ -76,19 +75,4 @@ public abstract class AuthorizedRequest<ResultType> extends Request<ResultType>
      * @throws MendeleyException
      */
     protected abstract Response doRunAuthorized() throws MendeleyException;
-
-    // TODO: consider dropping this to reduce complexity
-    /**
-     * Checks if the current access token will expire soon (or isn't valid at all).
-     */
-    private boolean willExpireSoon() {
-        if (TextUtils.isEmpty(authTokenManager.getAccessToken()) || authTokenManager.getAuthTokenExpirationDate() == null) {
-            return true;
-        }
-        Date now = new Date();
-        Date expires = authTokenManager.getAuthTokenExpirationDate();
-        long timeToExpiryMs = expires.getTime() - now.getTime();
-        long timeToExpirySec = TimeUnit.MILLISECONDS.toSeconds(timeToExpiryMs);
-        return timeToExpirySec < MIN_TOKEN_VALIDITY_SEC;
-    }
 }
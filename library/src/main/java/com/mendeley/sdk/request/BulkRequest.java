@@ -0,0 +1,355 @@
+package com.mendeley.sdk.request;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.RequestScheduler;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link Request} running a list of requests, typically the same operation over many items
+ * (trashing, deleting or moving documents to a folder), with a bounded number of them in
+ * parallel.
+ *
+ * <p/>
+ *
+ * The outcome of each request is collected in a {@link Report} instead of failing the whole bulk
+ * request. By default the remaining requests are skipped after the first failure, see
+ * {@link #setStopOnFailure(boolean)}.
+ *
+ * <p/>
+ *
+ * Cancelling the bulk request cancels the requests in progress and skips the rest.
+ * {@link #run()} still returns the {@link Report} of what was done, see {@link Report#cancelled}.
+ *
+ * <p/>
+ *
+ * The requests run in the calling thread and in up to {@link #setMaxConcurrency(int)} - 1 helper
+ * threads shared by every bulk request. The helpers are not queued in the {@link RequestScheduler},
+ * as the bulk request already holds a slot of its lane and the cap of the lane would keep the
+ * concurrency below {@link #setMaxConcurrency(int)}.
+ */
+public class BulkRequest extends Request<BulkRequest.Report> {
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    // threads helping the calling thread of the bulk requests, created as needed
+    private static final Executor HELPER_EXECUTOR = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, "MendeleyBulkRequest #" + count.getAndIncrement());
+        }
+    });
+
+    private final List<Request<?>> requests;
+
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private boolean stopOnFailure = true;
+    private ProgressListener progressListener;
+
+    // Requests in progress, to be cancelled with the bulk request
+    private final List<Request<?>> running = new ArrayList<Request<?>>();
+
+    /**
+     * @param requests the requests to run. They must not have been run already.
+     */
+    public BulkRequest(List<? extends Request<?>> requests) {
+        super(null);
+        if (requests == null) {
+            throw new IllegalArgumentException("The list of requests can't be null");
+        }
+        this.requests = Collections.unmodifiableList(new ArrayList<Request<?>>(requests));
+        setLane(RequestScheduler.Lane.BACKGROUND_SYNC);
+    }
+
+    /**
+     * @return the requests run by this bulk request, in order
+     */
+    public final List<Request<?>> getRequests() {
+        return requests;
+    }
+
+    /**
+     * @param maxConcurrency maximum number of requests running at the same time. Default is 4.
+     */
+    public final void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("The concurrency must be at least 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * @param stopOnFailure whether the requests not started yet are skipped after one fails.
+     *                      If false, every request is run regardless of the failures.
+     *                      Default is true.
+     */
+    public final void setStopOnFailure(boolean stopOnFailure) {
+        this.stopOnFailure = stopOnFailure;
+    }
+
+    /**
+     * @param progressListener listener notified every time one of the requests finishes or is
+     *                         skipped. It is called from the worker threads, not the UI thread.
+     */
+    public final void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    @Override
+    protected Response doRun() throws MendeleyException {
+        final Worker worker = new Worker(new ItemResult[requests.size()]);
+
+        // the calling thread works too
+        final int helpers = Math.min(maxConcurrency, requests.size()) - 1;
+        for (int i = 0; i < helpers; i++) {
+            HELPER_EXECUTOR.execute(worker);
+        }
+        worker.run();
+        worker.awaitSettled();
+
+        final ItemResult[] results = worker.results;
+        Date serverDate = null;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = new ItemResult(requests.get(i), Status.SKIPPED, null, null);
+            } else if (results[i].response != null && results[i].response.serverDate != null) {
+                if (serverDate == null || results[i].response.serverDate.after(serverDate)) {
+                    serverDate = results[i].response.serverDate;
+                }
+            }
+        }
+
+        return new Response(new Report(results, isCancelled()), serverDate, null);
+    }
+
+    @Override
+    protected void onCancel() {
+        synchronized (running) {
+            for (Request<?> request : running) {
+                request.cancel();
+            }
+        }
+    }
+
+    /**
+     * Takes the requests in order and runs them, until there are no more. Run by the calling
+     * thread and by the helper threads; helpers starting after every request has been taken
+     * return straight away.
+     */
+    private class Worker implements Runnable {
+
+        private final ItemResult[] results;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private int settled;
+        private int finished;
+
+        Worker(ItemResult[] results) {
+            this.results = results;
+        }
+
+        @Override
+        public void run() {
+            int index;
+            while ((index = nextIndex.getAndIncrement()) < results.length) {
+                try {
+                    runRequest(index);
+                    notifyProgress();
+                } finally {
+                    synchronized (this) {
+                        settled++;
+                        notifyAll();
+                    }
+                }
+            }
+        }
+
+        private void runRequest(int index) {
+            final Request<?> request = requests.get(index);
+
+            synchronized (running) {
+                if (isCancelled() || (stopOnFailure && failures.get() > 0)) {
+                    // skipped
+                    return;
+                }
+                running.add(request);
+            }
+
+            try {
+                results[index] = new ItemResult(request, Status.SUCCEEDED, request.run(), null);
+            } catch (MendeleyException e) {
+                failures.incrementAndGet();
+                results[index] = new ItemResult(request, Status.FAILED, null, e);
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                results[index] = new ItemResult(request, Status.FAILED, null, new MendeleyException("Error running request " + index, e));
+            } finally {
+                synchronized (running) {
+                    running.remove(request);
+                }
+            }
+        }
+
+        private void notifyProgress() {
+            final ProgressListener listener = progressListener;
+            if (listener != null) {
+                final int count;
+                synchronized (this) {
+                    count = ++finished;
+                }
+                listener.onProgress(count, results.length);
+            }
+        }
+
+        /**
+         * Waits until every request has been run or skipped. Interrupting the calling thread
+         * cancels the bulk request.
+         */
+        synchronized void awaitSettled() {
+            boolean interrupted = false;
+            while (settled < results.length) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    cancel();
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Outcome of each request of the bulk request.
+     */
+    public enum Status {
+        SUCCEEDED,
+        FAILED,
+        /**
+         * The request was not run, because another one failed or the bulk request was cancelled
+         */
+        SKIPPED
+    }
+
+    /**
+     * Outcome of one of the requests of the bulk request.
+     */
+    public static class ItemResult {
+
+        public final Request<?> request;
+        public final Status status;
+
+        /**
+         * Response of the request if it succeeded, null otherwise.
+         */
+        public final Request<?>.Response response;
+
+        /**
+         * Error of the request if it failed, null otherwise.
+         */
+        public final MendeleyException error;
+
+        public ItemResult(Request<?> request, Status status, Request<?>.Response response, MendeleyException error) {
+            this.request = request;
+            this.status = status;
+            this.response = response;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Aggregated outcome of the requests of the bulk request.
+     */
+    public static class Report {
+
+        /**
+         * Result of each request, in the same order as the requests.
+         */
+        public final List<ItemResult> results;
+
+        public final int succeeded;
+        public final int failed;
+        public final int skipped;
+
+        /**
+         * Whether the bulk request was cancelled, so that the requests not finished by then
+         * were skipped or failed with a {@link UserCancelledException}.
+         */
+        public final boolean cancelled;
+
+        public Report(ItemResult[] results) {
+            this(results, false);
+        }
+
+        public Report(ItemResult[] results, boolean cancelled) {
+            int succeeded = 0;
+            int failed = 0;
+            int skipped = 0;
+            for (ItemResult result : results) {
+                switch (result.status) {
+                    case SUCCEEDED:
+                        succeeded++;
+                        break;
+                    case FAILED:
+                        failed++;
+                        break;
+                    default:
+                        skipped++;
+                }
+            }
+            this.results = Collections.unmodifiableList(Arrays.asList(results));
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.skipped = skipped;
+            this.cancelled = cancelled;
+        }
+
+        /**
+         * @return true if every request succeeded
+         */
+        public boolean isSuccessful() {
+            return failed == 0 && skipped == 0;
+        }
+
+        /**
+         * @return the results of the requests that failed
+         */
+        public List<ItemResult> getFailures() {
+            final List<ItemResult> failures = new ArrayList<ItemResult>();
+            for (ItemResult result : results) {
+                if (result.status == Status.FAILED) {
+                    failures.add(result);
+                }
+            }
+            return failures;
+        }
+    }
+
+    /**
+     * To be implemented by classes that want to listen the progress of the bulk request
+     */
+    public interface ProgressListener {
+
+        /**
+         * @param finished number of requests finished, successfully or not, or skipped
+         * @param total number of requests of the bulk request
+         */
+        void onProgress(int finished, int total);
+    }
+}
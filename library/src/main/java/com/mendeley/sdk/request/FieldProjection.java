@@ -0,0 +1,91 @@
+package com.mendeley.sdk.request;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Set of JSON fields that {@link JsonParser} decodes when parsing an item. The value of every other
+ * field is skipped without being decoded, so the rest of properties of the parsed item are left
+ * unset.
+ *
+ * <p/>
+ *
+ * Useful when only a few properties are needed, e.g. to compare the id, revision and modification
+ * date of the remote documents against the local ones:
+ *
+ * <pre>
+ * request.setFieldProjection(FieldProjection.of("id", "revision", "last_modified"));
+ * </pre>
+ *
+ * The names are the ones of the API, e.g. "last_modified" rather than "lastModified".
+ */
+public class FieldProjection {
+
+    private final Set<String> fields;
+    private final String key;
+
+    private FieldProjection(Set<String> fields) {
+        this.fields = Collections.unmodifiableSet(new HashSet<>(fields));
+        final StringBuilder key = new StringBuilder();
+        for (String field : new TreeSet<>(fields)) {
+            if (key.length() > 0) {
+                key.append(',');
+            }
+            key.append(field);
+        }
+        this.key = key.toString();
+    }
+
+    /**
+     * @param fields names of the JSON fields to decode
+     * @return the projection
+     */
+    public static FieldProjection of(String... fields) {
+        return of(Arrays.asList(fields));
+    }
+
+    /**
+     * @param fields names of the JSON fields to decode
+     * @return the projection
+     */
+    public static FieldProjection of(Collection<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("At least one field is needed");
+        }
+        return new FieldProjection(new HashSet<>(fields));
+    }
+
+    /**
+     * @param field name of a JSON field
+     * @return whether the value of the field has to be decoded
+     */
+    public boolean includes(String field) {
+        return fields.contains(field);
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return the sorted fields separated by commas, equal for projections of the same fields
+     */
+    @Override
+    public String toString() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FieldProjection && fields.equals(((FieldProjection) o).fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return fields.hashCode();
+    }
+}
@@ -14,6 +14,8 @@ import java.io.InputStream;
  */
 public abstract class GetAuthorizedRequest<ResultType> extends OkHttpAuthorizedRequest<ResultType> {
 
+    private boolean coalescingEnabled;
+
     public GetAuthorizedRequest(Uri url, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
         super(url, authTokenManager, clientCredentials);
     }
@@ -23,6 +25,54 @@ public abstract class GetAuthorizedRequest<ResultType> extends OkHttpAuthorizedR
         requestBld.get();
     }
 
+    /**
+     * Sets a cache for the parsed response of this request.
+     *
+     * <p/>
+     *
+     * If the cache has an entry for this request, it is revalidated against the server and
+     * returned when the server answers 304 Not Modified, without parsing the body again.
+     * Requests whose response can't be cached, like the ones downloading file binaries, ignore it.
+     *
+     * @param responseCache the cache, or null to not use any
+     */
+    public final void setResponseCache(ResponseCache responseCache) {
+        useResponseCache(responseCache);
+    }
+
+    @Override
+    protected boolean isResponseCacheable() {
+        return true;
+    }
+
+    /**
+     * Sets whether this request may share its network call and parsed result with identical
+     * requests (same type, URL and headers) running at the same time. Disabled by default.
+     *
+     * <p/>
+     *
+     * Each request still gets its own {@link Response} and can be cancelled on its own: the shared
+     * call is only aborted when every request waiting for it has been cancelled. Only the request
+     * performing the call publishes progress to its {@link RequestProgressListener}.
+     *
+     * <p/>
+     *
+     * Only {@link #manageResponse(InputStream)} of the request performing the call is run, and every
+     * coalesced request gets the same resource instance. Enable it only for requests whose
+     * {@link #manageResponse(InputStream)} has no side effects and whose resource is not modified
+     * by the code receiving it.
+     *
+     * @param coalescingEnabled whether the request may be coalesced
+     */
+    public final void setCoalescingEnabled(boolean coalescingEnabled) {
+        this.coalescingEnabled = coalescingEnabled;
+    }
+
+    @Override
+    protected boolean isCoalescable() {
+        return coalescingEnabled && isResponseCacheable();
+    }
+
     @Override
     protected abstract ResultType manageResponse(InputStream is) throws Exception;
 
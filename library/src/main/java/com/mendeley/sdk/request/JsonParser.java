@@ -1,7 +1,5 @@
 package com.mendeley.sdk.request;
 
-import android.graphics.Color;
-import android.text.TextUtils;
 import android.util.JsonReader;
 
 import com.mendeley.sdk.model.AlternativeName;
@@ -14,12 +12,13 @@ import com.mendeley.sdk.model.File;
 import com.mendeley.sdk.model.Folder;
 import com.mendeley.sdk.model.Group;
 import com.mendeley.sdk.model.Institution;
+import com.mendeley.sdk.model.PackedPositions;
 import com.mendeley.sdk.model.Person;
-import com.mendeley.sdk.model.Point;
 import com.mendeley.sdk.model.Profile;
 import com.mendeley.sdk.model.ReadPosition;
 import com.mendeley.sdk.model.UserRole;
 import com.mendeley.sdk.util.DateUtils;
+import com.mendeley.sdk.util.LazyUtf8String;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -40,7 +39,7 @@ import static com.mendeley.sdk.model.Annotation.PrivacyLevel;
  */
 public class JsonParser {
 
-    public static Profile profileFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+    public static Profile profileFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
         final Profile.Builder builder = new Profile.Builder();
 
         reader.beginObject();
@@ -48,65 +47,85 @@ public class JsonParser {
         while (reader.hasNext()){
 
             final String key = reader.nextName();
-            if (key.equals("id")) {
-                builder.setId(reader.nextString());
+            switch (key) {
+                case "id":
+                    builder.setId(reader.nextString());
+                    break;
 
-            } else if (key.equals("display_name")) {
-                builder.setDisplayName(reader.nextString());
+                case "display_name":
+                    builder.setDisplayName(reader.nextString());
+                    break;
 
-            } else if (key.equals("user_type")) {
-                builder.setUserType(reader.nextString());
+                case "user_type":
+                    builder.setUserType(reader.nextString());
+                    break;
 
-            } else if (key.equals("url")) {
-                builder.setUrl(reader.nextString());
+                case "url":
+                    builder.setUrl(reader.nextString());
+                    break;
 
-            } else if (key.equals("email")) {
-                builder.setEmail(reader.nextString());
+                case "email":
+                    builder.setEmail(reader.nextString());
+                    break;
 
-            } else if (key.equals("link")) {
-                builder.setLink(reader.nextString());
+                case "link":
+                    builder.setLink(reader.nextString());
+                    break;
 
-            } else if (key.equals("first_name")) {
-                builder.setFirstName(reader.nextString());
+                case "first_name":
+                    builder.setFirstName(reader.nextString());
+                    break;
 
-            } else if (key.equals("last_name")) {
-                builder.setLastName(reader.nextString());
+                case "last_name":
+                    builder.setLastName(reader.nextString());
+                    break;
 
-            } else if (key.equals("title")) {
-                builder.setTitle(reader.nextString());
+                case "title":
+                    builder.setTitle(reader.nextString());
+                    break;
 
-            } else if (key.equals("research_interests")) {
-                builder.setResearchInterests(reader.nextString());
+                case "research_interests":
+                    builder.setResearchInterests(reader.nextString());
+                    break;
 
-            } else if (key.equals("academic_status")) {
-                builder.setAcademicStatus(reader.nextString());
+                case "academic_status":
+                    builder.setAcademicStatus(reader.nextString());
+                    break;
 
-            } else if (key.equals("verified")) {
-                builder.setVerified(reader.nextBoolean());
+                case "verified":
+                    builder.setVerified(reader.nextBoolean());
+                    break;
 
-            } else if (key.equals("marketing")) {
-                builder.setMarketing(reader.nextBoolean());
+                case "marketing":
+                    builder.setMarketing(reader.nextBoolean());
+                    break;
 
-            } else if (key.equals("created_at")) {
-                builder.setCreatedAt(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                case "created_at":
+                    builder.setCreatedAt(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                    break;
 
-            } else if (key.equals("discipline")) {
-                builder.setDiscipline(disciplineFromJson(reader));
+                case "discipline":
+                    builder.setDiscipline(disciplineFromJson(reader));
+                    break;
 
-            } else if (key.equals("photos")) {
-                builder.setPhotos(profilePhotosFromJson(reader));
+                case "photos":
+                    builder.setPhotos(profilePhotosFromJson(reader));
+                    break;
 
-            } else if (key.equals("education")) {
-                builder.setEducation(educationsFromJson(reader));
+                case "education":
+                    builder.setEducation(educationsFromJson(reader));
+                    break;
 
-            } else if (key.equals("employment")) {
-                builder.setEmployment(employmentsFromJson(reader));
+                case "employment":
+                    builder.setEmployment(employmentsFromJson(reader));
+                    break;
 
-            } else if (key.equals("institution_details")) {
-                builder.setInstitutionDetails(institutionFromJson(reader));
+                case "institution_details":
+                    builder.setInstitutionDetails(institutionFromJson(reader));
+                    break;
 
-            } else {
-                reader.skipValue();
+                default:
+                    reader.skipValue();
             }
         }
 
@@ -115,7 +134,7 @@ public class JsonParser {
         return builder.build();
     }
 
-    public static List<Profile.Photo> profilePhotosFromJson(JsonReader reader) throws IOException, JSONException, ParseException {
+    public static List<Profile.Photo> profilePhotosFromJson(JsonTokenReader reader) throws IOException, JSONException, ParseException {
         List<Profile.Photo> photos = new ArrayList<>();
 
         reader.beginArray();
@@ -127,7 +146,7 @@ public class JsonParser {
         return photos;
     }
 
-    public static Profile.Photo profilePhotoFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+    public static Profile.Photo profilePhotoFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
         final Profile.Photo.Builder bld = new Profile.Photo.Builder();
 
         reader.beginObject();
@@ -151,7 +170,7 @@ public class JsonParser {
         return bld.build();
     }
 
-    public static Group.Photo groupPhotoFromJson(JsonReader reader) throws IOException {
+    public static Group.Photo groupPhotoFromJson(JsonTokenReader reader) throws IOException {
         reader.beginObject();
 
         String original = null;
@@ -177,19 +196,36 @@ public class JsonParser {
 
 
 
-    public static List<Document> documentsFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+    public static List<Document> documentsFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
+        return documentsFromJson(reader, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * @param options the fields to decode and how to decode them
+     */
+    public static List<Document> documentsFromJson(JsonTokenReader reader, ParseOptions options) throws JSONException, IOException, ParseException {
         final List<Document> documents = new ArrayList<Document>();
         reader.beginArray();
 
         while (reader.hasNext()) {
-            documents.add(documentFromJson(reader));
+            documents.add(documentFromJson(reader, options));
         }
 
         reader.endArray();
         return documents;
     }
 
-    public static Document documentFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+    public static Document documentFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
+        return documentFromJson(reader, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * @param options the fields to decode and how to decode them
+     */
+    public static Document documentFromJson(JsonTokenReader reader, ParseOptions options) throws JSONException, IOException, ParseException {
+        final FieldProjection projection = options.projection;
+        final boolean lazyText = options.lazyText;
+        final StringPool stringPool = options.stringPool;
 
         final Document.Builder bld = new Document.Builder();
 
@@ -197,124 +233,179 @@ public class JsonParser {
         while (reader.hasNext()) {
 
             final String key = reader.nextName();
-            if (key.equals("title")) {
-                bld.setTitle(reader.nextString());
-
-            } else if (key.equals("type")) {
-                bld.setType(reader.nextString());
-
-            } else if (key.equals("last_modified")) {
-                bld.setLastModified(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
-
-            } else if (key.equals("group_id")) {
-                bld.setGroupId(reader.nextString());
-
-            } else if (key.equals("profile_id")) {
-                bld.setProfileId(reader.nextString());
-
-            } else if (key.equals("read")) {
-                bld.setRead(reader.nextBoolean());
-
-            } else if (key.equals("starred")) {
-                bld.setStarred(reader.nextBoolean());
-
-            } else if (key.equals("authored")) {
-                bld.setAuthored(reader.nextBoolean());
-
-            } else if (key.equals("confirmed")) {
-                bld.setConfirmed(reader.nextBoolean());
-
-            } else if (key.equals("hidden")) {
-                bld.setHidden(reader.nextBoolean());
-
-            } else if (key.equals("id")) {
-                bld.setId(reader.nextString());
-
-            } else if (key.equals("month")) {
-                bld.setMonth(reader.nextInt());
-
-            } else if (key.equals("year")) {
-                bld.setYear(reader.nextInt());
-
-            } else if (key.equals("day")) {
-                bld.setDay(reader.nextInt());
-
-            } else if (key.equals("source")) {
-                bld.setSource(reader.nextString());
-
-            } else if (key.equals("revision")) {
-                bld.setRevision(reader.nextString());
-
-            } else if (key.equals("created")) {
-                bld.setCreated(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
-
-            } else if (key.equals("abstract")) {
-                bld.setAbstractString(reader.nextString());
-
-            } else if (key.equals("pages")) {
-                bld.setPages(reader.nextString());
-
-            } else if (key.equals("notes")) {
-                bld.setNotes(reader.nextString());
-
-            } else if (key.equals("volume")) {
-                bld.setVolume(reader.nextString());
-
-            } else if (key.equals("issue")) {
-                bld.setIssue(reader.nextString());
-
-            } else if (key.equals("publisher")) {
-                bld.setPublisher(reader.nextString());
-
-            } else if (key.equals("city")) {
-                bld.setCity(reader.nextString());
-
-            } else if (key.equals("edition")) {
-                bld.setEdition(reader.nextString());
-
-            } else if (key.equals("institution")) {
-                bld.setInstitution(reader.nextString());
-
-            } else if (key.equals("series")) {
-                bld.setSeries(reader.nextString());
-
-            } else if (key.equals("chapter")) {
-                bld.setChapter(reader.nextString());
-
-            } else if (key.equals("client_data")) {
-                bld.setClientData(reader.nextString());
-
-            } else if (key.equals("unique_id")) {
-                bld.setUniqueId(reader.nextString());
-
-            } else if (key.equals("authors")) {
-                bld.setAuthors(personsFromJson(reader));
-
-            } else if (key.equals("editors")) {
-                bld.setEditors(personsFromJson(reader));
-
-            } else if (key.equals("identifiers")) {
-                final Map<String, String> map = new HashMap<>();
-
-                reader.beginObject();
-                while (reader.hasNext()) {
-                    map.put(reader.nextName(), reader.nextString());
-                }
-                reader.endObject();
-                bld.setIdentifiers(map);
-            } else if (key.equals("tags")) {
-                bld.setTags(stringListFromJson(reader));
-
-            } else if (key.equals("file_attached")) {
-                bld.setFileAttached(reader.nextBoolean());
-
-            } else if (key.equals("keywords")) {
-                bld.setKeywords(stringListFromJson(reader));
-
-            } else if (key.equals("websites")) {
-                bld.setWebsites(stringListFromJson(reader));
-            } else {
+            if (projection != null && !projection.includes(key)) {
                 reader.skipValue();
+                continue;
+            }
+            switch (key) {
+                case "title":
+                    bld.setTitle(reader.nextString());
+                    break;
+
+                case "type":
+                    bld.setType(pooled(stringPool, reader.nextString()));
+                    break;
+
+                case "last_modified":
+                    bld.setLastModified(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                    break;
+
+                case "group_id":
+                    bld.setGroupId(pooled(stringPool, reader.nextString()));
+                    break;
+
+                case "profile_id":
+                    bld.setProfileId(pooled(stringPool, reader.nextString()));
+                    break;
+
+                case "read":
+                    bld.setRead(reader.nextBoolean());
+                    break;
+
+                case "starred":
+                    bld.setStarred(reader.nextBoolean());
+                    break;
+
+                case "authored":
+                    bld.setAuthored(reader.nextBoolean());
+                    break;
+
+                case "confirmed":
+                    bld.setConfirmed(reader.nextBoolean());
+                    break;
+
+                case "hidden":
+                    bld.setHidden(reader.nextBoolean());
+                    break;
+
+                case "id":
+                    bld.setId(reader.nextString());
+                    break;
+
+                case "month":
+                    bld.setMonth(reader.nextInt());
+                    break;
+
+                case "year":
+                    bld.setYear(reader.nextInt());
+                    break;
+
+                case "day":
+                    bld.setDay(reader.nextInt());
+                    break;
+
+                case "source":
+                    bld.setSource(pooled(stringPool, reader.nextString()));
+                    break;
+
+                case "revision":
+                    bld.setRevision(reader.nextString());
+                    break;
+
+                case "created":
+                    bld.setCreated(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                    break;
+
+                case "abstract":
+                    if (lazyText) {
+                        bld.setLazyAbstractString(new LazyUtf8String(reader.nextUtf8String()));
+                    } else {
+                        bld.setAbstractString(reader.nextString());
+                    }
+                    break;
+
+                case "pages":
+                    bld.setPages(reader.nextString());
+                    break;
+
+                case "notes":
+                    if (lazyText) {
+                        bld.setLazyNotes(new LazyUtf8String(reader.nextUtf8String()));
+                    } else {
+                        bld.setNotes(reader.nextString());
+                    }
+                    break;
+
+                case "volume":
+                    bld.setVolume(reader.nextString());
+                    break;
+
+                case "issue":
+                    bld.setIssue(reader.nextString());
+                    break;
+
+                case "publisher":
+                    bld.setPublisher(pooled(stringPool, reader.nextString()));
+                    break;
+
+                case "city":
+                    bld.setCity(pooled(stringPool, reader.nextString()));
+                    break;
+
+                case "edition":
+                    bld.setEdition(reader.nextString());
+                    break;
+
+                case "institution":
+                    bld.setInstitution(reader.nextString());
+                    break;
+
+                case "series":
+                    bld.setSeries(reader.nextString());
+                    break;
+
+                case "chapter":
+                    bld.setChapter(reader.nextString());
+                    break;
+
+                case "client_data":
+                    if (lazyText) {
+                        bld.setLazyClientData(new LazyUtf8String(reader.nextUtf8String()));
+                    } else {
+                        bld.setClientData(reader.nextString());
+                    }
+                    break;
+
+                case "unique_id":
+                    bld.setUniqueId(reader.nextString());
+                    break;
+
+                case "authors":
+                    bld.setAuthors(personsFromJson(reader));
+                    break;
+
+                case "editors":
+                    bld.setEditors(personsFromJson(reader));
+                    break;
+
+                case "identifiers":
+                    final Map<String, String> map = new HashMap<>();
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        map.put(pooled(stringPool, reader.nextName()), reader.nextString());
+                    }
+                    reader.endObject();
+                    bld.setIdentifiers(map);
+                    break;
+
+                case "tags":
+                    bld.setTags(stringListFromJson(reader, stringPool));
+                    break;
+
+                case "file_attached":
+                    bld.setFileAttached(reader.nextBoolean());
+                    break;
+
+                case "keywords":
+                    bld.setKeywords(stringListFromJson(reader, stringPool));
+                    break;
+
+                case "websites":
+                    bld.setWebsites(stringListFromJson(reader));
+                    break;
+
+                default:
+                    reader.skipValue();
             }
         }
 
@@ -393,12 +484,12 @@ public class JsonParser {
         jDocument.put("day", document.day);
         jDocument.put("source", document.source);
         jDocument.put("revision", document.revision);
-        jDocument.put("abstract", document.abstractString);
+        jDocument.put("abstract", document.getAbstractString());
         if (document.created != null) {
             jDocument.put("created", DateUtils.formatMendeleyApiTimestamp(document.created));
         }
         jDocument.put("pages", document.pages);
-        jDocument.put("notes", document.notes);
+        jDocument.put("notes", document.getNotes());
         jDocument.put("volume", document.volume);
         jDocument.put("issue", document.issue);
         jDocument.put("publisher", document.publisher);
@@ -408,19 +499,101 @@ public class JsonParser {
         jDocument.put("series", document.series);
         jDocument.put("chapter", document.chapter);
         jDocument.put("file_attached", document.fileAttached);
-        jDocument.put("client_data", document.clientData);
+        jDocument.put("client_data", document.getClientData());
         jDocument.put("unique_id", document.uniqueId);
 
         return jDocument;
     }
 
+    public static void writeDocument(StreamingJsonWriter writer, Document document) throws IOException {
+        writer.beginObject();
+
+        if (!document.websites.isNull()) {
+            writer.name("websites");
+            writeStrings(writer, document.websites);
+        }
+
+        if (!document.keywords.isNull()) {
+            writer.name("keywords");
+            writeStrings(writer, document.keywords);
+        }
+
+        if (!document.tags.isNull()) {
+            writer.name("tags");
+            writeStrings(writer, document.tags);
+        }
+
+        if (!document.authors.isNull()) {
+            writer.name("authors");
+            writePersons(writer, document.authors);
+        }
+
+        if (!document.editors.isNull()) {
+            writer.name("editors");
+            writePersons(writer, document.editors);
+        }
+
+        if (!document.identifiers.isNull()) {
+            writer.name("identifiers").beginObject();
+            for (String key : document.identifiers.keySet()) {
+                writer.name(key).value(document.identifiers.get(key));
+            }
+            writer.endObject();
+        }
+
+        writer.name("title").value(document.title);
+        writer.name("type").value(document.type);
+        writer.name("id").value(document.id);
+
+        if (document.lastModified != null) {
+            writer.name("last_modified").value(DateUtils.formatMendeleyApiTimestamp(document.lastModified));
+        }
+        writer.name("group_id").value(document.groupId);
+        writer.name("profile_id").value(document.profileId);
+        writer.name("read").value(document.read);
+        writer.name("starred").value(document.starred);
+        writer.name("authored").value(document.authored);
+        writer.name("confirmed").value(document.confirmed);
+        writer.name("hidden").value(document.hidden);
+        writer.name("month").value(document.month);
+        writer.name("year").value(document.year);
+        writer.name("day").value(document.day);
+        writer.name("source").value(document.source);
+        writer.name("revision").value(document.revision);
+        writer.name("abstract").value(document.getAbstractString());
+        if (document.created != null) {
+            writer.name("created").value(DateUtils.formatMendeleyApiTimestamp(document.created));
+        }
+        writer.name("pages").value(document.pages);
+        writer.name("notes").value(document.getNotes());
+        writer.name("volume").value(document.volume);
+        writer.name("issue").value(document.issue);
+        writer.name("publisher").value(document.publisher);
+        writer.name("city").value(document.city);
+        writer.name("edition").value(document.edition);
+        writer.name("institution").value(document.institution);
+        writer.name("series").value(document.series);
+        writer.name("chapter").value(document.chapter);
+        writer.name("file_attached").value(document.fileAttached);
+        writer.name("client_data").value(document.getClientData());
+        writer.name("unique_id").value(document.uniqueId);
+
+        writer.endObject();
+    }
+
     public static JSONObject documentIdToJson(String documentId) throws JSONException {
         JSONObject jDocument = new JSONObject();
         jDocument.put("id", documentId);
         return jDocument;
     }
 
-    public static List<String> documentsIdsFromJson(JsonReader reader) throws JSONException, IOException {
+    public static void writeDocumentId(StreamingJsonWriter writer, String documentId) throws IOException {
+        writer.beginObject();
+        writer.name("id").value(documentId);
+        writer.endObject();
+    }
+
+    public static List<String> documentsIdsFromJson(JsonTokenReader reader) throws JSONException, IOException {
         final List<String> documentIds = new ArrayList<>();
 
         reader.beginArray();
@@ -432,7 +605,7 @@ public class JsonParser {
         return documentIds;
     }
 
-    public static String documentIdFromJson(JsonReader reader) throws JSONException, IOException {
+    public static String documentIdFromJson(JsonTokenReader reader) throws JSONException, IOException {
         String id = null;
 
         reader.beginObject();
@@ -452,14 +625,21 @@ public class JsonParser {
         return id;
     }
 
-    public static List<File> filesFromJson(JsonReader reader) throws JSONException, IOException {
+    public static List<File> filesFromJson(JsonTokenReader reader) throws JSONException, IOException {
+        return filesFromJson(reader, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * @param options the fields to decode and how to decode them
+     */
+    public static List<File> filesFromJson(JsonTokenReader reader, ParseOptions options) throws JSONException, IOException {
 
         final List<File> files = new ArrayList<File>();
 
         reader.beginArray();
 
         while (reader.hasNext()) {
-            files.add(fileFromJson(reader));
+            files.add(fileFromJson(reader, options));
         }
 
         reader.endArray();
@@ -467,7 +647,15 @@ public class JsonParser {
         return files;
     }
 
-    public static File fileFromJson(JsonReader reader) throws JSONException, IOException {
+    public static File fileFromJson(JsonTokenReader reader) throws JSONException, IOException {
+        return fileFromJson(reader, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * @param options the fields to decode and how to decode them
+     */
+    public static File fileFromJson(JsonTokenReader reader, ParseOptions options) throws JSONException, IOException {
+        final FieldProjection projection = options.projection;
         reader.beginObject();
 
         final File.Builder builder = new File.Builder();
@@ -475,6 +663,10 @@ public class JsonParser {
         while (reader.hasNext()) {
 
             String key = reader.nextName();
+            if (projection != null && !projection.includes(key)) {
+                reader.skipValue();
+                continue;
+            }
             if (key.equals("id")) {
                 builder.setId(reader.nextString());
 
@@ -501,7 +693,7 @@ public class JsonParser {
         return builder.build();
     }
 
-    public static List<Folder> foldersFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+    public static List<Folder> foldersFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
 
         final List<Folder> folders = new ArrayList<Folder>();
 
@@ -514,7 +706,7 @@ public class JsonParser {
         return folders;
     }
 
-    public static Folder folderFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+    public static Folder folderFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
         final Folder.Builder bld = new Folder.Builder();
 
         reader.beginObject();
@@ -554,6 +746,20 @@ public class JsonParser {
         return jFolder;
     }
 
+    public static void writeFolder(StreamingJsonWriter writer, Folder folder) throws IOException {
+        writer.beginObject();
+
+        writer.name("name").value(folder.name);
+        writer.name("parent_id").value(folder.parentId);
+        writer.name("id").value(folder.id);
+        writer.name("group_id").value(folder.groupId);
+        if (folder.added != null) {
+            writer.name("added").value(DateUtils.formatMendeleyApiTimestamp(folder.added));
+        }
+
+        writer.endObject();
+    }
+
     public static JSONObject profileToJson(Profile profile, String password) throws JSONException {
         JSONObject jProfile = new JSONObject();
 
@@ -575,6 +781,24 @@ public class JsonParser {
         return jProfile;
     }
 
+    public static void writeProfile(StreamingJsonWriter writer, Profile profile, String password) throws IOException {
+        writer.beginObject();
+
+        writer.name("first_name").value(profile.firstName);
+        writer.name("last_name").value(profile.lastName);
+        writer.name("email").value(profile.email);
+        if (password != null) {
+            writer.name("password").value(password);
+        }
+        if (profile.discipline != null) {
+            writer.name("discipline").value(profile.discipline.name);
+        }
+        writer.name("academic_status").value(profile.academicStatus);
+        writer.name("marketing").value(profile.marketing);
+
+        writer.endObject();
+    }
+
     public static JSONObject profileToJsonAmendment(Profile profile) throws JSONException {
         JSONObject jProfile = new JSONObject();
 
@@ -582,15 +806,29 @@ public class JsonParser {
         jProfile.put("last_name", profile.lastName);
         jProfile.put("title", profile.title);
         jProfile.put("academic_status", profile.academicStatus);
-        if (profile.institutionDetails != null && !TextUtils.isEmpty(profile.institutionDetails.id)) {
+        if (profile.institutionDetails != null && profile.institutionDetails.id != null && !profile.institutionDetails.id.isEmpty()) {
             jProfile.put("institution_id", profile.institutionDetails.id);
         }
 
         return jProfile;
     }
 
+    public static void writeProfileAmendment(StreamingJsonWriter writer, Profile profile) throws IOException {
+        writer.beginObject();
 
-    public static List<Group> groupsFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        writer.name("first_name").value(profile.firstName);
+        writer.name("last_name").value(profile.lastName);
+        writer.name("title").value(profile.title);
+        writer.name("academic_status").value(profile.academicStatus);
+        if (profile.institutionDetails != null && profile.institutionDetails.id != null && !profile.institutionDetails.id.isEmpty()) {
+            writer.name("institution_id").value(profile.institutionDetails.id);
+        }
+
+        writer.endObject();
+    }
+
+
+    public static List<Group> groupsFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
         final List<Group> groups = new ArrayList<Group>();
         reader.beginArray();
 
@@ -602,7 +840,7 @@ public class JsonParser {
         return groups;
     }
 
-    public static Group groupFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+    public static Group groupFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
         final Group.Builder builder = new Group.Builder();
         reader.beginObject();
 
@@ -610,44 +848,57 @@ public class JsonParser {
 
             final String key = reader.nextName();
 
-            if (key.equals("id")) {
-                builder.setId(reader.nextString());
+            switch (key) {
+                case "id":
+                    builder.setId(reader.nextString());
+                    break;
 
-            } else if (key.equals("created")) {
-                builder.setCreated(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                case "created":
+                    builder.setCreated(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                    break;
 
-            } else if (key.equals("owning_profile_id")) {
-                builder.setOwningProfileId(reader.nextString());
+                case "owning_profile_id":
+                    builder.setOwningProfileId(reader.nextString());
+                    break;
 
-            } else if (key.equals("link")) {
-                builder.setLink(reader.nextString());
+                case "link":
+                    builder.setLink(reader.nextString());
+                    break;
 
-            } else if (key.equals("role")) {
-                builder.setRole(Group.Role.fromValue(reader.nextString()));
+                case "role":
+                    builder.setRole(Group.Role.fromValue(reader.nextString()));
+                    break;
 
-            } else if (key.equals("access_level")) {
-                builder.setAccessLevel(Group.AccessLevel.fromValue(reader.nextString()));
+                case "access_level":
+                    builder.setAccessLevel(Group.AccessLevel.fromValue(reader.nextString()));
+                    break;
 
-            } else if (key.equals("name")) {
-                builder.setName(reader.nextString());
+                case "name":
+                    builder.setName(reader.nextString());
+                    break;
 
-            } else if (key.equals("description")) {
-                builder.setDescription(reader.nextString());
+                case "description":
+                    builder.setDescription(reader.nextString());
+                    break;
 
-            } else if (key.equals("tags")) {
-                builder.setTags(stringListFromJson(reader));
+                case "tags":
+                    builder.setTags(stringListFromJson(reader));
+                    break;
 
-            } else if (key.equals("webpage")) {
-                builder.setWebpage(reader.nextString());
+                case "webpage":
+                    builder.setWebpage(reader.nextString());
+                    break;
 
-            } else if (key.equals("disciplines")) {
-                builder.setDisciplines(stringListFromJson(reader));
+                case "disciplines":
+                    builder.setDisciplines(stringListFromJson(reader));
+                    break;
 
-            } else if (key.equals("photo")) {
-                builder.setPhoto(groupPhotoFromJson(reader));
+                case "photo":
+                    builder.setPhoto(groupPhotoFromJson(reader));
+                    break;
 
-            } else {
-                reader.skipValue();
+                default:
+                    reader.skipValue();
             }
         }
 
@@ -655,63 +906,102 @@ public class JsonParser {
         return builder.build();
     }
 
-    public static List<Annotation> annotationsFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+    public static List<Annotation> annotationsFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
+        return annotationsFromJson(reader, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * @param options the fields to decode and how to decode them
+     */
+    public static List<Annotation> annotationsFromJson(JsonTokenReader reader, ParseOptions options) throws JSONException, IOException, ParseException {
         final List<Annotation> annotations = new ArrayList<Annotation>();
         reader.beginArray();
 
         while (reader.hasNext()) {
-            annotations.add(annotationFromJson(reader));
+            annotations.add(annotationFromJson(reader, options));
         }
 
         reader.endArray();
         return annotations;
     }
 
-    public static Annotation annotationFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+    public static Annotation annotationFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
+        return annotationFromJson(reader, ParseOptions.DEFAULT);
+    }
+
+    /**
+     * @param options the fields to decode and how to decode them
+     */
+    public static Annotation annotationFromJson(JsonTokenReader reader, ParseOptions options) throws JSONException, IOException, ParseException {
+        final FieldProjection projection = options.projection;
+        final boolean lazyText = options.lazyText;
+        final StringPool stringPool = options.stringPool;
         final Annotation.Builder builder = new Annotation.Builder();
 
         reader.beginObject();
 
         while (reader.hasNext()) {
             final String key = reader.nextName();
-
-            if (key.equals("id")) {
-                builder.setId(reader.nextString());
-
-            } else if (key.equals("type")) {
-                builder.setType(Annotation.Type.fromName(reader.nextString()));
-
-            } else if (key.equals("previous_id")) {
-                builder.setPreviousId(reader.nextString());
-
-            } else if (key.equals("color")) {
-                builder.setColor(colorFromJson(reader));
-
-            } else if (key.equals("text")) {
-                builder.setText(reader.nextString());
-
-            } else if (key.equals("profile_id")) {
-                builder.setProfileId(reader.nextString());
-
-            } else if (key.equals("positions")) {
-                builder.setPositions(positionsFromJson(reader));
-
-            } else if (key.equals("created")) {
-                builder.setCreated(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
-
-            } else if (key.equals("last_modified")) {
-                builder.setLastModified(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
-
-            } else if (key.equals("privacy_level")) {
-                builder.setPrivacyLevel(PrivacyLevel.fromName(reader.nextString()));
-
-            } else if (key.equals("filehash")) {
-                builder.setFileHash(reader.nextString());
-
-            } else if (key.equals("document_id")) {
-                builder.setDocumentId(reader.nextString());
-            } else {
+            if (projection != null && !projection.includes(key)) {
                 reader.skipValue();
+                continue;
+            }
+
+            switch (key) {
+                case "id":
+                    builder.setId(reader.nextString());
+                    break;
+
+                case "type":
+                    builder.setType(Annotation.Type.fromName(reader.nextString()));
+                    break;
+
+                case "previous_id":
+                    builder.setPreviousId(reader.nextString());
+                    break;
+
+                case "color":
+                    builder.setColor(colorFromJson(reader));
+                    break;
+
+                case "text":
+                    if (lazyText) {
+                        builder.setLazyText(new LazyUtf8String(reader.nextUtf8String()));
+                    } else {
+                        builder.setText(reader.nextString());
+                    }
+                    break;
+
+                case "profile_id":
+                    builder.setProfileId(pooled(stringPool, reader.nextString()));
+                    break;
+
+                case "positions":
+                    builder.setPositions(positionsFromJson(reader));
+                    break;
+
+                case "created":
+                    builder.setCreated(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                    break;
+
+                case "last_modified":
+                    builder.setLastModified(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                    break;
+
+                case "privacy_level":
+                    builder.setPrivacyLevel(PrivacyLevel.fromName(reader.nextString()));
+                    break;
+
+                case "filehash":
+                    builder.setFileHash(pooled(stringPool, reader.nextString()));
+                    break;
+
+                case "document_id":
+                    builder.setDocumentId(pooled(stringPool, reader.nextString()));
+                    break;
+
+                default:
+                    reader.skipValue();
             }
         }
 
@@ -730,7 +1020,7 @@ public class JsonParser {
         if (annotation.color != null) {
             jAnnotation.put("color", colorToJson(annotation.color));
         }
-        jAnnotation.put("text", annotation.text);
+        jAnnotation.put("text", annotation.getText());
         jAnnotation.put("profile_id", annotation.profileId);
 
         if (!annotation.positions.isNull()) {
@@ -757,7 +1047,45 @@ public class JsonParser {
         return jAnnotation;
     }
 
-    public static List<ReadPosition> readPositionsFromJson(JsonReader reader) throws JSONException, ParseException, IOException {
+    public static void writeAnnotation(StreamingJsonWriter writer, Annotation annotation) throws IOException {
+        writer.beginObject();
+
+        writer.name("id").value(annotation.id);
+        if (annotation.type != null) {
+            writer.name("type").value(annotation.type.name);
+        }
+        writer.name("previous_id").value(annotation.previousId);
+        if (annotation.color != null) {
+            writer.name("color");
+            writeColor(writer, annotation.color);
+        }
+        writer.name("text").value(annotation.getText());
+        writer.name("profile_id").value(annotation.profileId);
+
+        if (!annotation.positions.isNull()) {
+            writer.name("positions").beginArray();
+            for (int i = 0; i < annotation.positions.size(); i++) {
+                writePosition(writer, annotation.positions.get(i));
+            }
+            writer.endArray();
+        }
+
+        if (annotation.created != null) {
+            writer.name("created").value(DateUtils.formatMendeleyApiTimestamp(annotation.created));
+        }
+        if (annotation.lastModified != null) {
+            writer.name("last_modified").value(DateUtils.formatMendeleyApiTimestamp(annotation.lastModified));
+        }
+        if (annotation.privacyLevel != null) {
+            writer.name("privacy_level").value(annotation.privacyLevel.name);
+        }
+        writer.name("filehash").value(annotation.fileHash);
+        writer.name("document_id").value(annotation.documentId);
+
+        writer.endObject();
+    }
+
+    public static List<ReadPosition> readPositionsFromJson(JsonTokenReader reader) throws JSONException, ParseException, IOException {
         final List<ReadPosition> readPositions = new LinkedList<>();
 
         reader.beginArray();
@@ -769,7 +1097,7 @@ public class JsonParser {
     }
 
 
-    public static ReadPosition readPositionFromJson(JsonReader reader) throws JSONException, ParseException, IOException {
+    public static ReadPosition readPositionFromJson(JsonTokenReader reader) throws JSONException, ParseException, IOException {
         final ReadPosition.Builder bld = new ReadPosition.Builder();
         reader.beginObject();
 
@@ -812,7 +1140,19 @@ public class JsonParser {
         return jsonObject;
     }
 
-    public static ArrayList<Person> personsFromJson(JsonReader reader) throws JSONException, IOException {
+    public static void writeReadPosition(StreamingJsonWriter writer, ReadPosition readPosition) throws IOException {
+        writer.beginObject();
+
+        writer.name("id").value(readPosition.id);
+        writer.name("file_id").value(readPosition.fileId);
+        writer.name("page").value(readPosition.page);
+        writer.name("vertical_position").value((double) readPosition.verticalPosition);
+        writer.name("date").value(DateUtils.formatMendeleyApiTimestamp(readPosition.date));
+
+        writer.endObject();
+    }
+
+    public static ArrayList<Person> personsFromJson(JsonTokenReader reader) throws JSONException, IOException {
         final ArrayList<Person> authorsList = new ArrayList<Person>();
 
         reader.beginArray();
@@ -824,7 +1164,7 @@ public class JsonParser {
         return authorsList;
     }
 
-    private static Person personFromJson(JsonReader reader) throws IOException {
+    private static Person personFromJson(JsonTokenReader reader) throws IOException {
         reader.beginObject();
 
         String authorName = null;
@@ -856,41 +1196,63 @@ public class JsonParser {
         return authorsJson;
     }
 
-    private static List<Annotation.Position> positionsFromJson(JsonReader reader) throws JSONException, IOException {
-        final List<Annotation.Position> positions = new ArrayList<Annotation.Position>();
-
-        reader.beginArray();
-        while (reader.hasNext()) {
-            positions.add(positionFromJson(reader));
+    public static void writePersons(StreamingJsonWriter writer, List<Person> persons) throws IOException {
+        writer.beginArray();
+        for (int i = 0; i < persons.size(); i++) {
+            writer.beginObject();
+            writer.name("first_name").value(persons.get(i).firstName);
+            writer.name("last_name").value(persons.get(i).lastName);
+            writer.endObject();
         }
-        reader.endArray();
-
-        return positions;
+        writer.endArray();
     }
 
-    private static Annotation.Position positionFromJson(JsonReader reader) throws JSONException, IOException {
-        Point topLeft = null;
-        Point bottomRight = null;
-        Integer page = null;
+    private static void writeStrings(StreamingJsonWriter writer, List<String> strings) throws IOException {
+        writer.beginArray();
+        for (int i = 0; i < strings.size(); i++) {
+            writer.value(strings.get(i));
+        }
+        writer.endArray();
+    }
 
-        reader.beginObject();
+    private static PackedPositions positionsFromJson(JsonTokenReader reader) throws JSONException, IOException {
+        final PackedPositions.Builder positions = new PackedPositions.Builder();
+        // scratch for the coordinates of one point, reused for every position
+        final double[] point = new double[2];
 
+        reader.beginArray();
         while (reader.hasNext()) {
-            final String key = reader.nextName();
-
-            if (key.equals("page")) {
-                page = reader.nextInt();
-            } else if (key.equals("top_left")) {
-                topLeft = pointFromJson(reader);
-            } else if (key.equals("bottom_right")) {
-                bottomRight = pointFromJson(reader);
-            } else {
-                reader.skipValue();
+            double topLeftX = Double.NaN;
+            double topLeftY = Double.NaN;
+            double bottomRightX = Double.NaN;
+            double bottomRightY = Double.NaN;
+            int page = PackedPositions.NO_PAGE;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String key = reader.nextName();
+
+                if (key.equals("page")) {
+                    page = reader.nextInt();
+                } else if (key.equals("top_left")) {
+                    pointFromJson(reader, point);
+                    topLeftX = point[0];
+                    topLeftY = point[1];
+                } else if (key.equals("bottom_right")) {
+                    pointFromJson(reader, point);
+                    bottomRightX = point[0];
+                    bottomRightY = point[1];
+                } else {
+                    reader.skipValue();
+                }
             }
+            reader.endObject();
+
+            positions.add(topLeftX, topLeftY, bottomRightX, bottomRightY, page);
         }
+        reader.endArray();
 
-        reader.endObject();
-        return new Annotation.Position(topLeft, bottomRight, page);
+        return positions.build();
     }
 
     private static JSONObject positionToJson(Annotation.Position position) throws JSONException {
@@ -915,8 +1277,26 @@ public class JsonParser {
         return bbox;
     }
 
+    private static void writePosition(StreamingJsonWriter writer, Annotation.Position position) throws IOException {
+        writer.beginObject();
+        if (position.topLeft != null) {
+            writer.name("top_left").beginObject();
+            writer.name("x").value(position.topLeft.x);
+            writer.name("y").value(position.topLeft.y);
+            writer.endObject();
+        }
+        if (position.bottomRight != null) {
+            writer.name("bottom_right").beginObject();
+            writer.name("x").value(position.bottomRight.x);
+            writer.name("y").value(position.bottomRight.y);
+            writer.endObject();
+        }
+        writer.name("page").value(position.page);
+        writer.endObject();
+    }
+
 
-    private static Point pointFromJson(JsonReader reader) throws IOException {
+    private static void pointFromJson(JsonTokenReader reader, double[] point) throws IOException {
         double x = 0;
         double y = 0;
 
@@ -934,10 +1314,11 @@ public class JsonParser {
         }
         reader.endObject();
 
-        return new Point(x, y);
+        point[0] = x;
+        point[1] = y;
     }
 
-    private static int colorFromJson(JsonReader reader) throws JSONException, IOException {
+    private static int colorFromJson(JsonTokenReader reader) throws JSONException, IOException {
         reader.beginObject();
 
         int r = 0;
@@ -959,21 +1340,30 @@ public class JsonParser {
         }
 
         reader.endObject();
-        return Color.rgb(r, g, b);
+        // opaque ARGB, packed like android.graphics.Color#rgb()
+        return 0xff000000 | (r << 16) | (g << 8) | b;
     }
 
 
     private static JSONObject colorToJson(int color) throws JSONException {
         JSONObject jColor = new JSONObject();
-        jColor.put("r", Color.red(color));
-        jColor.put("g", Color.green(color));
-        jColor.put("b", Color.blue(color));
+        jColor.put("r", (color >> 16) & 0xff);
+        jColor.put("g", (color >> 8) & 0xff);
+        jColor.put("b", color & 0xff);
         return jColor;
     }
 
+    private static void writeColor(StreamingJsonWriter writer, int color) throws IOException {
+        writer.beginObject();
+        writer.name("r").value((color >> 16) & 0xff);
+        writer.name("g").value((color >> 8) & 0xff);
+        writer.name("b").value(color & 0xff);
+        writer.endObject();
+    }
+
 
 
-    private static void appendDocumentTypeFromJson(JsonReader reader, Map<String, String> map) throws IOException {
+    private static void appendDocumentTypeFromJson(JsonTokenReader reader, Map<String, String> map) throws IOException {
         reader.beginObject();
 
         String nameValue = null;
@@ -995,7 +1385,7 @@ public class JsonParser {
         reader.endObject();
     }
 
-    private static List<AlternativeName> alternativeNamesFromJson(JsonReader reader) throws IOException, JSONException, ParseException {
+    private static List<AlternativeName> alternativeNamesFromJson(JsonTokenReader reader) throws IOException, JSONException, ParseException {
         final List<AlternativeName> list = new LinkedList<>();
         reader.beginArray();
 
@@ -1007,7 +1397,7 @@ public class JsonParser {
         return list;
     }
 
-    private static AlternativeName alternativeNameFromJson(JsonReader reader) throws IOException {
+    private static AlternativeName alternativeNameFromJson(JsonTokenReader reader) throws IOException {
         final AlternativeName alternativeName = new AlternativeName();
         reader.beginObject();
 
@@ -1024,7 +1414,7 @@ public class JsonParser {
         return alternativeName;
     }
 
-    private static Discipline disciplineFromJson(JsonReader reader) throws IOException {
+    private static Discipline disciplineFromJson(JsonTokenReader reader) throws IOException {
         final Discipline discipline = new Discipline();
         reader.beginObject();
 
@@ -1041,7 +1431,7 @@ public class JsonParser {
         return discipline;
     }
 
-    private static List<Employment> employmentsFromJson(JsonReader reader) throws IOException, JSONException, ParseException {
+    private static List<Employment> employmentsFromJson(JsonTokenReader reader) throws IOException, JSONException, ParseException {
         final List<Employment> list = new LinkedList<>();
         reader.beginArray();
 
@@ -1053,7 +1443,7 @@ public class JsonParser {
         return list;
     }
 
-    public static List<Institution> institutionsFromJson(JsonReader reader) throws IOException, JSONException, ParseException {
+    public static List<Institution> institutionsFromJson(JsonTokenReader reader) throws IOException, JSONException, ParseException {
         final List<Institution> list = new LinkedList<>();
         reader.beginArray();
 
@@ -1065,7 +1455,7 @@ public class JsonParser {
         return list;
     }
 
-    public static Employment employmentFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+    public static Employment employmentFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
         final Employment.Builder builder = new Employment.Builder();
         reader.beginObject();
 
@@ -1103,7 +1493,7 @@ public class JsonParser {
         return builder.build();
     }
 
-    public static Institution institutionFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+    public static Institution institutionFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
         final Institution.Builder builder = new Institution.Builder();
         reader.beginObject();
 
@@ -1111,41 +1501,49 @@ public class JsonParser {
 
             final String key = reader.nextName();
 
-            if (key.equals("scival_id")) {
-                builder.setScivalId(reader.nextInt());
-
-            } else if (key.equals("id")) {
-                builder.setId(reader.nextString());
+            switch (key) {
+                case "scival_id":
+                    builder.setScivalId(reader.nextInt());
+                    break;
 
-            } else if (key.equals("parent_id")) {
-                builder.setParentId(reader.nextString());
+                case "id":
+                    builder.setId(reader.nextString());
+                    break;
 
-            } else if (key.equals("name")) {
-                builder.setName(reader.nextString());
+                case "parent_id":
+                    builder.setParentId(reader.nextString());
+                    break;
 
-            } else if (key.equals("city")) {
-                builder.setCity(reader.nextString());
+                case "name":
+                    builder.setName(reader.nextString());
+                    break;
 
-            } else if (key.equals("state")) {
-                builder.setState(reader.nextString());
+                case "city":
+                    builder.setCity(reader.nextString());
+                    break;
 
-            } else if (key.equals("country")) {
-                builder.setCountry(reader.nextString());
+                case "state":
+                    builder.setState(reader.nextString());
+                    break;
 
-            } else if (key.equals("parent_id")) {
-                builder.setParentId(reader.nextString());
+                case "country":
+                    builder.setCountry(reader.nextString());
+                    break;
 
-            } else if (key.equals("urls")) {
-                builder.setUrls(stringListFromJson(reader));
+                case "urls":
+                    builder.setUrls(stringListFromJson(reader));
+                    break;
 
-            } else if (key.equals("profile_url")) {
-                builder.setProfilerUrl(reader.nextString());
+                case "profile_url":
+                    builder.setProfilerUrl(reader.nextString());
+                    break;
 
-            } else if (key.equals("alt_names")) {
-                builder.setAltNames(alternativeNamesFromJson(reader));
+                case "alt_names":
+                    builder.setAltNames(alternativeNamesFromJson(reader));
+                    break;
 
-            } else {
-                reader.skipValue();
+                default:
+                    reader.skipValue();
             }
         }
 
@@ -1153,7 +1551,7 @@ public class JsonParser {
         return builder.build();
     }
 
-    private static List<Education> educationsFromJson(JsonReader reader) throws IOException, JSONException, ParseException {
+    private static List<Education> educationsFromJson(JsonTokenReader reader) throws IOException, JSONException, ParseException {
         final List<Education> list = new LinkedList<>();
         reader.beginArray();
 
@@ -1165,7 +1563,7 @@ public class JsonParser {
         return list;
     }
 
-    public static Education educationFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+    public static Education educationFromJson(JsonTokenReader reader) throws JSONException, IOException, ParseException {
         final Education.Builder builder = new Education.Builder();
 
         reader.beginObject();
@@ -1193,7 +1591,7 @@ public class JsonParser {
         return builder.build();
     }
 
-    public static List<UserRole> groupUserRolesFromJson(JsonReader reader) throws JSONException, IOException {
+    public static List<UserRole> groupUserRolesFromJson(JsonTokenReader reader) throws JSONException, IOException {
         final List<UserRole> userRoles = new ArrayList<UserRole>();
         reader.beginArray();
 
@@ -1205,7 +1603,7 @@ public class JsonParser {
         return userRoles;
     }
 
-    public static UserRole groupUserRoleFromJson(JsonReader reader) throws JSONException, IOException {
+    public static UserRole groupUserRoleFromJson(JsonTokenReader reader) throws JSONException, IOException {
         final UserRole.Builder mendeleyUserRole = new UserRole.Builder();
         reader.beginObject();
 
@@ -1228,18 +1626,26 @@ public class JsonParser {
         return mendeleyUserRole.build();
     }
 
-    private static List<String> stringListFromJson(JsonReader reader) throws IOException {
+    private static List<String> stringListFromJson(JsonTokenReader reader) throws IOException {
+        return stringListFromJson(reader, null);
+    }
+
+    private static List<String> stringListFromJson(JsonTokenReader reader, StringPool stringPool) throws IOException {
         List<String> list = new LinkedList<String>();
 
         reader.beginArray();
         while (reader.hasNext()) {
-            list.add(reader.nextString());
+            list.add(pooled(stringPool, reader.nextString()));
         }
         reader.endArray();
         return list;
     }
 
-    public static Map<String, String> stringsMapFromJson(JsonReader reader) throws JSONException, IOException {
+    private static String pooled(StringPool stringPool, String value) {
+        return stringPool != null ? stringPool.intern(value) : value;
+    }
+
+    public static Map<String, String> stringsMapFromJson(JsonTokenReader reader) throws JSONException, IOException {
         final Map<String, String> typesMap = new HashMap<String, String>();
 
         reader.beginArray();
@@ -1253,7 +1659,7 @@ public class JsonParser {
     }
 
 
-    public static List<String> subjectAreasFromJson(JsonReader reader) throws JSONException, IOException {
+    public static List<String> subjectAreasFromJson(JsonTokenReader reader) throws JSONException, IOException {
         final List<String> subjectAreas = new ArrayList<>();
 
         reader.beginArray();
@@ -1265,7 +1671,7 @@ public class JsonParser {
         return subjectAreas;
     }
 
-    public static List<String> userRolesFromJson(JsonReader reader) throws JSONException, IOException {
+    public static List<String> userRolesFromJson(JsonTokenReader reader) throws JSONException, IOException {
         final List<String> subjectAreas = new ArrayList<>();
 
         reader.beginArray();
@@ -1277,7 +1683,7 @@ public class JsonParser {
         return subjectAreas;
     }
 
-    public static String stringValueFromJson(JsonReader reader, String keyString) throws JSONException, IOException {
+    public static String stringValueFromJson(JsonTokenReader reader, String keyString) throws JSONException, IOException {
         String value = null;
         reader.beginObject();
         while (reader.hasNext()) {
@@ -1293,5 +1699,122 @@ public class JsonParser {
         return value;
     }
 
+    // Overloads taking the JsonReader of the Android platform, kept for API compatibility. They
+    // parse the same way as the ones taking a JsonTokenReader, through an AndroidJsonTokenReader.
 
+    public static Profile profileFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return profileFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static List<Profile.Photo> profilePhotosFromJson(JsonReader reader) throws IOException, JSONException, ParseException {
+        return profilePhotosFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static Profile.Photo profilePhotoFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return profilePhotoFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static Group.Photo groupPhotoFromJson(JsonReader reader) throws IOException {
+        return groupPhotoFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static List<Document> documentsFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return documentsFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static Document documentFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return documentFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static List<String> documentsIdsFromJson(JsonReader reader) throws JSONException, IOException {
+        return documentsIdsFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static String documentIdFromJson(JsonReader reader) throws JSONException, IOException {
+        return documentIdFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static List<File> filesFromJson(JsonReader reader) throws JSONException, IOException {
+        return filesFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static File fileFromJson(JsonReader reader) throws JSONException, IOException {
+        return fileFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static List<Folder> foldersFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return foldersFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static Folder folderFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return folderFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static List<Group> groupsFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return groupsFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static Group groupFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return groupFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static List<Annotation> annotationsFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return annotationsFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static Annotation annotationFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return annotationFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static List<ReadPosition> readPositionsFromJson(JsonReader reader) throws JSONException, ParseException, IOException {
+        return readPositionsFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static ReadPosition readPositionFromJson(JsonReader reader) throws JSONException, ParseException, IOException {
+        return readPositionFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static ArrayList<Person> personsFromJson(JsonReader reader) throws JSONException, IOException {
+        return personsFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static List<Institution> institutionsFromJson(JsonReader reader) throws IOException, JSONException, ParseException {
+        return institutionsFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static Employment employmentFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return employmentFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static Institution institutionFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return institutionFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static Education educationFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
+        return educationFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static List<UserRole> groupUserRolesFromJson(JsonReader reader) throws JSONException, IOException {
+        return groupUserRolesFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static UserRole groupUserRoleFromJson(JsonReader reader) throws JSONException, IOException {
+        return groupUserRoleFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static Map<String, String> stringsMapFromJson(JsonReader reader) throws JSONException, IOException {
+        return stringsMapFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static List<String> subjectAreasFromJson(JsonReader reader) throws JSONException, IOException {
+        return subjectAreasFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static List<String> userRolesFromJson(JsonReader reader) throws JSONException, IOException {
+        return userRolesFromJson(new AndroidJsonTokenReader(reader));
+    }
+
+    public static String stringValueFromJson(JsonReader reader, String keyString) throws JSONException, IOException {
+        return stringValueFromJson(new AndroidJsonTokenReader(reader), keyString);
+    }
 }
@@ -0,0 +1,59 @@
+package com.mendeley.sdk.request;
+
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * {@link RequestBody} whose JSON content is streamed into the connection with a
+ * {@link StreamingJsonWriter} as it is sent, instead of being built as a String first.
+ *
+ * <p/>
+ *
+ * The content length is computed by running the {@link Content} once over a byte counter, so it
+ * must write the same JSON every time. The body can be sent again if the request is retried.
+ */
+public class JsonRequestBody extends RequestBody {
+
+    private final MediaType contentType;
+    private final Content content;
+    private long contentLength = -1;
+
+    /**
+     * @param contentType the MIME type of the body
+     * @param content writes the JSON of the body
+     */
+    public JsonRequestBody(String contentType, Content content) {
+        this.contentType = MediaType.parse(contentType);
+        this.content = content;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public synchronized long contentLength() throws IOException {
+        if (contentLength < 0) {
+            final StreamingJsonWriter counter = StreamingJsonWriter.newByteCounter();
+            content.writeTo(counter);
+            contentLength = counter.getByteCount();
+        }
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        content.writeTo(new StreamingJsonWriter(sink));
+    }
+
+    /**
+     * Writes the JSON content of a {@link JsonRequestBody}
+     */
+    public interface Content {
+        void writeTo(StreamingJsonWriter writer) throws IOException;
+    }
+}
@@ -0,0 +1,78 @@
+package com.mendeley.sdk.request;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pull reader of a JSON document, one token at a time, used by {@link JsonParser}.
+ *
+ * <p/>
+ *
+ * Its API is a subset of {@link android.util.JsonReader}, which is wrapped by
+ * {@link AndroidJsonTokenReader}. Keeping {@link JsonParser} behind this interface lets the
+ * parsing logic run, and be benchmarked, on a plain JVM.
+ */
+public interface JsonTokenReader extends Closeable {
+
+    /**
+     * Type of the next token of the document
+     */
+    enum Token {
+        BEGIN_ARRAY,
+        END_ARRAY,
+        BEGIN_OBJECT,
+        END_OBJECT,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+
+    void beginArray() throws IOException;
+
+    void endArray() throws IOException;
+
+    void beginObject() throws IOException;
+
+    void endObject() throws IOException;
+
+    /**
+     * @return whether the current array or object has another element
+     */
+    boolean hasNext() throws IOException;
+
+    /**
+     * @return the type of the next token, without consuming it
+     */
+    Token peek() throws IOException;
+
+    String nextName() throws IOException;
+
+    /**
+     * @return the next string value, or the text of the next number
+     */
+    String nextString() throws IOException;
+
+    /**
+     * @return the next string value encoded as UTF-8, without decoding it if the reader works on
+     *          UTF-8 bytes
+     */
+    byte[] nextUtf8String() throws IOException;
+
+    boolean nextBoolean() throws IOException;
+
+    void nextNull() throws IOException;
+
+    double nextDouble() throws IOException;
+
+    long nextLong() throws IOException;
+
+    int nextInt() throws IOException;
+
+    /**
+     * Skips the next value, including nested arrays and objects, without decoding it.
+     */
+    void skipValue() throws IOException;
+}
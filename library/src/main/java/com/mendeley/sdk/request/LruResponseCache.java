@@ -0,0 +1,87 @@
+package com.mendeley.sdk.request;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory {@link ResponseCache} keeping up to a maximum number of entries, evicting the least
+ * recently used ones first.
+ */
+public class LruResponseCache implements ResponseCache {
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * @param maxEntries maximum number of responses kept in memory
+     */
+    public LruResponseCache(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The cache must keep at least one entry");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Entry get(String key) {
+        final Entry entry = entries.get(key);
+        if (entry != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return entry;
+    }
+
+    @Override
+    public synchronized void put(String key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    @Override
+    public synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return number of entries in the cache
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return maximum number of entries in the cache
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return number of lookups that found an entry
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return number of lookups that found no entry
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+}
@@ -12,33 +12,40 @@ import com.mendeley.sdk.exceptions.UserCancelledException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CancellationException;
-import java.util.concurrent.TimeUnit;
 
+import okhttp3.Call;
 import okhttp3.OkHttpClient;
 import okhttp3.ResponseBody;
+import okio.Okio;
 
 /**
  * Base implementation of {@link Request} using {@link OkHttpClient} as the HTTP client.
  */
 public abstract class OkHttpAuthorizedRequest<ResultType> extends AuthorizedRequest<ResultType> {
 
-    private static OkHttpClient sOkHttpClient;
+    // Coalesced calls in progress, by request type, URL and headers
+    private static final Map<String, SharedCall> inFlightCalls = new HashMap<String, SharedCall>();
 
-    static  {
-        sOkHttpClient = new OkHttpClient.Builder()
-                .connectTimeout(CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS)
-                .writeTimeout(READ_TIMEOUT, TimeUnit.MILLISECONDS)
-                .readTimeout(READ_TIMEOUT, TimeUnit.MILLISECONDS)
-                .followRedirects(true)
-                .build();
+    private RequestProgressListener progressListener;
+    private RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    private String method;
+    private ResponseCache responseCache;
+    private JsonReaderType jsonReaderType = JsonReaderType.ANDROID;
 
-    }
+    // Coalesced call this request takes part in, if any
+    private volatile SharedCall sharedCall;
 
-    private RequestProgressListener progressListener;
+    // HTTP call in progress, so that it can be aborted as soon as the request is cancelled
+    private volatile Call liveCall;
+
+    // Notified when the request is cancelled, to stop waiting before a retry
+    private final Object retryWaitLock = new Object();
 
     public OkHttpAuthorizedRequest(Uri url, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
         super(url, authTokenManager, clientCredentials);
@@ -46,45 +53,198 @@ public abstract class OkHttpAuthorizedRequest<ResultType> extends AuthorizedRequ
 
     @Override
     public final Response doRunAuthorized() throws MendeleyException {
-        return doRun(getUrl(), 0, true);
+        final Uri url = getUrl();
+        int retryCount = 0;
+        long totalDelayMs = 0;
+
+        while (true) {
+            try {
+                return doRun(url, retryCount, true);
+            } catch (MendeleyException e) {
+                if (!isCancelled() && shouldRestart(e)) {
+                    // not a retry: the request has fixed what made the attempt fail
+                    continue;
+                }
+                final long delayMs = retryPolicy.getRetryDelayMs(method, retryCount, totalDelayMs, e);
+                if (delayMs < 0) {
+                    throw e;
+                }
+                waitBeforeRetry(delayMs);
+                totalDelayMs += delayMs;
+                retryCount++;
+            }
+        }
     }
 
-    private Response doRun(Uri url, int currentRetry, boolean addOauthToken) throws MendeleyException {
-        ResponseBody responseBody = null;
+    private void waitBeforeRetry(long delayMs) throws UserCancelledException {
+        final long end = System.currentTimeMillis() + delayMs;
+        synchronized (retryWaitLock) {
+            long remaining = delayMs;
+            while (remaining > 0 && !isCancelled()) {
+                try {
+                    retryWaitLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UserCancelledException(e);
+                }
+                remaining = end - System.currentTimeMillis();
+            }
+        }
+        if (isCancelled()) {
+            throw new UserCancelledException();
+        }
+    }
+
+    @Override
+    protected void onCancel() {
+        synchronized (retryWaitLock) {
+            retryWaitLock.notifyAll();
+        }
+
+        final SharedCall call = sharedCall;
+        if (call != null) {
+            // the shared HTTP call is only aborted if no other request is waiting for it
+            call.onSubscriberCancelled();
+        } else {
+            abortLiveCall();
+        }
+    }
+
+    private void abortLiveCall() {
+        final Call call = liveCall;
+        if (call != null) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * @return whether the HTTP call in progress should be aborted
+     */
+    private boolean isCallCancelled() {
+        // a shared call stops only when every request waiting for it has been cancelled
+        final SharedCall call = sharedCall;
+        return call != null ? call.isEveryoneCancelled() : isCancelled();
+    }
+
+    private Response doRun(Uri url, int retryCount, boolean addOauthToken) throws MendeleyException {
+        final okhttp3.Request.Builder requestBld = new okhttp3.Request.Builder();
+        final Map<String, String> requestHeaders = new TreeMap<String, String>();
 
         try {
-            okhttp3.Request.Builder requestBld = new okhttp3.Request.Builder();
             requestBld.url(url.toString());
             setMethod(requestBld);
+            // known before coalescing, as the RetryPolicy of the followers needs it too
+            method = requestBld.build().method();
 
             if (addOauthToken) {
-                requestBld.addHeader("Authorization", "Bearer " + authTokenManager.getAccessToken());
+                requestHeaders.put("Authorization", "Bearer " + authTokenManager.getAccessToken());
             }
-
-
-
-            final Map<String, String> requestHeaders = new HashMap<String, String>();
             appendHeaders(requestHeaders);
             for (String key : requestHeaders.keySet()) {
                 requestBld.addHeader(key, requestHeaders.get(key));
             }
+        } catch (Exception e) {
+            throw new MendeleyException("Error performing the request " + url, e);
+        }
+
+        if (!isCoalescable()) {
+            return newResponse(execute(url, requestBld, requestHeaders), retryCount);
+        }
+
+        // identical GETs running at the same time share one network call and one parsed result
+        final String coalescingKey = getClass().getName() + " " + url + " " + requestHeaders + " " + getResponseVariant();
+        final SharedCall call;
+        final boolean leader;
+        synchronized (inFlightCalls) {
+            final SharedCall inFlightCall = inFlightCalls.get(coalescingKey);
+            if (inFlightCall != null && inFlightCall.subscribe(this)) {
+                call = inFlightCall;
+                leader = false;
+            } else {
+                call = new SharedCall(this);
+                inFlightCalls.put(coalescingKey, call);
+                leader = true;
+            }
+        }
+
+        final Result result;
+        sharedCall = call;
+        try {
+            if (leader) {
+                try {
+                    call.complete(execute(url, requestBld, requestHeaders), null);
+                } catch (MendeleyException e) {
+                    call.complete(null, e);
+                } finally {
+                    synchronized (inFlightCalls) {
+                        if (inFlightCalls.get(coalescingKey) == call) {
+                            inFlightCalls.remove(coalescingKey);
+                        }
+                    }
+                }
+            }
+            result = call.await(this);
+        } finally {
+            sharedCall = null;
+        }
+
+        if (result == null) {
+            // the shared call was aborted because every other subscriber cancelled: run it alone
+            return newResponse(execute(url, requestBld, requestHeaders), retryCount);
+        }
+        return newResponse(result, retryCount);
+    }
+
+    /**
+     * Performs the HTTP call and parses its response.
+     */
+    private Result execute(Uri url, okhttp3.Request.Builder requestBld, Map<String, String> requestHeaders) throws MendeleyException {
+        ResponseBody responseBody = null;
+
+        try {
+            // revalidate the cached response, if any, so that the server can answer 304 Not Modified
+            final String cacheKey = (responseCache != null && isResponseCacheable()) ? getCacheKey(url, requestHeaders) : null;
+            final ResponseCache.Entry cachedEntry = cacheKey != null ? responseCache.get(cacheKey) : null;
+            if (cachedEntry != null) {
+                if (cachedEntry.etag != null) {
+                    requestBld.header("If-None-Match", cachedEntry.etag);
+                }
+                if (cachedEntry.lastModified != null) {
+                    requestBld.header("If-Modified-Since", cachedEntry.lastModified);
+                }
+            }
 
             final okhttp3.Request okHttpRequest =  requestBld.build();
-            final okhttp3.Response okHttpResponse = sOkHttpClient.newCall(okHttpRequest).execute();
+            final Call call = getHttpClient().newCall(okHttpRequest);
+            liveCall = call;
+            if (isCallCancelled()) {
+                throw new UserCancelledException();
+            }
+            final okhttp3.Response okHttpResponse = call.execute();
 
             final int responseCode = okHttpResponse.code();
+            final Map<String, List<String>> responseHeaders = okHttpResponse.headers().toMultimap();
 
             responseBody = okHttpResponse.body();
+            manageResponseHeaders(responseCode, responseHeaders);
+            if (responseCode == 304 && cachedEntry != null) {
+                return new Result(cachedEntry.resource, getServerDateString(responseHeaders), cachedEntry.next);
+            }
             if (responseCode / 100 != 2) {
-                throw new HttpResponseException(responseCode, okHttpResponse.message(), url.toString(), responseBody.string(), okHttpResponse.header("X-Mendeley-Trace-Id"));
+                final long retryAfterMs = RetryPolicy.parseRetryAfterMs(okHttpResponse.header("Retry-After"), System.currentTimeMillis());
+                throw new HttpResponseException(responseCode, okHttpResponse.message(), url.toString(), responseBody.string(), okHttpResponse.header("X-Mendeley-Trace-Id"), retryAfterMs);
             }
 
             // wrapping the input stream of the connection in:
             // -- CancellableInputStream to stop reading if the request has been cancelled
             // -- ProgressPublisherInputStream to publish progress as the file is being read
             final InputStream is = new MyCancellableInputStream(new MyProgressPublisherInputStream(responseBody.byteStream(), responseBody.contentLength()));
-            final Map<String, List<String>> responseHeaders = okHttpResponse.headers().toMultimap();
-            return new Response(manageResponse(is), getServerDateString(responseHeaders), getNextPage(responseHeaders));
+            final ResultType resource = manageResponse(is);
+            final Uri next = getNextPage(responseHeaders);
+            if (cacheKey != null) {
+                storeInCache(cacheKey, resource, okHttpResponse.header("ETag"), okHttpResponse.header("Last-Modified"), next);
+            }
+            return new Result(resource, getServerDateString(responseHeaders), next);
         } catch (CancellationException ce) {
             throw new UserCancelledException(ce);
         } catch (MendeleyException me) {
@@ -92,15 +252,16 @@ public abstract class OkHttpAuthorizedRequest<ResultType> extends AuthorizedRequ
         } catch (ParseException pe) {
             throw new MendeleyException("Could not parse a date in the JSON response " + url, pe);
         } catch (IOException ioe) {
-            // If the issue is due to IOException, retry up to MAX_HTTP_RETRIES times
-            if (currentRetry <  MAX_HTTP_RETRIES) {
-                return doRun(url, currentRetry + 1, addOauthToken);
-            } else {
-                throw new MendeleyException("IO error performing the request " + url, ioe);
+            if (isCallCancelled()) {
+                // the call was aborted by cancel()
+                throw new UserCancelledException(ioe);
             }
+            // may be retried, depending on the RetryPolicy
+            throw new MendeleyException("IO error performing the request " + url, ioe);
         } catch (Exception e) {
             throw new MendeleyException("Error performing the request " + url, e);
         } finally {
+            liveCall = null;
             if (responseBody != null) {
                 if (responseBody.byteStream() != null) {
                     try {
@@ -113,8 +274,33 @@ public abstract class OkHttpAuthorizedRequest<ResultType> extends AuthorizedRequ
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private Response newResponse(Result result, int retryCount) {
+        return new Response((ResultType) result.resource, result.serverDateStr, result.next, retryCount);
+    }
+
     protected abstract void setMethod(okhttp3.Request.Builder requestBld) throws Exception;
 
+    /**
+     * Sets the policy deciding whether and when the request is retried after a failure.
+     * {@link RetryPolicy#DEFAULT} is used if none is set.
+     *
+     * @param retryPolicy the policy
+     */
+    public final void setRetryPolicy(RetryPolicy retryPolicy) {
+        if (retryPolicy == null) {
+            throw new IllegalArgumentException("The retry policy can't be null");
+        }
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @return the policy deciding whether and when the request is retried after a failure
+     */
+    public final RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
     /**
      * Sets a listener to be notified of progress
      * @param progressListener
@@ -123,11 +309,103 @@ public abstract class OkHttpAuthorizedRequest<ResultType> extends AuthorizedRequ
         this.progressListener = progressListener;
     }
 
+    /**
+     * Sets the reader used to tokenize the JSON of the response. Both give the same results, so
+     * this only lets the parse throughput of both be compared on the same responses.
+     * {@link JsonReaderType#ANDROID} is used if none is set.
+     *
+     * @param jsonReaderType the reader
+     */
+    public final void setJsonReaderType(JsonReaderType jsonReaderType) {
+        if (jsonReaderType == null) {
+            throw new IllegalArgumentException("The JSON reader type can't be null");
+        }
+        this.jsonReaderType = jsonReaderType;
+    }
+
+    public final JsonReaderType getJsonReaderType() {
+        return jsonReaderType;
+    }
+
     protected void appendHeaders(Map<String, String> headers) {
     }
 
+    /**
+     * @return whether the parsed response of this request may be stored in a {@link ResponseCache}
+     */
+    protected boolean isResponseCacheable() {
+        return false;
+    }
+
+    /**
+     * @return description of anything other than the URL and headers that changes the parsed
+     *          response of this request, like the fields it decodes, or null if nothing does.
+     *          Requests with different variants never share cache entries nor network calls.
+     */
+    protected String getResponseVariant() {
+        return null;
+    }
+
+    void useResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    private String getCacheKey(Uri url, Map<String, String> requestHeaders) {
+        return getClass().getName() + " " + url + " " + requestHeaders.get("Accept") + " " + getResponseVariant();
+    }
+
+    private void storeInCache(String cacheKey, ResultType resource, String etag, String lastModified, Uri next) {
+        if (etag != null || lastModified != null) {
+            responseCache.put(cacheKey, new ResponseCache.Entry(resource, etag, lastModified, next));
+        } else {
+            // without validators the entry could never be revalidated
+            responseCache.remove(cacheKey);
+        }
+    }
+
+    /**
+     * @return whether this request may share its network call and parsed result with identical
+     *          requests running at the same time
+     */
+    protected boolean isCoalescable() {
+        return false;
+    }
+
+    /**
+     * Called when an attempt fails, before the {@link RetryPolicy} is asked. Requests that can
+     * fix the cause of the failure themselves, like a download resuming a partial file that the
+     * server doesn't accept any more, may return true to run again straight away, without
+     * counting it as a retry. They must not return true again for the same cause.
+     *
+     * @param error the error of the failed attempt
+     * @return whether the request should run again straight away
+     */
+    protected boolean shouldRestart(MendeleyException error) {
+        return false;
+    }
+
+    /**
+     * Called with the status code and headers of every response, including the unsuccessful
+     * ones, before its body is passed to {@link #manageResponse(InputStream)}.
+     */
+    protected void manageResponseHeaders(int responseCode, Map<String, List<String>> headers) throws Exception {
+    }
+
     protected abstract ResultType manageResponse(InputStream is) throws Exception;
 
+    /**
+     * @param is the body of the response, as passed to {@link #manageResponse(InputStream)}
+     * @return a reader of the JSON in the body, for {@link JsonParser}
+     */
+    protected JsonTokenReader newJsonReader(InputStream is) throws IOException {
+        switch (jsonReaderType) {
+            case UTF8:
+                return new Utf8JsonTokenReader(Okio.buffer(Okio.source(is)));
+            default:
+                return new AndroidJsonTokenReader(is);
+        }
+    }
+
 
     private String getServerDateString(Map<String, List<String>> headersMap) throws IOException {
         final List<String> dateHeaders = headersMap.get("Date");
@@ -163,7 +441,7 @@ public abstract class OkHttpAuthorizedRequest<ResultType> extends AuthorizedRequ
 
         @Override
         protected boolean isCancelled() {
-            return OkHttpAuthorizedRequest.this.isCancelled();
+            return isCallCancelled();
         }
     }
 
@@ -185,6 +463,119 @@ public abstract class OkHttpAuthorizedRequest<ResultType> extends AuthorizedRequ
     }
 
 
+    /**
+     * Parsed outcome of one HTTP call, before being wrapped in the {@link Response} of each request.
+     */
+    private static class Result {
+        private final Object resource;
+        private final String serverDateStr;
+        private final Uri next;
+
+        Result(Object resource, String serverDateStr, Uri next) {
+            this.resource = resource;
+            this.serverDateStr = serverDateStr;
+            this.next = next;
+        }
+    }
+
+    /**
+     * HTTP call shared by identical requests running at the same time.
+     * The first request performs it, the others wait for its outcome.
+     */
+    private static class SharedCall {
+
+        private final OkHttpAuthorizedRequest<?> leader;
+        private final List<Request<?>> subscribers = new ArrayList<Request<?>>();
+        private boolean done;
+        private Result result;
+        private MendeleyException error;
+
+        SharedCall(OkHttpAuthorizedRequest<?> leader) {
+            this.leader = leader;
+            subscribers.add(leader);
+        }
+
+        synchronized boolean subscribe(Request<?> subscriber) {
+            if (done) {
+                return false;
+            }
+            subscribers.add(subscriber);
+            return true;
+        }
+
+        synchronized boolean isEveryoneCancelled() {
+            for (Request<?> subscriber : subscribers) {
+                if (!subscriber.isCancelled()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void onSubscriberCancelled() {
+            synchronized (this) {
+                notifyAll();
+            }
+            if (isEveryoneCancelled()) {
+                leader.abortLiveCall();
+            }
+        }
+
+        synchronized void complete(Result result, MendeleyException error) {
+            this.result = result;
+            this.error = error;
+            this.done = true;
+            notifyAll();
+        }
+
+        /**
+         * @return the result of the call, or null if the call was aborted because its other
+         *          subscribers cancelled but this one did not
+         */
+        synchronized Result await(Request<?> subscriber) throws MendeleyException {
+            while (!done) {
+                if (subscriber.isCancelled()) {
+                    subscribers.remove(subscriber);
+                    throw new UserCancelledException();
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    subscribers.remove(subscriber);
+                    Thread.currentThread().interrupt();
+                    throw new UserCancelledException(e);
+                }
+            }
+
+            if (subscriber.isCancelled()) {
+                throw new UserCancelledException();
+            }
+            if (error instanceof UserCancelledException) {
+                return null;
+            }
+            if (error != null) {
+                throw error;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Readers that can tokenize the JSON of the responses.
+     */
+    public enum JsonReaderType {
+        /**
+         * {@link AndroidJsonTokenReader}, decoding the body as characters
+         */
+        ANDROID,
+
+        /**
+         * {@link Utf8JsonTokenReader}, matching names as UTF-8 bytes and decoding only the values
+         * that are read
+         */
+        UTF8
+    }
+
     /**
      * To be implemented by classes that want to listen the progress of the download
      */
@@ -0,0 +1,85 @@
+package com.mendeley.sdk.request;
+
+/**
+ * Options of {@link JsonParser} when parsing lists of items and their items, such as
+ * {@link JsonParser#documentsFromJson(JsonTokenReader, ParseOptions)}.
+ *
+ * <pre>
+ * new ParseOptions.Builder()
+ *         .setProjection(FieldProjection.of("id", "revision", "last_modified"))
+ *         .setStringPool(pool)
+ *         .build();
+ * </pre>
+ */
+public class ParseOptions {
+
+    /**
+     * Decodes every field, eagerly and without deduplicating any value.
+     */
+    public static final ParseOptions DEFAULT = new Builder().build();
+
+    /**
+     * Fields to decode, or null to decode all of them.
+     */
+    public final FieldProjection projection;
+
+    /**
+     * Whether to keep the long text fields as UTF-8 bytes to be decoded when first read.
+     */
+    public final boolean lazyText;
+
+    /**
+     * Pool deduplicating the values that repeat across items, or null.
+     */
+    public final StringPool stringPool;
+
+    private ParseOptions(FieldProjection projection, boolean lazyText, StringPool stringPool) {
+        this.projection = projection;
+        this.lazyText = lazyText;
+        this.stringPool = stringPool;
+    }
+
+    public static class Builder {
+        private FieldProjection projection;
+        private boolean lazyText;
+        private StringPool stringPool;
+
+        public Builder() {
+        }
+
+        public Builder(ParseOptions from) {
+            this.projection = from.projection;
+            this.lazyText = from.lazyText;
+            this.stringPool = from.stringPool;
+        }
+
+        /**
+         * @param projection the fields to decode, or null to decode all of them
+         */
+        public Builder setProjection(FieldProjection projection) {
+            this.projection = projection;
+            return this;
+        }
+
+        /**
+         * @param lazyText whether to keep the long text fields as UTF-8 bytes to be decoded when
+         *                 first read, see {@link com.mendeley.sdk.model.Document.Builder}
+         */
+        public Builder setLazyText(boolean lazyText) {
+            this.lazyText = lazyText;
+            return this;
+        }
+
+        /**
+         * @param stringPool pool deduplicating the values that repeat across items, or null
+         */
+        public Builder setStringPool(StringPool stringPool) {
+            this.stringPool = stringPool;
+            return this;
+        }
+
+        public ParseOptions build() {
+            return new ParseOptions(projection, lazyText, stringPool);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+
+/**
+ * Cache of the parsed responses of {@link GetAuthorizedRequest}s, together with the validators
+ * (ETag and Last-Modified) the server sent with them.
+ *
+ * <p/>
+ *
+ * Requests with a cache revalidate the cached entry with If-None-Match and If-Modified-Since.
+ * If the server answers 304 Not Modified, the cached resource is returned without downloading
+ * nor parsing the body again.
+ *
+ * <p/>
+ *
+ * Cached resources are returned to every request with the same key, so they should be treated as
+ * read-only by the app. Implementations must be thread safe.
+ *
+ * @see GetAuthorizedRequest#setResponseCache(ResponseCache)
+ */
+public interface ResponseCache {
+
+    /**
+     * @param key key of the response, built from the request type, URL and Accept header
+     * @return the cached entry, or null if there is none
+     */
+    Entry get(String key);
+
+    /**
+     * Stores one entry, replacing any previous entry with the same key.
+     */
+    void put(String key, Entry entry);
+
+    /**
+     * Removes one entry, if present.
+     */
+    void remove(String key);
+
+    /**
+     * Removes every entry. Should be called when the user signs out.
+     */
+    void clear();
+
+    /**
+     * Parsed resource and validators of one response.
+     */
+    class Entry {
+
+        /**
+         * Parsed resource, as returned by the request
+         */
+        public final Object resource;
+
+        /**
+         * Value of the ETag header of the response. May be null.
+         */
+        public final String etag;
+
+        /**
+         * Value of the Last-Modified header of the response. May be null.
+         */
+        public final String lastModified;
+
+        /**
+         * Link to the next page of the response. May be null.
+         */
+        public final Uri next;
+
+        public Entry(Object resource, String etag, String lastModified, Uri next) {
+            this.resource = resource;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.next = next;
+        }
+    }
+}
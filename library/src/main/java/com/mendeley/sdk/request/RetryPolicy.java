@@ -0,0 +1,265 @@
+package com.mendeley.sdk.request;
+
+import com.mendeley.sdk.exceptions.HttpResponseException;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+import com.mendeley.sdk.util.DateUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Policy deciding whether and when an {@link OkHttpAuthorizedRequest} is retried after a failure.
+ *
+ * <p/>
+ *
+ * Requests are retried when the connection fails with an {@link IOException} or when the server
+ * answers with one of the retryable status codes (429 and 503 by default). The delay between
+ * attempts grows exponentially, with random jitter so that many clients failing at the same time
+ * don't retry at the same time, and honors the Retry-After header sent by the server.
+ *
+ * <p/>
+ *
+ * Only idempotent methods (GET, HEAD, PUT, DELETE, OPTIONS) are retried unless
+ * {@link Builder#setRetryNonIdempotent(boolean)} is set, as a POST or PATCH whose response was
+ * lost may have already been applied by the server.
+ */
+public class RetryPolicy {
+
+    /**
+     * Policy used by the requests unless a different one is set.
+     */
+    public static final RetryPolicy DEFAULT = new Builder().build();
+
+    /**
+     * Policy that never retries.
+     */
+    public static final RetryPolicy NO_RETRIES = new Builder().setMaxRetries(0).build();
+
+    private static final Set<String> IDEMPOTENT_METHODS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList("GET", "HEAD", "PUT", "DELETE", "OPTIONS")));
+
+    private static final Random random = new Random();
+
+    public final int maxRetries;
+    public final long initialBackoffMs;
+    public final long maxBackoffMs;
+    public final double backoffMultiplier;
+    public final double jitterFactor;
+    public final long maxRetryAfterMs;
+    public final long retryBudgetMs;
+    public final boolean retryNonIdempotent;
+    public final Set<Integer> retryableStatusCodes;
+
+    private RetryPolicy(int maxRetries, long initialBackoffMs, long maxBackoffMs, double backoffMultiplier, double jitterFactor, long maxRetryAfterMs, long retryBudgetMs, boolean retryNonIdempotent, Set<Integer> retryableStatusCodes) {
+        this.maxRetries = maxRetries;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.backoffMultiplier = backoffMultiplier;
+        this.jitterFactor = jitterFactor;
+        this.maxRetryAfterMs = maxRetryAfterMs;
+        this.retryBudgetMs = retryBudgetMs;
+        this.retryNonIdempotent = retryNonIdempotent;
+        this.retryableStatusCodes = retryableStatusCodes;
+    }
+
+    /**
+     * Decides whether a failed attempt should be retried.
+     *
+     * @param method HTTP method of the request
+     * @param retryCount number of retries already performed
+     * @param totalDelayMs time already spent waiting between attempts
+     * @param error the error of the failed attempt
+     * @return the time to wait before the next attempt, or -1 if the request should not be retried
+     */
+    public long getRetryDelayMs(String method, int retryCount, long totalDelayMs, MendeleyException error) {
+        if (retryCount >= maxRetries || error instanceof UserCancelledException) {
+            return -1;
+        }
+        if (!retryNonIdempotent && !IDEMPOTENT_METHODS.contains(method)) {
+            return -1;
+        }
+
+        long delayMs = getBackoffMs(retryCount);
+
+        if (error instanceof HttpResponseException) {
+            final HttpResponseException httpError = (HttpResponseException) error;
+            if (!retryableStatusCodes.contains(httpError.httpReturnCode)) {
+                return -1;
+            }
+            if (httpError.retryAfterMs >= 0) {
+                if (httpError.retryAfterMs > maxRetryAfterMs) {
+                    return -1;
+                }
+                delayMs = Math.max(delayMs, httpError.retryAfterMs);
+            }
+        } else if (!(error.getCause() instanceof IOException)) {
+            return -1;
+        }
+
+        if (totalDelayMs + delayMs > retryBudgetMs) {
+            return -1;
+        }
+        return delayMs;
+    }
+
+    private long getBackoffMs(int retryCount) {
+        final double exponential = initialBackoffMs * Math.pow(backoffMultiplier, retryCount);
+        final double capped = Math.min(exponential, maxBackoffMs);
+        final double jitter;
+        synchronized (random) {
+            jitter = random.nextDouble();
+        }
+        return (long) (capped * (1 - jitterFactor * jitter));
+    }
+
+    /**
+     * Parses the value of a Retry-After header, which may be either a number of seconds or an
+     * HTTP date.
+     *
+     * @param value the value of the header. May be null.
+     * @param nowMs current time, to compute the delay of an HTTP date
+     * @return the delay in milliseconds, or -1 if there is no valid value
+     */
+    public static long parseRetryAfterMs(String value, long nowMs) {
+        if (value == null) {
+            return -1;
+        }
+        value = value.trim();
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(value)));
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            return Math.max(0, DateUtils.parseHttpDate(value) - nowMs);
+        } catch (Exception ignored) {
+            return -1;
+        }
+    }
+
+    public static class Builder {
+        private int maxRetries = 3;
+        private long initialBackoffMs = 500;
+        private long maxBackoffMs = TimeUnit.SECONDS.toMillis(30);
+        private double backoffMultiplier = 2;
+        private double jitterFactor = 0.5;
+        private long maxRetryAfterMs = TimeUnit.MINUTES.toMillis(1);
+        private long retryBudgetMs = TimeUnit.MINUTES.toMillis(2);
+        private boolean retryNonIdempotent = false;
+        private Set<Integer> retryableStatusCodes = new HashSet<Integer>(Arrays.asList(429, 503));
+
+        public Builder() {
+        }
+
+        public Builder(RetryPolicy from) {
+            this.maxRetries = from.maxRetries;
+            this.initialBackoffMs = from.initialBackoffMs;
+            this.maxBackoffMs = from.maxBackoffMs;
+            this.backoffMultiplier = from.backoffMultiplier;
+            this.jitterFactor = from.jitterFactor;
+            this.maxRetryAfterMs = from.maxRetryAfterMs;
+            this.retryBudgetMs = from.retryBudgetMs;
+            this.retryNonIdempotent = from.retryNonIdempotent;
+            this.retryableStatusCodes = new HashSet<Integer>(from.retryableStatusCodes);
+        }
+
+        /**
+         * @param maxRetries maximum number of retries after the first attempt
+         */
+        public Builder setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * @param initialBackoffMs delay before the first retry, before applying the jitter
+         */
+        public Builder setInitialBackoffMs(long initialBackoffMs) {
+            this.initialBackoffMs = initialBackoffMs;
+            return this;
+        }
+
+        /**
+         * @param maxBackoffMs maximum delay between two attempts, before applying the jitter
+         */
+        public Builder setMaxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+            return this;
+        }
+
+        /**
+         * @param backoffMultiplier factor the delay is multiplied by after each retry
+         */
+        public Builder setBackoffMultiplier(double backoffMultiplier) {
+            this.backoffMultiplier = backoffMultiplier;
+            return this;
+        }
+
+        /**
+         * @param jitterFactor in [0-1], maximum fraction of the delay randomly removed from it
+         */
+        public Builder setJitterFactor(double jitterFactor) {
+            this.jitterFactor = jitterFactor;
+            return this;
+        }
+
+        /**
+         * @param maxRetryAfterMs longest Retry-After the request will wait for. The request fails
+         *                        if the server asks to wait longer.
+         */
+        public Builder setMaxRetryAfterMs(long maxRetryAfterMs) {
+            this.maxRetryAfterMs = maxRetryAfterMs;
+            return this;
+        }
+
+        /**
+         * @param retryBudgetMs maximum total time one request may spend waiting between attempts
+         */
+        public Builder setRetryBudgetMs(long retryBudgetMs) {
+            this.retryBudgetMs = retryBudgetMs;
+            return this;
+        }
+
+        /**
+         * @param retryNonIdempotent whether POST and PATCH requests should be retried too.
+         *                           Only safe if repeating the request has no additional effect
+         *                           and its body can be sent again, which is not the case for
+         *                           bodies read from an {@link java.io.InputStream}.
+         */
+        public Builder setRetryNonIdempotent(boolean retryNonIdempotent) {
+            this.retryNonIdempotent = retryNonIdempotent;
+            return this;
+        }
+
+        /**
+         * @param retryableStatusCodes HTTP status codes the request will be retried for
+         */
+        public Builder setRetryableStatusCodes(Set<Integer> retryableStatusCodes) {
+            this.retryableStatusCodes = new HashSet<Integer>(retryableStatusCodes);
+            return this;
+        }
+
+        public RetryPolicy build() {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("The number of retries can't be negative");
+            }
+            if (jitterFactor < 0 || jitterFactor > 1) {
+                throw new IllegalArgumentException("The jitter factor must be in [0-1]");
+            }
+            return new RetryPolicy(
+                    maxRetries,
+                    initialBackoffMs,
+                    maxBackoffMs,
+                    backoffMultiplier,
+                    jitterFactor,
+                    maxRetryAfterMs,
+                    retryBudgetMs,
+                    retryNonIdempotent,
+                    Collections.unmodifiableSet(retryableStatusCodes));
+        }
+    }
+}
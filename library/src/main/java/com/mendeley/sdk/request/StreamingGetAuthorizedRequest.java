@@ -0,0 +1,95 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+
+import com.mendeley.sdk.AuthTokenManager;
+import com.mendeley.sdk.ClientCredentials;
+
+import java.io.InputStream;
+import java.util.concurrent.CancellationException;
+
+/**
+ * GET request for a list of items that, instead of returning the whole list, pushes each item to
+ * an {@link ItemConsumer} as soon as it has been parsed, so that only one item is kept in memory
+ * at a time.
+ *
+ * <p/>
+ *
+ * The consumer is invoked in the thread running the request and the response is read as it
+ * consumes the items, so a slow consumer slows the download down instead of piling up items.
+ * Cancelling the request stops it before the next item.
+ *
+ * <p/>
+ *
+ * The resource of the {@link Response} is the number of items pushed to the consumer. The link to
+ * the next page, if any, is in {@link Response#next} as usual.
+ *
+ * <p/>
+ *
+ * These requests use {@link RetryPolicy#NO_RETRIES}: a retry would read the list from the start
+ * and push again the items the consumer has already received. Callers setting another policy
+ * must be ready for duplicated items.
+ *
+ * @param <ItemType> type of the items of the list
+ */
+public abstract class StreamingGetAuthorizedRequest<ItemType> extends GetAuthorizedRequest<Integer> {
+
+    private final ItemConsumer<ItemType> consumer;
+
+    public StreamingGetAuthorizedRequest(Uri url, ItemConsumer<ItemType> consumer, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
+        super(url, authTokenManager, clientCredentials);
+        if (consumer == null) {
+            throw new IllegalArgumentException("The consumer can't be null");
+        }
+        this.consumer = consumer;
+        setRetryPolicy(RetryPolicy.NO_RETRIES);
+    }
+
+    @Override
+    protected final Integer manageResponse(InputStream is) throws Exception {
+        final JsonTokenReader reader = newJsonReader(is);
+        int count = 0;
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (isCancelled()) {
+                throw new CancellationException("Request has been cancelled");
+            }
+            consumer.onItem(parseItem(reader));
+            count++;
+        }
+        reader.endArray();
+
+        return count;
+    }
+
+    /**
+     * Parses the next item of the list.
+     *
+     * @param reader reader positioned at the beginning of the item
+     * @return the item
+     */
+    protected abstract ItemType parseItem(JsonTokenReader reader) throws Exception;
+
+    @Override
+    protected boolean isResponseCacheable() {
+        // the items are consumed as they are read, there is no result that could be shared
+        return false;
+    }
+
+    /**
+     * Receives the items of a {@link StreamingGetAuthorizedRequest} one at a time.
+     *
+     * @param <ItemType> type of the items
+     */
+    public interface ItemConsumer<ItemType> {
+
+        /**
+         * Invoked for each item of the list, in order, in the thread running the request.
+         *
+         * @param item the item
+         * @throws Exception to stop reading the list. The request fails with this exception as cause.
+         */
+        void onItem(ItemType item) throws Exception;
+    }
+}
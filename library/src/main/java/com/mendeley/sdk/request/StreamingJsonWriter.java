@@ -0,0 +1,357 @@
+package com.mendeley.sdk.request;
+
+import java.io.IOException;
+
+import okio.BufferedSink;
+
+/**
+ * Writes JSON straight into an okio {@link BufferedSink} as UTF-8, without building any
+ * intermediate tree or String.
+ *
+ * <p/>
+ *
+ * Its API mimics {@link android.util.JsonWriter}, with two differences that make the output
+ * match the one of {@link org.json.JSONObject}: object members whose value is null are skipped
+ * and doubles without fractional part are written as integers.
+ *
+ * <p/>
+ *
+ * A writer created with {@link #newByteCounter()} writes nothing and only counts the bytes, so
+ * that the length of a body can be known before sending it.
+ */
+public class StreamingJsonWriter {
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int EMPTY_ARRAY = 4;
+    private static final int NONEMPTY_ARRAY = 5;
+
+    private static final String[] CONTROL_CHAR_ESCAPES = new String[0x20];
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            CONTROL_CHAR_ESCAPES[c] = String.format("\\u%04x", c);
+        }
+        CONTROL_CHAR_ESCAPES['\b'] = "\\b";
+        CONTROL_CHAR_ESCAPES['\t'] = "\\t";
+        CONTROL_CHAR_ESCAPES['\n'] = "\\n";
+        CONTROL_CHAR_ESCAPES['\f'] = "\\f";
+        CONTROL_CHAR_ESCAPES['\r'] = "\\r";
+    }
+
+    private final BufferedSink sink;
+    private long byteCount;
+
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+
+    // Name of the member being written, only written once we know its value is not null
+    private String deferredName;
+
+    /**
+     * @param sink where the JSON is written to
+     */
+    public StreamingJsonWriter(BufferedSink sink) {
+        if (sink == null) {
+            throw new IllegalArgumentException("The sink can't be null");
+        }
+        this.sink = sink;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    private StreamingJsonWriter() {
+        this.sink = null;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * @return a writer that doesn't write anything, only counts the bytes, see {@link #getByteCount()}
+     */
+    public static StreamingJsonWriter newByteCounter() {
+        return new StreamingJsonWriter();
+    }
+
+    /**
+     * @return number of bytes of JSON written so far
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public StreamingJsonWriter beginObject() throws IOException {
+        beforeValue();
+        push(EMPTY_OBJECT);
+        writeByte('{');
+        return this;
+    }
+
+    public StreamingJsonWriter endObject() throws IOException {
+        if (deferredName != null) {
+            throw new IllegalStateException("Dangling name: " + deferredName);
+        }
+        pop(EMPTY_OBJECT, NONEMPTY_OBJECT);
+        writeByte('}');
+        return this;
+    }
+
+    public StreamingJsonWriter beginArray() throws IOException {
+        beforeValue();
+        push(EMPTY_ARRAY);
+        writeByte('[');
+        return this;
+    }
+
+    public StreamingJsonWriter endArray() throws IOException {
+        pop(EMPTY_ARRAY, NONEMPTY_ARRAY);
+        writeByte(']');
+        return this;
+    }
+
+    /**
+     * Sets the name of the next member of the current object.
+     *
+     * @param name the name
+     */
+    public StreamingJsonWriter name(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("The name can't be null");
+        }
+        final int context = stack[stackSize - 1];
+        if (deferredName != null || (context != EMPTY_OBJECT && context != NONEMPTY_OBJECT)) {
+            throw new IllegalStateException("Unexpected name: " + name);
+        }
+        deferredName = name;
+        return this;
+    }
+
+    /**
+     * Writes a string value. If it is null, the member is skipped, or null is written in an array.
+     */
+    public StreamingJsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    public StreamingJsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        writeUtf8(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes a boolean value. If it is null, the member is skipped, or null is written in an array.
+     */
+    public StreamingJsonWriter value(Boolean value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        return value(value.booleanValue());
+    }
+
+    public StreamingJsonWriter value(long value) throws IOException {
+        beforeValue();
+        writeDecimalLong(value);
+        return this;
+    }
+
+    /**
+     * Writes a double value, as an integer if it has no fractional part.
+     */
+    public StreamingJsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        beforeValue();
+        if (value == (long) value) {
+            writeDecimalLong((long) value);
+        } else {
+            writeUtf8(Double.toString(value));
+        }
+        return this;
+    }
+
+    /**
+     * Writes a numeric value. If it is null, the member is skipped, or null is written in an array.
+     */
+    public StreamingJsonWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return value(value.doubleValue());
+        }
+        return value(value.longValue());
+    }
+
+    /**
+     * Writes null in an array. In an object, the member is skipped.
+     */
+    public StreamingJsonWriter nullValue() throws IOException {
+        if (deferredName != null) {
+            deferredName = null;
+            return this;
+        }
+        beforeValue();
+        writeUtf8("null");
+        return this;
+    }
+
+    /**
+     * Writes everything buffered to the underlying sink.
+     */
+    public void flush() throws IOException {
+        if (sink != null) {
+            sink.flush();
+        }
+    }
+
+    private void beforeValue() throws IOException {
+        final int context = stack[stackSize - 1];
+        switch (context) {
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                if (deferredName == null) {
+                    throw new IllegalStateException("Values in objects need a name");
+                }
+                if (context == NONEMPTY_OBJECT) {
+                    writeByte(',');
+                }
+                writeString(deferredName);
+                writeByte(':');
+                deferredName = null;
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                break;
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                break;
+            case NONEMPTY_ARRAY:
+                writeByte(',');
+                break;
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                break;
+            default:
+                throw new IllegalStateException("JSON must have only one top-level value");
+        }
+    }
+
+    private void push(int context) {
+        if (stackSize == stack.length) {
+            final int[] newStack = new int[stackSize * 2];
+            System.arraycopy(stack, 0, newStack, 0, stackSize);
+            stack = newStack;
+        }
+        stack[stackSize++] = context;
+    }
+
+    private void pop(int emptyContext, int nonEmptyContext) {
+        final int context = stack[stackSize - 1];
+        if (stackSize == 1 || (context != emptyContext && context != nonEmptyContext)) {
+            throw new IllegalStateException("Nesting problem");
+        }
+        stackSize--;
+    }
+
+    private void writeString(String value) throws IOException {
+        writeByte('"');
+        int last = 0;
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            final String escape;
+            if (c < 0x20) {
+                escape = CONTROL_CHAR_ESCAPES[c];
+            } else if (c == '"') {
+                escape = "\\\"";
+            } else if (c == '\\') {
+                escape = "\\\\";
+            } else if (c == '\u2028') {
+                escape = "\\u2028";
+            } else if (c == '\u2029') {
+                escape = "\\u2029";
+            } else {
+                continue;
+            }
+            if (last < i) {
+                writeUtf8(value, last, i);
+            }
+            writeUtf8(escape);
+            last = i + 1;
+        }
+        if (last < length) {
+            writeUtf8(value, last, length);
+        }
+        writeByte('"');
+    }
+
+    private void writeByte(char c) throws IOException {
+        if (sink != null) {
+            sink.writeByte(c);
+        }
+        byteCount++;
+    }
+
+    private void writeUtf8(String s) throws IOException {
+        writeUtf8(s, 0, s.length());
+    }
+
+    private void writeUtf8(String s, int beginIndex, int endIndex) throws IOException {
+        if (sink != null) {
+            sink.writeUtf8(s, beginIndex, endIndex);
+        }
+        byteCount += utf8Length(s, beginIndex, endIndex);
+    }
+
+    private void writeDecimalLong(long value) throws IOException {
+        if (sink != null) {
+            sink.writeDecimalLong(value);
+        }
+        byteCount += decimalLength(value);
+    }
+
+    /**
+     * @return number of bytes of the passed chars encoded as UTF-8 by okio, which encodes
+     *          unpaired surrogates as '?'
+     */
+    static long utf8Length(String s, int beginIndex, int endIndex) {
+        long length = 0;
+        for (int i = beginIndex; i < endIndex; i++) {
+            final char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (c < 0xd800 || c > 0xdfff) {
+                length += 3;
+            } else if (c <= 0xdbff && i + 1 < endIndex && s.charAt(i + 1) >= 0xdc00 && s.charAt(i + 1) <= 0xdfff) {
+                length += 4;
+                i++;
+            } else {
+                length += 1;
+            }
+        }
+        return length;
+    }
+
+    static int decimalLength(long value) {
+        if (value == Long.MIN_VALUE) {
+            return 20;
+        }
+        int length = 1;
+        if (value < 0) {
+            length++;
+            value = -value;
+        }
+        while (value >= 10) {
+            value /= 10;
+            length++;
+        }
+        return length;
+    }
+}
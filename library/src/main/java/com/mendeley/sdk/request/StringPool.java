@@ -0,0 +1,119 @@
+package com.mendeley.sdk.request;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pool of String instances used by {@link JsonParser} to deduplicate the values that repeat across
+ * the items of a list, like the profile and group ids, types, sources or tags of the documents of
+ * one library. Parsed values equal to a pooled one are replaced by the pooled instance, so only one
+ * copy of each is kept alive by the parsed items.
+ *
+ * <p/>
+ *
+ * A pool can be used for one response only, or shared by several requests to deduplicate values
+ * across all their responses. It is bounded: once it holds its maximum number of strings, new
+ * values are returned as they are instead of being added. It is safe to use from several threads.
+ */
+public class StringPool {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    private final int maxSize;
+    private final Map<String, String> strings = new HashMap<>();
+
+    private long lookups;
+    private long hits;
+
+    public StringPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize maximum number of strings kept by the pool
+     */
+    public StringPool(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The max size must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param value a parsed value, or null
+     * @return the pooled instance equal to the value, or the value itself if there is none
+     */
+    public synchronized String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        lookups++;
+        final String pooled = strings.get(value);
+        if (pooled != null) {
+            hits++;
+            return pooled;
+        }
+        if (strings.size() < maxSize) {
+            strings.put(value, value);
+        }
+        return value;
+    }
+
+    /**
+     * @return a snapshot of the statistics of the pool
+     */
+    public synchronized Stats getStats() {
+        return new Stats(lookups, hits, strings.size());
+    }
+
+    /**
+     * Removes every pooled string and resets the statistics.
+     */
+    public synchronized void clear() {
+        strings.clear();
+        lookups = 0;
+        hits = 0;
+    }
+
+    /**
+     * Statistics of one {@link StringPool}.
+     */
+    public static class Stats {
+
+        /**
+         * Number of values looked up in the pool.
+         */
+        public final long lookups;
+
+        /**
+         * Number of values replaced by an already pooled instance.
+         */
+        public final long hits;
+
+        /**
+         * Number of strings in the pool.
+         */
+        public final int size;
+
+        public Stats(long lookups, long hits, int size) {
+            this.lookups = lookups;
+            this.hits = hits;
+            this.size = size;
+        }
+
+        /**
+         * @return fraction of the looked up values that were found in the pool, in [0-1]
+         */
+        public double getHitRate() {
+            return lookups > 0 ? (double) hits / lookups : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "lookups: " + lookups +
+                    ", hits: " + hits +
+                    ", size: " + size +
+                    ", hitRate: " + getHitRate();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.mendeley.sdk.request;
+
+import android.text.TextUtils;
+
+import com.mendeley.sdk.AuthTokenManager;
+import com.mendeley.sdk.ClientCredentials;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.request.endpoint.OAuthTokenEndpoint;
+
+import java.lang.ref.WeakReference;
+import java.util.Date;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates the refreshes of the access token of one {@link AuthTokenManager}.
+ *
+ * <p/>
+ *
+ * Only one refresh runs at a time: {@link AuthorizedRequest}s finding the token expired while a
+ * refresh is in progress wait for it and share its outcome, instead of launching refreshes of
+ * their own that would race on {@link AuthTokenManager#saveTokens(String, String, String, int)}.
+ *
+ * <p/>
+ *
+ * It can also refresh the token proactively in the background shortly before it expires, see
+ * {@link #setProactiveRefreshEnabled(boolean)}, so that requests don't wait for the refresh.
+ */
+public class TokenRefreshCoordinator {
+
+    // Only use tokens which don't expire in the next 5 mins:
+    private static final long MIN_TOKEN_VALIDITY_MS = TimeUnit.MINUTES.toMillis(5);
+
+    // Proactive refreshes happen this long before the token would be considered about to expire
+    private static final long PROACTIVE_REFRESH_MARGIN_MS = TimeUnit.MINUTES.toMillis(1);
+
+    // Delay to retry a proactive refresh that failed
+    private static final long PROACTIVE_REFRESH_RETRY_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final Map<AuthTokenManager, WeakReference<TokenRefreshCoordinator>> coordinators = new WeakHashMap<AuthTokenManager, WeakReference<TokenRefreshCoordinator>>();
+
+    private static ScheduledExecutorService proactiveRefreshExecutor;
+
+    /**
+     * @param authTokenManager the token manager
+     * @param clientCredentials used to refresh the access token
+     * @return the coordinator shared by every request using the passed token manager
+     */
+    public static TokenRefreshCoordinator obtain(AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
+        synchronized (coordinators) {
+            final WeakReference<TokenRefreshCoordinator> reference = coordinators.get(authTokenManager);
+            TokenRefreshCoordinator coordinator = reference != null ? reference.get() : null;
+            if (coordinator == null) {
+                coordinator = new TokenRefreshCoordinator(authTokenManager, clientCredentials);
+                coordinators.put(authTokenManager, new WeakReference<TokenRefreshCoordinator>(coordinator));
+            }
+            return coordinator;
+        }
+    }
+
+    private static synchronized ScheduledExecutorService getProactiveRefreshExecutor() {
+        if (proactiveRefreshExecutor == null) {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "MendeleyTokenRefresh");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            proactiveRefreshExecutor = executor;
+        }
+        return proactiveRefreshExecutor;
+    }
+
+    private final AuthTokenManager authTokenManager;
+    private final ClientCredentials clientCredentials;
+
+    private RefreshCall inFlightRefresh;
+    private boolean proactiveRefreshEnabled;
+    private ScheduledFuture<?> scheduledRefresh;
+
+    public TokenRefreshCoordinator(AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
+        this.authTokenManager = authTokenManager;
+        this.clientCredentials = clientCredentials;
+    }
+
+    /**
+     * @return true if there is no valid access token or it will expire in the next minutes
+     */
+    public boolean willExpireSoon() {
+        final Date expires = authTokenManager.getAuthTokenExpirationDate();
+        if (TextUtils.isEmpty(authTokenManager.getAccessToken()) || expires == null) {
+            return true;
+        }
+        return expires.getTime() - System.currentTimeMillis() < MIN_TOKEN_VALIDITY_MS;
+    }
+
+    /**
+     * Refreshes the access token, blocking until the refresh finishes.
+     *
+     * <p/>
+     *
+     * If another refresh is in progress, waits for it instead of starting a new one. If the token
+     * has already been replaced by a valid one since the caller read it, returns immediately.
+     *
+     * @param staleAccessToken the access token the caller found expired. May be null.
+     * @throws MendeleyException if the refresh failed, runtime exceptions of the refresh are
+     * wrapped so that every waiting caller sees the failure
+     */
+    public void refresh(String staleAccessToken) throws MendeleyException {
+        final RefreshCall call;
+        final boolean leader;
+
+        synchronized (this) {
+            if (inFlightRefresh != null) {
+                call = inFlightRefresh;
+                leader = false;
+            } else {
+                if (isRefreshedSince(staleAccessToken)) {
+                    return;
+                }
+                call = new RefreshCall();
+                inFlightRefresh = call;
+                leader = true;
+            }
+        }
+
+        if (leader) {
+            MendeleyException error = null;
+            try {
+                performRefresh();
+            } catch (MendeleyException e) {
+                error = e;
+            } catch (RuntimeException e) {
+                error = new MendeleyException("Error refreshing the access token", e);
+            } finally {
+                synchronized (this) {
+                    inFlightRefresh = null;
+                    if (proactiveRefreshEnabled) {
+                        scheduleProactiveRefresh(error == null ? -1 : PROACTIVE_REFRESH_RETRY_MS);
+                    }
+                }
+                call.complete(error);
+            }
+        }
+
+        call.await();
+    }
+
+    /**
+     * Enables or disables refreshing the token in the background shortly before it expires.
+     *
+     * @param enabled whether the proactive refresh is enabled
+     */
+    public synchronized void setProactiveRefreshEnabled(boolean enabled) {
+        proactiveRefreshEnabled = enabled;
+        if (enabled) {
+            scheduleProactiveRefresh(-1);
+        } else if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+    }
+
+    /**
+     * Schedules the proactive refresh if it is enabled but nothing is scheduled, as it happens
+     * when the user signs in after enabling it.
+     */
+    synchronized void ensureProactiveRefreshScheduled() {
+        if (proactiveRefreshEnabled && inFlightRefresh == null && (scheduledRefresh == null || scheduledRefresh.isDone())) {
+            scheduleProactiveRefresh(-1);
+        }
+    }
+
+    /**
+     * Performs the actual refresh against the server.
+     */
+    protected void performRefresh() throws MendeleyException {
+        new OAuthTokenEndpoint.RefreshTokenRequest(authTokenManager, clientCredentials).run();
+    }
+
+    private boolean isRefreshedSince(String staleAccessToken) {
+        final String currentAccessToken = authTokenManager.getAccessToken();
+        return staleAccessToken != null
+                && currentAccessToken != null
+                && !currentAccessToken.equals(staleAccessToken)
+                && !willExpireSoon();
+    }
+
+    /**
+     * @param delayMs delay of the refresh, or -1 to refresh shortly before the token expires
+     */
+    private void scheduleProactiveRefresh(long delayMs) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+
+        if (delayMs < 0) {
+            final Date expires = authTokenManager.getAuthTokenExpirationDate();
+            if (expires == null || TextUtils.isEmpty(authTokenManager.getRefreshToken())) {
+                return;
+            }
+            delayMs = Math.max(0, expires.getTime() - System.currentTimeMillis() - MIN_TOKEN_VALIDITY_MS - PROACTIVE_REFRESH_MARGIN_MS);
+        }
+
+        scheduledRefresh = getProactiveRefreshExecutor().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (TextUtils.isEmpty(authTokenManager.getRefreshToken())) {
+                    return;
+                }
+                try {
+                    refresh(authTokenManager.getAccessToken());
+                } catch (MendeleyException ignored) {
+                    // rescheduled by refresh(), requests will retry it if needed
+                }
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Outcome of one refresh, shared by every caller waiting for it.
+     */
+    private static class RefreshCall {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile MendeleyException error;
+
+        void complete(MendeleyException error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        void await() throws MendeleyException {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+}
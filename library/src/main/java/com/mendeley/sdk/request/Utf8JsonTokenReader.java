@@ -0,0 +1,634 @@
+package com.mendeley.sdk.request;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+
+/**
+ * {@link JsonTokenReader} tokenizing UTF-8 bytes straight from an okio {@link BufferedSource},
+ * without decoding the document to chars first.
+ *
+ * <p/>
+ *
+ * Names are matched as bytes against the ones already read, so the repeated member names of a
+ * list of items are returned as the same String instances instead of being decoded again.
+ * Values only become Strings when read with {@link #nextString()}; {@link #skipValue()} steps
+ * over the bytes without decoding them.
+ *
+ * <p/>
+ *
+ * Only strict JSON is accepted.
+ */
+public class Utf8JsonTokenReader implements JsonTokenReader {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final ByteString QUOTE_OR_BACKSLASH = ByteString.encodeUtf8("\"\\");
+
+    private static final int PEEKED_NONE = 0;
+    private static final int PEEKED_BEGIN_OBJECT = 1;
+    private static final int PEEKED_END_OBJECT = 2;
+    private static final int PEEKED_BEGIN_ARRAY = 3;
+    private static final int PEEKED_END_ARRAY = 4;
+    private static final int PEEKED_TRUE = 5;
+    private static final int PEEKED_FALSE = 6;
+    private static final int PEEKED_NULL = 7;
+    private static final int PEEKED_STRING = 8;
+    private static final int PEEKED_NAME = 9;
+    private static final int PEEKED_NUMBER = 10;
+    private static final int PEEKED_EOF = 11;
+
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+    private static final int CLOSED = 8;
+
+    // longest name kept in the name table, and number of slots of the table (a power of two)
+    private static final int MAX_CACHED_NAME_LENGTH = 64;
+    private static final int NAME_TABLE_SIZE = 256;
+
+    private final BufferedSource source;
+    private final Buffer buffer;
+
+    private int peeked = PEEKED_NONE;
+
+    private int[] stack = new int[32];
+    private int stackSize = 0;
+
+    private final byte[][] nameBytes = new byte[NAME_TABLE_SIZE][];
+    private final String[] names = new String[NAME_TABLE_SIZE];
+
+    /**
+     * @param source the JSON document, encoded as UTF-8
+     */
+    public Utf8JsonTokenReader(BufferedSource source) {
+        if (source == null) {
+            throw new IllegalArgumentException("The source can't be null");
+        }
+        this.source = source;
+        this.buffer = source.buffer();
+        push(EMPTY_DOCUMENT);
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(PEEKED_BEGIN_ARRAY, "BEGIN_ARRAY");
+        push(EMPTY_ARRAY);
+        peeked = PEEKED_NONE;
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(PEEKED_END_ARRAY, "END_ARRAY");
+        stackSize--;
+        peeked = PEEKED_NONE;
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(PEEKED_BEGIN_OBJECT, "BEGIN_OBJECT");
+        push(EMPTY_OBJECT);
+        peeked = PEEKED_NONE;
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(PEEKED_END_OBJECT, "END_OBJECT");
+        stackSize--;
+        peeked = PEEKED_NONE;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        final int p = peekInternal();
+        return p != PEEKED_END_OBJECT && p != PEEKED_END_ARRAY && p != PEEKED_EOF;
+    }
+
+    @Override
+    public Token peek() throws IOException {
+        switch (peekInternal()) {
+            case PEEKED_BEGIN_OBJECT:
+                return Token.BEGIN_OBJECT;
+            case PEEKED_END_OBJECT:
+                return Token.END_OBJECT;
+            case PEEKED_BEGIN_ARRAY:
+                return Token.BEGIN_ARRAY;
+            case PEEKED_END_ARRAY:
+                return Token.END_ARRAY;
+            case PEEKED_TRUE:
+            case PEEKED_FALSE:
+                return Token.BOOLEAN;
+            case PEEKED_NULL:
+                return Token.NULL;
+            case PEEKED_STRING:
+                return Token.STRING;
+            case PEEKED_NAME:
+                return Token.NAME;
+            case PEEKED_NUMBER:
+                return Token.NUMBER;
+            default:
+                return Token.END_DOCUMENT;
+        }
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        expect(PEEKED_NAME, "NAME");
+        peeked = PEEKED_NONE;
+
+        final long end = indexOfQuoteOrBackslash();
+        if (buffer.getByte(end) == '\\' || end > MAX_CACHED_NAME_LENGTH) {
+            return readQuoted();
+        }
+
+        // look the name up by its bytes, decoding it only the first time it is seen
+        final int length = (int) end;
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + buffer.getByte(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (NAME_TABLE_SIZE - 1);
+        for (int probes = 0; probes < NAME_TABLE_SIZE; probes++) {
+            final byte[] candidate = nameBytes[slot];
+            if (candidate == null) {
+                final byte[] bytes = buffer.readByteArray(length);
+                buffer.skip(1);
+                final String name = new String(bytes, "UTF-8");
+                nameBytes[slot] = bytes;
+                names[slot] = name;
+                return name;
+            }
+            if (bufferStartsWith(candidate, length)) {
+                buffer.skip(length + 1);
+                return names[slot];
+            }
+            slot = (slot + 1) & (NAME_TABLE_SIZE - 1);
+        }
+
+        // the table is full
+        return readQuoted();
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        final int p = peekInternal();
+        final String result;
+        if (p == PEEKED_STRING) {
+            result = readQuoted();
+        } else if (p == PEEKED_NUMBER) {
+            result = buffer.readUtf8(numberLength());
+        } else {
+            throw unexpected("a string");
+        }
+        peeked = PEEKED_NONE;
+        return result;
+    }
+
+    @Override
+    public byte[] nextUtf8String() throws IOException {
+        final int p = peekInternal();
+        final byte[] result;
+        if (p == PEEKED_STRING) {
+            result = readQuotedUtf8();
+        } else if (p == PEEKED_NUMBER) {
+            result = buffer.readByteArray(numberLength());
+        } else {
+            throw unexpected("a string");
+        }
+        peeked = PEEKED_NONE;
+        return result;
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        final int p = peekInternal();
+        if (p != PEEKED_TRUE && p != PEEKED_FALSE) {
+            throw unexpected("a boolean");
+        }
+        peeked = PEEKED_NONE;
+        return p == PEEKED_TRUE;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        expect(PEEKED_NULL, "null");
+        peeked = PEEKED_NONE;
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        final int p = peekInternal();
+        final String text;
+        if (p == PEEKED_NUMBER) {
+            text = buffer.readUtf8(numberLength());
+        } else if (p == PEEKED_STRING) {
+            text = readQuoted();
+        } else {
+            throw unexpected("a double");
+        }
+        peeked = PEEKED_NONE;
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Expected a double but was " + text + " at " + getPath());
+        }
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        final int p = peekInternal();
+        if (p == PEEKED_NUMBER) {
+            // fast path for plain integers, parsed from the bytes without building a String
+            final long length = numberLength();
+            if (length <= 18) {
+                boolean negative = buffer.getByte(0) == '-';
+                long value = 0;
+                int i = negative ? 1 : 0;
+                for (; i < length; i++) {
+                    final byte b = buffer.getByte(i);
+                    if (b < '0' || b > '9') {
+                        break;
+                    }
+                    value = value * 10 + (b - '0');
+                }
+                if (i == length && length > (negative ? 1 : 0)) {
+                    buffer.skip(length);
+                    peeked = PEEKED_NONE;
+                    return negative ? -value : value;
+                }
+            }
+            return parseLong(buffer.readUtf8(length));
+        } else if (p == PEEKED_STRING) {
+            return parseLong(readQuoted());
+        }
+        throw unexpected("a long");
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        final long value = nextLong();
+        if (value != (int) value) {
+            throw new NumberFormatException("Expected an int but was " + value + " at " + getPath());
+        }
+        return (int) value;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            final int p = peekInternal();
+            switch (p) {
+                case PEEKED_BEGIN_ARRAY:
+                    push(EMPTY_ARRAY);
+                    depth++;
+                    break;
+                case PEEKED_BEGIN_OBJECT:
+                    push(EMPTY_OBJECT);
+                    depth++;
+                    break;
+                case PEEKED_END_ARRAY:
+                case PEEKED_END_OBJECT:
+                    stackSize--;
+                    depth--;
+                    break;
+                case PEEKED_STRING:
+                case PEEKED_NAME:
+                    skipQuoted();
+                    break;
+                case PEEKED_NUMBER:
+                    buffer.skip(numberLength());
+                    break;
+                case PEEKED_EOF:
+                    throw new EOFException("End of input at " + getPath());
+                default:
+                    // literals are consumed when peeked
+                    break;
+            }
+            peeked = PEEKED_NONE;
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = PEEKED_NONE;
+        stack[0] = CLOSED;
+        stackSize = 1;
+        source.close();
+    }
+
+    private void expect(int expected, String name) throws IOException {
+        if (peekInternal() != expected) {
+            throw unexpected(name);
+        }
+    }
+
+    private int peekInternal() throws IOException {
+        if (peeked == PEEKED_NONE) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    private int doPeek() throws IOException {
+        final int scope = stack[stackSize - 1];
+        if (scope == EMPTY_ARRAY) {
+            stack[stackSize - 1] = NONEMPTY_ARRAY;
+        } else if (scope == NONEMPTY_ARRAY) {
+            final int c = nextNonWhitespace();
+            buffer.skip(1);
+            if (c == ']') {
+                return PEEKED_END_ARRAY;
+            } else if (c != ',') {
+                throw syntaxError("Unterminated array");
+            }
+        } else if (scope == EMPTY_OBJECT || scope == NONEMPTY_OBJECT) {
+            stack[stackSize - 1] = DANGLING_NAME;
+            if (scope == NONEMPTY_OBJECT) {
+                final int c = nextNonWhitespace();
+                buffer.skip(1);
+                if (c == '}') {
+                    return PEEKED_END_OBJECT;
+                } else if (c != ',') {
+                    throw syntaxError("Unterminated object");
+                }
+            }
+            final int c = nextNonWhitespace();
+            buffer.skip(1);
+            if (c == '"') {
+                return PEEKED_NAME;
+            } else if (c == '}' && scope == EMPTY_OBJECT) {
+                return PEEKED_END_OBJECT;
+            }
+            throw syntaxError("Expected name");
+        } else if (scope == DANGLING_NAME) {
+            stack[stackSize - 1] = NONEMPTY_OBJECT;
+            final int c = nextNonWhitespace();
+            buffer.skip(1);
+            if (c != ':') {
+                throw syntaxError("Expected ':'");
+            }
+        } else if (scope == EMPTY_DOCUMENT) {
+            stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+        } else if (scope == NONEMPTY_DOCUMENT) {
+            if (isExhaustedAfterWhitespace()) {
+                return PEEKED_EOF;
+            }
+            throw syntaxError("Expected end of document");
+        } else if (scope == CLOSED) {
+            throw new IllegalStateException("JsonReader is closed");
+        }
+
+        final int c = nextNonWhitespace();
+        switch (c) {
+            case ']':
+                if (scope == EMPTY_ARRAY) {
+                    buffer.skip(1);
+                    return PEEKED_END_ARRAY;
+                }
+                throw syntaxError("Unexpected value");
+            case '"':
+                buffer.skip(1);
+                return PEEKED_STRING;
+            case '{':
+                buffer.skip(1);
+                return PEEKED_BEGIN_OBJECT;
+            case '[':
+                buffer.skip(1);
+                return PEEKED_BEGIN_ARRAY;
+            case 't':
+                return readLiteral("true", PEEKED_TRUE);
+            case 'f':
+                return readLiteral("false", PEEKED_FALSE);
+            case 'n':
+                return readLiteral("null", PEEKED_NULL);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return PEEKED_NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private int readLiteral(String literal, int peekedType) throws IOException {
+        final int length = literal.length();
+        if (!source.request(length)) {
+            throw syntaxError("Unexpected end of input");
+        }
+        for (int i = 1; i < length; i++) {
+            if (buffer.getByte(i) != literal.charAt(i)) {
+                throw syntaxError("Unexpected value");
+            }
+        }
+        buffer.skip(length);
+        return peekedType;
+    }
+
+    /**
+     * @return the next byte that is not whitespace, without consuming it
+     */
+    private int nextNonWhitespace() throws IOException {
+        while (source.request(1)) {
+            final byte c = buffer.getByte(0);
+            if (c == ' ' || c == '\n' || c == '\t' || c == '\r') {
+                buffer.skip(1);
+            } else {
+                return c;
+            }
+        }
+        throw new EOFException("End of input at " + getPath());
+    }
+
+    private boolean isExhaustedAfterWhitespace() throws IOException {
+        while (source.request(1)) {
+            final byte c = buffer.getByte(0);
+            if (c == ' ' || c == '\n' || c == '\t' || c == '\r') {
+                buffer.skip(1);
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return number of bytes of the number at the beginning of the buffer
+     */
+    private long numberLength() throws IOException {
+        long i = 0;
+        while (source.request(i + 1)) {
+            final byte c = buffer.getByte(i);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private long indexOfQuoteOrBackslash() throws IOException {
+        final long index = source.indexOfElement(QUOTE_OR_BACKSLASH);
+        if (index == -1) {
+            throw syntaxError("Unterminated string");
+        }
+        return index;
+    }
+
+    private boolean bufferStartsWith(byte[] bytes, int length) {
+        if (bytes.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.getByte(i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote has been consumed, including the closing quote.
+     */
+    private String readQuoted() throws IOException {
+        StringBuilder builder = null;
+        while (true) {
+            final long index = indexOfQuoteOrBackslash();
+            if (buffer.getByte(index) == '"') {
+                final String chunk = buffer.readUtf8(index);
+                buffer.skip(1);
+                if (builder == null) {
+                    return chunk;
+                }
+                return builder.append(chunk).toString();
+            }
+            if (builder == null) {
+                builder = new StringBuilder();
+            }
+            builder.append(buffer.readUtf8(index));
+            buffer.skip(1);
+            builder.append(readEscapeCharacter());
+        }
+    }
+
+    /**
+     * Like {@link #readQuoted()}, but returning the bytes of the string, that are only decoded if
+     * it has escape sequences.
+     */
+    private byte[] readQuotedUtf8() throws IOException {
+        final long index = indexOfQuoteOrBackslash();
+        if (buffer.getByte(index) == '"') {
+            final byte[] result = buffer.readByteArray(index);
+            buffer.skip(1);
+            return result;
+        }
+        return readQuoted().getBytes(UTF_8);
+    }
+
+    private void skipQuoted() throws IOException {
+        while (true) {
+            final long index = indexOfQuoteOrBackslash();
+            final byte c = buffer.getByte(index);
+            buffer.skip(index + 1);
+            if (c == '"') {
+                return;
+            }
+            // the escaped character can't end the string, and \\u escapes are only hex digits
+            source.require(1);
+            buffer.skip(1);
+        }
+    }
+
+    private char readEscapeCharacter() throws IOException {
+        if (!source.request(1)) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        final byte escaped = buffer.readByte();
+        switch (escaped) {
+            case 'u':
+                if (!source.request(4)) {
+                    throw new EOFException("Unterminated escape sequence at " + getPath());
+                }
+                char result = 0;
+                for (int i = 0; i < 4; i++) {
+                    final byte c = buffer.readByte();
+                    result <<= 4;
+                    if (c >= '0' && c <= '9') {
+                        result += (c - '0');
+                    } else if (c >= 'a' && c <= 'f') {
+                        result += (c - 'a' + 10);
+                    } else if (c >= 'A' && c <= 'F') {
+                        result += (c - 'A' + 10);
+                    } else {
+                        throw syntaxError("Invalid escape sequence");
+                    }
+                }
+                return result;
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case '"':
+            case '\\':
+            case '/':
+                return (char) escaped;
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    private long parseLong(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            // like android.util.JsonReader, accept numbers like 1.0 or 1e3 with an integral value
+            final double asDouble;
+            try {
+                asDouble = Double.parseDouble(text);
+            } catch (NumberFormatException ignored) {
+                throw new NumberFormatException("Expected a long but was " + text + " at " + getPath());
+            }
+            final long asLong = (long) asDouble;
+            if (asLong != asDouble) {
+                throw new NumberFormatException("Expected a long but was " + text + " at " + getPath());
+            }
+            return asLong;
+        } finally {
+            peeked = PEEKED_NONE;
+        }
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private IllegalStateException unexpected(String expected) throws IOException {
+        return new IllegalStateException("Expected " + expected + " but was " + peek() + " at " + getPath());
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at " + getPath());
+    }
+
+    private String getPath() {
+        return "depth " + (stackSize - 1);
+    }
+}
@@ -1,31 +1,34 @@
 package com.mendeley.sdk.request.endpoint;
 
 import android.net.Uri;
-import android.util.JsonReader;
 
 import com.mendeley.sdk.ClientCredentials;
 import com.mendeley.sdk.AuthTokenManager;
 import com.mendeley.sdk.Request;
 import com.mendeley.sdk.model.Annotation;
 import com.mendeley.sdk.request.DeleteAuthorizedRequest;
+import com.mendeley.sdk.request.FieldProjection;
 import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.JsonRequestBody;
+import com.mendeley.sdk.request.JsonTokenReader;
+import com.mendeley.sdk.request.ParseOptions;
 import com.mendeley.sdk.request.PatchAuthorizedRequest;
 import com.mendeley.sdk.request.PostAuthorizedRequest;
+import com.mendeley.sdk.request.StreamingGetAuthorizedRequest;
+import com.mendeley.sdk.request.StreamingJsonWriter;
+import com.mendeley.sdk.request.StringPool;
 import com.mendeley.sdk.util.DateUtils;
 
 import org.json.JSONException;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.text.ParseException;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
-import okhttp3.MediaType;
 import okhttp3.RequestBody;
 
 import static com.mendeley.sdk.Request.MENDELEY_API_BASE_URL;
@@ -46,7 +49,7 @@ public class AnnotationsEndpoint {
 
         @Override
         protected Annotation manageResponse(InputStream is) throws JSONException, IOException, ParseException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.annotationFromJson(reader);
         }
 
@@ -59,6 +62,10 @@ public class AnnotationsEndpoint {
 
     public static class GetAnnotationsRequest extends GetAuthorizedRequest<List<Annotation>> {
 
+        private FieldProjection fieldProjection;
+        private boolean lazyText;
+        private StringPool stringPool;
+
         private static Uri getAnnotationsUrl(AnnotationRequestParameters params) {
             final Uri uri = Uri.parse(ANNOTATIONS_BASE_URL);
             return params != null ? params.appendToUi(uri) : uri;
@@ -74,8 +81,60 @@ public class AnnotationsEndpoint {
 
         @Override
         protected List<Annotation> manageResponse(InputStream is) throws JSONException, IOException, ParseException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
-            return JsonParser.annotationsFromJson(reader);
+            final JsonTokenReader reader = newJsonReader(is);
+            return JsonParser.annotationsFromJson(reader, new ParseOptions.Builder()
+                    .setProjection(fieldProjection)
+                    .setLazyText(lazyText)
+                    .setStringPool(stringPool)
+                    .build());
+        }
+
+        /**
+         * Restricts the properties of the parsed {@link Annotation}s to the passed fields, skipping the
+         * rest of the JSON without decoding it. Useful when only a few properties are needed,
+         * e.g. to compare ids and modification dates against local data.
+         *
+         * @param fieldProjection the fields to decode, or null to decode all of them
+         */
+        public void setFieldProjection(FieldProjection fieldProjection) {
+            this.fieldProjection = fieldProjection;
+        }
+
+        /**
+         * Keeps the text of the parsed {@link Annotation}s as UTF-8 bytes that are only
+         * decoded when first read through the getters of {@link Annotation}, instead of decoding them
+         * for every item.
+         * <p/>
+         * Their deprecated public fields are left null, so the results of a lazy request must only be
+         * read through {@link Annotation#getText()}. Keep lazy mode off for requests whose
+         * {@link GetAuthorizedRequest#setResponseCache response cache}
+         * is shared with code still reading those fields: lazy and eager responses are cached
+         * under different keys, but the lazy results handed out from the cache have the same null fields.
+         *
+         * @param lazyText whether to decode the long text fields lazily
+         */
+        public void setLazyTextFields(boolean lazyText) {
+            this.lazyText = lazyText;
+        }
+
+        /**
+         * Deduplicates the values that repeat across the parsed {@link Annotation}s, like their profile
+         * ids, with the passed pool. Pass a new pool to deduplicate within this response only, or
+         * share one between requests to deduplicate across responses.
+         *
+         * @param stringPool the pool, or null to not deduplicate
+         */
+        public void setStringPool(StringPool stringPool) {
+            this.stringPool = stringPool;
+        }
+
+        @Override
+        protected String getResponseVariant() {
+            final String projection = fieldProjection != null ? fieldProjection.toString() : null;
+            if (!lazyText) {
+                return projection;
+            }
+            return projection != null ? projection + " lazy-text" : "lazy-text";
         }
 
         @Override
@@ -95,12 +154,17 @@ public class AnnotationsEndpoint {
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(ANNOTATIONS_CONTENT_TYPE), JsonParser.annotationToJson(annotation).toString());
+            return new JsonRequestBody(ANNOTATIONS_CONTENT_TYPE, new JsonRequestBody.Content() {
+                @Override
+                public void writeTo(StreamingJsonWriter writer) throws IOException {
+                    JsonParser.writeAnnotation(writer, annotation);
+                }
+            });
         }
 
         @Override
         protected Annotation manageResponse(InputStream is) throws Exception {
-            final JsonReader reader = new JsonReader(new InputStreamReader(is));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.annotationFromJson(reader);
         }
 
@@ -112,6 +176,31 @@ public class AnnotationsEndpoint {
 
     }
 
+    /**
+     * Streaming variant of {@link GetAnnotationsRequest}, pushing each {@link Annotation} to the consumer as
+     * soon as it is parsed instead of returning the whole page.
+     */
+    public static class StreamAnnotationsRequest extends StreamingGetAuthorizedRequest<Annotation> {
+        public StreamAnnotationsRequest(Uri url, ItemConsumer<Annotation> consumer, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
+            super(url, consumer, authTokenManager, clientCredentials);
+        }
+
+        public StreamAnnotationsRequest(AnnotationRequestParameters params, ItemConsumer<Annotation> consumer, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
+            this(GetAnnotationsRequest.getAnnotationsUrl(params), consumer, authTokenManager, clientCredentials);
+        }
+
+        @Override
+        protected Annotation parseItem(JsonTokenReader reader) throws Exception {
+            return JsonParser.annotationFromJson(reader);
+        }
+
+        @Override
+        protected void appendHeaders(Map<String, String> headers) {
+            headers.put("Content-type", ANNOTATIONS_CONTENT_TYPE);
+            headers.put("Accept", ANNOTATIONS_CONTENT_TYPE);
+        }
+    }
+
     public static class PatchAnnotationRequest extends PatchAuthorizedRequest<Annotation> {
         private final Annotation annotation;
 
@@ -126,12 +215,17 @@ public class AnnotationsEndpoint {
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(ANNOTATIONS_CONTENT_TYPE), JsonParser.annotationToJson(annotation).toString());
+            return new JsonRequestBody(ANNOTATIONS_CONTENT_TYPE, new JsonRequestBody.Content() {
+                @Override
+                public void writeTo(StreamingJsonWriter writer) throws IOException {
+                    JsonParser.writeAnnotation(writer, annotation);
+                }
+            });
         }
 
         @Override
         protected Annotation manageResponse(InputStream is) throws Exception {
-            final JsonReader reader = new JsonReader(new InputStreamReader(is));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.annotationFromJson(reader);
         }
 
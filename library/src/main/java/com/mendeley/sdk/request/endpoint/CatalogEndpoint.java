@@ -1,7 +1,6 @@
 package com.mendeley.sdk.request.endpoint;
 
 import android.net.Uri;
-import android.util.JsonReader;
 
 import com.mendeley.sdk.AuthTokenManager;
 import com.mendeley.sdk.ClientCredentials;
@@ -11,15 +10,14 @@ import com.mendeley.sdk.model.Folder;
 import com.mendeley.sdk.request.DeleteAuthorizedRequest;
 import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.JsonTokenReader;
 import com.mendeley.sdk.request.PatchAuthorizedRequest;
 import com.mendeley.sdk.request.PostAuthorizedRequest;
 
 import org.json.JSONException;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.text.ParseException;
 import java.util.List;
 import java.util.Map;
@@ -50,7 +48,7 @@ public class CatalogEndpoint {
 
         @Override
         protected List<Document> manageResponse(InputStream is) throws JSONException, IOException, ParseException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.documentsFromJson(reader);
         }
 
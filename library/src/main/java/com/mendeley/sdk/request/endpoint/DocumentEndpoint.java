@@ -1,25 +1,29 @@
 package com.mendeley.sdk.request.endpoint;
 
 import android.net.Uri;
-import android.util.JsonReader;
 
 import com.mendeley.sdk.ClientCredentials;
 import com.mendeley.sdk.AuthTokenManager;
 import com.mendeley.sdk.Request;
 import com.mendeley.sdk.model.Document;
 import com.mendeley.sdk.request.DeleteAuthorizedRequest;
+import com.mendeley.sdk.request.FieldProjection;
 import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.JsonRequestBody;
+import com.mendeley.sdk.request.JsonTokenReader;
+import com.mendeley.sdk.request.ParseOptions;
 import com.mendeley.sdk.request.PatchAuthorizedRequest;
 import com.mendeley.sdk.request.PostAuthorizedRequest;
+import com.mendeley.sdk.request.StreamingGetAuthorizedRequest;
+import com.mendeley.sdk.request.StreamingJsonWriter;
+import com.mendeley.sdk.request.StringPool;
 import com.mendeley.sdk.util.DateUtils;
 
 import org.json.JSONException;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.text.ParseException;
 import java.util.Date;
 import java.util.List;
@@ -41,6 +45,10 @@ public class DocumentEndpoint {
 
 
     public static class GetDocumentsRequest extends GetAuthorizedRequest<List<Document>> {
+        private FieldProjection fieldProjection;
+        private boolean lazyText;
+        private StringPool stringPool;
+
         public GetDocumentsRequest(Uri url, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
             super(url, authTokenManager, clientCredentials);
         }
@@ -51,8 +59,61 @@ public class DocumentEndpoint {
 
         @Override
         protected List<Document> manageResponse(InputStream is) throws JSONException, IOException, ParseException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
-            return JsonParser.documentsFromJson(reader);
+            final JsonTokenReader reader = newJsonReader(is);
+            return JsonParser.documentsFromJson(reader, new ParseOptions.Builder()
+                    .setProjection(fieldProjection)
+                    .setLazyText(lazyText)
+                    .setStringPool(stringPool)
+                    .build());
+        }
+
+        /**
+         * Restricts the properties of the parsed {@link Document}s to the passed fields, skipping the
+         * rest of the JSON without decoding it. Useful when only a few properties are needed,
+         * e.g. to compare ids and modification dates against local data.
+         *
+         * @param fieldProjection the fields to decode, or null to decode all of them
+         */
+        public void setFieldProjection(FieldProjection fieldProjection) {
+            this.fieldProjection = fieldProjection;
+        }
+
+        /**
+         * Keeps the abstract, notes and client data of the parsed {@link Document}s as UTF-8 bytes that are only
+         * decoded when first read through the getters of {@link Document}, instead of decoding them
+         * for every item.
+         * <p/>
+         * Their deprecated public fields are left null, so the results of a lazy request must only be
+         * read through {@link Document#getAbstractString()}, {@link Document#getNotes()} and
+         * {@link Document#getClientData()}. Keep lazy mode off for requests whose
+         * {@link GetAuthorizedRequest#setResponseCache response cache}
+         * is shared with code still reading those fields: lazy and eager responses are cached
+         * under different keys, but the lazy results handed out from the cache have the same null fields.
+         *
+         * @param lazyText whether to decode the long text fields lazily
+         */
+        public void setLazyTextFields(boolean lazyText) {
+            this.lazyText = lazyText;
+        }
+
+        /**
+         * Deduplicates the values that repeat across the parsed {@link Document}s, like their profile
+         * ids, with the passed pool. Pass a new pool to deduplicate within this response only, or
+         * share one between requests to deduplicate across responses.
+         *
+         * @param stringPool the pool, or null to not deduplicate
+         */
+        public void setStringPool(StringPool stringPool) {
+            this.stringPool = stringPool;
+        }
+
+        @Override
+        protected String getResponseVariant() {
+            final String projection = fieldProjection != null ? fieldProjection.toString() : null;
+            if (!lazyText) {
+                return projection;
+            }
+            return projection != null ? projection + " lazy-text" : "lazy-text";
         }
 
         @Override
@@ -62,6 +123,31 @@ public class DocumentEndpoint {
         }
     }
 
+    /**
+     * Streaming variant of {@link GetDocumentsRequest}, pushing each {@link Document} to the consumer as
+     * soon as it is parsed instead of returning the whole page.
+     */
+    public static class StreamDocumentsRequest extends StreamingGetAuthorizedRequest<Document> {
+        public StreamDocumentsRequest(Uri url, ItemConsumer<Document> consumer, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
+            super(url, consumer, authTokenManager, clientCredentials);
+        }
+
+        public StreamDocumentsRequest(DocumentEndpoint.DocumentRequestParameters params, ItemConsumer<Document> consumer, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
+            this(params != null ? params.appendToUi(Uri.parse(DOCUMENTS_BASE_URL)) : Uri.parse(DOCUMENTS_BASE_URL), consumer, authTokenManager, clientCredentials);
+        }
+
+        @Override
+        protected Document parseItem(JsonTokenReader reader) throws Exception {
+            return JsonParser.documentFromJson(reader);
+        }
+
+        @Override
+        protected void appendHeaders(Map<String, String> headers) {
+            headers.put("Content-type", DOCUMENTS_CONTENT_TYPE);
+            headers.put("Accept", DOCUMENTS_CONTENT_TYPE);
+        }
+    }
+
     public static class GetDocumentRequest extends GetAuthorizedRequest<Document> {
 
         private static Uri getGetDocumentUrl(String documentId, DocumentRequestParameters.View view) {
@@ -82,7 +168,7 @@ public class DocumentEndpoint {
 
         @Override
         protected Document manageResponse(InputStream is) throws JSONException, IOException, ParseException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.documentFromJson(reader);
         }
 
@@ -104,7 +190,7 @@ public class DocumentEndpoint {
 
         @Override
         protected Document manageResponse(InputStream is) throws Exception {
-            final JsonReader reader = new JsonReader(new InputStreamReader(is));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.documentFromJson(reader);
         }
 
@@ -116,7 +202,12 @@ public class DocumentEndpoint {
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(DOCUMENTS_CONTENT_TYPE), JsonParser.documentToJson(doc).toString());
+            return new JsonRequestBody(DOCUMENTS_CONTENT_TYPE, new JsonRequestBody.Content() {
+                @Override
+                public void writeTo(StreamingJsonWriter writer) throws IOException {
+                    JsonParser.writeDocument(writer, doc);
+                }
+            });
         }
     }
 
@@ -131,12 +222,17 @@ public class DocumentEndpoint {
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(DOCUMENTS_CONTENT_TYPE), JsonParser.documentToJson(document).toString());
+            return new JsonRequestBody(DOCUMENTS_CONTENT_TYPE, new JsonRequestBody.Content() {
+                @Override
+                public void writeTo(StreamingJsonWriter writer) throws IOException {
+                    JsonParser.writeDocument(writer, document);
+                }
+            });
         }
 
         @Override
         protected Document manageResponse(InputStream is) throws Exception {
-            final JsonReader reader = new JsonReader(new InputStreamReader(is));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.documentFromJson(reader);
         }
 
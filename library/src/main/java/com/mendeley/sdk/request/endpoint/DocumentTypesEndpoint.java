@@ -1,20 +1,18 @@
 package com.mendeley.sdk.request.endpoint;
 
 import android.net.Uri;
-import android.util.JsonReader;
 
 import com.mendeley.sdk.AuthTokenManager;
 import com.mendeley.sdk.ClientCredentials;
 import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.JsonTokenReader;
 import com.mendeley.sdk.Request;
 
 import org.json.JSONException;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Map;
 
 import static com.mendeley.sdk.Request.MENDELEY_API_BASE_URL;
@@ -34,7 +32,7 @@ public class DocumentTypesEndpoint {
         }
 
         protected Map<String, String> manageResponse(InputStream is) throws JSONException, IOException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.stringsMapFromJson(reader);
         }
 
@@ -1,33 +1,40 @@
 package com.mendeley.sdk.request.endpoint;
 
 import android.net.Uri;
-import android.util.JsonReader;
 
 import com.mendeley.sdk.ClientCredentials;
 import com.mendeley.sdk.AuthTokenManager;
 import com.mendeley.sdk.Request;
+import com.mendeley.sdk.RequestScheduler;
 import com.mendeley.sdk.exceptions.FileDownloadException;
+import com.mendeley.sdk.exceptions.HttpResponseException;
+import com.mendeley.sdk.exceptions.MendeleyException;
 import com.mendeley.sdk.model.File;
 import com.mendeley.sdk.request.CancellableInputStream;
 import com.mendeley.sdk.request.DeleteAuthorizedRequest;
+import com.mendeley.sdk.request.FieldProjection;
 import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.JsonTokenReader;
+import com.mendeley.sdk.request.ParseOptions;
 import com.mendeley.sdk.request.PostAuthorizedRequest;
+import com.mendeley.sdk.request.StreamingGetAuthorizedRequest;
 import com.mendeley.sdk.util.DateUtils;
 
 import org.json.JSONException;
 
-import java.io.BufferedInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
 
 import static com.mendeley.sdk.Request.MENDELEY_API_BASE_URL;
 
@@ -41,6 +48,8 @@ public class FilesEndpoint {
     public static final String FILES_CONTENT_TYPE = "application/vnd.mendeley-file.1+json";
 
     public static class GetFilesRequest extends GetAuthorizedRequest<List<File>> {
+        private FieldProjection fieldProjection;
+
         private static Uri getGetFilesUrl(FileRequestParameters params) {
             final Uri.Builder bld = Uri.parse(FILES_BASE_URL).buildUpon();
             if (params == null) {
@@ -59,8 +68,49 @@ public class FilesEndpoint {
 
         @Override
         protected List<File> manageResponse(InputStream is) throws JSONException, IOException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
-            return JsonParser.filesFromJson(reader);
+            final JsonTokenReader reader = newJsonReader(is);
+            return JsonParser.filesFromJson(reader, new ParseOptions.Builder().setProjection(fieldProjection).build());
+        }
+
+        /**
+         * Restricts the properties of the parsed {@link File}s to the passed fields, skipping the
+         * rest of the JSON without decoding it. Useful when only a few properties are needed,
+         * e.g. to compare ids and modification dates against local data.
+         *
+         * @param fieldProjection the fields to decode, or null to decode all of them
+         */
+        public void setFieldProjection(FieldProjection fieldProjection) {
+            this.fieldProjection = fieldProjection;
+        }
+
+        @Override
+        protected String getResponseVariant() {
+            return fieldProjection != null ? fieldProjection.toString() : null;
+        }
+
+        @Override
+        protected void appendHeaders(Map<String, String> headers) {
+            headers.put("Content-type", FILES_CONTENT_TYPE);
+            headers.put("Accept", FILES_CONTENT_TYPE);
+        }
+    }
+
+    /**
+     * Streaming variant of {@link GetFilesRequest}, pushing each {@link File} to the consumer as
+     * soon as it is parsed instead of returning the whole page.
+     */
+    public static class StreamFilesRequest extends StreamingGetAuthorizedRequest<File> {
+        public StreamFilesRequest(Uri url, ItemConsumer<File> consumer, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
+            super(url, consumer, authTokenManager, clientCredentials);
+        }
+
+        public StreamFilesRequest(FileRequestParameters params, ItemConsumer<File> consumer, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
+            this(GetFilesRequest.getGetFilesUrl(params), consumer, authTokenManager, clientCredentials);
+        }
+
+        @Override
+        protected File parseItem(JsonTokenReader reader) throws Exception {
+            return JsonParser.fileFromJson(reader);
         }
 
         @Override
@@ -71,54 +121,237 @@ public class FilesEndpoint {
     }
 
     /**
-     * {@link Request} to download the binary of a file (usually the pdf file)
+     * Downloads the binary of a file into the target file.
+     *
+     * <p/>
+     *
+     * The binary is written to a {@code .part} file next to the target, renamed to the target once
+     * complete. When the download is interrupted and the server sent a validator (a strong
+     * {@code ETag} or a {@code Last-Modified} date), the partial file is kept, and the retries of
+     * this request, or later requests for the same target, resume it: they ask only for the
+     * missing bytes with a {@code Range} header, conditional on the validator with
+     * {@code If-Range}. If the file has changed, the server ignores the range or it rejects it
+     * with {@code 416 Range Not Satisfiable}, the whole file is downloaded again.
      */
     public static class GetFileBinaryRequest extends GetAuthorizedRequest<Long> {
 
         private static String filesUrl = MENDELEY_API_BASE_URL + "files";
 
-        private static final String PARTIALLY_DOWNLOADED_EXTENSION = ".part";
+        static final String PARTIALLY_DOWNLOADED_EXTENSION = ".part";
+        // holds the validator of the partially downloaded file
+        static final String VALIDATOR_EXTENSION = ".validator";
+
         private final String fileId;
         private final java.io.File targetFile;
 
+        private BytesListener bytesListener;
+
+        // whether the attempt in progress asked for the rest of a partial download
+        private boolean resumeRequested;
+
+        // status code and headers of the response being read
+        private int responseCode;
+        private Map<String, List<String>> responseHeaders;
+
         public GetFileBinaryRequest(String fileId, java.io.File targetFile, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
             super(Uri.parse(filesUrl + "/" + fileId), authTokenManager, clientCredentials);
             this.fileId = fileId;
             this.targetFile = targetFile;
+            setLane(RequestScheduler.Lane.BULK_TRANSFER);
         }
 
         @Override
-        protected Long manageResponse(InputStream is) throws IOException, FileDownloadException {
-            final java.io.File tempFile = new java.io.File(targetFile.getParent(), targetFile.getName() + PARTIALLY_DOWNLOADED_EXTENSION);
+        protected void appendHeaders(Map<String, String> headers) {
+            super.appendHeaders(headers);
+            final long partLength = getTempFile().length();
+            final String validator = readValidator();
+            resumeRequested = partLength > 0 && validator != null;
+            if (resumeRequested) {
+                headers.put("Range", "bytes=" + partLength + "-");
+                headers.put("If-Range", validator);
+            }
+        }
 
-            try {
-                long total = 0;
-                FileOutputStream fileOutputStream = new FileOutputStream(tempFile);
+        @Override
+        protected boolean shouldRestart(MendeleyException error) {
+            // the partial download was rejected and deleted, download the whole file instead
+            return resumeRequested
+                    && error instanceof HttpResponseException
+                    && ((HttpResponseException) error).httpReturnCode == 416;
+        }
 
-                byte data[] = new byte[1024 * 16];
-                int count;
+        @Override
+        protected void manageResponseHeaders(int responseCode, Map<String, List<String>> headers) {
+            this.responseCode = responseCode;
+            this.responseHeaders = headers;
+            if (responseCode == 416) {
+                // the partial file doesn't match the one in the server any more
+                deletePartialDownload();
+            }
+        }
 
-                while ((count = is.read(data)) != -1) {
-                    total += count;
-                    fileOutputStream.write(data, 0, count);
+        @Override
+        protected Long manageResponse(InputStream is) throws IOException, FileDownloadException {
+            final java.io.File tempFile = getTempFile();
+
+            final boolean resuming = responseCode == 206;
+            if (resuming) {
+                final long start = parseRangeStart(getHeader("Content-Range"));
+                if (start != tempFile.length()) {
+                    deletePartialDownload();
+                    throw new IOException("Unexpected range " + getHeader("Content-Range") + " resuming " + tempFile.length() + " bytes");
+                }
+            } else {
+                // the server sent the whole file
+                writeValidator(getValidator());
+            }
+
+            try {
+                final FileOutputStream fileOutputStream = new FileOutputStream(tempFile, resuming);
+                try {
+                    byte data[] = new byte[1024 * 16];
+                    int count;
+
+                    while ((count = is.read(data)) != -1) {
+                        fileOutputStream.write(data, 0, count);
+                        if (bytesListener != null) {
+                            bytesListener.onBytesWritten(count);
+                        }
+                    }
+                } finally {
+                    fileOutputStream.close();
                 }
 
                 if (!tempFile.renameTo(targetFile)) {
                     throw new FileDownloadException("Cannot rename downloaded file", fileId);
-                } else {
-                    return total;
                 }
-            } catch (Exception e) {
-                if (tempFile.exists()) {
-                    tempFile.delete();
+                getValidatorFile().delete();
+                return targetFile.length();
+            } catch (FileDownloadException e) {
+                deletePartialDownload();
+                throw e;
+            } catch (IOException e) {
+                // keep the partial file only if it can be resumed
+                if (readValidator() == null) {
+                    deletePartialDownload();
                 }
                 throw e;
             }
         }
 
+        @Override
+        protected boolean isResponseCacheable() {
+            return false;
+        }
+
         public String getFileId() {
             return fileId;
         }
+
+        /**
+         * Sets a listener notified of the number of bytes written to the file as they are
+         * downloaded, to account for the throughput of the download.
+         */
+        public void setBytesListener(BytesListener bytesListener) {
+            this.bytesListener = bytesListener;
+        }
+
+        private java.io.File getTempFile() {
+            return new java.io.File(targetFile.getParent(), targetFile.getName() + PARTIALLY_DOWNLOADED_EXTENSION);
+        }
+
+        private java.io.File getValidatorFile() {
+            return new java.io.File(targetFile.getParent(), targetFile.getName() + PARTIALLY_DOWNLOADED_EXTENSION + VALIDATOR_EXTENSION);
+        }
+
+        private void deletePartialDownload() {
+            getTempFile().delete();
+            getValidatorFile().delete();
+        }
+
+        /**
+         * @return the validator of the response usable with If-Range, or null if there is none
+         */
+        private String getValidator() {
+            final String etag = getHeader("ETag");
+            // weak validators can't be used with If-Range
+            if (etag != null && !etag.startsWith("W/")) {
+                return etag;
+            }
+            return getHeader("Last-Modified");
+        }
+
+        private String getHeader(String name) {
+            for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+                if (name.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                    return header.getValue().get(0);
+                }
+            }
+            return null;
+        }
+
+        private String readValidator() {
+            final java.io.File validatorFile = getValidatorFile();
+            if (!validatorFile.exists()) {
+                return null;
+            }
+            try {
+                final BufferedSource source = Okio.buffer(Okio.source(validatorFile));
+                try {
+                    final String validator = source.readUtf8();
+                    return validator.isEmpty() ? null : validator;
+                } finally {
+                    source.close();
+                }
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        private void writeValidator(String validator) throws IOException {
+            final java.io.File validatorFile = getValidatorFile();
+            if (validator == null) {
+                validatorFile.delete();
+                return;
+            }
+            final BufferedSink sink = Okio.buffer(Okio.sink(validatorFile));
+            try {
+                sink.writeUtf8(validator);
+            } finally {
+                sink.close();
+            }
+        }
+
+        /**
+         * @param contentRange value of a Content-Range header, like "bytes 100-199/200"
+         * @return position of the first byte of the range, or -1 if it can't be parsed
+         */
+        static long parseRangeStart(String contentRange) {
+            if (contentRange == null || !contentRange.startsWith("bytes ")) {
+                return -1;
+            }
+            final int dash = contentRange.indexOf('-');
+            if (dash < 0) {
+                return -1;
+            }
+            try {
+                return Long.parseLong(contentRange.substring("bytes ".length(), dash).trim());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        /**
+         * To be implemented by classes that want to count the bytes being downloaded.
+         */
+        public interface BytesListener {
+            /**
+             * Called in the thread running the request after each chunk is written to the file.
+             *
+             * @param count number of bytes just written
+             */
+            void onBytesWritten(long count);
+        }
     }
 
     public static class PostFileWithBinaryRequest extends PostAuthorizedRequest<File> {
@@ -135,6 +368,7 @@ public class FilesEndpoint {
             this.documentId = documentId;
             this.fileName = fileName;
             this.inputStream = inputStream;
+            setLane(RequestScheduler.Lane.BULK_TRANSFER);
         }
 
         @Override
@@ -157,7 +391,7 @@ public class FilesEndpoint {
 
         @Override
         protected File manageResponse(InputStream is) throws Exception {
-            final JsonReader reader = new JsonReader(new InputStreamReader(is));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.fileFromJson(reader);
         }
 
@@ -1,7 +1,6 @@
 package com.mendeley.sdk.request.endpoint;
 
 import android.net.Uri;
-import android.util.JsonReader;
 
 import com.mendeley.sdk.ClientCredentials;
 import com.mendeley.sdk.AuthTokenManager;
@@ -10,20 +9,21 @@ import com.mendeley.sdk.model.Folder;
 import com.mendeley.sdk.request.DeleteAuthorizedRequest;
 import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.JsonRequestBody;
+import com.mendeley.sdk.request.JsonTokenReader;
 import com.mendeley.sdk.request.PatchAuthorizedRequest;
 import com.mendeley.sdk.request.PostAuthorizedRequest;
+import com.mendeley.sdk.request.StreamingGetAuthorizedRequest;
+import com.mendeley.sdk.request.StreamingJsonWriter;
 
 import org.json.JSONException;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.text.ParseException;
 import java.util.List;
 import java.util.Map;
 
-import okhttp3.MediaType;
 import okhttp3.RequestBody;
 
 import static com.mendeley.sdk.Request.MENDELEY_API_BASE_URL;
@@ -53,7 +53,7 @@ public class FoldersEndpoint {
 
         @Override
         protected List<Folder> manageResponse(InputStream is) throws JSONException, IOException, ParseException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.foldersFromJson(reader);
         }
 
@@ -64,6 +64,31 @@ public class FoldersEndpoint {
         }
     }
 
+    /**
+     * Streaming variant of {@link GetFoldersRequest}, pushing each {@link Folder} to the consumer as
+     * soon as it is parsed instead of returning the whole page.
+     */
+    public static class StreamFoldersRequest extends StreamingGetAuthorizedRequest<Folder> {
+        public StreamFoldersRequest(Uri url, ItemConsumer<Folder> consumer, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
+            super(url, consumer, authTokenManager, clientCredentials);
+        }
+
+        public StreamFoldersRequest(FolderRequestParameters params, ItemConsumer<Folder> consumer, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
+            this(GetFoldersRequest.getGetFoldersUrl(params), consumer, authTokenManager, clientCredentials);
+        }
+
+        @Override
+        protected Folder parseItem(JsonTokenReader reader) throws Exception {
+            return JsonParser.folderFromJson(reader);
+        }
+
+        @Override
+        protected void appendHeaders(Map<String, String> headers) {
+            headers.put("Content-type", FOLDER_CONTENT_TYPE);
+            headers.put("Accept", FOLDER_CONTENT_TYPE);
+        }
+    }
+
     public static class GetFolderRequest extends GetAuthorizedRequest<Folder> {
         public GetFolderRequest(String folderId, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
             super(Uri.parse(FOLDERS_BASE_URL + "/" + folderId), authTokenManager, clientCredentials);
@@ -71,7 +96,7 @@ public class FoldersEndpoint {
 
         @Override
         protected Folder manageResponse(InputStream is) throws JSONException, IOException, ParseException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.folderFromJson(reader);
         }
 
@@ -92,12 +117,17 @@ public class FoldersEndpoint {
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(FOLDER_CONTENT_TYPE), JsonParser.folderToJson(folder).toString());
+            return new JsonRequestBody(FOLDER_CONTENT_TYPE, new JsonRequestBody.Content() {
+                @Override
+                public void writeTo(StreamingJsonWriter writer) throws IOException {
+                    JsonParser.writeFolder(writer, folder);
+                }
+            });
         }
 
         @Override
         protected Folder manageResponse(InputStream is) throws Exception {
-            final JsonReader reader = new JsonReader(new InputStreamReader(is));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.folderFromJson(reader);
         }
 
@@ -118,12 +148,17 @@ public class FoldersEndpoint {
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(FOLDER_CONTENT_TYPE), JsonParser.folderToJson(folder).toString());
+            return new JsonRequestBody(FOLDER_CONTENT_TYPE, new JsonRequestBody.Content() {
+                @Override
+                public void writeTo(StreamingJsonWriter writer) throws IOException {
+                    JsonParser.writeFolder(writer, folder);
+                }
+            });
         }
 
         @Override
         protected Folder manageResponse(InputStream is) throws Exception {
-            final JsonReader reader = new JsonReader(new InputStreamReader(is));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.folderFromJson(reader);
         }
 
@@ -148,7 +183,12 @@ public class FoldersEndpoint {
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(DocumentEndpoint.DOCUMENTS_CONTENT_TYPE), JsonParser.documentIdToJson(documentId).toString());
+            return new JsonRequestBody(DocumentEndpoint.DOCUMENTS_CONTENT_TYPE, new JsonRequestBody.Content() {
+                @Override
+                public void writeTo(StreamingJsonWriter writer) throws IOException {
+                    JsonParser.writeDocumentId(writer, documentId);
+                }
+            });
         }
 
     }
@@ -170,7 +210,7 @@ public class FoldersEndpoint {
 
         @Override
         protected List<String> manageResponse(InputStream is) throws JSONException, IOException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.documentsIdsFromJson(reader);
         }
 
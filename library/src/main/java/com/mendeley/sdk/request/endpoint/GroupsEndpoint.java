@@ -1,7 +1,6 @@
 package com.mendeley.sdk.request.endpoint;
 
 import android.net.Uri;
-import android.util.JsonReader;
 
 import com.mendeley.sdk.AuthTokenManager;
 import com.mendeley.sdk.ClientCredentials;
@@ -9,14 +8,13 @@ import com.mendeley.sdk.model.Group;
 import com.mendeley.sdk.model.UserRole;
 import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.JsonTokenReader;
 import com.mendeley.sdk.Request;
 
 import org.json.JSONException;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.text.ParseException;
 import java.util.List;
 import java.util.Map;
@@ -51,7 +49,7 @@ public class GroupsEndpoint {
 
         @Override
         protected List<Group> manageResponse(InputStream is) throws JSONException, IOException, ParseException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.groupsFromJson(reader);
         }
 
@@ -69,7 +67,7 @@ public class GroupsEndpoint {
 
         @Override
         protected Group manageResponse(InputStream is) throws JSONException, IOException, ParseException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.groupFromJson(reader);
         }
 
@@ -99,7 +97,7 @@ public class GroupsEndpoint {
 
         @Override
         protected List<UserRole> manageResponse(InputStream is) throws JSONException, IOException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.groupUserRolesFromJson(reader);
         }
 
@@ -19,7 +19,6 @@ import java.util.List;
 import java.util.Map;
 
 import okhttp3.FormBody;
-import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 
@@ -73,7 +72,7 @@ public class OAuthTokenEndpoint {
                         .post(postBody)
                         .build();
 
-                final okhttp3.Response okHttpResponse = new OkHttpClient().newCall(okHttpRequest).execute();
+                final okhttp3.Response okHttpResponse = getHttpClient().newCall(okHttpRequest).execute();
 
                 final int responseCode = okHttpResponse.code();
                 responseBody = okHttpResponse.body();
@@ -2,7 +2,6 @@ package com.mendeley.sdk.request.endpoint;
 
 import android.net.Uri;
 import android.text.TextUtils;
-import android.util.JsonReader;
 
 import com.mendeley.sdk.AuthTokenManager;
 import com.mendeley.sdk.ClientCredentials;
@@ -11,19 +10,19 @@ import com.mendeley.sdk.model.Profile;
 import com.mendeley.sdk.request.DeleteAuthorizedRequest;
 import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.JsonRequestBody;
+import com.mendeley.sdk.request.JsonTokenReader;
 import com.mendeley.sdk.request.PatchAuthorizedRequest;
 import com.mendeley.sdk.request.PostAuthorizedRequest;
+import com.mendeley.sdk.request.StreamingJsonWriter;
 
 import org.json.JSONException;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.text.ParseException;
 import java.util.Map;
 
-import okhttp3.MediaType;
 import okhttp3.RequestBody;
 
 import static com.mendeley.sdk.Request.MENDELEY_API_BASE_URL;
@@ -48,7 +47,7 @@ public class ProfilesEndpoint {
 
         @Override
         protected Profile manageResponse(InputStream is) throws JSONException, IOException, ParseException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.profileFromJson(reader);
         }
 
@@ -77,12 +76,17 @@ public class ProfilesEndpoint {
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(PROFILE_NEW_CONTENT_TYPE), JsonParser.profileToJson(profile, password).toString());
+            return new JsonRequestBody(PROFILE_NEW_CONTENT_TYPE, new JsonRequestBody.Content() {
+                @Override
+                public void writeTo(StreamingJsonWriter writer) throws IOException {
+                    JsonParser.writeProfile(writer, profile, password);
+                }
+            });
         }
 
         @Override
         protected Profile manageResponse(InputStream is) throws Exception {
-            final JsonReader reader = new JsonReader(new InputStreamReader(is));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.profileFromJson(reader);
         }
     }
@@ -100,12 +104,17 @@ public class ProfilesEndpoint {
             if (!TextUtils.isEmpty(profile.email)) {
                 throw new IllegalArgumentException("Email can't be patched using this endpoint/request");
             }
-            return RequestBody.create(MediaType.parse(PROFILE_AMENDMENT_CONTENT_TYPE), JsonParser.profileToJsonAmendment(profile).toString());
+            return new JsonRequestBody(PROFILE_AMENDMENT_CONTENT_TYPE, new JsonRequestBody.Content() {
+                @Override
+                public void writeTo(StreamingJsonWriter writer) throws IOException {
+                    JsonParser.writeProfileAmendment(writer, profile);
+                }
+            });
         }
 
         @Override
         protected Profile manageResponse(InputStream is) throws Exception {
-            final JsonReader reader = new JsonReader(new InputStreamReader(is));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.profileFromJson(reader);
         }
 
@@ -1,7 +1,6 @@
 package com.mendeley.sdk.request.endpoint;
 
 import android.net.Uri;
-import android.util.JsonReader;
 
 import com.mendeley.sdk.ClientCredentials;
 import com.mendeley.sdk.AuthTokenManager;
@@ -9,19 +8,19 @@ import com.mendeley.sdk.Request;
 import com.mendeley.sdk.model.ReadPosition;
 import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.JsonRequestBody;
+import com.mendeley.sdk.request.JsonTokenReader;
 import com.mendeley.sdk.request.PostAuthorizedRequest;
+import com.mendeley.sdk.request.StreamingJsonWriter;
 
 import org.json.JSONException;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.text.ParseException;
 import java.util.List;
 import java.util.Map;
 
-import okhttp3.MediaType;
 import okhttp3.RequestBody;
 
 import static com.mendeley.sdk.Request.MENDELEY_API_BASE_URL;
@@ -59,7 +58,7 @@ public class RecentlyReadEndpoint {
 
         @Override
         protected List<ReadPosition> manageResponse(InputStream is) throws JSONException, ParseException, IOException {
-            final JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.readPositionsFromJson(reader);
         }
 
@@ -84,12 +83,17 @@ public class RecentlyReadEndpoint {
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(RECENTLY_READ_CONTENT_TYPE), JsonParser.readPositionToJson(readPosition).toString());
+            return new JsonRequestBody(RECENTLY_READ_CONTENT_TYPE, new JsonRequestBody.Content() {
+                @Override
+                public void writeTo(StreamingJsonWriter writer) throws IOException {
+                    JsonParser.writeReadPosition(writer, readPosition);
+                }
+            });
         }
 
         @Override
         protected ReadPosition manageResponse(InputStream is) throws Exception {
-            final JsonReader reader = new JsonReader(new InputStreamReader(is));
+            final JsonTokenReader reader = newJsonReader(is);
             return JsonParser.readPositionFromJson(reader);
         }
 
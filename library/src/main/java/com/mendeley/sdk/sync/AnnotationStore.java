@@ -0,0 +1,345 @@
+package com.mendeley.sdk.sync;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.mendeley.sdk.exceptions.LocalStoreException;
+import com.mendeley.sdk.model.Annotation;
+import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.StreamingJsonWriter;
+import com.mendeley.sdk.request.Utf8JsonTokenReader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import okio.Buffer;
+
+import static com.mendeley.sdk.sync.SyncDatabaseHelper.COLUMN_DOCUMENT_ID;
+import static com.mendeley.sdk.sync.SyncDatabaseHelper.COLUMN_FILE_HASH;
+import static com.mendeley.sdk.sync.SyncDatabaseHelper.COLUMN_ID;
+import static com.mendeley.sdk.sync.SyncDatabaseHelper.COLUMN_JSON;
+import static com.mendeley.sdk.sync.SyncDatabaseHelper.COLUMN_LAST_MODIFIED;
+import static com.mendeley.sdk.sync.SyncDatabaseHelper.COLUMN_SCOPE;
+import static com.mendeley.sdk.sync.SyncDatabaseHelper.TABLE_ANNOTATIONS;
+
+/**
+ * Local index of {@link Annotation}s, persisted in a SQLite database and kept up to date by an
+ * {@link AnnotationSyncEngine}.
+ *
+ * <p/>
+ *
+ * Annotations are synchronised by {@link Scope}: the annotations of one document, or those of one
+ * group. Each scope has its own watermark, and the same annotation may be stored in several of
+ * them. Besides by scope, the annotations can be looked up by the id of their document or by the
+ * hash of their file, whatever scope they were synchronised with.
+ *
+ * <p/>
+ *
+ * Reads are served from the database, so they don't need the network, but they do disk IO and
+ * should not be done in the UI thread. The store is not cleared when the user signs out: call
+ * {@link #clear()} to do so.
+ */
+public class AnnotationStore {
+
+    private static final String WATERMARK_SCOPE_PREFIX = "annotations/";
+
+    private final SyncDatabaseHelper helper;
+    // whether the helper is not shared with other stores, and can be closed by this one
+    private final boolean privateHelper;
+
+    /**
+     * Creates a store persisted in the default database of the SDK.
+     */
+    public AnnotationStore(Context context) {
+        this(context, SyncDatabaseHelper.DATABASE_NAME);
+    }
+
+    /**
+     * @param databaseName name of the database file, or null to keep the store in memory
+     */
+    public AnnotationStore(Context context, String databaseName) {
+        this.helper = SyncDatabaseHelper.getInstance(context, databaseName);
+        this.privateHelper = databaseName == null;
+    }
+
+    /**
+     * @param annotationId id of the annotation
+     * @return the annotation, or null if it is not in the store
+     */
+    public Annotation getAnnotation(String annotationId) throws LocalStoreException {
+        final List<Annotation> annotations = query(COLUMN_ID + " = ?", annotationId, "Could not read annotation " + annotationId);
+        return annotations.isEmpty() ? null : annotations.get(0);
+    }
+
+    /**
+     * @return the annotations synchronised with the passed scope, the most recently modified first
+     */
+    public List<Annotation> getAnnotations(Scope scope) throws LocalStoreException {
+        return query(COLUMN_SCOPE + " = ?", scope.key, "Could not read annotations");
+    }
+
+    /**
+     * @param documentId id of a document
+     * @return the annotations of the document in any scope, the most recently modified first
+     */
+    public List<Annotation> getDocumentAnnotations(String documentId) throws LocalStoreException {
+        return query(COLUMN_DOCUMENT_ID + " = ?", documentId, "Could not read the annotations of document " + documentId);
+    }
+
+    /**
+     * @param fileHash hash of a file
+     * @return the annotations of the file in any scope, the most recently modified first
+     */
+    public List<Annotation> getFileAnnotations(String fileHash) throws LocalStoreException {
+        return query(COLUMN_FILE_HASH + " = ?", fileHash, "Could not read the annotations of file " + fileHash);
+    }
+
+    /**
+     * @return server date of the last successful synchronisation of the scope, or null if it has
+     *          never been synchronised
+     */
+    public Date getWatermark(Scope scope) throws LocalStoreException {
+        try {
+            return SyncDatabaseHelper.readWatermark(helper.getReadableDatabase(), WATERMARK_SCOPE_PREFIX + scope.key);
+        } catch (SQLException e) {
+            throw new LocalStoreException("Could not read the watermark", e);
+        }
+    }
+
+    /**
+     * Removes every annotation and watermark, so that the next synchronisations fetch everything.
+     */
+    public void clear() throws LocalStoreException {
+        try {
+            final SQLiteDatabase db = helper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                db.delete(TABLE_ANNOTATIONS, null, null);
+                SyncDatabaseHelper.deleteWatermarks(db, WATERMARK_SCOPE_PREFIX);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (SQLException e) {
+            throw new LocalStoreException("Could not clear the annotations", e);
+        }
+    }
+
+    /**
+     * Closes the database if it's kept in memory. The database files are shared by every store
+     * using them and stay open for the lifetime of the process. The store can't be used after this.
+     */
+    public void close() {
+        if (privateHelper) {
+            helper.close();
+        }
+    }
+
+    /**
+     * Stores and removes annotations in one transaction. Annotations identical to the stored ones
+     * are skipped.
+     *
+     * @param modified annotations to insert or replace
+     * @param deletedIds ids of the annotations to remove
+     * @param changed receives the annotations that were actually inserted or replaced
+     * @param deleted receives the ids of the annotations that were actually removed
+     */
+    void applyChanges(Scope scope, Collection<Annotation> modified, Collection<String> deletedIds,
+                      List<Annotation> changed, List<String> deleted) throws LocalStoreException {
+        try {
+            final SQLiteDatabase db = helper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                final ContentValues values = new ContentValues();
+                for (Annotation annotation : modified) {
+                    final byte[] json = toBytes(annotation);
+                    if (Arrays.equals(json, readJson(db, scope, annotation.id))) {
+                        continue;
+                    }
+                    values.clear();
+                    values.put(COLUMN_SCOPE, scope.key);
+                    values.put(COLUMN_ID, annotation.id);
+                    values.put(COLUMN_DOCUMENT_ID, annotation.documentId);
+                    values.put(COLUMN_FILE_HASH, annotation.fileHash);
+                    values.put(COLUMN_LAST_MODIFIED, annotation.lastModified != null ? annotation.lastModified.getTime() : null);
+                    values.put(COLUMN_JSON, json);
+                    db.insertWithOnConflict(TABLE_ANNOTATIONS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                    changed.add(annotation);
+                }
+                for (String annotationId : deletedIds) {
+                    if (delete(db, scope, annotationId)) {
+                        deleted.add(annotationId);
+                    }
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (SQLException e) {
+            throw new LocalStoreException("Could not store annotations", e);
+        }
+    }
+
+    /**
+     * Finishes a synchronisation in one transaction, removing the annotations not in the passed
+     * set if it's not null and saving the new watermark.
+     *
+     * @param retainedIds ids of every annotation of the scope after a full synchronisation, or null
+     *                    after an incremental one
+     * @param watermark server date the next synchronisation will fetch changes from
+     * @param deleted receives the ids of the removed annotations
+     */
+    void finishSync(Scope scope, Set<String> retainedIds, Date watermark, List<String> deleted) throws LocalStoreException {
+        try {
+            final SQLiteDatabase db = helper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                if (retainedIds != null) {
+                    final List<String> staleIds = new ArrayList<String>();
+                    final Cursor cursor = db.query(TABLE_ANNOTATIONS, new String[]{COLUMN_ID},
+                            COLUMN_SCOPE + " = ?", new String[]{scope.key}, null, null, null);
+                    try {
+                        while (cursor.moveToNext()) {
+                            final String id = cursor.getString(0);
+                            if (!retainedIds.contains(id)) {
+                                staleIds.add(id);
+                            }
+                        }
+                    } finally {
+                        cursor.close();
+                    }
+                    for (String id : staleIds) {
+                        delete(db, scope, id);
+                    }
+                    deleted.addAll(staleIds);
+                }
+
+                SyncDatabaseHelper.writeWatermark(db, WATERMARK_SCOPE_PREFIX + scope.key, watermark);
+
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (SQLException e) {
+            throw new LocalStoreException("Could not finish the synchronisation", e);
+        }
+    }
+
+    private List<Annotation> query(String selection, String argument, String errorMessage) throws LocalStoreException {
+        try {
+            final Cursor cursor = helper.getReadableDatabase().query(TABLE_ANNOTATIONS, new String[]{COLUMN_ID, COLUMN_JSON},
+                    selection, new String[]{argument}, null, null, COLUMN_LAST_MODIFIED + " DESC");
+            try {
+                final List<Annotation> annotations = new ArrayList<Annotation>(cursor.getCount());
+                // an annotation stored in several scopes is returned once
+                final Set<String> ids = new HashSet<String>();
+                while (cursor.moveToNext()) {
+                    if (ids.add(cursor.getString(0))) {
+                        annotations.add(fromBytes(cursor.getBlob(1)));
+                    }
+                }
+                return annotations;
+            } finally {
+                cursor.close();
+            }
+        } catch (SQLException e) {
+            throw new LocalStoreException(errorMessage, e);
+        }
+    }
+
+    private static byte[] readJson(SQLiteDatabase db, Scope scope, String annotationId) {
+        final Cursor cursor = db.query(TABLE_ANNOTATIONS, new String[]{COLUMN_JSON},
+                COLUMN_SCOPE + " = ? AND " + COLUMN_ID + " = ?", new String[]{scope.key, annotationId},
+                null, null, null);
+        try {
+            return cursor.moveToFirst() ? cursor.getBlob(0) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static boolean delete(SQLiteDatabase db, Scope scope, String annotationId) {
+        return db.delete(TABLE_ANNOTATIONS, COLUMN_SCOPE + " = ? AND " + COLUMN_ID + " = ?", new String[]{scope.key, annotationId}) > 0;
+    }
+
+    private static byte[] toBytes(Annotation annotation) throws LocalStoreException {
+        try {
+            final Buffer buffer = new Buffer();
+            JsonParser.writeAnnotation(new StreamingJsonWriter(buffer), annotation);
+            return buffer.readByteArray();
+        } catch (Exception e) {
+            throw new LocalStoreException("Could not serialize annotation " + annotation.id, e);
+        }
+    }
+
+    private static Annotation fromBytes(byte[] json) throws LocalStoreException {
+        try {
+            return JsonParser.annotationFromJson(new Utf8JsonTokenReader(new Buffer().write(json)));
+        } catch (Exception e) {
+            throw new LocalStoreException("Could not parse stored annotation", e);
+        }
+    }
+
+    /**
+     * Set of annotations synchronised together, with their own watermark: the annotations of one
+     * document, or those of one group.
+     */
+    public static final class Scope {
+
+        /**
+         * Id of the document, null for a group scope.
+         */
+        public final String documentId;
+
+        /**
+         * Id of the group, null for a document scope.
+         */
+        public final String groupId;
+
+        // key of the scope in the database
+        final String key;
+
+        private Scope(String documentId, String groupId, String key) {
+            this.documentId = documentId;
+            this.groupId = groupId;
+            this.key = key;
+        }
+
+        public static Scope forDocument(String documentId) {
+            if (documentId == null) {
+                throw new IllegalArgumentException("The document id can't be null");
+            }
+            return new Scope(documentId, null, "document:" + documentId);
+        }
+
+        public static Scope forGroup(String groupId) {
+            if (groupId == null) {
+                throw new IllegalArgumentException("The group id can't be null");
+            }
+            return new Scope(null, groupId, "group:" + groupId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Scope && key.equals(((Scope) o).key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+    }
+}
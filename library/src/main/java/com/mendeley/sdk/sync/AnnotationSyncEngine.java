@@ -0,0 +1,268 @@
+package com.mendeley.sdk.sync;
+
+import android.net.Uri;
+
+import com.mendeley.sdk.PagedIterable;
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.RequestScheduler;
+import com.mendeley.sdk.RequestsFactory;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.model.Annotation;
+import com.mendeley.sdk.request.FieldProjection;
+import com.mendeley.sdk.request.endpoint.AnnotationsEndpoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps an {@link AnnotationStore} up to date with the server, downloading only what changed since
+ * the previous synchronisation of each {@link AnnotationStore.Scope}.
+ *
+ * <p/>
+ *
+ * The first synchronisation of a document or group fetches all its annotations. The following
+ * ones fetch only the annotations modified since the watermark of the scope, and the tombstones of
+ * those deleted since then, using the {@code modified_since} and {@code deleted_since} parameters
+ * of the annotations endpoint. Fetched annotations identical to the stored ones are skipped, and
+ * the registered {@link Listener}s are only told about the annotations that actually changed.
+ *
+ * <p/>
+ *
+ * Synchronisations are run with the {@link Request}s returned by
+ * {@link #newSyncRequest(AnnotationStore.Scope)}, in the
+ * {@link RequestScheduler.Lane#BACKGROUND_SYNC} lane.
+ */
+public class AnnotationSyncEngine {
+
+    /**
+     * Number of annotations requested per page, the maximum allowed by the API.
+     */
+    public static final int PAGE_SIZE = 500;
+
+    private final AnnotationStore store;
+    private final RequestsFactory requestsFactory;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+    public AnnotationSyncEngine(AnnotationStore store, RequestsFactory requestsFactory) {
+        if (store == null || requestsFactory == null) {
+            throw new IllegalArgumentException("The store and the requests factory can't be null");
+        }
+        this.store = store;
+        this.requestsFactory = requestsFactory;
+    }
+
+    public AnnotationStore getStore() {
+        return store;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return a new request synchronising the annotations of the scope when run
+     */
+    public Request<Result> newSyncRequest(AnnotationStore.Scope scope) {
+        if (scope == null) {
+            throw new IllegalArgumentException("The scope can't be null");
+        }
+        return new SyncRequest(scope);
+    }
+
+    /**
+     * Receives the changes applied to the store by the synchronisations.
+     */
+    public interface Listener {
+
+        /**
+         * Called in the thread running the synchronisation, once it has finished, if any annotation
+         * of the scope was inserted, updated or removed.
+         *
+         * @param changed annotations inserted or updated
+         * @param deletedIds ids of the removed annotations
+         */
+        void onAnnotationsChanged(AnnotationStore.Scope scope, List<Annotation> changed, List<String> deletedIds);
+    }
+
+    /**
+     * Outcome of one synchronisation.
+     */
+    public static class Result {
+
+        /**
+         * Whether every annotation was fetched, because the scope had never been synchronised.
+         */
+        public final boolean full;
+
+        /**
+         * Number of annotations inserted or updated in the store.
+         */
+        public final int changed;
+
+        /**
+         * Number of fetched annotations skipped because they were identical to the stored ones.
+         */
+        public final int unchanged;
+
+        /**
+         * Number of annotations removed from the store.
+         */
+        public final int deleted;
+
+        /**
+         * Watermark saved for the next synchronisation, null if the server didn't send its date.
+         */
+        public final Date watermark;
+
+        public Result(boolean full, int changed, int unchanged, int deleted, Date watermark) {
+            this.full = full;
+            this.changed = changed;
+            this.unchanged = unchanged;
+            this.deleted = deleted;
+            this.watermark = watermark;
+        }
+
+        @Override
+        public String toString() {
+            return "full: " + full +
+                    ", changed: " + changed +
+                    ", unchanged: " + unchanged +
+                    ", deleted: " + deleted +
+                    ", watermark: " + watermark;
+        }
+    }
+
+    private class SyncRequest extends PagedSyncRequest<Annotation, Result> {
+
+        private final AnnotationStore.Scope scope;
+
+        private final List<Annotation> changed = new ArrayList<Annotation>();
+        private final List<String> deleted = new ArrayList<String>();
+        private int fetched;
+
+        // fields requested by the pages being fetched, null for all of them
+        private FieldProjection projection;
+
+        SyncRequest(AnnotationStore.Scope scope) {
+            this.scope = scope;
+        }
+
+        @Override
+        protected Response doSync() throws MendeleyException {
+            final Date previousWatermark = store.getWatermark(scope);
+            final Result result;
+            if (previousWatermark == null) {
+                result = fullSync();
+            } else {
+                result = incrementalSync(previousWatermark);
+            }
+
+            if (!changed.isEmpty() || !deleted.isEmpty()) {
+                final List<Annotation> changedAnnotations = Collections.unmodifiableList(changed);
+                final List<String> deletedIds = Collections.unmodifiableList(deleted);
+                for (Listener listener : listeners) {
+                    listener.onAnnotationsChanged(scope, changedAnnotations, deletedIds);
+                }
+            }
+            return new Response(result, result.watermark, null, 0);
+        }
+
+        private Result fullSync() throws MendeleyException {
+            final Set<String> ids = new HashSet<String>();
+
+            final PagedIterable<Annotation>.PageIterator iterator = openPages(newParameters(), null);
+            try {
+                PagedIterable.Page<Annotation> page;
+                while ((page = nextPage(iterator)) != null) {
+                    applyModified(page.items);
+                    for (Annotation annotation : page.items) {
+                        ids.add(annotation.id);
+                    }
+                }
+            } finally {
+                iterator.close();
+            }
+
+            final Date watermark = getWatermark();
+            if (watermark != null) {
+                store.finishSync(scope, ids, watermark, deleted);
+            }
+            return newResult(true, watermark);
+        }
+
+        private Result incrementalSync(Date since) throws MendeleyException {
+            final AnnotationsEndpoint.AnnotationRequestParameters modifiedParameters = newParameters();
+            modifiedParameters.modifiedSince = since;
+            final PagedIterable<Annotation>.PageIterator modified = openPages(modifiedParameters, null);
+            try {
+                PagedIterable.Page<Annotation> page;
+                while ((page = nextPage(modified)) != null) {
+                    applyModified(page.items);
+                }
+            } finally {
+                modified.close();
+            }
+
+            final AnnotationsEndpoint.AnnotationRequestParameters deletedParameters = newParameters();
+            deletedParameters.deletedSince = since;
+            // only the ids of the tombstones are needed
+            final PagedIterable<Annotation>.PageIterator deletions = openPages(deletedParameters, FieldProjection.of("id"));
+            try {
+                PagedIterable.Page<Annotation> page;
+                while ((page = nextPage(deletions)) != null) {
+                    final List<String> ids = new ArrayList<String>();
+                    for (Annotation annotation : page.items) {
+                        ids.add(annotation.id);
+                    }
+                    store.applyChanges(scope, Collections.<Annotation>emptyList(), ids, changed, deleted);
+                }
+            } finally {
+                deletions.close();
+            }
+
+            // without the server date, keep the previous watermark: the changes will be fetched again
+            final Date watermark = getWatermark() != null ? getWatermark() : since;
+            store.finishSync(scope, null, watermark, deleted);
+            return newResult(false, watermark);
+        }
+
+        private void applyModified(List<Annotation> annotations) throws MendeleyException {
+            store.applyChanges(scope, annotations, Collections.<String>emptyList(), changed, deleted);
+            fetched += annotations.size();
+        }
+
+        private Result newResult(boolean full, Date watermark) {
+            return new Result(full, changed.size(), fetched - changed.size(), deleted.size(), watermark);
+        }
+
+        private AnnotationsEndpoint.AnnotationRequestParameters newParameters() {
+            final AnnotationsEndpoint.AnnotationRequestParameters parameters = new AnnotationsEndpoint.AnnotationRequestParameters();
+            parameters.documentId = scope.documentId;
+            parameters.groupId = scope.groupId;
+            parameters.limit = PAGE_SIZE;
+            return parameters;
+        }
+
+        private PagedIterable<Annotation>.PageIterator openPages(AnnotationsEndpoint.AnnotationRequestParameters parameters, FieldProjection projection) {
+            this.projection = projection;
+            return openPages(requestsFactory.newGetAnnotationsRequest(parameters).getUrl());
+        }
+
+        @Override
+        protected Request<List<Annotation>> newPageRequest(Uri pageUrl) {
+            return projection != null
+                    ? requestsFactory.newGetAnnotationsRequest(pageUrl, projection)
+                    : requestsFactory.newGetAnnotationsRequest(pageUrl);
+        }
+    }
+}
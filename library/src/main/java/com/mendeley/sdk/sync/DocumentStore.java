@@ -0,0 +1,272 @@
+package com.mendeley.sdk.sync;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.mendeley.sdk.exceptions.LocalStoreException;
+import com.mendeley.sdk.model.Document;
+import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.StreamingJsonWriter;
+import com.mendeley.sdk.request.Utf8JsonTokenReader;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import okio.Buffer;
+
+import static com.mendeley.sdk.sync.SyncDatabaseHelper.COLUMN_ID;
+import static com.mendeley.sdk.sync.SyncDatabaseHelper.COLUMN_JSON;
+import static com.mendeley.sdk.sync.SyncDatabaseHelper.COLUMN_LAST_MODIFIED;
+import static com.mendeley.sdk.sync.SyncDatabaseHelper.COLUMN_SCOPE;
+import static com.mendeley.sdk.sync.SyncDatabaseHelper.TABLE_DOCUMENTS;
+
+/**
+ * Local copy of the {@link Document}s of the user's library and of their groups, persisted in a
+ * SQLite database and kept up to date by a {@link DocumentSyncEngine}.
+ *
+ * <p/>
+ *
+ * Reads are served from the database, so they don't need the network, but they do disk IO and
+ * should not be done in the UI thread. The documents of the user's library and of each group are
+ * stored and synchronised separately; the methods take the id of the group, or null for the user's
+ * library.
+ *
+ * <p/>
+ *
+ * The store is not cleared when the user signs out: call {@link #clear()} to do so.
+ */
+public class DocumentStore {
+
+    private static final String LIBRARY_SCOPE = "";
+    private static final String WATERMARK_SCOPE_PREFIX = "documents/";
+
+    private final SyncDatabaseHelper helper;
+    // whether the helper is not shared with other stores, and can be closed by this one
+    private final boolean privateHelper;
+
+    /**
+     * Creates a store persisted in the default database of the SDK.
+     */
+    public DocumentStore(Context context) {
+        this(context, SyncDatabaseHelper.DATABASE_NAME);
+    }
+
+    /**
+     * @param databaseName name of the database file, or null to keep the store in memory
+     */
+    public DocumentStore(Context context, String databaseName) {
+        this.helper = SyncDatabaseHelper.getInstance(context, databaseName);
+        this.privateHelper = databaseName == null;
+    }
+
+    /**
+     * @param groupId id of the group, or null for the user's library
+     * @param documentId id of the document
+     * @return the document, or null if it is not in the store
+     */
+    public Document getDocument(String groupId, String documentId) throws LocalStoreException {
+        try {
+            final Cursor cursor = helper.getReadableDatabase().query(TABLE_DOCUMENTS, new String[]{COLUMN_JSON},
+                    COLUMN_SCOPE + " = ? AND " + COLUMN_ID + " = ?", new String[]{getScope(groupId), documentId},
+                    null, null, null);
+            try {
+                return cursor.moveToFirst() ? fromBytes(cursor.getBlob(0)) : null;
+            } finally {
+                cursor.close();
+            }
+        } catch (SQLException e) {
+            throw new LocalStoreException("Could not read document " + documentId, e);
+        }
+    }
+
+    /**
+     * @param groupId id of the group, or null for the user's library
+     * @return the documents of the library or group, the most recently modified first
+     */
+    public List<Document> getDocuments(String groupId) throws LocalStoreException {
+        try {
+            final Cursor cursor = helper.getReadableDatabase().query(TABLE_DOCUMENTS, new String[]{COLUMN_JSON},
+                    COLUMN_SCOPE + " = ?", new String[]{getScope(groupId)},
+                    null, null, COLUMN_LAST_MODIFIED + " DESC");
+            try {
+                final List<Document> documents = new ArrayList<Document>(cursor.getCount());
+                while (cursor.moveToNext()) {
+                    documents.add(fromBytes(cursor.getBlob(0)));
+                }
+                return documents;
+            } finally {
+                cursor.close();
+            }
+        } catch (SQLException e) {
+            throw new LocalStoreException("Could not read documents", e);
+        }
+    }
+
+    /**
+     * @param groupId id of the group, or null for the user's library
+     * @return number of documents of the library or group
+     */
+    public int getDocumentCount(String groupId) throws LocalStoreException {
+        try {
+            final Cursor cursor = helper.getReadableDatabase().rawQuery(
+                    "SELECT COUNT(*) FROM " + TABLE_DOCUMENTS + " WHERE " + COLUMN_SCOPE + " = ?",
+                    new String[]{getScope(groupId)});
+            try {
+                return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+            } finally {
+                cursor.close();
+            }
+        } catch (SQLException e) {
+            throw new LocalStoreException("Could not count documents", e);
+        }
+    }
+
+    /**
+     * @param groupId id of the group, or null for the user's library
+     * @return server date of the last successful synchronisation of the library or group, or null
+     *          if it has never been synchronised
+     */
+    public Date getWatermark(String groupId) throws LocalStoreException {
+        try {
+            return SyncDatabaseHelper.readWatermark(helper.getReadableDatabase(), WATERMARK_SCOPE_PREFIX + getScope(groupId));
+        } catch (SQLException e) {
+            throw new LocalStoreException("Could not read the watermark", e);
+        }
+    }
+
+    /**
+     * Removes every document and watermark, so that the next synchronisation fetches everything.
+     */
+    public void clear() throws LocalStoreException {
+        try {
+            final SQLiteDatabase db = helper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                db.delete(TABLE_DOCUMENTS, null, null);
+                SyncDatabaseHelper.deleteWatermarks(db, WATERMARK_SCOPE_PREFIX);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (SQLException e) {
+            throw new LocalStoreException("Could not clear the documents", e);
+        }
+    }
+
+    /**
+     * Closes the database if it's kept in memory. The database files are shared by every store
+     * using them and stay open for the lifetime of the process. The store can't be used after this.
+     */
+    public void close() {
+        if (privateHelper) {
+            helper.close();
+        }
+    }
+
+    /**
+     * Stores and removes documents in one transaction.
+     *
+     * @param groupId id of the group, or null for the user's library
+     * @param modified documents to insert or replace
+     * @param deletedIds ids of the documents to remove
+     */
+    void applyChanges(String groupId, Collection<Document> modified, Collection<String> deletedIds) throws LocalStoreException {
+        final String scope = getScope(groupId);
+        try {
+            final SQLiteDatabase db = helper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                final ContentValues values = new ContentValues();
+                for (Document document : modified) {
+                    values.clear();
+                    values.put(COLUMN_SCOPE, scope);
+                    values.put(COLUMN_ID, document.id);
+                    values.put(COLUMN_LAST_MODIFIED, document.lastModified != null ? document.lastModified.getTime() : null);
+                    values.put(COLUMN_JSON, toBytes(document));
+                    db.insertWithOnConflict(TABLE_DOCUMENTS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                }
+                for (String documentId : deletedIds) {
+                    db.delete(TABLE_DOCUMENTS, COLUMN_SCOPE + " = ? AND " + COLUMN_ID + " = ?", new String[]{scope, documentId});
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (SQLException e) {
+            throw new LocalStoreException("Could not store documents", e);
+        }
+    }
+
+    /**
+     * Finishes a synchronisation in one transaction, removing the documents not in the passed set
+     * if it's not null and saving the new watermark.
+     *
+     * @param groupId id of the group, or null for the user's library
+     * @param retainedIds ids of every document of the library or group after a full
+     *                    synchronisation, or null after an incremental one
+     * @param watermark server date the next synchronisation will fetch changes from
+     */
+    void finishSync(String groupId, Set<String> retainedIds, Date watermark) throws LocalStoreException {
+        final String scope = getScope(groupId);
+        try {
+            final SQLiteDatabase db = helper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                if (retainedIds != null) {
+                    final List<String> staleIds = new ArrayList<String>();
+                    final Cursor cursor = db.query(TABLE_DOCUMENTS, new String[]{COLUMN_ID},
+                            COLUMN_SCOPE + " = ?", new String[]{scope}, null, null, null);
+                    try {
+                        while (cursor.moveToNext()) {
+                            final String id = cursor.getString(0);
+                            if (!retainedIds.contains(id)) {
+                                staleIds.add(id);
+                            }
+                        }
+                    } finally {
+                        cursor.close();
+                    }
+                    for (String id : staleIds) {
+                        db.delete(TABLE_DOCUMENTS, COLUMN_SCOPE + " = ? AND " + COLUMN_ID + " = ?", new String[]{scope, id});
+                    }
+                }
+
+                SyncDatabaseHelper.writeWatermark(db, WATERMARK_SCOPE_PREFIX + scope, watermark);
+
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (SQLException e) {
+            throw new LocalStoreException("Could not finish the synchronisation", e);
+        }
+    }
+
+    private static String getScope(String groupId) {
+        return groupId != null ? groupId : LIBRARY_SCOPE;
+    }
+
+    private static byte[] toBytes(Document document) throws LocalStoreException {
+        try {
+            final Buffer buffer = new Buffer();
+            JsonParser.writeDocument(new StreamingJsonWriter(buffer), document);
+            return buffer.readByteArray();
+        } catch (Exception e) {
+            throw new LocalStoreException("Could not serialize document " + document.id, e);
+        }
+    }
+
+    private static Document fromBytes(byte[] json) throws LocalStoreException {
+        try {
+            return JsonParser.documentFromJson(new Utf8JsonTokenReader(new Buffer().write(json)));
+        } catch (Exception e) {
+            throw new LocalStoreException("Could not parse stored document", e);
+        }
+    }
+}
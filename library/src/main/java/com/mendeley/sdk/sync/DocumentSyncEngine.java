@@ -0,0 +1,223 @@
+package com.mendeley.sdk.sync;
+
+import android.net.Uri;
+
+import com.mendeley.sdk.PagedIterable;
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.RequestScheduler;
+import com.mendeley.sdk.RequestsFactory;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.model.Document;
+import com.mendeley.sdk.request.FieldProjection;
+import com.mendeley.sdk.request.endpoint.DocumentEndpoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps a {@link DocumentStore} up to date with the server, downloading only what changed since
+ * the previous synchronisation.
+ *
+ * <p/>
+ *
+ * The first synchronisation of the user's library or of a group fetches all its documents. It
+ * records the {@link Request.Response#serverDate} of its first page as the watermark, and the
+ * following ones fetch only the documents modified or deleted since the watermark, using the
+ * {@code modified_since} and {@code deleted_since} parameters of the documents endpoint. Each
+ * page is applied to the store in one transaction, and the watermark only moves forward once
+ * every page has been applied, so an interrupted synchronisation is resumed from the same point
+ * by the next one.
+ *
+ * <p/>
+ *
+ * Synchronisations are run with the {@link Request}s returned by {@link #newSyncRequest(String)},
+ * in the {@link RequestScheduler.Lane#BACKGROUND_SYNC} lane.
+ */
+public class DocumentSyncEngine {
+
+    /**
+     * Number of documents requested per page, the maximum allowed by the API.
+     */
+    public static final int PAGE_SIZE = 500;
+
+    private final DocumentStore store;
+    private final RequestsFactory requestsFactory;
+
+    public DocumentSyncEngine(DocumentStore store, RequestsFactory requestsFactory) {
+        if (store == null || requestsFactory == null) {
+            throw new IllegalArgumentException("The store and the requests factory can't be null");
+        }
+        this.store = store;
+        this.requestsFactory = requestsFactory;
+    }
+
+    public DocumentStore getStore() {
+        return store;
+    }
+
+    /**
+     * @param groupId id of the group to synchronise, or null for the user's library
+     * @return a new request synchronising the documents of the library or group when run
+     */
+    public Request<Result> newSyncRequest(String groupId) {
+        return new SyncRequest(groupId);
+    }
+
+    /**
+     * Outcome of one synchronisation.
+     */
+    public static class Result {
+
+        /**
+         * Whether every document was fetched, because the library or group had never been
+         * synchronised.
+         */
+        public final boolean full;
+
+        /**
+         * Number of documents inserted or updated in the store.
+         */
+        public final int updated;
+
+        /**
+         * Number of documents removed from the store.
+         */
+        public final int deleted;
+
+        /**
+         * Watermark saved for the next synchronisation, null if the server didn't send its date.
+         */
+        public final Date watermark;
+
+        public Result(boolean full, int updated, int deleted, Date watermark) {
+            this.full = full;
+            this.updated = updated;
+            this.deleted = deleted;
+            this.watermark = watermark;
+        }
+
+        @Override
+        public String toString() {
+            return "full: " + full +
+                    ", updated: " + updated +
+                    ", deleted: " + deleted +
+                    ", watermark: " + watermark;
+        }
+    }
+
+    private class SyncRequest extends PagedSyncRequest<Document, Result> {
+
+        private final String groupId;
+
+        // fields requested by the pages being fetched, null for all of them
+        private FieldProjection projection;
+
+        SyncRequest(String groupId) {
+            this.groupId = groupId;
+        }
+
+        @Override
+        protected Response doSync() throws MendeleyException {
+            final Date previousWatermark = store.getWatermark(groupId);
+            final Result result;
+            if (previousWatermark == null) {
+                result = fullSync();
+            } else {
+                result = incrementalSync(previousWatermark);
+            }
+            return new Response(result, result.watermark, null, 0);
+        }
+
+        private Result fullSync() throws MendeleyException {
+            final Set<String> ids = new HashSet<String>();
+            int updated = 0;
+
+            final PagedIterable<Document>.PageIterator iterator = openPages(newParameters(), null);
+            try {
+                PagedIterable.Page<Document> page;
+                while ((page = nextPage(iterator)) != null) {
+                    store.applyChanges(groupId, page.items, Collections.<String>emptyList());
+                    for (Document document : page.items) {
+                        ids.add(document.id);
+                    }
+                    updated += page.items.size();
+                }
+            } finally {
+                iterator.close();
+            }
+
+            final Date watermark = getWatermark();
+            final int before = store.getDocumentCount(groupId);
+            if (watermark != null) {
+                store.finishSync(groupId, ids, watermark);
+            }
+            return new Result(true, updated, watermark != null ? before - ids.size() : 0, watermark);
+        }
+
+        private Result incrementalSync(Date since) throws MendeleyException {
+            int updated = 0;
+            int deleted = 0;
+
+            final DocumentEndpoint.DocumentRequestParameters modifiedParameters = newParameters();
+            modifiedParameters.modifiedSince = since;
+            final PagedIterable<Document>.PageIterator modified = openPages(modifiedParameters, null);
+            try {
+                PagedIterable.Page<Document> page;
+                while ((page = nextPage(modified)) != null) {
+                    final List<Document> documents = page.items;
+                    store.applyChanges(groupId, documents, Collections.<String>emptyList());
+                    updated += documents.size();
+                }
+            } finally {
+                modified.close();
+            }
+
+            final DocumentEndpoint.DocumentRequestParameters deletedParameters = newParameters();
+            deletedParameters.deletedSince = since;
+            // only the ids of the deleted documents are needed
+            final PagedIterable<Document>.PageIterator deletions = openPages(deletedParameters, FieldProjection.of("id"));
+            try {
+                PagedIterable.Page<Document> page;
+                while ((page = nextPage(deletions)) != null) {
+                    final List<String> ids = new ArrayList<String>();
+                    for (Document document : page.items) {
+                        ids.add(document.id);
+                    }
+                    store.applyChanges(groupId, Collections.<Document>emptyList(), ids);
+                    deleted += ids.size();
+                }
+            } finally {
+                deletions.close();
+            }
+
+            // without the server date, keep the previous watermark: the changes will be fetched again
+            final Date watermark = getWatermark() != null ? getWatermark() : since;
+            store.finishSync(groupId, null, watermark);
+            return new Result(false, updated, deleted, watermark);
+        }
+
+        private DocumentEndpoint.DocumentRequestParameters newParameters() {
+            final DocumentEndpoint.DocumentRequestParameters parameters = new DocumentEndpoint.DocumentRequestParameters();
+            parameters.groupId = groupId;
+            parameters.view = DocumentEndpoint.DocumentRequestParameters.View.ALL;
+            parameters.limit = PAGE_SIZE;
+            return parameters;
+        }
+
+        private PagedIterable<Document>.PageIterator openPages(DocumentEndpoint.DocumentRequestParameters parameters, FieldProjection projection) {
+            this.projection = projection;
+            return openPages(requestsFactory.newGetDocumentsRequest(parameters).getUrl());
+        }
+
+        @Override
+        protected Request<List<Document>> newPageRequest(Uri pageUrl) {
+            return projection != null
+                    ? requestsFactory.newGetDocumentsRequest(pageUrl, projection)
+                    : requestsFactory.newGetDocumentsRequest(pageUrl);
+        }
+    }
+}
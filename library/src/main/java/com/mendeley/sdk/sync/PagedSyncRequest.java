@@ -0,0 +1,186 @@
+package com.mendeley.sdk.sync;
+
+import android.net.Uri;
+
+import com.mendeley.sdk.PagedIterable;
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.RequestScheduler;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base of the synchronisation requests, run in the {@link RequestScheduler.Lane#BACKGROUND_SYNC}
+ * lane, iterating over the pages of the server lists and recording the server date of the first
+ * page as the new watermark.
+ *
+ * <p/>
+ *
+ * The pages are fetched in threads of their own instead of the lane of the synchronisation: the
+ * synchronisation waits for them while holding one of the few slots of the lane, so with every
+ * slot held by a synchronisation the page requests queued behind them would never start.
+ * Each synchronisation fetches one page at a time, so there are never more page requests than
+ * synchronisations running.
+ *
+ * <p/>
+ *
+ * The running synchronisations are tracked, so that they can be cancelled and waited for before
+ * their database is cleared, see {@link SyncDatabase}.
+ *
+ * @param <T> type of the synchronised items
+ * @param <ResultType> type of the outcome of the synchronisation
+ */
+abstract class PagedSyncRequest<T, ResultType> extends Request<ResultType> {
+
+    private static final Executor PAGE_EXECUTOR = createPageExecutor();
+
+    // synchronisations running now, guarded by itself
+    private static final Set<PagedSyncRequest<?, ?>> running = new HashSet<PagedSyncRequest<?, ?>>();
+
+    // iterator over the pages being fetched, closed when the request is cancelled
+    private volatile PagedIterable<T>.PageIterator pages;
+
+    private Date watermark;
+
+    PagedSyncRequest() {
+        super(null);
+        setLane(RequestScheduler.Lane.BACKGROUND_SYNC);
+    }
+
+    /**
+     * Cancels the synchronisations running now. They stop before applying their next page.
+     */
+    static void cancelRunning() {
+        final List<PagedSyncRequest<?, ?>> toCancel;
+        synchronized (running) {
+            toCancel = new ArrayList<PagedSyncRequest<?, ?>>(running);
+        }
+        for (PagedSyncRequest<?, ?> request : toCancel) {
+            request.cancel();
+        }
+    }
+
+    /**
+     * Blocks until no synchronisation is running.
+     *
+     * @param timeoutMs maximum time to wait
+     * @return true if none is running, false if the time elapsed before
+     */
+    static boolean awaitNoneRunning(long timeoutMs) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (running) {
+            while (!running.isEmpty()) {
+                final long remainingMs = deadline - System.currentTimeMillis();
+                if (remainingMs <= 0) {
+                    return false;
+                }
+                running.wait(remainingMs);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected final Response doRun() throws MendeleyException {
+        synchronized (running) {
+            running.add(this);
+        }
+        try {
+            if (isCancelled()) {
+                throw new UserCancelledException();
+            }
+            return doSync();
+        } finally {
+            synchronized (running) {
+                running.remove(this);
+                running.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Performs the synchronisation, see {@link #doRun()}.
+     */
+    protected abstract Response doSync() throws MendeleyException;
+
+    /**
+     * @param pageUrl URL of a page of the list
+     * @return a request fetching the page
+     */
+    protected abstract Request<List<T>> newPageRequest(Uri pageUrl);
+
+    /**
+     * @return server date of the first page fetched by this request, or null if none was fetched or
+     *          the server didn't send its date
+     */
+    protected final Date getWatermark() {
+        return watermark;
+    }
+
+    protected final PagedIterable<T>.PageIterator openPages(Uri firstPageUrl) {
+        final PagedIterable<T> iterable = new PagedIterable<T>(firstPageUrl, new PagedIterable.PageRequestFactory<T>() {
+            @Override
+            public Request<List<T>> newRequest(Uri pageUrl) {
+                return newPageRequest(pageUrl);
+            }
+        }, PagedIterable.DEFAULT_PREFETCH_DEPTH, PAGE_EXECUTOR);
+        final PagedIterable<T>.PageIterator iterator = iterable.pageIterator();
+        pages = iterator;
+        if (isCancelled()) {
+            iterator.close();
+        }
+        return iterator;
+    }
+
+    /**
+     * @return the next page, or null after the last one
+     */
+    protected final PagedIterable.Page<T> nextPage(PagedIterable<T>.PageIterator iterator) throws MendeleyException {
+        final PagedIterable.Page<T> page;
+        try {
+            page = iterator.hasNext() ? iterator.next() : null;
+        } catch (PagedIterable.PageFetchException e) {
+            if (isCancelled()) {
+                throw new UserCancelledException();
+            }
+            throw e.getMendeleyException();
+        }
+        if (isCancelled()) {
+            throw new UserCancelledException();
+        }
+        if (page != null && watermark == null) {
+            watermark = page.serverDate;
+        }
+        return page;
+    }
+
+    @Override
+    protected void onCancel() {
+        final PagedIterable<T>.PageIterator iterator = pages;
+        if (iterator != null) {
+            iterator.close();
+        }
+    }
+
+    private static Executor createPageExecutor() {
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "MendeleySyncPage #" + count.getAndIncrement());
+            }
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.mendeley.sdk.sync;
+
+import android.content.Context;
+
+import com.mendeley.sdk.exceptions.LocalStoreException;
+
+/**
+ * Default database of {@link DocumentStore} and {@link AnnotationStore}, holding the data of the
+ * signed in user synchronised by the {@link DocumentSyncEngine}s and {@link AnnotationSyncEngine}s.
+ */
+public final class SyncDatabase {
+
+    private static final long SYNC_STOP_TIMEOUT_MS = 10000;
+
+    private SyncDatabase() {
+    }
+
+    /**
+     * Cancels the synchronisations running now, in any engine. They stop before applying their next
+     * page, but may still be writing the current one when this method returns.
+     */
+    public static void cancelRunningSyncs() {
+        PagedSyncRequest.cancelRunning();
+    }
+
+    /**
+     * Deletes every document and annotation of the default database, waiting first for the running
+     * synchronisations to stop, so cancel them with {@link #cancelRunningSyncs()} before.
+     * Does nothing if the database has never been created, without creating it.
+     *
+     * <p/>
+     *
+     * It does disk IO, so it should not be called in the UI thread.
+     *
+     * @param context a Context
+     * @throws LocalStoreException if the documents or the annotations can't be cleared
+     */
+    public static void clear(Context context) throws LocalStoreException {
+        try {
+            PagedSyncRequest.awaitNoneRunning(SYNC_STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!context.getDatabasePath(SyncDatabaseHelper.DATABASE_NAME).exists()) {
+            return;
+        }
+
+        // clear the annotations even if the documents fail, and report the first error
+        LocalStoreException error = null;
+        try {
+            new DocumentStore(context).clear();
+        } catch (LocalStoreException e) {
+            error = e;
+        }
+        try {
+            new AnnotationStore(context).clear();
+        } catch (LocalStoreException e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
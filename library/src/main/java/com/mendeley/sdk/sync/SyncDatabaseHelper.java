@@ -0,0 +1,126 @@
+package com.mendeley.sdk.sync;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQLite database holding the local copy of the synchronised data and the watermark of each
+ * synchronised scope.
+ */
+class SyncDatabaseHelper extends SQLiteOpenHelper {
+
+    static final String DATABASE_NAME = "mendeley_sync.db";
+    private static final int DATABASE_VERSION = 2;
+
+    static final String TABLE_DOCUMENTS = "documents";
+    static final String TABLE_ANNOTATIONS = "annotations";
+    static final String TABLE_SYNC_STATE = "sync_state";
+
+    // scope of the synchronisation the row belongs to, see the getScope methods of the stores
+    static final String COLUMN_SCOPE = "scope";
+    static final String COLUMN_ID = "id";
+    static final String COLUMN_LAST_MODIFIED = "last_modified";
+    static final String COLUMN_DOCUMENT_ID = "document_id";
+    static final String COLUMN_FILE_HASH = "file_hash";
+    // the item as written by JsonParser, in UTF-8
+    static final String COLUMN_JSON = "json";
+    // server date of the last successful synchronisation of the scope, in ms
+    static final String COLUMN_WATERMARK = "watermark";
+
+    // helpers of the database files, shared by the stores so that they use the same connection
+    private static final Map<String, SyncDatabaseHelper> instances = new HashMap<String, SyncDatabaseHelper>();
+
+    private SyncDatabaseHelper(Context context, String name) {
+        super(context, name, null, DATABASE_VERSION);
+    }
+
+    /**
+     * @param name name of the database file, or null for a new in-memory database
+     * @return the helper of the database, shared by every store of the same file
+     */
+    static SyncDatabaseHelper getInstance(Context context, String name) {
+        if (name == null) {
+            return new SyncDatabaseHelper(context.getApplicationContext(), null);
+        }
+        synchronized (instances) {
+            SyncDatabaseHelper helper = instances.get(name);
+            if (helper == null) {
+                helper = new SyncDatabaseHelper(context.getApplicationContext(), name);
+                instances.put(name, helper);
+            }
+            return helper;
+        }
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_DOCUMENTS + " ("
+                + COLUMN_SCOPE + " TEXT NOT NULL, "
+                + COLUMN_ID + " TEXT NOT NULL, "
+                + COLUMN_LAST_MODIFIED + " INTEGER, "
+                + COLUMN_JSON + " BLOB NOT NULL, "
+                + "PRIMARY KEY (" + COLUMN_SCOPE + ", " + COLUMN_ID + "))");
+        db.execSQL("CREATE INDEX documents_last_modified ON " + TABLE_DOCUMENTS
+                + " (" + COLUMN_SCOPE + ", " + COLUMN_LAST_MODIFIED + ")");
+
+        db.execSQL("CREATE TABLE " + TABLE_SYNC_STATE + " ("
+                + COLUMN_SCOPE + " TEXT PRIMARY KEY, "
+                + COLUMN_WATERMARK + " INTEGER NOT NULL)");
+
+        createAnnotationsTable(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            createAnnotationsTable(db);
+        }
+    }
+
+    private static void createAnnotationsTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_ANNOTATIONS + " ("
+                + COLUMN_SCOPE + " TEXT NOT NULL, "
+                + COLUMN_ID + " TEXT NOT NULL, "
+                + COLUMN_DOCUMENT_ID + " TEXT, "
+                + COLUMN_FILE_HASH + " TEXT, "
+                + COLUMN_LAST_MODIFIED + " INTEGER, "
+                + COLUMN_JSON + " BLOB NOT NULL, "
+                + "PRIMARY KEY (" + COLUMN_SCOPE + ", " + COLUMN_ID + "))");
+        db.execSQL("CREATE INDEX annotations_document_id ON " + TABLE_ANNOTATIONS + " (" + COLUMN_DOCUMENT_ID + ")");
+        db.execSQL("CREATE INDEX annotations_file_hash ON " + TABLE_ANNOTATIONS + " (" + COLUMN_FILE_HASH + ")");
+    }
+
+    /**
+     * @return the watermark saved with the passed key, or null if there is none
+     */
+    static Date readWatermark(SQLiteDatabase db, String key) {
+        final Cursor cursor = db.query(TABLE_SYNC_STATE, new String[]{COLUMN_WATERMARK},
+                COLUMN_SCOPE + " = ?", new String[]{key}, null, null, null);
+        try {
+            return cursor.moveToFirst() ? new Date(cursor.getLong(0)) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    static void writeWatermark(SQLiteDatabase db, String key, Date watermark) {
+        final ContentValues values = new ContentValues();
+        values.put(COLUMN_SCOPE, key);
+        values.put(COLUMN_WATERMARK, watermark.getTime());
+        db.insertWithOnConflict(TABLE_SYNC_STATE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Removes the watermarks whose keys start with the passed prefix.
+     */
+    static void deleteWatermarks(SQLiteDatabase db, String keyPrefix) {
+        db.delete(TABLE_SYNC_STATE, COLUMN_SCOPE + " LIKE ?", new String[]{keyPrefix + "%"});
+    }
+}
@@ -6,19 +6,39 @@ import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
 
+/**
+ * Parses and formats the dates used by the Mendeley web API and by HTTP headers.
+ *
+ * <p/>
+ *
+ * The formats are fixed, so they are decoded by hand straight to milliseconds since the epoch
+ * instead of going through {@link SimpleDateFormat}, which is slow and can't be shared between
+ * threads without locking. Every method is thread-safe and lock-free.
+ */
 public class DateUtils {
-    // ISO 8601 format, used by the Mendeley web API for timestamps.
-    public final static SimpleDateFormat mendeleyApiDateFormat;
 
-    private final static SimpleDateFormat yearMonthDateDateFormat;
+    /**
+     * ISO 8601 format, used by the Mendeley web API for timestamps.
+     *
+     * @deprecated not thread-safe, use {@link #parseMendeleyApiTimestamp(String)} and
+     *          {@link #formatMendeleyApiTimestamp(Date)} instead.
+     */
+    @Deprecated
+    public final static SimpleDateFormat mendeleyApiDateFormat;
 
     static {
         mendeleyApiDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
         mendeleyApiDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
-
-        yearMonthDateDateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
     }
 
+    private static final long MS_PER_SECOND = 1000;
+    private static final long MS_PER_MINUTE = 60 * MS_PER_SECOND;
+    private static final long MS_PER_HOUR = 60 * MS_PER_MINUTE;
+    private static final long MS_PER_DAY = 24 * MS_PER_HOUR;
+
+    private static final String[] DAY_NAMES = {"Thu", "Fri", "Sat", "Sun", "Mon", "Tue", "Wed"}; // 1970-01-01 was a Thursday
+    private static final String[] MONTH_NAMES = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
     /**
      * Returns a {@link java.util.Date} given one String with a timestamp in the format used by the web API.
      *
@@ -27,24 +47,311 @@ public class DateUtils {
      * @throws java.text.ParseException
      */
     public static Date parseMendeleyApiTimestamp(String date) throws ParseException {
-        synchronized (mendeleyApiDateFormat) {
-            return mendeleyApiDateFormat.parse(date);
+        return new Date(parseMendeleyApiTimestampMs(date));
+    }
+
+    /**
+     * Parses an ISO 8601 timestamp like the ones of the web API, e.g. "2014-02-20T16:53:25.000Z".
+     * The fraction of second is optional and may have any number of digits, and the zone may
+     * be "Z" or an offset like "+01:00".
+     *
+     * @param date the timestamp
+     * @return milliseconds since the epoch
+     * @throws ParseException if the timestamp is not valid
+     */
+    public static long parseMendeleyApiTimestampMs(String date) throws ParseException {
+        final Cursor c = new Cursor(date);
+        final int year = c.digits(4);
+        c.expect('-');
+        final int month = c.digits(2);
+        c.expect('-');
+        final int day = c.digits(2);
+        c.expect('T');
+        final int hour = c.digits(2);
+        c.expect(':');
+        final int minute = c.digits(2);
+        c.expect(':');
+        final int second = c.digits(2);
+
+        int millis = 0;
+        if (c.peek() == '.') {
+            c.pos++;
+            final int start = c.pos;
+            int scale = 100;
+            while (c.pos < c.text.length() && isDigit(c.text.charAt(c.pos))) {
+                millis += (c.text.charAt(c.pos) - '0') * scale;
+                scale /= 10;
+                c.pos++;
+            }
+            if (c.pos == start) {
+                throw c.error();
+            }
         }
+
+        long offsetMs = 0;
+        final char zone = c.peek();
+        if (zone == 'Z') {
+            c.pos++;
+        } else if (zone == '+' || zone == '-') {
+            c.pos++;
+            final int offsetHours = c.digits(2);
+            c.expect(':');
+            final int offsetMinutes = c.digits(2);
+            offsetMs = offsetHours * MS_PER_HOUR + offsetMinutes * MS_PER_MINUTE;
+            if (zone == '-') {
+                offsetMs = -offsetMs;
+            }
+        } else {
+            throw c.error();
+        }
+        c.expectEnd();
+
+        checkFields(c, month, day, hour, minute, second);
+        return toEpochMs(year, month, day, hour, minute, second, millis) - offsetMs;
     }
 
     public static String formatMendeleyApiTimestamp(Date date) {
-        synchronized (mendeleyApiDateFormat) {
-            return mendeleyApiDateFormat.format(date);
-        }
+        final long ms = date.getTime();
+        final long days = floorDiv(ms, MS_PER_DAY);
+        final int msOfDay = (int) (ms - days * MS_PER_DAY);
+        final int[] ymd = civilFromDays(days);
+
+        final StringBuilder sb = new StringBuilder(24);
+        appendYearMonthDay(sb, ymd);
+        sb.append('T');
+        appendPadded(sb, msOfDay / (int) MS_PER_HOUR, 2);
+        sb.append(':');
+        appendPadded(sb, msOfDay / (int) MS_PER_MINUTE % 60, 2);
+        sb.append(':');
+        appendPadded(sb, msOfDay / (int) MS_PER_SECOND % 60, 2);
+        sb.append('.');
+        appendPadded(sb, msOfDay % (int) MS_PER_SECOND, 3);
+        sb.append('Z');
+        return sb.toString();
     }
 
+    /**
+     * Parses a date like "2014-02-20" as the midnight of that day in the default time zone.
+     */
     public static Date parseYearMonthDayDate(String date) throws ParseException {
-        return yearMonthDateDateFormat.parse(date);
+        final Cursor c = new Cursor(date);
+        final int year = c.digits(4);
+        c.expect('-');
+        final int month = c.digits(2);
+        c.expect('-');
+        final int day = c.digits(2);
+        c.expectEnd();
+
+        checkFields(c, month, day, 0, 0, 0);
+        final long utcMs = toEpochMs(year, month, day, 0, 0, 0, 0);
+        final TimeZone timeZone = TimeZone.getDefault();
+        return new Date(utcMs - timeZone.getOffset(utcMs - timeZone.getRawOffset()));
     }
 
+    /**
+     * Formats the day of the passed date in the default time zone, like "2014-02-20".
+     */
     public static String formatYearMonthDayDate(Date date) {
-        synchronized (yearMonthDateDateFormat) {
-            return yearMonthDateDateFormat.format(date);
+        final long ms = date.getTime();
+        final long localMs = ms + TimeZone.getDefault().getOffset(ms);
+
+        final StringBuilder sb = new StringBuilder(10);
+        appendYearMonthDay(sb, civilFromDays(floorDiv(localMs, MS_PER_DAY)));
+        return sb.toString();
+    }
+
+    /**
+     * Parses a date in the format of the HTTP headers (RFC 7231 IMF-fixdate), like
+     * "Sun, 06 Nov 1994 08:49:37 GMT".
+     *
+     * @param date the date
+     * @return milliseconds since the epoch
+     * @throws ParseException if the date is not valid
+     */
+    public static long parseHttpDate(String date) throws ParseException {
+        final Cursor c = new Cursor(date);
+        c.pos += 3; // day name, redundant
+        c.expect(',');
+        c.expect(' ');
+        final int day = c.digits(2);
+        c.expect(' ');
+        final int month = c.monthName();
+        c.expect(' ');
+        final int year = c.digits(4);
+        c.expect(' ');
+        final int hour = c.digits(2);
+        c.expect(':');
+        final int minute = c.digits(2);
+        c.expect(':');
+        final int second = c.digits(2);
+        c.expect(' ');
+        c.expect('G');
+        c.expect('M');
+        c.expect('T');
+        c.expectEnd();
+
+        checkFields(c, month, day, hour, minute, second);
+        return toEpochMs(year, month, day, hour, minute, second, 0);
+    }
+
+    /**
+     * Formats a date in the format of the HTTP headers (RFC 7231 IMF-fixdate), like
+     * "Sun, 06 Nov 1994 08:49:37 GMT".
+     *
+     * @param ms milliseconds since the epoch
+     * @return the formatted date
+     */
+    public static String formatHttpDate(long ms) {
+        final long days = floorDiv(ms, MS_PER_DAY);
+        final int msOfDay = (int) (ms - days * MS_PER_DAY);
+        final int[] ymd = civilFromDays(days);
+
+        final StringBuilder sb = new StringBuilder(29);
+        sb.append(DAY_NAMES[(int) (days - floorDiv(days, 7) * 7)]).append(", ");
+        appendPadded(sb, ymd[2], 2);
+        sb.append(' ').append(MONTH_NAMES[ymd[1] - 1]).append(' ');
+        appendPadded(sb, ymd[0], 4);
+        sb.append(' ');
+        appendPadded(sb, msOfDay / (int) MS_PER_HOUR, 2);
+        sb.append(':');
+        appendPadded(sb, msOfDay / (int) MS_PER_MINUTE % 60, 2);
+        sb.append(':');
+        appendPadded(sb, msOfDay / (int) MS_PER_SECOND % 60, 2);
+        sb.append(" GMT");
+        return sb.toString();
+    }
+
+    private static void checkFields(Cursor c, int month, int day, int hour, int minute, int second) throws ParseException {
+        // 60 seconds are allowed for leap seconds, like SimpleDateFormat does
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 60) {
+            throw new ParseException("Invalid date: " + c.text, 0);
+        }
+    }
+
+    private static long toEpochMs(int year, int month, int day, int hour, int minute, int second, int millis) {
+        return daysFromCivil(year, month, day) * MS_PER_DAY
+                + hour * MS_PER_HOUR
+                + minute * MS_PER_MINUTE
+                + second * MS_PER_SECOND
+                + millis;
+    }
+
+    // days since 1970-01-01 of a date of the proleptic Gregorian calendar
+    private static long daysFromCivil(int year, int month, int day) {
+        final long y = month <= 2 ? year - 1 : year;
+        final long era = floorDiv(y, 400);
+        final long yearOfEra = y - era * 400;
+        final long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // year, month and day of the days since 1970-01-01
+    private static int[] civilFromDays(long days) {
+        days += 719468;
+        final long era = floorDiv(days, 146097);
+        final long dayOfEra = days - era * 146097;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final long mp = (5 * dayOfYear + 2) / 153;
+        final int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        final int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        final int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        return new int[]{year, month, day};
+    }
+
+    private static long floorDiv(long x, long y) {
+        final long q = x / y;
+        return (x % y != 0 && ((x < 0) != (y < 0))) ? q - 1 : q;
+    }
+
+    private static void appendYearMonthDay(StringBuilder sb, int[] ymd) {
+        appendPadded(sb, ymd[0], 4);
+        sb.append('-');
+        appendPadded(sb, ymd[1], 2);
+        sb.append('-');
+        appendPadded(sb, ymd[2], 2);
+    }
+
+    private static void appendPadded(StringBuilder sb, int value, int width) {
+        if (value < 0) {
+            sb.append('-');
+            value = -value;
+        }
+        for (int limit = 10; width > 1; width--, limit *= 10) {
+            if (value < limit) {
+                sb.append('0');
+            }
+        }
+        sb.append(value);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Position in the text being parsed
+     */
+    private static class Cursor {
+        final String text;
+        int pos;
+
+        Cursor(String text) throws ParseException {
+            if (text == null) {
+                throw new ParseException("Null date", 0);
+            }
+            this.text = text;
+        }
+
+        char peek() {
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        int digits(int count) throws ParseException {
+            if (pos + count > text.length()) {
+                throw error();
+            }
+            int value = 0;
+            for (int i = 0; i < count; i++) {
+                final char c = text.charAt(pos);
+                if (!isDigit(c)) {
+                    throw error();
+                }
+                value = value * 10 + (c - '0');
+                pos++;
+            }
+            return value;
+        }
+
+        int monthName() throws ParseException {
+            if (pos + 3 <= text.length()) {
+                for (int i = 0; i < MONTH_NAMES.length; i++) {
+                    if (text.regionMatches(pos, MONTH_NAMES[i], 0, 3)) {
+                        pos += 3;
+                        return i + 1;
+                    }
+                }
+            }
+            throw error();
+        }
+
+        void expect(char c) throws ParseException {
+            if (peek() != c) {
+                throw error();
+            }
+            pos++;
+        }
+
+        void expectEnd() throws ParseException {
+            if (pos != text.length()) {
+                throw error();
+            }
+        }
+
+        ParseException error() {
+            final int offset = Math.min(pos, text.length());
+            return new ParseException("Unparseable date: \"" + text + "\"", offset);
         }
     }
 }
@@ -0,0 +1,64 @@
+package com.mendeley.sdk.util;
+
+import java.nio.charset.Charset;
+
+/**
+ * Text kept as UTF-8 bytes and decoded into a String the first time it is read. Used for long
+ * properties, like the abstract of a document, that are parsed for every item of a list but rarely
+ * read: UTF-8 takes half the memory of the chars of a String for mostly ASCII text, and the decoding
+ * is skipped entirely for the items that are never displayed.
+ *
+ * <p/>
+ *
+ * Once decoded, the bytes are released and the String is kept.
+ */
+public final class LazyUtf8String {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private byte[] bytes;
+    private volatile String value;
+
+    /**
+     * @param bytes the text encoded as UTF-8, not copied
+     */
+    public LazyUtf8String(byte[] bytes) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("The bytes can't be null");
+        }
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return whether the text has already been decoded
+     */
+    public boolean isDecoded() {
+        return value != null;
+    }
+
+    /**
+     * @return the text, decoded on the first call
+     */
+    @Override
+    public String toString() {
+        String result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = new String(bytes, UTF_8);
+                    value = result;
+                    bytes = null;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the decoded text of the passed lazy string if it's not null, the eager one otherwise
+     */
+    public static String valueOf(String eager, LazyUtf8String lazy) {
+        return lazy != null ? lazy.toString() : eager;
+    }
+}